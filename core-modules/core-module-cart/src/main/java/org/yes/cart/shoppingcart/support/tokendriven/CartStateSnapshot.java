@@ -0,0 +1,105 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.support.tokendriven;
+
+import org.yes.cart.shoppingcart.ShoppingCart;
+
+/**
+ * Immutable serialized state of the cart taken at the moment it was stored, so that it
+ * can be persisted later without touching the live cart object.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 18:20
+ */
+public class CartStateSnapshot {
+
+    private final String guid;
+    private final String customerEmail;
+    private final String ordernum;
+    private final boolean empty;
+    private final String shopCode;
+    private final long shopId;
+    private final byte[] state;
+
+    public CartStateSnapshot(final ShoppingCart shoppingCart, final byte[] state) {
+        this.guid = shoppingCart.getGuid();
+        this.customerEmail = shoppingCart.getLogonState() == ShoppingCart.LOGGED_IN ? shoppingCart.getCustomerEmail() : null;
+        this.ordernum = shoppingCart.getOrdernum();
+        this.empty = shoppingCart.getCartItemsCount() == 0;
+        this.shopCode = shoppingCart.getShoppingContext().getShopCode();
+        this.shopId = shoppingCart.getShoppingContext().getShopId();
+        this.state = state;
+    }
+
+    /**
+     * @return cart GUID
+     */
+    public String getGuid() {
+        return guid;
+    }
+
+    /**
+     * @return customer email if cart was logged in, null otherwise
+     */
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    /**
+     * @return order number
+     */
+    public String getOrdernum() {
+        return ordernum;
+    }
+
+    /**
+     * @return true if cart had no items
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return shop code
+     */
+    public String getShopCode() {
+        return shopCode;
+    }
+
+    /**
+     * @return shop ID
+     */
+    public long getShopId() {
+        return shopId;
+    }
+
+    /**
+     * @return serialized cart
+     */
+    public byte[] getState() {
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return "CartStateSnapshot{" +
+                "guid='" + guid + '\'' +
+                ", shopCode='" + shopCode + '\'' +
+                '}';
+    }
+}
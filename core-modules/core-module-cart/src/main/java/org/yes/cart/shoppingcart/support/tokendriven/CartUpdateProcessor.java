@@ -18,6 +18,8 @@ package org.yes.cart.shoppingcart.support.tokendriven;
 
 import org.yes.cart.shoppingcart.ShoppingCart;
 
+import java.util.Collection;
+
 /**
  * User: denispavlov
  * Date: 22/08/2014
@@ -37,6 +39,26 @@ public interface CartUpdateProcessor {
      */
     void updateShoppingCart(ShoppingCart shoppingCart);
 
+    /**
+     * Perform login merge part of {@link #updateShoppingCart(ShoppingCart)} without saving the state
+     * of given cart. If cart is LOGGED_IN but ShoppingCartState with corresponding GUID has no
+     * CustomerEmail all other carts of this customer are merged into given cart and their states
+     * are removed.
+     *
+     * @param shoppingCart cart to merge (if required)
+     */
+    void updateShoppingCartOnLogin(ShoppingCart shoppingCart);
+
+    /**
+     * Persist given cart states in single transaction. State rows are looked up in one query
+     * and changes are flushed together, so that these can be sent in JDBC batches. No merge is
+     * performed, so {@link #updateShoppingCartOnLogin(ShoppingCart)} must be called before snapshots of
+     * logged in carts are taken.
+     *
+     * @param snapshots cart states to persist (one per GUID)
+     */
+    void updateShoppingCartStates(Collection<CartStateSnapshot> snapshots);
+
     /**
      * Invalidate given cart by removing all customer auth related information
      *
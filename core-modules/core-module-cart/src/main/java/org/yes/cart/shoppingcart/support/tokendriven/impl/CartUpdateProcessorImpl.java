@@ -23,6 +23,7 @@ import org.yes.cart.domain.entity.ShoppingCartState;
 import org.yes.cart.service.domain.AddressService;
 import org.yes.cart.service.domain.ShoppingCartStateService;
 import org.yes.cart.shoppingcart.*;
+import org.yes.cart.shoppingcart.support.tokendriven.CartStateSnapshot;
 import org.yes.cart.shoppingcart.support.tokendriven.CartUpdateProcessor;
 import org.yes.cart.shoppingcart.support.tokendriven.ShoppingCartStateSerializer;
 
@@ -62,6 +63,96 @@ public class CartUpdateProcessorImpl implements CartUpdateProcessor {
             dbState.setOrdernum(shoppingCart.getOrdernum());
         }
 
+        // 2. If this is for logged in cart now but was anonymous we have just logged in
+        mergeShoppingCart(shoppingCart, dbState);
+
+        // 5. Store new state
+        dbState.setEmpty(shoppingCart.getCartItemsCount() == 0);
+        dbState.setState(saveState(shoppingCart));
+
+        // 6. Persist
+        if (dbState.getShoppingCartStateId() > 0L) {
+            shoppingCartStateService.update(dbState);
+        } else {
+            shoppingCartStateService.create(dbState);
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateShoppingCartOnLogin(final ShoppingCart shoppingCart) {
+
+        if (shoppingCart.getLogonState() == ShoppingCart.LOGGED_IN) {
+
+            final ShoppingCartState dbState = shoppingCartStateService.findByGuid(shoppingCart.getGuid());
+            if (dbState == null || StringUtils.isBlank(dbState.getCustomerEmail())) {
+                mergeShoppingCart(shoppingCart,
+                        dbState != null ? dbState : shoppingCartStateService.getGenericDao().getEntityFactory().getByIface(ShoppingCartState.class));
+            }
+
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateShoppingCartStates(final Collection<CartStateSnapshot> snapshots) {
+
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        // 1. Find all carts by guid in db in one go
+        final List<String> guids = new ArrayList<>(snapshots.size());
+        for (final CartStateSnapshot snapshot : snapshots) {
+            guids.add(snapshot.getGuid());
+        }
+        final Map<String, ShoppingCartState> dbStates = new HashMap<>(snapshots.size() * 2);
+        for (final ShoppingCartState dbState : shoppingCartStateService.findByGuids(guids)) {
+            dbStates.put(dbState.getGuid(), dbState);
+        }
+
+        // 2. Only these writes are batched, rest of the application uses default settings
+        shoppingCartStateService.getGenericDao().setJdbcBatchSize(snapshots.size());
+        try {
+
+            for (final CartStateSnapshot snapshot : snapshots) {
+
+                ShoppingCartState dbState = dbStates.get(snapshot.getGuid());
+                if (dbState == null) {
+                    dbState = shoppingCartStateService.getGenericDao().getEntityFactory().getByIface(ShoppingCartState.class);
+                    dbState.setGuid(snapshot.getGuid());
+                    dbState.setOrdernum(snapshot.getOrdernum());
+                }
+
+                // 3. Logged in carts are merged before snapshot is taken, so just record the customer
+                if (snapshot.getCustomerEmail() != null && StringUtils.isBlank(dbState.getCustomerEmail())) {
+                    dbState.setCustomerEmail(snapshot.getCustomerEmail());
+                }
+
+                dbState.setEmpty(snapshot.isEmpty());
+                dbState.setState(snapshot.getState());
+
+                if (dbState.getShoppingCartStateId() > 0L) {
+                    shoppingCartStateService.update(dbState);
+                } else {
+                    shoppingCartStateService.create(dbState);
+                }
+
+            }
+
+            // 4. Flush all changes together so that updates are batched
+            shoppingCartStateService.getGenericDao().flush();
+
+        } finally {
+            shoppingCartStateService.getGenericDao().setJdbcBatchSize(null);
+        }
+
+    }
+
+    private void mergeShoppingCart(final ShoppingCart shoppingCart, final ShoppingCartState dbState) {
+
         // 2. If this is for logged in cart now but was anonymous we have just logged in
         if (shoppingCart.getLogonState() == ShoppingCart.LOGGED_IN && StringUtils.isBlank(dbState.getCustomerEmail())) {
 
@@ -73,7 +164,7 @@ public class CartUpdateProcessorImpl implements CartUpdateProcessor {
             final Map<String, Object> cmdParams = new HashMap<>();
             for (final ShoppingCartState oldCartState : oldCartStates) {
                 // 4.1. Skip same cart
-                if (dbState.getGuid().equals(oldCartState.getGuid())) {
+                if (shoppingCart.getGuid().equals(oldCartState.getGuid())) {
                     continue;
                 }
                 final ShoppingCart oldCart = restoreStateInternal(oldCartState.getState());
@@ -94,17 +185,6 @@ public class CartUpdateProcessorImpl implements CartUpdateProcessor {
             }
         }
 
-        // 5. Store new state
-        dbState.setEmpty(shoppingCart.getCartItemsCount() == 0);
-        dbState.setState(saveState(shoppingCart));
-
-        // 6. Persist
-        if (dbState.getShoppingCartStateId() > 0L) {
-            shoppingCartStateService.update(dbState);
-        } else {
-            shoppingCartStateService.create(dbState);
-        }
-
     }
 
     private void mergeOrderInfo(final ShoppingCart shoppingCart, final ShoppingCart oldCart, final Map<String, Object> cmdParams) {
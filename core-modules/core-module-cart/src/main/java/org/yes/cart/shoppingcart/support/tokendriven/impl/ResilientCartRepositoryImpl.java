@@ -18,9 +18,14 @@ package org.yes.cart.shoppingcart.support.tokendriven.impl;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
 import org.yes.cart.constants.AttributeNamesKeys;
 import org.yes.cart.domain.entity.Shop;
 import org.yes.cart.domain.entity.ShoppingCartState;
@@ -29,15 +34,35 @@ import org.yes.cart.service.domain.ShoppingCartStateService;
 import org.yes.cart.shoppingcart.MutableShoppingCart;
 import org.yes.cart.shoppingcart.ShoppingCart;
 import org.yes.cart.shoppingcart.support.tokendriven.CartRepository;
+import org.yes.cart.shoppingcart.support.tokendriven.CartStateSnapshot;
 import org.yes.cart.shoppingcart.support.tokendriven.CartUpdateProcessor;
 import org.yes.cart.util.ShopCodeContext;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
 /**
+ * Cart repository backed by cache and {@link ShoppingCartState} table.
+ *
+ * When {@link TaskScheduler} is configured modified carts are not written one by one, instead
+ * serialized snapshot of the latest cart state per GUID is kept in write behind buffer, which is flushed
+ * every {@code flushIntervalMs} in batches of {@code flushBatchSize} (see
+ * {@link CartUpdateProcessor#updateShoppingCartStates(java.util.Collection)}). So a burst of modifications
+ * to the same cart results in a single DB update. Buffer is flushed on shutdown.
+ *
+ * Flush thread never touches live cart objects. Login merge modifies the cart, therefore it is performed
+ * on the request thread when logged in cart is stored for the first time.
+ *
  * User: denispavlov
  * Date: 21/08/2014
  * Time: 20:11
  */
-public class ResilientCartRepositoryImpl implements CartRepository {
+public class ResilientCartRepositoryImpl implements CartRepository, InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResilientCartRepositoryImpl.class);
+
+    private static final int MAX_LOGINS_MERGED = 10000;
 
     private final Cache CART_CACHE;
 
@@ -47,6 +72,22 @@ public class ResilientCartRepositoryImpl implements CartRepository {
     private final CartUpdateProcessor cartUpdateProcessor;
     private final TaskExecutor taskExecutor;
 
+    private final Map<String, CartStateSnapshot> writeBehind = new ConcurrentHashMap<>();
+    private final Map<String, String> loginsMerged = Collections.synchronizedMap(new LinkedHashMap<String, String>(1000, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > MAX_LOGINS_MERGED;
+        }
+    });
+    private final Object flushLock = new Object();
+    private final Set<String> inFlight = new HashSet<>();
+    private final Set<String> evictedInFlight = new HashSet<>();
+    private final Object writeLock = new Object();
+    private TaskScheduler taskScheduler;
+    private volatile ScheduledFuture<?> flushTask;
+    private long flushIntervalMs = 1000L;
+    private int flushBatchSize = 50;
+
     public ResilientCartRepositoryImpl(final ShoppingCartStateService shoppingCartStateService,
                                        final ShopService shopService,
                                        final CartUpdateProcessor cartUpdateProcessor,
@@ -110,6 +151,16 @@ public class ResilientCartRepositoryImpl implements CartRepository {
             }
         }
 
+        // Try pending writes (cache entry could have been evicted before flush)
+        final CartStateSnapshot pending = writeBehind.get(token);
+        if (pending != null) {
+            final ShoppingCart pendingCart = cartUpdateProcessor.restoreState(pending.getState());
+            if (pendingCart != null) {
+                CART_CACHE.put(token, pendingCart);
+                return pendingCart;
+            }
+        }
+
         // Try DB
         final ShoppingCartState state = shoppingCartStateService.findByGuid(token);
         if (state != null) {
@@ -214,7 +265,23 @@ public class ResilientCartRepositoryImpl implements CartRepository {
 
     void storeAsynchronously(final ShoppingCart shoppingCart) {
 
-        if (taskExecutor == null) {
+        if (flushTask != null) {
+
+            final String guid = shoppingCart.getGuid();
+            if (shoppingCart.getLogonState() == ShoppingCart.LOGGED_IN
+                    && !shoppingCart.getCustomerEmail().equals(loginsMerged.get(guid))) {
+                // Merge modifies the cart, so it must happen now on the thread that owns the cart
+                cartUpdateProcessor.updateShoppingCartOnLogin(shoppingCart);
+                loginsMerged.put(guid, shoppingCart.getCustomerEmail());
+            }
+
+            // latest state wins, it will be picked up by next flush
+            writeBehind.put(guid, new CartStateSnapshot(shoppingCart, cartUpdateProcessor.saveState(shoppingCart)));
+            if (flushTask == null) {
+                flush(); // shutdown in progress
+            }
+
+        } else if (taskExecutor == null) {
             createRunnable(shoppingCart, null, null).run();
         } else {
             taskExecutor.execute(createRunnable(shoppingCart,
@@ -247,16 +314,165 @@ public class ResilientCartRepositoryImpl implements CartRepository {
         };
     }
 
+    /**
+     * Write all pending carts to DB.
+     */
+    void flush() {
+
+        synchronized (writeLock) { // one flush at a time, so that older snapshot never overwrites newer one
+
+            final Map<String, List<CartStateSnapshot>> byShop = new HashMap<>();
+            synchronized (flushLock) {
+                final Iterator<String> guids = writeBehind.keySet().iterator();
+                while (guids.hasNext()) {
+                    // remove one by one, so that cart modified during flush is written again next time
+                    final CartStateSnapshot snapshot = writeBehind.remove(guids.next());
+                    if (snapshot != null) {
+                        byShop.computeIfAbsent(snapshot.getShopCode(), code -> new ArrayList<>()).add(snapshot);
+                        inFlight.add(snapshot.getGuid());
+                    }
+                }
+            }
+
+            for (final List<CartStateSnapshot> shopSnapshots : byShop.values()) {
+
+                final CartStateSnapshot first = shopSnapshots.get(0);
+                ShopCodeContext.setShopCode(first.getShopCode());
+                ShopCodeContext.setShopId(first.getShopId());
+
+                try {
+                    for (int i = 0; i < shopSnapshots.size(); i += flushBatchSize) {
+                        flushBatch(shopSnapshots.subList(i, Math.min(i + flushBatchSize, shopSnapshots.size())));
+                    }
+                } finally {
+                    ShopCodeContext.clear();
+                }
+
+            }
+
+        }
+
+    }
+
+    private void flushBatch(final List<CartStateSnapshot> batch) {
+
+        try {
+
+            cartUpdateProcessor.updateShoppingCartStates(batch);
+
+        } catch (Exception exp) {
+
+            LOG.warn("Unable to save batch of {} carts, retrying one by one, cause: {}", batch.size(), exp.getMessage());
+
+            // single failed cart (e.g. concurrent update from other node) should not affect the rest
+            for (final CartStateSnapshot snapshot : batch) {
+                try {
+                    cartUpdateProcessor.updateShoppingCartStates(Collections.singletonList(snapshot));
+                } catch (Exception cartExp) {
+                    LOG.error("Unable to save cart " + snapshot.getGuid() + ", cause: " + cartExp.getMessage(), cartExp);
+                }
+            }
+
+        }
+
+        final List<String> evicted = new ArrayList<>();
+        synchronized (flushLock) {
+            for (final CartStateSnapshot snapshot : batch) {
+                inFlight.remove(snapshot.getGuid());
+                if (evictedInFlight.remove(snapshot.getGuid())) {
+                    evicted.add(snapshot.getGuid());
+                }
+            }
+        }
+        // cart was evicted while we were writing it, so remove state again
+        for (final String guid : evicted) {
+            removeState(guid);
+        }
+
+    }
+
     /** {@inheritDoc} */
     @Override
     public void evictShoppingCart(final ShoppingCart shoppingCart) {
 
-        CART_CACHE.evict(shoppingCart.getGuid());
-        final ShoppingCartState state = shoppingCartStateService.findByGuid(shoppingCart.getGuid());
+        final String guid = shoppingCart.getGuid();
+        CART_CACHE.evict(guid);
+        loginsMerged.remove(guid);
+        synchronized (flushLock) {
+            writeBehind.remove(guid);
+            if (inFlight.contains(guid)) {
+                // flush that has already taken this cart will remove it once written
+                evictedInFlight.add(guid);
+            }
+        }
+        removeState(guid);
+
+    }
+
+    private void removeState(final String guid) {
+
+        final ShoppingCartState state = shoppingCartStateService.findByGuid(guid);
         if (state != null) {
             shoppingCartStateService.delete(state);
         }
 
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void afterPropertiesSet() throws Exception {
+
+        if (taskScheduler != null && flushIntervalMs > 0L) {
+            flushTask = taskScheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (Exception exp) {
+                    LOG.error("Unable to flush carts, cause: " + exp.getMessage(), exp);
+                }
+            }, flushIntervalMs);
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void destroy() throws Exception {
+
+        final ScheduledFuture<?> task = flushTask;
+        if (task != null) {
+            // new modifications are written straight away from now on
+            flushTask = null;
+            task.cancel(false);
+            flush();
+        }
+
+    }
+
+    /**
+     * Spring IoC. Enables write behind buffer.
+     *
+     * @param taskScheduler scheduler for periodic flush
+     */
+    public void setTaskScheduler(final TaskScheduler taskScheduler) {
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param flushIntervalMs write behind flush interval (0 to disable write behind)
+     */
+    public void setFlushIntervalMs(final long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param flushBatchSize max number of carts saved in single transaction
+     */
+    public void setFlushBatchSize(final int flushBatchSize) {
+        this.flushBatchSize = flushBatchSize;
+    }
+
 }
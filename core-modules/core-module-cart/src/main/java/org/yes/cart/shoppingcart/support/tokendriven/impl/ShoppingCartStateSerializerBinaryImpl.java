@@ -0,0 +1,189 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.support.tokendriven.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yes.cart.shoppingcart.ShoppingCart;
+import org.yes.cart.shoppingcart.impl.ShoppingCartBinaryFormat;
+import org.yes.cart.shoppingcart.support.tokendriven.ShoppingCartStateSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary serializer (see {@link ShoppingCartBinaryFormat}).
+ *
+ * Each state starts with a header: two magic bytes "YC", format version and flags byte, which tells
+ * if the rest of data is deflated. Compression is applied only to states larger than configured
+ * threshold, as small carts do not benefit from it.
+ *
+ * States that do not start with magic bytes (i.e. states saved before this serializer was enabled)
+ * are delegated to fallback serializer, so that existing carts are not lost after switching the format.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:40
+ */
+public class ShoppingCartStateSerializerBinaryImpl implements ShoppingCartStateSerializer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShoppingCartStateSerializerBinaryImpl.class);
+
+    private static final byte MAGIC_0 = 'Y';
+    private static final byte MAGIC_1 = 'C';
+    private static final int HEADER_SIZE = 4;
+
+    private static final int FLAG_DEFLATED = 1;
+
+    private final ShoppingCartStateSerializer fallback;
+
+    private int compressThreshold = 2048;
+
+    public ShoppingCartStateSerializerBinaryImpl() {
+        this(null);
+    }
+
+    /**
+     * @param fallback serializer for states in legacy format (can be null)
+     */
+    public ShoppingCartStateSerializerBinaryImpl(final ShoppingCartStateSerializer fallback) {
+        this.fallback = fallback;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ShoppingCart restoreState(final byte[] bytes) {
+
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (bytes.length < HEADER_SIZE || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+            if (fallback != null) {
+                return fallback.restoreState(bytes);
+            }
+            LOG.error("Unable to restore cart: unknown format and no fallback serializer configured");
+            return null;
+        }
+
+        final int version = bytes[2] & 0xFF;
+        final int flags = bytes[3] & 0xFF;
+
+        try {
+
+            if ((flags & FLAG_DEFLATED) != 0) {
+                final byte[] data = inflate(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+                return ShoppingCartBinaryFormat.read(data, 0, data.length, version);
+            }
+            return ShoppingCartBinaryFormat.read(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, version);
+
+        } catch (Exception exception) {
+            LOG.error("Unable to convert bytes assembled from tuple into object: " + exception.getMessage(), exception);
+            return null;
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public byte[] saveState(final ShoppingCart shoppingCart) {
+
+        try {
+
+            final byte[] data = ShoppingCartBinaryFormat.write(shoppingCart);
+
+            if (compressThreshold > 0 && data.length >= compressThreshold) {
+                final byte[] deflated = deflate(data);
+                if (deflated.length < data.length) {
+                    return withHeader(deflated, FLAG_DEFLATED);
+                }
+            }
+            return withHeader(data, 0);
+
+        } catch (Exception exception) {
+            LOG.error(
+                    "Unable to serialize object: " + shoppingCart,
+                    exception
+            );
+        }
+
+        return null;
+
+    }
+
+    private byte[] withHeader(final byte[] data, final int flags) {
+
+        final byte[] state = new byte[HEADER_SIZE + data.length];
+        state[0] = MAGIC_0;
+        state[1] = MAGIC_1;
+        state[2] = (byte) ShoppingCartBinaryFormat.VERSION;
+        state[3] = (byte) flags;
+        System.arraycopy(data, 0, state, HEADER_SIZE, data.length);
+        return state;
+
+    }
+
+    private byte[] deflate(final byte[] data) {
+
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            final byte[] buf = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+
+    }
+
+    private byte[] inflate(final byte[] data, final int offset, final int length) throws DataFormatException {
+
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+            final byte[] buf = new byte[4096];
+            while (!inflater.finished()) {
+                final int read = inflater.inflate(buf);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed cart data");
+                }
+                out.write(buf, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+
+    }
+
+    /**
+     * Spring IoC. Minimum size of state in bytes to apply compression, zero or negative disables compression.
+     *
+     * @param compressThreshold threshold
+     */
+    public void setCompressThreshold(final int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+}
@@ -16,13 +16,19 @@
 
 package org.yes.cart.shoppingcart.support.tokendriven.impl;
 
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
+import org.jmock.api.Invocation;
 import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
 import org.junit.Test;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
 import org.yes.cart.constants.AttributeNamesKeys;
 import org.yes.cart.domain.entity.Shop;
 import org.yes.cart.domain.entity.ShoppingCartState;
@@ -32,11 +38,14 @@ import org.yes.cart.shoppingcart.MutableShoppingCart;
 import org.yes.cart.shoppingcart.ShoppingCart;
 import org.yes.cart.shoppingcart.ShoppingContext;
 import org.yes.cart.shoppingcart.impl.ShoppingCartImpl;
+import org.yes.cart.shoppingcart.support.tokendriven.CartStateSnapshot;
 import org.yes.cart.shoppingcart.support.tokendriven.CartUpdateProcessor;
 
 import java.io.*;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ScheduledFuture;
 
 import static org.junit.Assert.*;
 
@@ -964,4 +973,233 @@ public class ResilientCartRepositoryImplTest {
 
     }
 
+    @Test
+    public void testStoreShoppingCartWriteBehindCoalesce() throws Exception {
+
+        final ShoppingCartStateService shoppingCartStateService = context.mock(ShoppingCartStateService.class, "shoppingCartStateService");
+        final ShopService shopService = context.mock(ShopService.class, "shopService");
+        final CartUpdateProcessor cartUpdateProcessor = context.mock(CartUpdateProcessor.class, "cartUpdateProcessor");
+        final TaskExecutor taskExecutor = context.mock(TaskExecutor.class, "taskExecutor");
+        final TaskScheduler taskScheduler = context.mock(TaskScheduler.class, "taskScheduler");
+        final ScheduledFuture flushTask = context.mock(ScheduledFuture.class, "flushTask");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final Cache cartCache = context.mock(Cache.class, "cartCache");
+
+        final MutableShoppingCart cart1 = new ShoppingCartImpl();
+        cart1.getShoppingContext().setCustomerEmail("bob@doe.com");
+        final MutableShoppingCart cart2 = new ShoppingCartImpl();
+        cart2.getShoppingContext().setCustomerEmail("jane@doe.com");
+        final ShoppingCart cart2restored = new ShoppingCartImpl();
+
+        final byte[] state1a = new byte[] { 1 };
+        final byte[] state1b = new byte[] { 2 };
+        final byte[] state2 = new byte[] { 3 };
+
+        context.checking(new Expectations() {{
+            oneOf(cacheManager).getCache("web.shoppingCart"); will(returnValue(cartCache));
+            oneOf(taskScheduler).scheduleWithFixedDelay(with(any(Runnable.class)), with(equal(1000L))); will(returnValue(flushTask));
+            exactly(2).of(cartCache).put(cart1.getGuid(), cart1);
+            oneOf(cartCache).put(cart2.getGuid(), cart2);
+            exactly(2).of(cartUpdateProcessor).saveState(cart1); will(onConsecutiveCalls(returnValue(state1a), returnValue(state1b)));
+            oneOf(cartUpdateProcessor).saveState(cart2); will(returnValue(state2));
+            oneOf(cartCache).get(cart2.getGuid()); will(returnValue(null));
+            oneOf(cartUpdateProcessor).restoreState(state2); will(returnValue(cart2restored));
+            oneOf(cartCache).put(cart2.getGuid(), cart2restored);
+            oneOf(cartUpdateProcessor).updateShoppingCartStates(with(aBatchOf(cart1.getGuid(), state1b)));
+            oneOf(cartUpdateProcessor).updateShoppingCartStates(with(aBatchOf(cart2.getGuid(), state2)));
+            oneOf(flushTask).cancel(false);
+        }});
+
+        final ResilientCartRepositoryImpl repo = new ResilientCartRepositoryImpl(shoppingCartStateService, shopService, cartUpdateProcessor, 60, cacheManager, taskExecutor);
+        repo.setTaskScheduler(taskScheduler);
+        repo.afterPropertiesSet();
+
+        cart1.markDirty();
+        repo.storeShoppingCart(cart1);
+        repo.storeShoppingCart(cart1);
+
+        // two writes of the same cart result in single update with latest snapshot
+        repo.flush();
+        repo.flush();
+
+        cart2.markDirty();
+        repo.storeShoppingCart(cart2);
+
+        // pending cart is restored from snapshot if it is not in cache
+        assertSame(cart2restored, repo.getShoppingCart(cart2.getGuid()));
+
+        // pending carts are written on shutdown
+        repo.destroy();
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testStoreShoppingCartWriteBehindLoginMerge() throws Exception {
+
+        final ShoppingCartStateService shoppingCartStateService = context.mock(ShoppingCartStateService.class, "shoppingCartStateService");
+        final ShopService shopService = context.mock(ShopService.class, "shopService");
+        final CartUpdateProcessor cartUpdateProcessor = context.mock(CartUpdateProcessor.class, "cartUpdateProcessor");
+        final TaskExecutor taskExecutor = context.mock(TaskExecutor.class, "taskExecutor");
+        final TaskScheduler taskScheduler = context.mock(TaskScheduler.class, "taskScheduler");
+        final ScheduledFuture flushTask = context.mock(ScheduledFuture.class, "flushTask");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final Cache cartCache = context.mock(Cache.class, "cartCache");
+        final ShoppingCart cart = context.mock(ShoppingCart.class, "cart");
+        final ShoppingContext ctx = context.mock(ShoppingContext.class, "ctx");
+
+        final byte[] state = new byte[] { 1 };
+
+        context.checking(new Expectations() {{
+            oneOf(cacheManager).getCache("web.shoppingCart"); will(returnValue(cartCache));
+            oneOf(taskScheduler).scheduleWithFixedDelay(with(any(Runnable.class)), with(equal(1000L))); will(returnValue(flushTask));
+            allowing(cart).getGuid(); will(returnValue("ABC"));
+            allowing(cart).isModified(); will(returnValue(true));
+            allowing(cart).getLogonState(); will(returnValue(ShoppingCart.LOGGED_IN));
+            allowing(cart).getCustomerEmail(); will(returnValue("bob@doe.com"));
+            allowing(cart).getOrdernum(); will(returnValue(null));
+            allowing(cart).getCartItemsCount(); will(returnValue(1));
+            allowing(cart).getShoppingContext(); will(returnValue(ctx));
+            allowing(ctx).getShopCode(); will(returnValue("SHOP10"));
+            allowing(ctx).getShopId(); will(returnValue(10L));
+            exactly(2).of(cartCache).put("ABC", cart);
+            // merge is done once on request thread, flush only writes snapshot
+            oneOf(cartUpdateProcessor).updateShoppingCartOnLogin(cart);
+            exactly(2).of(cartUpdateProcessor).saveState(cart); will(returnValue(state));
+            oneOf(cartUpdateProcessor).updateShoppingCartStates(with(aBatchOf("ABC", state)));
+        }});
+
+        final ResilientCartRepositoryImpl repo = new ResilientCartRepositoryImpl(shoppingCartStateService, shopService, cartUpdateProcessor, 60, cacheManager, taskExecutor);
+        repo.setTaskScheduler(taskScheduler);
+        repo.afterPropertiesSet();
+
+        repo.storeShoppingCart(cart);
+        repo.storeShoppingCart(cart);
+
+        repo.flush();
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testStoreShoppingCartWriteBehindEvictDuringFlush() throws Exception {
+
+        final ShoppingCartStateService shoppingCartStateService = context.mock(ShoppingCartStateService.class, "shoppingCartStateService");
+        final ShopService shopService = context.mock(ShopService.class, "shopService");
+        final CartUpdateProcessor cartUpdateProcessor = context.mock(CartUpdateProcessor.class, "cartUpdateProcessor");
+        final TaskExecutor taskExecutor = context.mock(TaskExecutor.class, "taskExecutor");
+        final TaskScheduler taskScheduler = context.mock(TaskScheduler.class, "taskScheduler");
+        final ScheduledFuture flushTask = context.mock(ScheduledFuture.class, "flushTask");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final Cache cartCache = context.mock(Cache.class, "cartCache");
+        final ShoppingCartState state = context.mock(ShoppingCartState.class, "state");
+
+        final MutableShoppingCart cart = new ShoppingCartImpl();
+        cart.getShoppingContext().setCustomerEmail("bob@doe.com");
+
+        final byte[] bytes = new byte[] { 1 };
+
+        final ResilientCartRepositoryImpl[] repo = new ResilientCartRepositoryImpl[1];
+
+        context.checking(new Expectations() {{
+            oneOf(cacheManager).getCache("web.shoppingCart"); will(returnValue(cartCache));
+            oneOf(taskScheduler).scheduleWithFixedDelay(with(any(Runnable.class)), with(equal(1000L))); will(returnValue(flushTask));
+            oneOf(cartCache).put(cart.getGuid(), cart);
+            oneOf(cartUpdateProcessor).saveState(cart); will(returnValue(bytes));
+            oneOf(cartUpdateProcessor).updateShoppingCartStates(with(aBatchOf(cart.getGuid(), bytes)));
+            will(new CustomAction("evict while writing") {
+                @Override
+                public Object invoke(final Invocation invocation) throws Throwable {
+                    // must not wait for flush to complete
+                    repo[0].evictShoppingCart(cart);
+                    return null;
+                }
+            });
+            oneOf(cartCache).evict(cart.getGuid());
+            // once by evict, once after in flight write completes
+            exactly(2).of(shoppingCartStateService).findByGuid(cart.getGuid()); will(onConsecutiveCalls(returnValue(null), returnValue(state)));
+            oneOf(shoppingCartStateService).delete(state);
+        }});
+
+        repo[0] = new ResilientCartRepositoryImpl(shoppingCartStateService, shopService, cartUpdateProcessor, 60, cacheManager, taskExecutor);
+        repo[0].setTaskScheduler(taskScheduler);
+        repo[0].afterPropertiesSet();
+
+        cart.markDirty();
+        repo[0].storeShoppingCart(cart);
+
+        repo[0].flush();
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testStoreShoppingCartWriteBehindBatchFailure() throws Exception {
+
+        final ShoppingCartStateService shoppingCartStateService = context.mock(ShoppingCartStateService.class, "shoppingCartStateService");
+        final ShopService shopService = context.mock(ShopService.class, "shopService");
+        final CartUpdateProcessor cartUpdateProcessor = context.mock(CartUpdateProcessor.class, "cartUpdateProcessor");
+        final TaskExecutor taskExecutor = context.mock(TaskExecutor.class, "taskExecutor");
+        final TaskScheduler taskScheduler = context.mock(TaskScheduler.class, "taskScheduler");
+        final ScheduledFuture flushTask = context.mock(ScheduledFuture.class, "flushTask");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final Cache cartCache = context.mock(Cache.class, "cartCache");
+
+        final MutableShoppingCart cart1 = new ShoppingCartImpl();
+        cart1.getShoppingContext().setCustomerEmail("bob@doe.com");
+        final MutableShoppingCart cart2 = new ShoppingCartImpl();
+        cart2.getShoppingContext().setCustomerEmail("jane@doe.com");
+
+        final byte[] state1 = new byte[] { 1 };
+        final byte[] state2 = new byte[] { 2 };
+
+        context.checking(new Expectations() {{
+            oneOf(cacheManager).getCache("web.shoppingCart"); will(returnValue(cartCache));
+            oneOf(taskScheduler).scheduleWithFixedDelay(with(any(Runnable.class)), with(equal(1000L))); will(returnValue(flushTask));
+            oneOf(cartCache).put(cart1.getGuid(), cart1);
+            oneOf(cartCache).put(cart2.getGuid(), cart2);
+            oneOf(cartUpdateProcessor).saveState(cart1); will(returnValue(state1));
+            oneOf(cartUpdateProcessor).saveState(cart2); will(returnValue(state2));
+            oneOf(cartUpdateProcessor).updateShoppingCartStates(with(any(Collection.class))); will(throwException(new RuntimeException("batch")));
+            oneOf(cartUpdateProcessor).updateShoppingCartStates(with(aBatchOf(cart1.getGuid(), state1))); will(throwException(new RuntimeException("cart1")));
+            oneOf(cartUpdateProcessor).updateShoppingCartStates(with(aBatchOf(cart2.getGuid(), state2)));
+        }});
+
+        final ResilientCartRepositoryImpl repo = new ResilientCartRepositoryImpl(shoppingCartStateService, shopService, cartUpdateProcessor, 60, cacheManager, taskExecutor);
+        repo.setTaskScheduler(taskScheduler);
+        repo.afterPropertiesSet();
+
+        cart1.markDirty();
+        repo.storeShoppingCart(cart1);
+        cart2.markDirty();
+        repo.storeShoppingCart(cart2);
+
+        // failed batch is retried cart by cart, so cart2 is still saved
+        repo.flush();
+
+        context.assertIsSatisfied();
+
+    }
+
+    private static Matcher<Collection<CartStateSnapshot>> aBatchOf(final String guid, final byte[] state) {
+        return new TypeSafeMatcher<Collection<CartStateSnapshot>>() {
+            @Override
+            protected boolean matchesSafely(final Collection<CartStateSnapshot> snapshots) {
+                if (snapshots.size() != 1) {
+                    return false;
+                }
+                final CartStateSnapshot snapshot = snapshots.iterator().next();
+                return guid.equals(snapshot.getGuid()) && snapshot.getState() == state;
+            }
+
+            @Override
+            public void describeTo(final Description description) {
+                description.appendText("batch of single snapshot ").appendValue(guid);
+            }
+        };
+    }
+
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.support.tokendriven.impl;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.yes.cart.shoppingcart.ShoppingCart;
+import org.yes.cart.shoppingcart.impl.ShoppingCartImpl;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 18:02
+ */
+public class ShoppingCartStateSerializerBinaryImplTest extends AbstractShoppingCartStateSerializerTest {
+
+
+    @Test
+    public void testSaveRestore() throws Exception {
+
+        final ShoppingCartStateSerializerBinaryImpl serializer = new ShoppingCartStateSerializerBinaryImpl();
+
+        final ShoppingCart cart = createFilledCart();
+        assertFilledCart(cart, cart.getGuid());
+
+        byte[] data = serializer.saveState(cart);
+        assertEquals('Y', data[0]);
+        assertEquals('C', data[1]);
+        assertEquals(0, data[3]); // small cart is not compressed
+        final ShoppingCart restored = serializer.restoreState(data);
+
+        assertFilledCart(restored, cart.getGuid());
+        assertEquals(cart.getModifiedTimestamp(), restored.getModifiedTimestamp());
+        assertEquals(cart.getTotal().getTotalAmount(), restored.getTotal().getTotalAmount());
+        assertEquals(cart.getTotal().getAppliedDeliveryPromo(), restored.getTotal().getAppliedDeliveryPromo());
+
+    }
+
+    @Test
+    public void testSaveRestoreCompressed() throws Exception {
+
+        final ShoppingCartStateSerializerBinaryImpl serializer = new ShoppingCartStateSerializerBinaryImpl();
+        serializer.setCompressThreshold(512);
+
+        final ShoppingCartImpl cart = createRandomCart(100, 5, 5, 1);
+
+        byte[] data = serializer.saveState(cart);
+        assertEquals(1, data[3]);
+        final ShoppingCart restored = serializer.restoreState(data);
+
+        assertEquals(cart.getGuid(), restored.getGuid());
+        assertEquals(cart.getCartItemList().size(), restored.getCartItemList().size());
+        assertEquals(cart.getCartItemList().get(42).getPrice(), restored.getCartItemList().get(42).getPrice());
+        assertEquals(cart.getCartItemList().get(102).getAppliedPromo(), restored.getCartItemList().get(102).getAppliedPromo());
+        assertEquals(cart.getCoupons(), restored.getCoupons());
+        assertEquals(cart.getOrderInfo().getCarrierSlaId(), restored.getOrderInfo().getCarrierSlaId());
+        assertEquals(cart.getShoppingContext().getLatestViewedSkus(), restored.getShoppingContext().getLatestViewedSkus());
+        assertEquals(cart.getTotal().getListSubTotal(), restored.getTotal().getListSubTotal());
+
+        // more compact than both legacy formats
+        assertTrue(data.length < new ShoppingCartStateSerializerJacksonImpl().saveState(cart).length);
+        assertTrue(data.length < new ShoppingCartStateSerializerSdkImpl().saveState(cart).length);
+
+    }
+
+    @Test
+    public void testRestoreFallback() throws Exception {
+
+        final ShoppingCartStateSerializerBinaryImpl serializer = new ShoppingCartStateSerializerBinaryImpl(new ShoppingCartStateSerializerJacksonImpl());
+
+        final ShoppingCart cart = createFilledCart();
+
+        final ShoppingCart restored = serializer.restoreState(new ShoppingCartStateSerializerJacksonImpl().saveState(cart));
+
+        assertFilledCart(restored, cart.getGuid());
+
+        assertNull(new ShoppingCartStateSerializerBinaryImpl().restoreState(new ShoppingCartStateSerializerJacksonImpl().saveState(cart)));
+
+    }
+
+    @Test
+    public void testRestoreInvalid() throws Exception {
+
+        final ShoppingCartStateSerializerBinaryImpl serializer = new ShoppingCartStateSerializerBinaryImpl();
+
+        final byte[] data = serializer.saveState(createFilledCart());
+
+        // unsupported version
+        final byte[] future = Arrays.copyOf(data, data.length);
+        future[2] = 99;
+        assertNull(serializer.restoreState(future));
+
+        // truncated
+        assertNull(serializer.restoreState(Arrays.copyOf(data, data.length - 10)));
+        assertNull(serializer.restoreState(Arrays.copyOf(data, 3)));
+        assertNull(serializer.restoreState(new byte[0]));
+
+    }
+
+
+    /**
+     * This test compares all serializers on the same data (100 items, 5 gifts and 5 coupons per cart).
+     *
+     * @throws Exception errors
+     */
+    @Ignore("This is performance test for manual checks only")
+    @Test
+    public void testSerializationPerformance() throws Exception {
+
+        System.out.println("== Binary:");
+        serializationPerformanceRoutine(new ShoppingCartStateSerializerBinaryImpl(), 10000, 100, 5, 5);
+        System.out.println("== Jackson JSON:");
+        serializationPerformanceRoutine(new ShoppingCartStateSerializerJacksonImpl(), 10000, 100, 5, 5);
+        System.out.println("== Java SDK:");
+        serializationPerformanceRoutine(new ShoppingCartStateSerializerSdkImpl(), 10000, 100, 5, 5);
+
+    }
+
+}
@@ -34,10 +34,10 @@ import org.yes.cart.web.service.ws.client.WsClientFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.ws.WebServiceException;
 import java.net.ConnectException;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * User: denispavlov
@@ -47,13 +47,20 @@ import java.util.Set;
 public class ManagerWsNodeServiceImpl extends AbstractWsNodeServiceImpl implements NodeService {
 
     private final WsClientAbstractFactory wsClientAbstractFactory;
+    private final Executor executor;
+
+    private final Map<String, NodeLatency> nodeLatency = new ConcurrentHashMap<>();
 
     private Set<String> reloadClusterTopics = new HashSet<>();
 
+    private long broadcastDeadlineGraceMs = 2000L;
+
     public ManagerWsNodeServiceImpl(final SystemService systemService,
-                                    final WsClientAbstractFactory wsClientAbstractFactory) {
+                                    final WsClientAbstractFactory wsClientAbstractFactory,
+                                    final Executor executor) {
         super(systemService);
         this.wsClientAbstractFactory = wsClientAbstractFactory;
+        this.executor = executor;
     }
 
     /**
@@ -82,71 +89,172 @@ public class ManagerWsNodeServiceImpl extends AbstractWsNodeServiceImpl implemen
             cluster.removeIf(node -> !targets.contains(node.getId()));
         }
 
+        if (cluster.isEmpty()) {
+            return;
+        }
+
+        final String timeoutKey = context.getAttribute(AsyncContext.TIMEOUT_KEY);
+        final int timeout = NumberUtils.toInt(getConfiguration().get(timeoutKey), 1000);
+        final long start = System.currentTimeMillis();
+        final long deadline = start + timeout + broadcastDeadlineGraceMs;
 
+        // dispatch to all nodes at once, so that broadcast takes as long as the slowest node
+        final List<FutureTask<WsMessage>> calls = new ArrayList<>(cluster.size());
         for (final Node yesNode : cluster) {
+            final FutureTask<WsMessage> call = new FutureTask<>(() -> sendToNode(wsMessage, context, yesNode, timeoutKey));
+            calls.add(call);
+            try {
+                executor.execute(call);
+            } catch (RejectedExecutionException ree) {
+                call.run(); // pool is saturated, so send from this thread
+            }
+        }
+
+        final StringBuilder latency = log.isDebugEnabled() ? new StringBuilder() : null;
+
+        // responses are aggregated in cluster order from this thread only, so message needs no synchronisation
+        for (int i = 0; i < cluster.size(); i++) {
+
+            final Node yesNode = cluster.get(i);
+            final FutureTask<WsMessage> call = calls.get(i);
+
             try {
-                final WsClientFactory<WebServiceInboundChannel> factory =
-                        getWebServiceInboundChannel(context, yesNode.getChannel(),
-                                context.getAttribute(AsyncContext.TIMEOUT_KEY));
-
-                WebServiceInboundChannel service = factory.getService();
-                try {
-                    final WsMessage rsp = service.accept(new WsMessage(wsMessage));
-                    if (rsp instanceof WsMessage) {
-                        wsMessage.addResponse(
-                                new BasicMessageImpl(
-                                        rsp.getSource(),
-                                        rsp.getTargets(),
-                                        rsp.getSubject(),
-                                        rsp.getPayloadObject()
-                                ));
-                    }
-                } finally {
-                    factory.release(service);
-                    service = null;
+
+                final WsMessage rsp = call.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (rsp != null) {
+                    wsMessage.addResponse(
+                            new BasicMessageImpl(
+                                    rsp.getSource(),
+                                    rsp.getTargets(),
+                                    rsp.getSubject(),
+                                    rsp.getPayloadObject()
+                            ));
                 }
 
-            } catch (WebServiceException wse) {
+            } catch (TimeoutException te) {
+
+                call.cancel(true);
+                getNodeLatency(yesNode.getId()).timeout();
+
+                if (log.isErrorEnabled()) {
+                    log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
+                            + yesNode.getId() + ":" + yesNode.getChannel() + "] . No response within " + (timeout + broadcastDeadlineGraceMs) + "ms");
+                }
 
-                if (wse.getCause() instanceof ConnectException) {
+            } catch (InterruptedException ie) {
 
-                    blacklist(yesNode.getId());
+                Thread.currentThread().interrupt();
+                log.warn("Broadcast of {} interrupted while waiting for {}", message.getSubject(), yesNode.getId());
+                cancelAll(calls);
+                return;
 
-                    if (log.isErrorEnabled()) {
-                        log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
-                                + yesNode.getId() + ":" + yesNode.getChannel() + "] . Blacklisting this node due to connection exception.");
-                    }
+            } catch (ExecutionException ee) {
 
-                } else if (wse.getCause() instanceof XMLStreamException) {
+                // failures are logged by sender
 
-                    blacklist(yesNode.getId());
+            }
 
-                    if (log.isErrorEnabled()) {
-                        log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
-                                + yesNode.getId() + ":" + yesNode.getChannel() + "] . Blacklisting this node due to malformed message.");
-                    }
+            if (latency != null) {
+                latency.append(yesNode.getId()).append('=').append(System.currentTimeMillis() - start).append("ms ");
+            }
 
-                } else {
+        }
 
-                    if (log.isErrorEnabled()) {
-                        log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
-                                + yesNode.getId() + ":" + yesNode.getChannel() + "] . Exception occurred during ws call",
-                                wse);
-                    }
+        if (latency != null) {
+            log.debug("Broadcast {} to {} nodes completed in {}ms: {}",
+                    message.getSubject(), cluster.size(), System.currentTimeMillis() - start, latency);
+        }
 
+    }
+
+    private WsMessage sendToNode(final ContextRspMessage message,
+                                 final AsyncContext context,
+                                 final Node yesNode,
+                                 final String timeoutKey) {
+
+        final NodeLatency latency = getNodeLatency(yesNode.getId());
+        final long start = System.currentTimeMillis();
+
+        try {
+            final WsClientFactory<WebServiceInboundChannel> factory =
+                    getWebServiceInboundChannel(context, yesNode.getChannel(), timeoutKey);
+
+            WebServiceInboundChannel service = factory.getService();
+            try {
+                final WsMessage rsp = service.accept(new WsMessage(message));
+                latency.success(System.currentTimeMillis() - start);
+                return rsp;
+            } finally {
+                factory.release(service);
+                service = null;
+            }
+
+        } catch (WebServiceException wse) {
+
+            latency.failure(System.currentTimeMillis() - start);
+
+            if (wse.getCause() instanceof ConnectException) {
+
+                blacklist(yesNode.getId());
+
+                if (log.isErrorEnabled()) {
+                    log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
+                            + yesNode.getId() + ":" + yesNode.getChannel() + "] . Blacklisting this node due to connection exception.");
                 }
 
-            } catch (Exception e) {
+            } else if (wse.getCause() instanceof XMLStreamException) {
+
+                blacklist(yesNode.getId());
+
+                if (log.isErrorEnabled()) {
+                    log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
+                            + yesNode.getId() + ":" + yesNode.getChannel() + "] . Blacklisting this node due to malformed message.");
+                }
+
+            } else {
 
                 if (log.isErrorEnabled()) {
                     log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
                             + yesNode.getId() + ":" + yesNode.getChannel() + "] . Exception occurred during ws call",
-                            e);
+                            wse);
                 }
 
             }
+
+        } catch (Exception e) {
+
+            latency.failure(System.currentTimeMillis() - start);
+
+            if (log.isErrorEnabled()) {
+                log.error(Markers.alert(), "Node message failure [" + message + "] to channel ["
+                        + yesNode.getId() + ":" + yesNode.getChannel() + "] . Exception occurred during ws call",
+                        e);
+            }
+
+        }
+
+        return null;
+
+    }
+
+    private void cancelAll(final List<FutureTask<WsMessage>> calls) {
+        for (final FutureTask<WsMessage> call : calls) {
+            call.cancel(true);
         }
+    }
+
+    private NodeLatency getNodeLatency(final String nodeId) {
+        return this.nodeLatency.computeIfAbsent(nodeId, k -> new NodeLatency());
+    }
 
+    /**
+     * Broadcast latency per storefront node since start up (number of calls, failures and
+     * calls cancelled at broadcast deadline, mean, max and last call duration).
+     *
+     * @return latency statistics (node id to stats)
+     */
+    public Map<String, NodeLatency> getNodeLatency() {
+        return Collections.unmodifiableMap(this.nodeLatency);
     }
 
 
@@ -168,6 +276,15 @@ public class ManagerWsNodeServiceImpl extends AbstractWsNodeServiceImpl implemen
     }
 
 
+    /**
+     * Spring IoC.
+     *
+     * @param broadcastDeadlineGraceMs time on top of WS call timeout after which broadcast stops waiting for slow nodes
+     */
+    public void setBroadcastDeadlineGraceMs(final long broadcastDeadlineGraceMs) {
+        this.broadcastDeadlineGraceMs = broadcastDeadlineGraceMs;
+    }
+
     /**
      * Spring IoC.
      *
@@ -176,4 +293,96 @@ public class ManagerWsNodeServiceImpl extends AbstractWsNodeServiceImpl implemen
     public void setReloadClusterTopics(final Set<String> reloadClusterTopics) {
         this.reloadClusterTopics = new HashSet<>(reloadClusterTopics);
     }
+
+    /**
+     * Broadcast latency of a single node.
+     */
+    public static final class NodeLatency {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final AtomicLong maxMs = new AtomicLong(0L);
+        private volatile long lastMs = 0L;
+
+        private void success(final long ms) {
+            record(ms);
+        }
+
+        private void failure(final long ms) {
+            failures.increment();
+            record(ms);
+        }
+
+        private void timeout() {
+            timeouts.increment();
+        }
+
+        private void record(final long ms) {
+            count.increment();
+            totalMs.add(ms);
+            lastMs = ms;
+            long max;
+            while ((max = maxMs.get()) < ms && !maxMs.compareAndSet(max, ms)) {
+                // retry
+            }
+        }
+
+        /**
+         * @return number of completed calls (including failed ones)
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return number of failed calls
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return number of calls that did not complete before broadcast deadline
+         */
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        /**
+         * @return mean call duration
+         */
+        public long getMeanMs() {
+            final long cnt = count.sum();
+            return cnt > 0L ? totalMs.sum() / cnt : 0L;
+        }
+
+        /**
+         * @return max call duration
+         */
+        public long getMaxMs() {
+            return maxMs.get();
+        }
+
+        /**
+         * @return last call duration
+         */
+        public long getLastMs() {
+            return lastMs;
+        }
+
+        @Override
+        public String toString() {
+            return "NodeLatency{" +
+                    "count=" + getCount() +
+                    ", failures=" + getFailures() +
+                    ", timeouts=" + getTimeouts() +
+                    ", meanMs=" + getMeanMs() +
+                    ", maxMs=" + getMaxMs() +
+                    ", lastMs=" + getLastMs() +
+                    '}';
+        }
+    }
+
 }
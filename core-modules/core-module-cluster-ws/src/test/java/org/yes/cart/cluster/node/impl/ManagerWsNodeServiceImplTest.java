@@ -0,0 +1,299 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cluster.node.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.yes.cart.cluster.node.ContextRspMessage;
+import org.yes.cart.cluster.node.NodeService;
+import org.yes.cart.service.async.model.AsyncContext;
+import org.yes.cart.service.domain.SystemService;
+import org.yes.cart.web.service.ws.WebServiceInboundChannel;
+import org.yes.cart.web.service.ws.WsMessage;
+import org.yes.cart.web.service.ws.client.WsClientAbstractFactory;
+import org.yes.cart.web.service.ws.client.WsClientFactory;
+
+import javax.servlet.ServletContext;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 21:10
+ */
+public class ManagerWsNodeServiceImplTest {
+
+    private static final String YES0 = "TESTCLUSTER.YES0";
+    private static final String YES1 = "TESTCLUSTER.YES1";
+    private static final String YES0_URL = "http://localhost:8080/services/backdoor";
+    private static final String YES1_URL = "http://localhost:8081/yes-api/services/backdoor";
+
+    private final Mockery context = new JUnit4Mockery() {{
+        setThreadingPolicy(new Synchroniser());
+    }};
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService executor;
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBroadcastCancelsNodeExceedingDeadline() throws Exception {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        final Map<String, WebServiceInboundChannel> channels = new HashMap<>();
+        channels.put(YES0_URL, new RespondingChannel(YES0));
+        channels.put(YES1_URL, new HangingChannel(started, interrupted));
+
+        final ManagerWsNodeServiceImpl service = newService("200", channels, 2);
+        service.setBroadcastDeadlineGraceMs(100L);
+
+        final ContextRspMessage message = newMessage();
+
+        final long start = System.currentTimeMillis();
+        service.broadcast(message);
+        final long duration = System.currentTimeMillis() - start;
+
+        assertTrue("Broadcast must not wait for hanging node, took " + duration + "ms", duration < 5000L);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue("Call past deadline must be cancelled", interrupted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, message.getResponses().size());
+        assertEquals(YES0, message.getResponses().get(0).getSource());
+        assertTrue(service.getBlacklisted().isEmpty());
+
+        final ManagerWsNodeServiceImpl.NodeLatency fast = service.getNodeLatency().get(YES0);
+        assertEquals(1L, fast.getCount());
+        assertEquals(0L, fast.getFailures());
+        assertEquals(0L, fast.getTimeouts());
+        assertTrue(fast.getMaxMs() >= fast.getLastMs());
+
+        final ManagerWsNodeServiceImpl.NodeLatency slow = service.getNodeLatency().get(YES1);
+        assertEquals(1L, slow.getTimeouts());
+
+    }
+
+    @Test
+    public void testBroadcastInterruptedCancelsOutstandingCalls() throws Exception {
+
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch interrupted = new CountDownLatch(2);
+
+        final Map<String, WebServiceInboundChannel> channels = new HashMap<>();
+        channels.put(YES0_URL, new HangingChannel(started, interrupted));
+        channels.put(YES1_URL, new HangingChannel(started, interrupted));
+
+        final ManagerWsNodeServiceImpl service = newService("60000", channels, 2);
+
+        final ContextRspMessage message = newMessage();
+
+        final Thread broadcaster = new Thread(() -> service.broadcast(message));
+        broadcaster.start();
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        broadcaster.interrupt();
+        broadcaster.join(TimeUnit.SECONDS.toMillis(5L));
+
+        assertFalse(broadcaster.isAlive());
+        assertTrue("All outstanding calls must be cancelled", interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(message.getResponses().isEmpty());
+
+        // interrupted broadcast is not a node timeout
+        assertEquals(0L, service.getNodeLatency().get(YES0).getTimeouts());
+        assertEquals(0L, service.getNodeLatency().get(YES1).getTimeouts());
+
+    }
+
+    @Test
+    public void testBroadcastResponsesInClusterOrderWithSinglePoolThread() throws Exception {
+
+        final Map<String, WebServiceInboundChannel> channels = new HashMap<>();
+        channels.put(YES0_URL, new RespondingChannel(YES0));
+        channels.put(YES1_URL, new RespondingChannel(YES1));
+
+        final ManagerWsNodeServiceImpl service = newService("1000", channels, 1);
+
+        final ContextRspMessage message = newMessage();
+
+        service.broadcast(message);
+
+        assertEquals(2, message.getResponses().size());
+        assertEquals(YES0, message.getResponses().get(0).getSource());
+        assertEquals(YES1, message.getResponses().get(1).getSource());
+
+        service.broadcast(newMessage());
+
+        assertEquals(2L, service.getNodeLatency().get(YES0).getCount());
+        assertEquals(2L, service.getNodeLatency().get(YES1).getCount());
+        assertEquals(0L, service.getNodeLatency().get(YES1).getFailures());
+
+    }
+
+
+    private ManagerWsNodeServiceImpl newService(final String timeout,
+                                                final Map<String, WebServiceInboundChannel> channels,
+                                                final int threads) {
+
+        final SystemService systemService = context.mock(SystemService.class, "systemService");
+        final ServletContext servletContext = context.mock(ServletContext.class, "servletContext");
+
+        final Map<String, String> params = new HashMap<>();
+        params.put(NodeService.NODE_ID, "JAM");
+        params.put(NodeService.NODE_TYPE, "ADM");
+        params.put(NodeService.NODE_CONFIG, "DEFAULT");
+        params.put(NodeService.CLUSTER_ID, "TESTCLUSTER");
+
+        context.checking(new Expectations() {{
+            allowing(systemService).getAttributeValueOrDefault(with(any(String.class)), with(any(String.class)));
+            will(returnValue(timeout));
+            allowing(servletContext).getInitParameterNames();
+            will(returnValue(Collections.enumeration(params.keySet())));
+            for (final Map.Entry<String, String> param : params.entrySet()) {
+                allowing(servletContext).getInitParameter(param.getKey());
+                will(returnValue(param.getValue()));
+            }
+        }});
+
+        // no queue, so that saturated pool rejects the call
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>());
+
+        final ManagerWsNodeServiceImpl service = new ManagerWsNodeServiceImpl(systemService, new StubWsClientAbstractFactory(channels), executor);
+        service.setWsConfiguration(new FileSystemResource("src/test/resources/cluster.xml"));
+        service.setWsConfigurationLoader(new NodeConfigurationXStreamProvider());
+        service.setServletContext(servletContext);
+
+        assertEquals(2, service.getSfNodes().size());
+
+        return service;
+    }
+
+    private ContextRspMessage newMessage() {
+
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put(AsyncContext.USERNAME, "admin");
+        attributes.put(AsyncContext.CREDENTIALS, "secret");
+        attributes.put(AsyncContext.TIMEOUT_KEY, "SYSTEM_BACKDOOR_TIMEOUT_MS");
+
+        final AsyncContext asyncContext = new AsyncContext() {
+            @Override
+            public <T> T getAttribute(final String name) {
+                return (T) attributes.get(name);
+            }
+
+            @Override
+            public Map<String, Object> getAttributes() {
+                return attributes;
+            }
+        };
+
+        return new ContextRspMessageImpl("TESTCLUSTER.JAM", "TEST", "payload", asyncContext);
+    }
+
+    private static class StubWsClientAbstractFactory implements WsClientAbstractFactory {
+
+        private final Map<String, WebServiceInboundChannel> channels;
+
+        private StubWsClientAbstractFactory(final Map<String, WebServiceInboundChannel> channels) {
+            this.channels = channels;
+        }
+
+        @Override
+        public <S> WsClientFactory<S> getFactory(final Class<S> service,
+                                                 final String userName,
+                                                 final String password,
+                                                 final boolean hashed,
+                                                 final String url,
+                                                 final long timeout) {
+            return new WsClientFactory<S>() {
+                @Override
+                public S getService() {
+                    return (S) channels.get(url);
+                }
+
+                @Override
+                public void release(final S service) {
+                    // nothing to release
+                }
+            };
+        }
+    }
+
+    private static class RespondingChannel implements WebServiceInboundChannel {
+
+        private final String nodeId;
+
+        private RespondingChannel(final String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public void ping() {
+            // ok
+        }
+
+        @Override
+        public WsMessage accept(final WsMessage inbound) {
+            return new WsMessage(new BasicMessageImpl(nodeId, inbound.getSubject(), "OK"));
+        }
+    }
+
+    private class HangingChannel implements WebServiceInboundChannel {
+
+        private final CountDownLatch started;
+        private final CountDownLatch interrupted;
+
+        private HangingChannel(final CountDownLatch started, final CountDownLatch interrupted) {
+            this.started = started;
+            this.interrupted = interrupted;
+        }
+
+        @Override
+        public void ping() {
+            // ok
+        }
+
+        @Override
+        public WsMessage accept(final WsMessage inbound) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ie) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
+
+}
@@ -46,6 +46,7 @@ import org.yes.cart.service.async.model.JobContext;
 import org.yes.cart.service.async.model.JobContextKeys;
 import org.yes.cart.service.federation.FederationFacade;
 
+import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -54,6 +55,7 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Perform import from csv files. Import based on xml import description, that include
@@ -66,6 +68,11 @@ import java.util.*;
  * with sub import - one of the column has a underlaying table values in csv
  * example - shop and shop url, in this case {@link ImportColumn} has a
  * {@link ImportDescriptor}. At this moment rows in cell are split by comma by default.
+ * <p/>
+ * File is parsed ahead on a separate thread, whereas rows are written in a single transaction
+ * and session is flushed and cleared every {@link #setBatchSize(int)} rows, so that session does
+ * not grow with the file. JDBC batch size of import session is set to the same size, so that
+ * writes of each flush are batched.
  */
 public class CsvBulkImportServiceImpl extends AbstractImportService implements ImportService, CsvImportServiceSingleFile {
 
@@ -79,6 +86,9 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
     private LookUpQueryParameterStrategy descriptorInsertLookUpQueryParameterStrategy;
     private LookUpQueryParameterStrategy columnLookUpQueryParameterStrategy;
     private EntityCacheKeyStrategy cacheKey;
+    private int batchSize = 50;
+
+    private final Map<String, PropertyDescriptor> propertyDescriptors = new ConcurrentHashMap<>();
 
     public CsvBulkImportServiceImpl(final FederationFacade federationFacade) {
         super(federationFacade);
@@ -185,6 +195,8 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                                                final String csvImportDescriptorName,
                                                final CsvImportDescriptor csvImportDescriptor) throws Exception {
 
+        // Only import writes are batched, rest of the application uses default settings
+        genericDAO.setJdbcBatchSize(batchSize);
         try {
 
 
@@ -194,7 +206,9 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
             final String msgInfoImp = MessageFormat.format("import file : {0} in {1} mode", fileToImport.getAbsolutePath(), mode);
             statusListener.notifyMessage(msgInfoImp);
 
-            CsvFileReader csvFileReader = new CsvFileReaderImpl();
+            final ImportStatistics statistics = new ImportStatistics();
+
+            final CsvFileReader csvFileReader = new CsvFileReadAheadReaderImpl(new CsvFileReaderImpl());
             try {
                 final String filename = fileToImport.getName();
                 long lineNumber = 0;
@@ -206,19 +220,36 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                         csvImportDescriptor.getImportFileDescriptor().getFileEncoding(),
                         csvImportDescriptor.getImportFileDescriptor().isIgnoreFirstLine());
 
-                String[] line;
-                while ((line = csvFileReader.readLine()) != null) {
-                    final CsvImportTuple tuple = new CsvImportTupleImpl(filename, lineNumber++, line);
-                    if (mode == ImportDescriptor.ImportMode.DELETE) {
-                        doImportDelete(statusListener, tuple, csvImportDescriptorName, csvImportDescriptor);
-                    } else {
-                        doImportMerge(statusListener, tuple, csvImportDescriptorName, csvImportDescriptor, null, entityCache);
+                try {
+
+                    String[] line;
+                    while ((line = csvFileReader.readLine()) != null) {
+                        final CsvImportTuple tuple = new CsvImportTupleImpl(filename, lineNumber++, line);
+                        final TupleResult result;
+                        if (mode == ImportDescriptor.ImportMode.DELETE) {
+                            result = doImportDelete(statusListener, tuple, csvImportDescriptorName, csvImportDescriptor);
+                        } else {
+                            result = doImportMerge(statusListener, tuple, csvImportDescriptorName, csvImportDescriptor, null, entityCache);
+                        }
+                        if (statistics.add(result) % batchSize == 0) {
+                            flushBatch(statusListener, statistics, csvImportDescriptorName);
+                        }
                     }
+                    flushBatch(statusListener, statistics, csvImportDescriptorName);
+
+                } catch (Exception exp) {
+
+                    statistics.error();
+                    statusListener.notifyMessage(statistics.toMessage(fileToImport));
+                    throw exp;
+
                 }
+
                 final String msgInfoLines = MessageFormat.format("total data lines : {0} ({1})",
                         (csvImportDescriptor.getImportFileDescriptor().isIgnoreFirstLine() ? csvFileReader.getRowsRead() - 1 : csvFileReader.getRowsRead()),
                         fileToImport.getAbsolutePath());
                 statusListener.notifyMessage(msgInfoLines);
+                statusListener.notifyMessage(statistics.toMessage(fileToImport));
 
                 csvFileReader.close();
             } catch (FileNotFoundException e) {
@@ -239,6 +270,12 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                         fileToImport.getAbsolutePath(),
                         e.getMessage());
                 statusListener.notifyError(msgErr, e);
+            } finally {
+                try {
+                    csvFileReader.close(); // make sure read ahead thread is stopped in case of errors
+                } catch (IOException ioe) {
+                    // already reported
+                }
             }
 
         } catch (Exception e) {
@@ -257,20 +294,57 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                     e.getMessage());
             statusListener.notifyError(msgError, e);
             return BulkImportResult.ERROR;
+        } finally {
+            genericDAO.setJdbcBatchSize(null);
         }
 
         return BulkImportResult.OK;
 
     }
 
+    /*
+     * Write pending changes of the current batch and detach all entities.
+     */
+    private void flushBatch(final JobStatusListener statusListener,
+                            final ImportStatistics statistics,
+                            final String csvImportDescriptorName) throws Exception {
+
+        try {
+
+            genericDAO.flushClear();
+
+        } catch (Exception e) {
+
+            String message = MessageFormat.format(
+                    "during flush of rows {0} - {1} \ndescriptor {2} \nerror {3}",
+                    statistics.getFlushed() + 1,
+                    statistics.getRows(),
+                    csvImportDescriptorName,
+                    e.getMessage()
+            );
+            statusListener.notifyError(message, e);
+            genericDAO.clear();
+
+            throw new Exception(message, e);
+
+        }
+
+        if (statistics.flushed()) {
+            statusListener.notifyMessage(MessageFormat.format("imported {0} rows ({1} rows/s)",
+                    statistics.getRows(), statistics.getRowsPerSecond()));
+        }
+
+    }
+
     /*
      * Delete single line.
      */
-    void doImportDelete(final JobStatusListener statusListener,
-                        final CsvImportTuple tuple,
-                        final String csvImportDescriptorName,
-                        final CsvImportDescriptor descriptor) throws Exception {
+    TupleResult doImportDelete(final JobStatusListener statusListener,
+                               final CsvImportTuple tuple,
+                               final String csvImportDescriptorName,
+                               final CsvImportDescriptor descriptor) throws Exception {
         List<Object> objects = null;
+        TupleResult result = TupleResult.UNCHANGED;
         try {
 
 
@@ -280,7 +354,7 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                 validateAccessBeforeUpdate(null, null); // only allowed by system admins
 
                 executeNativeQuery(descriptor, null, tuple, descriptor.getDeleteSql());
-
+                result = TupleResult.CHANGED;
 
             } else {
 
@@ -301,13 +375,14 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
 
                         genericDAO.delete(object);
 
-                        genericDAO.flushClear();
                     }
+                    result = TupleResult.CHANGED;
 
                 }
 
             }
             statusListener.notifyPing("Deleting tuple: " + tuple.getSourceId()); // make sure we do not time out
+            return result;
 
         } catch (AccessDeniedException ade) {
 
@@ -346,13 +421,14 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
      * Import single line.
      * This method can be called recursive in case of sub imports.
      */
-    void doImportMerge(final JobStatusListener statusListener,
-                       final ImportTuple tuple,
-                       final String csvImportDescriptorName,
-                       final CsvImportDescriptor descriptor,
-                       final Object masterObject,
-                       final Map<String, Pair<Object, Boolean>> entityCache) throws Exception {
+    TupleResult doImportMerge(final JobStatusListener statusListener,
+                              final ImportTuple tuple,
+                              final String csvImportDescriptorName,
+                              final CsvImportDescriptor descriptor,
+                              final Object masterObject,
+                              final Map<String, Pair<Object, Boolean>> entityCache) throws Exception {
         Object object = null;
+        TupleResult result = TupleResult.SKIPPED;
         try {
 
 
@@ -366,7 +442,7 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                         validateAccessBeforeUpdate(null, null); // only allowed by system admins
                     }
                     executeNativeQuery(descriptor, masterObject, tuple, descriptor.getInsertSql());
-
+                    result = TupleResult.CHANGED;
                 } else {
 
                     throw new IllegalArgumentException("Insert SQL can only be specified in INSERT_ONLY mode (Current mode: "
@@ -416,8 +492,10 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
 
                         if (valueChanged || fkChanged) {
                             genericDAO.saveOrUpdate(object); // If no changed are made then we do not need to save
+                            result = TupleResult.CHANGED;
                         } else {
                             statusListener.notifyPing("Skipping tuple (no change): " + tuple.getSourceId());
+                            result = TupleResult.UNCHANGED;
                         }
 
                         performSubImport(statusListener, tuple, csvImportDescriptorName, descriptor, object,
@@ -431,13 +509,12 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                             validateAccessAfterUpdate(object, descriptor.getEntityTypeClass());
                         }
 
-                        genericDAO.flushClear();
-
                     }
                 }
 
             }
             statusListener.notifyPing("Importing tuple: " + tuple.getSourceId()); // make sure we do not time out
+            return result;
 
         } catch (AccessDeniedException ade) {
 
@@ -478,6 +555,11 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                                     final ImportTuple tuple,
                                     final String queryTemplate) {
 
+        if (masterObject != null) {
+            // native statements do not see pending changes, so make sure master object is written
+            genericDAO.flush();
+        }
+
         if (queryTemplate.contains(";\n")) {
             for (final String statement : queryTemplate.split(";\n")) {
                 if (StringUtils.isNotBlank(statement)) {
@@ -557,15 +639,15 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
 
                     if (importColumn.getName().indexOf('.') == -1) {
                         // direct property
-                        propertyDescriptor = new PropertyDescriptor(importColumn.getName(), clz);
+                        propertyDescriptor = getPropertyDescriptor(clz, importColumn.getName());
                     } else {
                         // object path
                         final String[] chain = importColumn.getName().split("\\.");
                         for (int i = 0; i < chain.length - 1; i++) {
-                            propertyDescriptor = new PropertyDescriptor(chain[i], writeObject.getClass());
+                            propertyDescriptor = getPropertyDescriptor(writeObject.getClass(), chain[i]);
                             writeObject = propertyDescriptor.getReadMethod().invoke(writeObject);
                         }
-                        propertyDescriptor = new PropertyDescriptor(chain[chain.length - 1], writeObject.getClass());
+                        propertyDescriptor = getPropertyDescriptor(writeObject.getClass(), chain[chain.length - 1]);
                     }
 
 
@@ -648,6 +730,21 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
 
     }
 
+    /*
+     * Property descriptors introspection is expensive, so we only do it once per class and property.
+     */
+    private PropertyDescriptor getPropertyDescriptor(final Class clz, final String property) throws IntrospectionException {
+
+        final String key = clz.getName() + '#' + property;
+        PropertyDescriptor descriptor = propertyDescriptors.get(key);
+        if (descriptor == null) {
+            descriptor = new PropertyDescriptor(property, clz);
+            propertyDescriptors.put(key, descriptor);
+        }
+        return descriptor;
+
+    }
+
     /**
      * Fill the given entity object with line information using import column descriptions.
      *
@@ -703,7 +800,7 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
                         throw new Exception("Unable to resolve entity for tuple " + tuple.getSourceId() + " column + " + importColumn);
                     }
                 }
-                propertyDescriptor = new PropertyDescriptor(importColumn.getName(), clz);
+                propertyDescriptor = getPropertyDescriptor(clz, importColumn.getName());
                 final Object oldValue = propertyDescriptor.getReadMethod().invoke(object);
 
                 boolean valueChanged = isValueChanged(singleObjectValue, oldValue);
@@ -903,6 +1000,83 @@ public class CsvBulkImportServiceImpl extends AbstractImportService implements I
     }
 
 
+    /**
+     * IoC. Number of rows after which session is flushed and cleared.
+     *
+     * @param batchSize batch size
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize > 0 ? batchSize : 1;
+    }
+
+
+    /*
+     * Outcome of a single tuple.
+     */
+    enum TupleResult { CHANGED, UNCHANGED, SKIPPED }
+
+    /*
+     * Counters for a single file.
+     */
+    static class ImportStatistics {
+
+        private final long start = System.currentTimeMillis();
+
+        private static final int PROGRESS_ROWS = 10000;
+
+        private int rows;
+        private int flushed;
+        private int reported;
+        private int changed;
+        private int unchanged;
+        private int skipped;
+        private int errors;
+
+        int add(final TupleResult result) {
+            switch (result) {
+                case CHANGED: changed++; break;
+                case UNCHANGED: unchanged++; break;
+                default: skipped++; break;
+            }
+            return ++rows;
+        }
+
+        boolean flushed() {
+            flushed = rows;
+            if (rows - reported >= PROGRESS_ROWS) {
+                reported = rows;
+                return true;
+            }
+            return false;
+        }
+
+        void error() {
+            errors++;
+        }
+
+        int getRows() {
+            return rows;
+        }
+
+        int getFlushed() {
+            return flushed;
+        }
+
+        long getRowsPerSecond() {
+            final long millis = Math.max(1L, System.currentTimeMillis() - start);
+            return rows * 1000L / millis;
+        }
+
+        String toMessage(final File file) {
+            return MessageFormat.format(
+                    "processed {0} rows in {1}ms ({2} rows/s): {3} changed, {4} unchanged, {5} skipped, {6} errors ({7})",
+                    rows, System.currentTimeMillis() - start, getRowsPerSecond(),
+                    changed, unchanged, skipped, errors, file.getAbsolutePath());
+        }
+
+    }
+
+
     private CsvImportServiceSingleFile self;
 
     private CsvImportServiceSingleFile self() {
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.csv.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yes.cart.bulkimport.csv.CsvFileReader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Csv reader that parses the file on a separate thread ahead of the consumer, so that
+ * decoding and parsing of the file overlaps with the database work of the import.
+ *
+ * Lines are handed over in chunks through a bounded queue, so at most
+ * {@code chunkSize * chunks} lines are held in memory.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:10
+ */
+public class CsvFileReadAheadReaderImpl implements CsvFileReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CsvFileReadAheadReaderImpl.class);
+
+    private static final List<String[]> EOF = Collections.emptyList();
+
+    private final CsvFileReader delegate;
+    private final int chunkSize;
+    private final BlockingQueue<List<String[]>> queue;
+
+    private Thread reader;
+    private Iterator<String[]> current = Collections.emptyIterator();
+    private boolean eof;
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile int rowsRead;
+
+    public CsvFileReadAheadReaderImpl(final CsvFileReader delegate) {
+        this(delegate, 100, 20);
+    }
+
+    public CsvFileReadAheadReaderImpl(final CsvFileReader delegate,
+                                      final int chunkSize,
+                                      final int chunks) {
+        this.delegate = delegate;
+        this.chunkSize = chunkSize;
+        this.queue = new ArrayBlockingQueue<>(chunks);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open(final String csvFileName,
+                     final char columnDelimiter,
+                     final char textQualifier,
+                     final String encoding,
+                     final boolean ignoreFirstLine) throws FileNotFoundException, UnsupportedEncodingException {
+
+        delegate.open(csvFileName, columnDelimiter, textQualifier, encoding, ignoreFirstLine);
+
+        this.reader = new Thread(this::readAhead, "CSV read ahead " + csvFileName);
+        this.reader.setDaemon(true);
+        this.reader.start();
+
+    }
+
+    private void readAhead() {
+        try {
+            List<String[]> chunk = new ArrayList<>(chunkSize);
+            String[] line;
+            while (!closed && (line = delegate.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    rowsRead = delegate.getRowsRead();
+                    queue.put(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            rowsRead = delegate.getRowsRead();
+            if (!chunk.isEmpty()) {
+                queue.put(chunk);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            failure = new InterruptedIOException("CSV read ahead interrupted");
+        } catch (IOException ioe) {
+            failure = ioe;
+        } catch (Exception exp) {
+            failure = new IOException(exp.getMessage(), exp);
+        } finally {
+            try {
+                while (!closed && !queue.offer(EOF, 1, TimeUnit.SECONDS)) {
+                    // consumer is busy, wait for space
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] readLine() throws IOException {
+
+        while (!current.hasNext()) {
+            if (eof || closed) {
+                return null;
+            }
+            final List<String[]> chunk;
+            try {
+                chunk = queue.take();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("CSV read interrupted");
+            }
+            if (chunk == EOF) {
+                eof = true;
+                if (failure != null) {
+                    throw failure;
+                }
+                return null;
+            }
+            current = chunk.iterator();
+        }
+        return current.next();
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (reader != null) {
+            queue.clear(); // unblock reader if it waits for space
+            reader.interrupt();
+            try {
+                reader.join(TimeUnit.SECONDS.toMillis(10L));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            if (reader.isAlive()) {
+                LOG.warn("CSV read ahead thread {} did not stop in time", reader.getName());
+            }
+        }
+        queue.clear();
+        delegate.close();
+
+    }
+
+    /**
+     * Rows read from the file. Since the file is read ahead this may be greater than the number
+     * of lines returned by {@link #readLine()} until the end of file is reached.
+     *
+     * @return rows quantity.
+     */
+    @Override
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkimport.csv.impl;
+
+import org.junit.Test;
+import org.yes.cart.bulkimport.csv.CsvFileReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:40
+ */
+public class CsvFileReadAheadReaderImplTest {
+
+    private static final String FILE = "src/test/resources/import/brandnames.csv";
+
+    @Test
+    public void testReadAllLines() throws Exception {
+
+        final List<String[]> expected = readAll(new CsvFileReaderImpl());
+
+        // chunk smaller than file and single slot queue to make sure reader has to wait for consumer
+        final CsvFileReader readAhead = new CsvFileReadAheadReaderImpl(new CsvFileReaderImpl(), 5, 1);
+        final List<String[]> actual = readAll(readAhead);
+
+        assertEquals(12, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+        assertEquals(13, readAhead.getRowsRead());
+        assertNull(readAhead.readLine());
+
+    }
+
+    @Test
+    public void testCloseBeforeEndOfFile() throws Exception {
+
+        final CsvFileReader readAhead = new CsvFileReadAheadReaderImpl(new CsvFileReaderImpl(), 1, 1);
+        readAhead.open(FILE, ';', '"', "UTF-8", true);
+
+        assertNotNull(readAhead.readLine());
+
+        readAhead.close();
+        readAhead.close();
+
+        assertNull(readAhead.readLine());
+
+    }
+
+    private List<String[]> readAll(final CsvFileReader reader) throws Exception {
+
+        final List<String[]> lines = new ArrayList<>();
+        reader.open(FILE, ';', '"', "UTF-8", true);
+        String[] line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+
+    }
+
+}
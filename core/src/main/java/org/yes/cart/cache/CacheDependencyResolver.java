@@ -0,0 +1,53 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache;
+
+import org.yes.cart.domain.misc.Pair;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves objects that cached data derived from a given entity is tracked against, e.g. price
+ * is resolved to its SKU code and product.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:21
+ */
+public interface CacheDependencyResolver {
+
+    /**
+     * Find dependencies of the entity.
+     *
+     * @param pk entity primary key
+     *
+     * @return dependency type and id pairs, empty list if entity cannot be found
+     */
+    List<Pair<String, Object>> findDependencies(Long pk);
+
+    /**
+     * Find dependencies of several entities at once (e.g. bulk cache eviction).
+     *
+     * @param pks entity primary keys
+     *
+     * @return dependency type and id pairs by entity primary key, entities that cannot be found are not in the map
+     */
+    Map<Long, List<Pair<String, Object>>> findDependencies(Collection<Long> pks);
+
+}
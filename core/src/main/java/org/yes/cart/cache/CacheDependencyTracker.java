@@ -0,0 +1,70 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache;
+
+import java.util.Collection;
+
+/**
+ * Tracks which cache keys were derived from which entities, so that a change to a single entity
+ * evicts only the keys that depend on it instead of clearing whole cache region.
+ *
+ * Dependency is identified by type and id, where type is usually an entity name (e.g. "ProductEntity")
+ * and id is its primary key, but can also be a natural key (e.g. "sku" and SKU code).
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:14
+ */
+public interface CacheDependencyTracker {
+
+    /**
+     * Register cache key as dependent on given object. Must be invoked before the value is
+     * put into cache (i.e. on cache miss).
+     *
+     * @param cacheName      cache region
+     * @param key            cache key
+     * @param dependencyType dependency type (e.g. entity name)
+     * @param dependencyId   dependency id (e.g. primary key)
+     */
+    void track(String cacheName, Object key, String dependencyType, Object dependencyId);
+
+    /**
+     * Evict keys that depend on given entity from given cache regions. If entity dependencies
+     * cannot be resolved or key tracking for a region is incomplete the whole region is cleared.
+     *
+     * @param cacheNames cache regions
+     * @param entityName entity name
+     * @param pk         entity primary key
+     *
+     * @return number of evicted keys (cleared regions are not counted)
+     */
+    int evict(Collection<String> cacheNames, String entityName, Long pk);
+
+    /**
+     * Evict keys that depend on any of given entities from given cache regions. Dependencies are resolved
+     * for all entities at once. If any of the entity dependencies cannot be resolved, key tracking for a
+     * region is incomplete or there are too many entities the whole region is cleared.
+     *
+     * @param cacheNames cache regions
+     * @param entityName entity name
+     * @param pks        entity primary keys
+     *
+     * @return number of evicted keys (cleared regions are not counted)
+     */
+    int evict(Collection<String> cacheNames, String entityName, Collection<Long> pks);
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.yes.cart.cache.CacheDependencyResolver;
+import org.yes.cart.cache.CacheDependencyTracker;
+import org.yes.cart.domain.misc.Pair;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dependency tracker that keeps dependency to keys index per cache region in memory.
+ *
+ * Keys are never removed from the index on eviction, since a concurrent cache miss may put
+ * the key back after it was evicted. Evicting a key that is not in cache is a no-op, so index
+ * only needs to be bounded: once a region has more than {@link #setMaxKeysPerCache(int)} keys
+ * the index for it is dropped and next eviction clears the whole region.
+ *
+ * Entities without a resolver are tracked by entity name and primary key only. For entities with
+ * resolver the resolved dependencies are evicted as well, and if resolver cannot find entity
+ * (e.g. it was deleted) the whole region is cleared. Bulk changes are resolved with a single call to
+ * resolver, and changes of more than {@link #setMaxBulkEvictPks(int)} entities clear the regions
+ * without resolving dependencies at all.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:32
+ */
+public class CacheDependencyTrackerImpl implements CacheDependencyTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheDependencyTrackerImpl.class);
+
+    private final CacheManager cacheManager;
+
+    private final ConcurrentMap<String, Dependents> dependents = new ConcurrentHashMap<>();
+
+    private Map<String, CacheDependencyResolver> resolvers = Collections.emptyMap();
+
+    private int maxKeysPerCache = 50000;
+    private int maxBulkEvictPks = 1000;
+
+    public CacheDependencyTrackerImpl(final CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void track(final String cacheName, final Object key, final String dependencyType, final Object dependencyId) {
+
+        if (key == null || dependencyType == null || dependencyId == null) {
+            return;
+        }
+
+        Dependents cacheDependents = this.dependents.get(cacheName);
+        if (cacheDependents == null) {
+            cacheDependents = new Dependents();
+            final Dependents existing = this.dependents.putIfAbsent(cacheName, cacheDependents);
+            if (existing != null) {
+                cacheDependents = existing;
+            }
+        }
+
+        if (cacheDependents.add(dependency(dependencyType, dependencyId), key, this.maxKeysPerCache)) {
+            LOG.info("Cache {} has more than {} tracked keys, next dependency eviction will clear it", cacheName, this.maxKeysPerCache);
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evict(final Collection<String> cacheNames, final String entityName, final Long pk) {
+        return evict(cacheNames, entityName, Collections.singletonList(pk));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evict(final Collection<String> cacheNames, final String entityName, final Collection<Long> pks) {
+
+        if (cacheNames.isEmpty() || pks.isEmpty()) {
+            return 0;
+        }
+
+        final Collection<String> dependencies = pks.size() > this.maxBulkEvictPks ? null : resolveDependencies(entityName, pks);
+
+        int cnt = 0;
+
+        for (final String cacheName : cacheNames) {
+
+            final Cache cache = this.cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+
+            final Dependents cacheDependents = this.dependents.get(cacheName);
+
+            if (dependencies == null || (cacheDependents != null && cacheDependents.resetOverflow())) {
+
+                cache.clear();
+                LOG.debug("Cleared cache {} on change of {} {}:{}", cacheName, pks.size(), entityName, pks);
+
+            } else if (cacheDependents != null) {
+
+                for (final String dependency : dependencies) {
+                    final Set<Object> keys = cacheDependents.keys.get(dependency);
+                    if (keys != null) {
+                        for (final Object key : keys) {
+                            cache.evict(key);
+                            cnt++;
+                        }
+                    }
+                }
+
+            }
+
+        }
+
+        return cnt;
+    }
+
+
+    /**
+     * Resolve all dependencies for given entities.
+     *
+     * @param entityName entity name
+     * @param pks        primary keys
+     *
+     * @return dependencies, or null if these could not be resolved for any of the entities
+     */
+    Collection<String> resolveDependencies(final String entityName, final Collection<Long> pks) {
+
+        if (pks.contains(null)) {
+            return null;
+        }
+
+        final Set<String> dependencies = new HashSet<>();
+        for (final Long pk : pks) {
+            dependencies.add(dependency(entityName, pk));
+        }
+
+        final CacheDependencyResolver resolver = this.resolvers.get(entityName);
+        if (resolver == null) {
+            return dependencies;
+        }
+
+        final Map<Long, List<Pair<String, Object>>> found;
+        try {
+            found = resolver.findDependencies(pks);
+        } catch (Exception exp) {
+            LOG.error("Unable to resolve cache dependencies for " + entityName + ":" + pks + ", " + exp.getMessage(), exp);
+            return null;
+        }
+
+        if (found == null) {
+            return null;
+        }
+
+        for (final Long pk : pks) {
+            final List<Pair<String, Object>> pkDependencies = found.get(pk);
+            if (pkDependencies == null || pkDependencies.isEmpty()) {
+                return null;
+            }
+            for (final Pair<String, Object> dependency : pkDependencies) {
+                dependencies.add(dependency(dependency.getFirst(), dependency.getSecond()));
+            }
+        }
+        return dependencies;
+
+    }
+
+    private static String dependency(final String type, final Object id) {
+        return type + ':' + id;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param resolvers dependency resolvers by entity name
+     */
+    public void setResolvers(final Map<String, CacheDependencyResolver> resolvers) {
+        this.resolvers = resolvers;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param maxKeysPerCache max number of tracked keys per cache region
+     */
+    public void setMaxKeysPerCache(final int maxKeysPerCache) {
+        this.maxKeysPerCache = maxKeysPerCache;
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param maxBulkEvictPks max number of entities in bulk change for which dependencies are resolved
+     */
+    public void setMaxBulkEvictPks(final int maxBulkEvictPks) {
+        this.maxBulkEvictPks = maxBulkEvictPks;
+    }
+
+
+    private static final class Dependents {
+
+        private final ConcurrentMap<String, Set<Object>> keys = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean overflow = new AtomicBoolean();
+
+        /**
+         * @return true if this addition has overflown the index
+         */
+        private boolean add(final String dependency, final Object key, final int max) {
+
+            Set<Object> dependencyKeys = this.keys.get(dependency);
+            if (dependencyKeys == null) {
+                dependencyKeys = ConcurrentHashMap.newKeySet();
+                final Set<Object> existing = this.keys.putIfAbsent(dependency, dependencyKeys);
+                if (existing != null) {
+                    dependencyKeys = existing;
+                }
+            }
+
+            if (dependencyKeys.add(key) && this.size.incrementAndGet() > max) {
+                // set the flag first, so that keys added concurrently are not lost before region is cleared
+                this.overflow.set(true);
+                this.keys.clear();
+                this.size.set(0);
+                return true;
+            }
+            return false;
+
+        }
+
+        private boolean resetOverflow() {
+            return this.overflow.compareAndSet(true, false);
+        }
+
+    }
+
+}
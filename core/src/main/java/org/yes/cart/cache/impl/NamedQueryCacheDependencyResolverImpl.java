@@ -0,0 +1,134 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import org.yes.cart.cache.CacheDependencyResolver;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.misc.Pair;
+
+import java.util.*;
+
+/**
+ * Resolver that runs named query with entity PK as the only parameter. Each column of the
+ * result row is mapped to the dependency type at the same position.
+ *
+ * Several entities are resolved with bulk named query, which takes list of PK's as the only parameter
+ * and returns entity PK in the first column followed by the same columns as the single entity query.
+ * Without bulk query entities are resolved one by one.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:47
+ */
+public class NamedQueryCacheDependencyResolverImpl implements CacheDependencyResolver {
+
+    private final GenericDAO<?, Long> genericDAO;
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    private final String namedQuery;
+    private final String bulkNamedQuery;
+    private final List<String> dependencyTypes;
+
+    public NamedQueryCacheDependencyResolverImpl(final GenericDAO<?, Long> genericDAO,
+                                                 final String namedQuery,
+                                                 final List<String> dependencyTypes) {
+        this(genericDAO, namedQuery, dependencyTypes, null);
+    }
+
+    public NamedQueryCacheDependencyResolverImpl(final GenericDAO<?, Long> genericDAO,
+                                                 final String namedQuery,
+                                                 final List<String> dependencyTypes,
+                                                 final String bulkNamedQuery) {
+        this.genericDAO = genericDAO;
+        this.namedQuery = namedQuery;
+        this.dependencyTypes = dependencyTypes;
+        this.bulkNamedQuery = bulkNamedQuery;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Pair<String, Object>> findDependencies(final Long pk) {
+
+        final List<Object> rows = this.genericDAO.findQueryObjectByNamedQuery(this.namedQuery, pk);
+        if (rows == null || rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<Pair<String, Object>> dependencies = new ArrayList<>(rows.size() * this.dependencyTypes.size());
+        for (final Object row : rows) {
+            if (row instanceof Object[]) {
+                final Object[] columns = (Object[]) row;
+                for (int i = 0; i < columns.length && i < this.dependencyTypes.size(); i++) {
+                    if (columns[i] != null) {
+                        dependencies.add(new Pair<>(this.dependencyTypes.get(i), columns[i]));
+                    }
+                }
+            } else if (row != null) {
+                dependencies.add(new Pair<>(this.dependencyTypes.get(0), row));
+            }
+        }
+        return dependencies;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Long, List<Pair<String, Object>>> findDependencies(final Collection<Long> pks) {
+
+        final Map<Long, List<Pair<String, Object>>> dependencies = new HashMap<>(pks.size() * 2);
+
+        if (this.bulkNamedQuery == null || pks.size() == 1) {
+            for (final Long pk : pks) {
+                final List<Pair<String, Object>> pkDependencies = findDependencies(pk);
+                if (!pkDependencies.isEmpty()) {
+                    dependencies.put(pk, pkDependencies);
+                }
+            }
+            return dependencies;
+        }
+
+        final List<Long> all = new ArrayList<>(pks);
+        for (int from = 0; from < all.size(); from += BULK_CHUNK_SIZE) {
+
+            final List<Long> chunk = all.subList(from, Math.min(all.size(), from + BULK_CHUNK_SIZE));
+            final List<Object> rows = this.genericDAO.findQueryObjectByNamedQuery(this.bulkNamedQuery, new ArrayList<>(chunk));
+            if (rows == null) {
+                continue;
+            }
+
+            for (final Object row : rows) {
+                if (row instanceof Object[] && ((Object[]) row).length > 1 && ((Object[]) row)[0] instanceof Number) {
+                    final Object[] columns = (Object[]) row;
+                    final Long pk = ((Number) columns[0]).longValue();
+                    final List<Pair<String, Object>> pkDependencies = dependencies.computeIfAbsent(pk, k -> new ArrayList<>());
+                    for (int i = 1; i < columns.length && i <= this.dependencyTypes.size(); i++) {
+                        if (columns[i] != null) {
+                            pkDependencies.add(new Pair<>(this.dependencyTypes.get(i - 1), columns[i]));
+                        }
+                    }
+                }
+            }
+
+        }
+        return dependencies;
+
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.yes.cart.cluster.service;
 
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
+
 import java.util.List;
 
 /**
@@ -131,6 +133,23 @@ public interface BackdoorService {
      */
     List<Object[]> ftQuery(String query);
 
+    /**
+     * Full text search latency statistics for all indexes on this node.
+     *
+     * @return statistics per index
+     */
+    List<FTSStatisticsDTO> getFullTextSearchStatistics();
+
+    /**
+     * Explain slow query recorded in full text search statistics.
+     *
+     * @param indexName index name (see {@link FTSStatisticsDTO#getIndexName()})
+     * @param queryId   slow query id
+     *
+     * @return explanation or null if query is no longer available
+     */
+    String explainFullTextSearchQuery(String indexName, long queryId);
+
     /**
      * Reload system configurations.
      */
@@ -16,6 +16,7 @@
 package org.yes.cart.cluster.service;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * User: denispavlov
@@ -33,6 +34,14 @@ public interface CacheEvictionQueue {
      */
     void enqueue(String entityOperation, String entityName, Long pkValue);
 
+    /**
+     * Return item that could not be processed back to queue. PK's are merged with pending changes
+     * for the same entity operation and entity name, so repeated failures do not grow the queue.
+     *
+     * @param item cache eviction that was not delivered
+     */
+    void requeue(CacheEvictionItem item);
+
     /**
      * Get first item or null id queue is empty.
      *
@@ -40,6 +49,14 @@ public interface CacheEvictionQueue {
      */
     CacheEvictionItem dequeue();
 
+    /**
+     * Drain all pending changes in a single call. Changes are coalesced, so that there is only
+     * one item per entity operation and entity name with all distinct PK's.
+     *
+     * @return all pending cache evictions (empty list if queue is empty)
+     */
+    List<CacheEvictionItem> dequeueAll();
+
     /**
      * Clear current cache queue;
      */
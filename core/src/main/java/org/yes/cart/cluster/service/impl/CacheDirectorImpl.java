@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.yes.cart.cache.CacheDependencyTracker;
 import org.yes.cart.cluster.service.CacheDirector;
 import org.yes.cart.domain.dto.impl.CacheInfoDTO;
 import org.yes.cart.domain.misc.Pair;
@@ -44,6 +45,8 @@ public class CacheDirectorImpl implements CacheDirector {
 
     private Set<String> skipEvictAll = Collections.emptySet();
 
+    private CacheDependencyTracker cacheDependencyTracker;
+
     /**
      * {@inheritDoc}
      */
@@ -176,6 +179,8 @@ public class CacheDirectorImpl implements CacheDirector {
 
             final CacheManager cm = getCacheManager();
 
+            final List<String> dependentCaches = new ArrayList<>();
+
             for (Pair<String, String> cacheStrategy : cacheNames) {
 
                 final Cache cache = cm.getCache(cacheStrategy.getFirst());
@@ -194,6 +199,12 @@ public class CacheDirectorImpl implements CacheDirector {
 
                         cnt ++;
 
+                    } else if("dependency".equals(cacheStrategy.getSecond())) {
+
+                        dependentCaches.add(cacheStrategy.getFirst());
+
+                        cnt ++;
+
                     } else {
 
                         LOG.warn("The [{}] cache eviction strategy not supported", cacheStrategy.getSecond());
@@ -204,6 +215,8 @@ public class CacheDirectorImpl implements CacheDirector {
 
             }
 
+            evictDependents(dependentCaches, entityName, Collections.singletonList(pkValue));
+
         }
 
         return cnt;
@@ -223,6 +236,8 @@ public class CacheDirectorImpl implements CacheDirector {
 
             final CacheManager cm = getCacheManager();
 
+            final List<String> dependentCaches = new ArrayList<>();
+
             for (Pair<String, String> cacheStrategy : cacheNames) {
 
                 final Cache cache = cm.getCache(cacheStrategy.getFirst());
@@ -245,6 +260,12 @@ public class CacheDirectorImpl implements CacheDirector {
 
                         }
 
+                    } else if("dependency".equals(cacheStrategy.getSecond())) {
+
+                        dependentCaches.add(cacheStrategy.getFirst());
+
+                        cnt += pkValues.length;
+
                     } else {
 
                         LOG.warn("The [{}] cache eviction strategy not supported", cacheStrategy.getSecond());
@@ -255,11 +276,46 @@ public class CacheDirectorImpl implements CacheDirector {
 
             }
 
+            // all PK's are resolved in one go
+            evictDependents(dependentCaches, entityName, Arrays.asList(pkValues));
+
         }
 
         return cnt;
     }
 
+    /**
+     * Evict only keys that depend on given entities. Without dependency tracker caches are cleared.
+     *
+     * @param dependentCaches caches with "dependency" strategy
+     * @param entityName      entity name
+     * @param pkValues        entity PK's
+     */
+    void evictDependents(final List<String> dependentCaches, final String entityName, final List<Long> pkValues) {
+
+        if (dependentCaches.isEmpty()) {
+            return;
+        }
+
+        if (this.cacheDependencyTracker != null) {
+
+            final int evicted = this.cacheDependencyTracker.evict(dependentCaches, entityName, pkValues);
+            LOG.debug("Evicted {} keys dependent on {}:{} from {}", evicted, entityName, pkValues, dependentCaches);
+
+        } else {
+
+            final CacheManager cm = getCacheManager();
+            for (final String cacheName : dependentCaches) {
+                final Cache cache = cm.getCache(cacheName);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+
+        }
+
+    }
+
     /**
      * Resolve caches names for invalidation for given entity and operation.
      * @param entityOperation given operation
@@ -292,4 +348,9 @@ public class CacheDirectorImpl implements CacheDirector {
     public void setSkipEvictAll(final Set<String> skipEvictAll) {
         this.skipEvictAll = skipEvictAll;
     }
+
+    /** IoC. Set dependency tracker for "dependency" eviction strategy.  */
+    public void setCacheDependencyTracker(final CacheDependencyTracker cacheDependencyTracker) {
+        this.cacheDependencyTracker = cacheDependencyTracker;
+    }
 }
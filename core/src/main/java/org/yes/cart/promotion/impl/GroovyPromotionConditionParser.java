@@ -18,6 +18,7 @@ package org.yes.cart.promotion.impl;
 
 import groovy.lang.GroovyClassLoader;
 import org.apache.commons.lang.StringUtils;
+import org.codehaus.groovy.control.CompilationFailedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
@@ -30,6 +31,11 @@ import org.yes.cart.util.log.Markers;
  * Groovy backed promotion parser. promotion.getEligibilityCondition() is assumed to be
  * groovy script. The
  *
+ * Conditions are compiled with static typing first, so that context variables are typed locals
+ * and method calls are resolved at compile time. Conditions that use dynamic features (e.g.
+ * properties of implementation classes or undeclared variables) do not pass static type check
+ * and are compiled dynamically as before.
+ *
  * User: denispavlov
  * Date: 13-10-28
  * Time: 8:47 AM
@@ -63,10 +69,26 @@ public class GroovyPromotionConditionParser implements PromotionConditionParser
 
     Class parseGroovyCondition(final long promoId, final String promoCode, final String condition) {
 
+        try {
+            return parseGroovyCondition(promoId, promoCode, condition, true);
+        } catch (CompilationFailedException cfe) {
+            LOG.info("Promotion {} condition cannot be compiled statically, using dynamic condition. {}", promoCode, cfe.getMessage());
+        }
+        return parseGroovyCondition(promoId, promoCode, condition, false);
+
+    }
+
+    Class parseGroovyCondition(final long promoId, final String promoCode, final String condition, final boolean typed) {
+
         final StringBuilder script = new StringBuilder();
 
-        appendImports(script);
-        appendStartClass(script, promoId, promoCode);
+        if (typed) {
+            appendTypedImports(script);
+            appendTypedStartClass(script, promoId, promoCode);
+        } else {
+            appendImports(script);
+            appendStartClass(script, promoId, promoCode);
+        }
         appendBody(script, condition);
         appendEndClass(script);
 
@@ -127,6 +149,60 @@ public class GroovyPromotionConditionParser implements PromotionConditionParser
         script.append("def isSKUinCategory = { String code, String... categoryGUIDs -> context.conditionSupport.isProductInCategory(code, customerShopId, categoryGUIDs); }\n");
     }
 
+    /*
+     * Declare all necessary imports to compile statically typed groovy class
+     */
+    void appendTypedImports(final StringBuilder script) {
+        script.append("import groovy.transform.CompileStatic;\n");
+        script.append("import org.yes.cart.domain.entity.Brand;\n");
+        script.append("import org.yes.cart.domain.entity.Customer;\n");
+        script.append("import org.yes.cart.domain.entity.Product;\n");
+        script.append("import org.yes.cart.domain.entity.ProductSku;\n");
+        script.append("import org.yes.cart.promotion.PromotionCondition;\n");
+        script.append("import org.yes.cart.promotion.PromotionConditionSupport;\n");
+        script.append("import org.yes.cart.shoppingcart.CartItem;\n");
+        script.append("import org.yes.cart.shoppingcart.ShoppingCart;\n");
+        script.append("import org.yes.cart.shoppingcart.Total;\n");
+    }
+
+    /*
+     * Same variables and functions as in appendStartClass() but declared with types, so that
+     * eligibility condition can be compiled statically.
+     */
+    void appendTypedStartClass(final StringBuilder script, final long promoId, final String promoCode) {
+        script.append("@CompileStatic\n");
+        script.append("public class Promotion").append(clensePromoCode(promoCode)).append(" implements PromotionCondition {\n");
+        script.append("public long getPromotionId() {\n");
+        script.append("return ").append(promoId).append(";\n");
+        script.append("}\n");
+        script.append("public String getPromotionCode() {\n");
+        script.append("return '").append(promoCode).append("';\n");
+        script.append("}\n");
+        script.append("public boolean isEligible(Map<String, Object> context) {\n");
+        // Basic variables
+        script.append("final PromotionConditionSupport conditionSupport = (PromotionConditionSupport) context.get('conditionSupport');\n");
+        script.append("final Boolean registered = (Boolean) context.get('registered');\n");
+        script.append("final Customer customer = (Customer) context.get('customer');\n");
+        script.append("final List<String> customerTags = (List<String>) context.get('customerTags');\n");
+        script.append("final String customerType = (String) context.get('customerType');\n");
+        script.append("final List<String> pricingPolicy = (List<String>) context.get('pricingPolicy');\n");
+        script.append("final ShoppingCart shoppingCart = (ShoppingCart) context.get('shoppingCart');\n");
+        script.append("final CartItem shoppingCartItem = (CartItem) context.get('shoppingCartItem');\n");
+        script.append("final Total shoppingCartItemTotal = (Total) context.get('shoppingCartItemTotal');\n");
+        script.append("final Total shoppingCartOrderTotal = (Total) context.get('shoppingCartOrderTotal');\n");
+        script.append("final String SKU = shoppingCartItem?.productSkuCode;\n");
+        script.append("final Long shopId = shoppingCart?.shoppingContext?.shopId;\n");
+        script.append("final Long customerShopId = shoppingCart?.shoppingContext?.customerShopId;\n");
+        // Functions
+        script.append("final Closure<Product> product = { String code -> conditionSupport.getProductBySkuCode(code) };\n");
+        script.append("final Closure<ProductSku> productSku = { String code -> conditionSupport.getProductSkuByCode(code) };\n");
+        script.append("final Closure<Brand> brand = { String code -> conditionSupport.getProductBrand(code) };\n");
+        script.append("final Closure<Boolean> hasProductAttribute = { String code, String attr -> conditionSupport.hasProductAttribute(code, attr) };\n");
+        script.append("final Closure<String> productAttributeValue = { String code, String attr -> conditionSupport.getProductAttribute(code, attr) };\n");
+        script.append("final Closure<Boolean> isSKUofBrand = { String code, String... brandNames -> conditionSupport.isProductOfBrand(code, brandNames) };\n");
+        script.append("final Closure<Boolean> isSKUinCategory = { String code, String... categoryGUIDs -> conditionSupport.isProductInCategory(code, customerShopId, categoryGUIDs) };\n");
+    }
+
     /*
      * Append eligibility condition as body of the method. The return statement is assumed to
      * be inside the eligibility condition
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.promotion.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.expr.*;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.ast.builder.AstBuilder;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.syntax.Types;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yes.cart.promotion.PromoTriplet;
+import org.yes.cart.promotion.PromotionConditionSupport;
+
+import java.util.*;
+
+/**
+ * Pre-filter index for item promotions.
+ *
+ * Eligibility conditions that start with simple checks on SKU, brand, category or customer tag, e.g.
+ * {@code SKU == 'ABC' && ...}, {@code ['A', 'B'].contains(SKU)}, {@code isSKUofBrand(SKU, 'X')},
+ * {@code isSKUinCategory(SKU, 'cat')} or {@code customerTags.contains('vip')}, cannot be satisfied unless
+ * these checks are true. Such promotions are indexed by these requirements, so that for every cart item
+ * only promotions that can apply to it are evaluated. Conditions that do not start with such checks are
+ * evaluated for all items as before.
+ *
+ * Only leading checks joined by {@code &&} are used, so skipping a promotion never changes outcome of its
+ * condition.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 21:10
+ */
+final class PromotionConditionIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PromotionConditionIndex.class);
+
+    private static final String VAR_SKU = "SKU";
+    private static final String VAR_CART_ITEM = "shoppingCartItem";
+    private static final String VAR_CUSTOMER_TAGS = "customerTags";
+    private static final String FN_BRAND = "isSKUofBrand";
+    private static final String FN_CATEGORY = "isSKUinCategory";
+
+    enum Kind { SKU, TAG, BRAND, CATEGORY }
+
+    /**
+     * Single requirement for promotion to be eligible.
+     */
+    static final class Requirement {
+
+        private final Kind kind;
+        private final String[] values;
+        private final Set<String> valueSet;
+
+        Requirement(final Kind kind, final String... values) {
+            this.kind = kind;
+            this.values = values;
+            this.valueSet = new HashSet<>(Arrays.asList(values));
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        Set<String> getValues() {
+            return valueSet;
+        }
+
+        boolean isSatisfied(final String sku,
+                            final List<String> customerTags,
+                            final Long customerShopId,
+                            final PromotionConditionSupport conditionSupport) {
+            switch (kind) {
+                case SKU:
+                    return sku != null && valueSet.contains(sku);
+                case TAG:
+                    for (final String tag : customerTags) {
+                        if (valueSet.contains(tag)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case BRAND:
+                    return conditionSupport.isProductOfBrand(sku, values);
+                default:
+                    return conditionSupport.isProductInCategory(sku, customerShopId, values);
+            }
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Requirement that = (Requirement) o;
+            return kind == that.kind && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * kind.hashCode() + Arrays.hashCode(values);
+        }
+
+        @Override
+        public String toString() {
+            return kind + Arrays.toString(values);
+        }
+    }
+
+    private final List<PromoTriplet> promotions = new ArrayList<>();
+    private final List<List<Requirement>> requirements = new ArrayList<>();
+
+    private final BitSet unconditional = new BitSet();
+    private final Map<String, BitSet> bySku = new HashMap<>();
+    private final Map<String, BitSet> byTag = new HashMap<>();
+    private final Map<Requirement, BitSet> byRequirement = new LinkedHashMap<>();
+
+    /**
+     * Add promotion to index.
+     *
+     * @param promo promotion
+     */
+    void add(final PromoTriplet promo) {
+
+        final int ordinal = promotions.size();
+        final List<Requirement> reqs = parseRequirements(promo.getPromotion().getEligibilityCondition());
+
+        promotions.add(promo);
+        requirements.add(reqs);
+
+        if (reqs.isEmpty()) {
+            unconditional.set(ordinal);
+            return;
+        }
+
+        // SKU is the most selective, then tags, then brand and category
+        Requirement primary = reqs.get(0);
+        for (final Requirement req : reqs) {
+            if (req.getKind().ordinal() < primary.getKind().ordinal()) {
+                primary = req;
+            }
+        }
+
+        switch (primary.getKind()) {
+            case SKU:
+                for (final String sku : primary.getValues()) {
+                    bySku.computeIfAbsent(sku, k -> new BitSet()).set(ordinal);
+                }
+                break;
+            case TAG:
+                for (final String tag : primary.getValues()) {
+                    byTag.computeIfAbsent(tag, k -> new BitSet()).set(ordinal);
+                }
+                break;
+            default:
+                byRequirement.computeIfAbsent(primary, k -> new BitSet()).set(ordinal);
+        }
+
+    }
+
+    /**
+     * @return true if at least one promotion can be skipped by this index
+     */
+    boolean isSelective() {
+        return unconditional.cardinality() < promotions.size();
+    }
+
+    /**
+     * Filter promotion buckets for given item preserving order of buckets and promotions.
+     *
+     * @param buckets          all buckets
+     * @param sku              item SKU
+     * @param customerTags     customer tags
+     * @param customerShopId   customer shop
+     * @param conditionSupport support
+     *
+     * @return buckets with promotions that can apply
+     */
+    List<List<PromoTriplet>> filter(final List<List<PromoTriplet>> buckets,
+                                    final String sku,
+                                    final List<String> customerTags,
+                                    final Long customerShopId,
+                                    final PromotionConditionSupport conditionSupport) {
+
+        final BitSet candidates = (BitSet) unconditional.clone();
+
+        if (sku != null) {
+            final BitSet skuMatch = bySku.get(sku);
+            if (skuMatch != null) {
+                candidates.or(skuMatch);
+            }
+        }
+        for (final String tag : customerTags) {
+            final BitSet tagMatch = byTag.get(tag);
+            if (tagMatch != null) {
+                candidates.or(tagMatch);
+            }
+        }
+
+        final Map<Requirement, Boolean> evaluated = new HashMap<>();
+        for (final Map.Entry<Requirement, BitSet> entry : byRequirement.entrySet()) {
+            if (isSatisfied(entry.getKey(), evaluated, sku, customerTags, customerShopId, conditionSupport)) {
+                candidates.or(entry.getValue());
+            }
+        }
+
+        // candidates satisfy primary requirement, check the rest
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            final List<Requirement> reqs = requirements.get(i);
+            if (reqs.size() > 1) {
+                for (final Requirement req : reqs) {
+                    if (!isSatisfied(req, evaluated, sku, customerTags, customerShopId, conditionSupport)) {
+                        candidates.clear(i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        final Set<PromoTriplet> eligible = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            eligible.add(promotions.get(i));
+        }
+
+        final List<List<PromoTriplet>> filtered = new ArrayList<>(buckets.size());
+        for (final List<PromoTriplet> bucket : buckets) {
+            final List<PromoTriplet> promos = new ArrayList<>(bucket.size());
+            for (final PromoTriplet promo : bucket) {
+                if (eligible.contains(promo)) {
+                    promos.add(promo);
+                }
+            }
+            if (!promos.isEmpty()) {
+                filtered.add(promos);
+            }
+        }
+        return filtered;
+
+    }
+
+    private boolean isSatisfied(final Requirement req,
+                                final Map<Requirement, Boolean> evaluated,
+                                final String sku,
+                                final List<String> customerTags,
+                                final Long customerShopId,
+                                final PromotionConditionSupport conditionSupport) {
+
+        final Boolean cached = evaluated.get(req);
+        if (cached != null) {
+            return cached;
+        }
+        boolean satisfied;
+        try {
+            satisfied = req.isSatisfied(sku, customerTags, customerShopId, conditionSupport);
+        } catch (Exception exp) {
+            // let the condition itself fail in the same way
+            satisfied = true;
+        }
+        evaluated.put(req, satisfied);
+        return satisfied;
+
+    }
+
+    /**
+     * Extract leading requirements from eligibility condition.
+     *
+     * @param condition condition script
+     *
+     * @return requirements (empty if none can be determined)
+     */
+    static List<Requirement> parseRequirements(final String condition) {
+
+        if (StringUtils.isBlank(condition)) {
+            return Collections.emptyList();
+        }
+
+        try {
+
+            final List<ASTNode> nodes = new AstBuilder().buildFromString(CompilePhase.CONVERSION, true, condition);
+            if (nodes.size() != 1 || !(nodes.get(0) instanceof BlockStatement)) {
+                return Collections.emptyList();
+            }
+            final List<Statement> statements = ((BlockStatement) nodes.get(0)).getStatements();
+            if (statements.size() != 1) {
+                return Collections.emptyList();
+            }
+
+            final Expression expression;
+            if (statements.get(0) instanceof ReturnStatement) {
+                expression = ((ReturnStatement) statements.get(0)).getExpression();
+            } else if (statements.get(0) instanceof ExpressionStatement) {
+                expression = ((ExpressionStatement) statements.get(0)).getExpression();
+            } else {
+                return Collections.emptyList();
+            }
+
+            final List<Expression> terms = new ArrayList<>();
+            flattenAnd(expression, terms);
+
+            final List<Requirement> requirements = new ArrayList<>();
+            for (final Expression term : terms) {
+                final Requirement req = toRequirement(term);
+                if (req == null) {
+                    break; // only leading checks are safe to use
+                }
+                requirements.add(req);
+            }
+            return requirements;
+
+        } catch (Exception exp) {
+            LOG.debug("Unable to analyse promotion condition {}: {}", condition, exp.getMessage());
+        }
+        return Collections.emptyList();
+
+    }
+
+    private static void flattenAnd(final Expression expression, final List<Expression> terms) {
+        if (expression instanceof BinaryExpression
+                && ((BinaryExpression) expression).getOperation().getType() == Types.LOGICAL_AND) {
+            flattenAnd(((BinaryExpression) expression).getLeftExpression(), terms);
+            flattenAnd(((BinaryExpression) expression).getRightExpression(), terms);
+        } else {
+            terms.add(expression);
+        }
+    }
+
+    private static Requirement toRequirement(final Expression term) {
+
+        if (term instanceof BinaryExpression) {
+
+            final BinaryExpression binary = (BinaryExpression) term;
+            final int op = binary.getOperation().getType();
+            if (op == Types.COMPARE_EQUAL) {
+                // SKU == 'A' or 'A' == SKU
+                if (isSku(binary.getLeftExpression()) && isString(binary.getRightExpression())) {
+                    return new Requirement(Kind.SKU, toString(binary.getRightExpression()));
+                } else if (isString(binary.getLeftExpression()) && isSku(binary.getRightExpression())) {
+                    return new Requirement(Kind.SKU, toString(binary.getLeftExpression()));
+                }
+            } else if (op == Types.KEYWORD_IN) {
+                // SKU in ['A', 'B']
+                final String[] values = toStrings(binary.getRightExpression());
+                if (values != null && isSku(binary.getLeftExpression())) {
+                    return new Requirement(Kind.SKU, values);
+                }
+            }
+
+        } else if (term instanceof MethodCallExpression) {
+
+            final MethodCallExpression call = (MethodCallExpression) term;
+            final String method = call.getMethodAsString();
+            if (method == null || !(call.getArguments() instanceof ArgumentListExpression)) {
+                return null;
+            }
+            final List<Expression> args = ((ArgumentListExpression) call.getArguments()).getExpressions();
+
+            if ("contains".equals(method) && args.size() == 1) {
+                // ['A', 'B'].contains(SKU)
+                final String[] values = toStrings(call.getObjectExpression());
+                if (values != null && isSku(args.get(0))) {
+                    return new Requirement(Kind.SKU, values);
+                }
+                // customerTags.contains('vip')
+                if (isVariable(call.getObjectExpression(), VAR_CUSTOMER_TAGS) && !call.isSafe() && isString(args.get(0))) {
+                    return new Requirement(Kind.TAG, toString(args.get(0)));
+                }
+            } else if (call.isImplicitThis() && (FN_BRAND.equals(method) || FN_CATEGORY.equals(method))
+                    && args.size() > 1 && isSku(args.get(0))) {
+                // isSKUofBrand(SKU, 'A', 'B') or isSKUinCategory(SKU, 'A', 'B')
+                final String[] values = new String[args.size() - 1];
+                for (int i = 1; i < args.size(); i++) {
+                    if (!isString(args.get(i))) {
+                        return null;
+                    }
+                    values[i - 1] = toString(args.get(i));
+                }
+                return new Requirement(FN_BRAND.equals(method) ? Kind.BRAND : Kind.CATEGORY, values);
+            }
+
+        }
+
+        return null;
+
+    }
+
+    private static boolean isVariable(final Expression expression, final String name) {
+        return expression instanceof VariableExpression && name.equals(((VariableExpression) expression).getName());
+    }
+
+    private static boolean isSku(final Expression expression) {
+        if (isVariable(expression, VAR_SKU)) {
+            return true;
+        }
+        // shoppingCartItem.productSkuCode
+        return expression instanceof PropertyExpression
+                && isVariable(((PropertyExpression) expression).getObjectExpression(), VAR_CART_ITEM)
+                && "productSkuCode".equals(((PropertyExpression) expression).getPropertyAsString());
+    }
+
+    private static boolean isString(final Expression expression) {
+        return expression instanceof ConstantExpression && ((ConstantExpression) expression).getValue() instanceof String;
+    }
+
+    private static String toString(final Expression expression) {
+        return (String) ((ConstantExpression) expression).getValue();
+    }
+
+    private static String[] toStrings(final Expression expression) {
+        if (!(expression instanceof ListExpression)) {
+            return null;
+        }
+        final List<Expression> items = ((ListExpression) expression).getExpressions();
+        if (items.isEmpty()) {
+            return null;
+        }
+        final String[] values = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            if (!isString(items.get(i))) {
+                return null;
+            }
+            values[i] = toString(items.get(i));
+        }
+        return values;
+    }
+
+}
@@ -44,6 +44,7 @@ public class PromotionContextImpl implements PromotionContext {
     private final Instant timestamp = TimeContext.getTime();
 
     private final Map<String, List<List<PromoTriplet>>> promotionBuckets = new HashMap<>();
+    private final PromotionConditionIndex itemPromotionIndex = new PromotionConditionIndex();
 
     PromotionContextImpl(final String shopCode,
                          final String currency,
@@ -83,6 +84,10 @@ public class PromotionContextImpl implements PromotionContext {
         } else {
             buckets.add(Collections.singletonList(promo));
         }
+
+        if (Promotion.TYPE_ITEM.equals(promotion.getPromoType())) {
+            itemPromotionIndex.add(promo);
+        }
     }
 
     /** {@inheritDoc} */
@@ -145,22 +150,36 @@ public class PromotionContextImpl implements PromotionContext {
             return;
         }
 
+        final List<String> customerTags = getCustomerTags(customer);
+
         final Map<String, Object> context = new HashMap<>();
         context.put(PromotionCondition.VAR_CONDITION_SUPPORT, this.conditionSupport);
         context.put(PromotionCondition.VAR_REGISTERED, customer != null && !customer.isGuest());
         context.put(PromotionCondition.VAR_CUSTOMER, customer);
-        context.put(PromotionCondition.VAR_CUSTOMER_TAGS, getCustomerTags(customer));
+        context.put(PromotionCondition.VAR_CUSTOMER_TAGS, customerTags);
         context.put(PromotionCondition.VAR_CUSTOMER_TYPE, getCustomerType(cart, customer));
         context.put(PromotionCondition.VAR_CUSTOMER_PRICING_POLICY, getCustomerPricingPolicies(cart, customer));
         context.put(PromotionCondition.VAR_CART, cart);
 
+        final boolean useIndex = itemPromotionIndex.isSelective();
+        final Long customerShopId = useIndex ? cart.getShoppingContext().getCustomerShopId() : null;
+
         for (final CartItem item : cart.getCartItemList()) {
 
             if (!item.isFixedPrice()) { // Offers do not participate in promotions
 
-                context.put(PromotionCondition.VAR_CART_ITEM, item);
+                // only evaluate promotions that can apply to this item
+                final List<List<PromoTriplet>> buckets = useIndex ?
+                        itemPromotionIndex.filter(itemPromoBuckets, item.getProductSkuCode(), customerTags, customerShopId, this.conditionSupport) :
+                        itemPromoBuckets;
+
+                if (!buckets.isEmpty()) {
+
+                    context.put(PromotionCondition.VAR_CART_ITEM, item);
+
+                    applyPromotions(buckets, context);
 
-                applyPromotions(itemPromoBuckets, context);
+                }
 
             }
 
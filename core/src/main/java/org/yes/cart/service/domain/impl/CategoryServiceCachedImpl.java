@@ -260,6 +260,7 @@ public class CategoryServiceCachedImpl implements CategoryService {
             "categoryService-childCategoriesRecursive",
             "categoryService-childCategoriesRecursiveIds",
             "categoryService-childCategoriesRecursiveIdsWithLinks",
+            "categoryService-categoryTree",
             "categoryService-categoryIdsWithLinks",
             "categoryService-categoryHasSubcategory",
             "categoryService-byId",
@@ -298,6 +299,7 @@ public class CategoryServiceCachedImpl implements CategoryService {
             "categoryService-childCategoriesRecursive",
             "categoryService-childCategoriesRecursiveIds",
             "categoryService-childCategoriesRecursiveIdsWithLinks",
+            "categoryService-categoryTree",
             "categoryService-categoryIdsWithLinks",
             "categoryService-categoryHasSubcategory",
             "categoryService-byId",
@@ -336,6 +338,7 @@ public class CategoryServiceCachedImpl implements CategoryService {
             "categoryService-childCategoriesRecursive",
             "categoryService-childCategoriesRecursiveIds",
             "categoryService-childCategoriesRecursiveIdsWithLinks",
+            "categoryService-categoryTree",
             "categoryService-categoryIdsWithLinks",
             "categoryService-categoryHasSubcategory",
             "categoryService-byId",
@@ -20,6 +20,8 @@ import org.apache.commons.lang.StringUtils;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.domain.entity.Category;
 import org.yes.cart.service.domain.CategoryService;
@@ -39,16 +41,25 @@ public class CategoryServiceImpl extends BaseGenericServiceImpl<Category> implem
 
     private static final Logger LOG = LoggerFactory.getLogger(CategoryServiceImpl.class);
 
+    private static final String TREE_KEY = "tree";
+
     private final GenericDAO<Category, Long> categoryDao;
 
+    private final Cache TREE_CACHE;
+
+    private final Object treeLock = new Object();
+
     /**
      * Construct service to manage categories
      *
      * @param categoryDao     category dao to use
+     * @param cacheManager    cache manager to use
      */
-    public CategoryServiceImpl(final GenericDAO<Category, Long> categoryDao) {
+    public CategoryServiceImpl(final GenericDAO<Category, Long> categoryDao,
+                               final CacheManager cacheManager) {
         super(categoryDao);
         this.categoryDao = categoryDao;
+        TREE_CACHE = cacheManager.getCache("categoryService-categoryTree");
     }
 
 
@@ -187,11 +198,15 @@ public class CategoryServiceImpl extends BaseGenericServiceImpl<Category> implem
      */
     @Override
     public Set<Category> getChildCategoriesRecursive(final long categoryId) {
-        final Category thisCat = proxy().getById(categoryId);
-        if (thisCat != null) {
-            final Set<Category> all = new HashSet<>();
-            all.add(thisCat);
-            loadChildCategoriesRecursiveInternal(all, thisCat);
+        final long[] ids = getCategoryTree().getCategoryIdAndDescendantIds(categoryId, now());
+        if (ids.length > 0) {
+            final Set<Category> all = new HashSet<>(ids.length * 2);
+            for (final long id : ids) {
+                final Category cat = proxy().getById(id);
+                if (cat != null) {
+                    all.add(cat);
+                }
+            }
             return all;
         }
         return Collections.emptySet();
@@ -202,11 +217,15 @@ public class CategoryServiceImpl extends BaseGenericServiceImpl<Category> implem
      */
     @Override
     public List<Long> getChildCategoriesRecursiveIds(final long categoryId) {
-        final Set<Category> cats = proxy().getChildCategoriesRecursive(categoryId);
-        if (cats.isEmpty()) {
+        final long[] ids = getCategoryTree().getCategoryIdAndDescendantIds(categoryId, now());
+        if (ids.length == 0) {
             return Collections.emptyList();
         }
-        return Collections.unmodifiableList(transformToId(cats));
+        final List<Long> result = new ArrayList<>(ids.length);
+        for (final long id : ids) {
+            result.add(id);
+        }
+        return Collections.unmodifiableList(result);
     }
 
     /**
@@ -214,19 +233,50 @@ public class CategoryServiceImpl extends BaseGenericServiceImpl<Category> implem
      */
     @Override
     public List<Long> getChildCategoriesRecursiveIdsAndLinkIds(final long categoryId) {
-        final Set<Category> cats = proxy().getChildCategoriesRecursive(categoryId);
-        if (cats.isEmpty()) {
+        final CategoryTree tree = getCategoryTree();
+        final long[] ids = tree.getCategoryIdAndDescendantIds(categoryId, now());
+        if (ids.length == 0) {
             return Collections.emptyList();
         }
-        return Collections.unmodifiableList(transformToIdAndLinkId(cats));
+        final Set<Long> result = new LinkedHashSet<>(ids.length * 2);
+        for (final long id : ids) {
+            result.add(id);
+            final Long linkToId = tree.getLinkToId(id);
+            if (linkToId != null) {
+                result.add(linkToId);
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(result));
     }
 
-    private void loadChildCategoriesRecursiveInternal(final Set<Category> result, final Category category) {
-        List<Category> categories = proxy().getChildCategories(category.getCategoryId());
-        result.addAll(categories);
-        for (Category subCategory : categories) {
-            loadChildCategoriesRecursiveInternal(result, subCategory);
+    /**
+     * Snapshot of category graph, which is rebuilt from a single query whenever category
+     * cache is evicted.
+     *
+     * @return category tree
+     */
+    CategoryTree getCategoryTree() {
+        CategoryTree tree = getCategoryTreeFromCache();
+        if (tree == null) {
+            synchronized (treeLock) {
+                tree = getCategoryTreeFromCache();
+                if (tree == null) {
+                    final long start = System.currentTimeMillis();
+                    tree = new CategoryTree((List) categoryDao.findQueryObjectByNamedQuery("CATEGORY.TREE.ALL"));
+                    TREE_CACHE.put(TREE_KEY, tree);
+                    LOG.debug("Built category tree with {} categories in {}ms", tree.size(), System.currentTimeMillis() - start);
+                }
+            }
         }
+        return tree;
+    }
+
+    private CategoryTree getCategoryTreeFromCache() {
+        final Cache.ValueWrapper wrapper = TREE_CACHE.get(TREE_KEY);
+        if (wrapper != null) {
+            return (CategoryTree) wrapper.get();
+        }
+        return null;
     }
 
 
@@ -300,31 +350,7 @@ public class CategoryServiceImpl extends BaseGenericServiceImpl<Category> implem
      */
     @Override
     public boolean isCategoryHasSubcategory(final long topCategoryId, final long subCategoryId) {
-        final Category start = proxy().getById(subCategoryId);
-        if (start != null) {
-            if (subCategoryId == topCategoryId) {
-                return true;
-            } else {
-                final List<Category> list = new ArrayList<>();
-                list.add(start);
-                addParent(list, topCategoryId);
-                return list.get(list.size() - 1).getCategoryId() == topCategoryId;
-            }
-        }
-        return false;
-    }
-
-    private void addParent(final List<Category> categoryChain, final long categoryIdStopAt) {
-        final Category cat = categoryChain.get(categoryChain.size() - 1);
-        if (!cat.isRoot()) {
-            final Category parent = proxy().getById(cat.getParentId());
-            if (parent != null) {
-                categoryChain.add(parent);
-                if (parent.getCategoryId() != categoryIdStopAt) {
-                    addParent(categoryChain, categoryIdStopAt);
-                }
-            }
-        }
+        return getCategoryTree().isSubcategory(topCategoryId, subCategoryId);
     }
 
     /**
@@ -337,25 +363,6 @@ public class CategoryServiceImpl extends BaseGenericServiceImpl<Category> implem
         return cat;
     }
 
-    private List<Long> transformToId(final Collection<Category> categories) {
-        final Set<Long> result = new LinkedHashSet<>(categories.size());
-        for (Category category : categories) {
-            result.add(category.getCategoryId());
-        }
-        return new ArrayList<>(result);
-    }
-
-    private List<Long> transformToIdAndLinkId(final Collection<Category> categories) {
-        final Set<Long> result = new LinkedHashSet<>(categories.size());
-        for (Category category : categories) {
-            result.add(category.getCategoryId());
-            if (category.getLinkToId() != null) {
-                result.add(category.getLinkToId());
-            }
-        }
-        return new ArrayList<>(result);
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.domain.impl;
+
+import org.yes.cart.util.DomainApiUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable snapshot of category graph built from a single projection of all categories.
+ *
+ * Parent relationships are numbered in depth first order (pre/post), so that ancestor check is
+ * a constant time comparison. Descendants follow the same rules as {@link CategoryServiceImpl#getChildCategories(long)}
+ * (i.e. children of linked category are children of the link) and are computed once per category and
+ * snapshot. If none of the descendants have availability restrictions the precomputed array is used as is,
+ * otherwise availability is applied in memory for given time.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 20:05
+ */
+final class CategoryTree {
+
+    private static final int NONE = -1;
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<Long, Integer> index;
+    private final long[] ids;
+    private final int[] parent;
+    private final int[] link;
+    private final long[] linkIds;
+    private final boolean[] disabled;
+    private final LocalDateTime[] availableFrom;
+    private final LocalDateTime[] availableTo;
+
+    private final int[] childStart;
+    private final int[] children;
+
+    private final int[] pre;
+    private final int[] post;
+
+    private final AtomicReferenceArray<Descendants> descendants;
+
+    /**
+     * @param rows category rows [categoryId, parentId, linkToId, disabled, availablefrom, availableto]
+     */
+    CategoryTree(final List<Object[]> rows) {
+
+        final int size = rows.size();
+
+        this.index = new HashMap<>(size * 2);
+        this.ids = new long[size];
+        this.parent = new int[size];
+        this.link = new int[size];
+        this.linkIds = new long[size];
+        this.disabled = new boolean[size];
+        this.availableFrom = new LocalDateTime[size];
+        this.availableTo = new LocalDateTime[size];
+
+        for (int i = 0; i < size; i++) {
+            final Object[] row = rows.get(i);
+            this.ids[i] = ((Number) row[0]).longValue();
+            this.index.put(this.ids[i], i);
+            final Number linkTo = (Number) row[2];
+            this.linkIds[i] = linkTo != null ? linkTo.longValue() : 0L;
+            this.disabled[i] = Boolean.TRUE.equals(row[3]);
+            this.availableFrom[i] = (LocalDateTime) row[4];
+            this.availableTo[i] = (LocalDateTime) row[5];
+        }
+
+        final int[] childCount = new int[size];
+        for (int i = 0; i < size; i++) {
+            final Integer parentIdx = this.index.get(((Number) rows.get(i)[1]).longValue());
+            // root is its own parent
+            this.parent[i] = parentIdx == null || parentIdx == i ? NONE : parentIdx;
+            if (this.parent[i] != NONE) {
+                childCount[this.parent[i]]++;
+            }
+            final Integer linkIdx = this.linkIds[i] != 0L ? this.index.get(this.linkIds[i]) : null;
+            this.link[i] = linkIdx == null ? NONE : linkIdx;
+        }
+
+        this.childStart = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            this.childStart[i + 1] = this.childStart[i] + childCount[i];
+        }
+        this.children = new int[this.childStart[size]];
+        final int[] fill = Arrays.copyOf(this.childStart, size);
+        for (int i = 0; i < size; i++) {
+            if (this.parent[i] != NONE) {
+                this.children[fill[this.parent[i]]++] = i;
+            }
+        }
+
+        this.pre = new int[size];
+        this.post = new int[size];
+        Arrays.fill(this.pre, NONE);
+        Arrays.fill(this.post, NONE);
+        number();
+
+        this.descendants = new AtomicReferenceArray<>(size);
+
+    }
+
+    /*
+     * Iterative depth first numbering from every node without parent. Nodes with cyclic parent chain
+     * are never reached and remain unnumbered.
+     */
+    private void number() {
+
+        final int[] stack = new int[ids.length];
+        final int[] next = new int[ids.length];
+        int counter = 0;
+
+        for (int root = 0; root < ids.length; root++) {
+            if (parent[root] != NONE) {
+                continue;
+            }
+            int top = 0;
+            stack[top] = root;
+            next[top] = childStart[root];
+            pre[root] = counter++;
+            while (top >= 0) {
+                final int node = stack[top];
+                if (next[top] < childStart[node + 1]) {
+                    final int child = children[next[top]++];
+                    stack[++top] = child;
+                    next[top] = childStart[child];
+                    pre[child] = counter++;
+                } else {
+                    post[node] = counter++;
+                    top--;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * @return number of categories in this snapshot
+     */
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param categoryId category PK
+     *
+     * @return true if category is in this snapshot
+     */
+    boolean contains(final long categoryId) {
+        return index.containsKey(categoryId);
+    }
+
+    /**
+     * Check if sub category is top category or any of its descendants by parent relationship.
+     *
+     * @param topCategoryId top category PK
+     * @param subCategoryId sub category PK
+     *
+     * @return true if subcategory belongs to top category
+     */
+    boolean isSubcategory(final long topCategoryId, final long subCategoryId) {
+
+        final Integer sub = index.get(subCategoryId);
+        if (sub == null) {
+            return false;
+        }
+        if (topCategoryId == subCategoryId) {
+            return true;
+        }
+        final Integer top = index.get(topCategoryId);
+        if (top == null) {
+            return false;
+        }
+        if (pre[sub] != NONE) {
+            return pre[top] != NONE && pre[top] < pre[sub] && post[sub] < post[top];
+        }
+        // broken (cyclic) parent chain, walk at most once around
+        int current = parent[sub];
+        for (int i = 0; i < ids.length && current != NONE; i++) {
+            if (current == top) {
+                return true;
+            }
+            current = parent[current];
+        }
+        return false;
+
+    }
+
+    /**
+     * Category and all its descendants available at given time. The category itself is always included.
+     *
+     * @param categoryId category PK
+     * @param now        time to check availability
+     *
+     * @return category PKs, empty if category does not exist
+     */
+    long[] getCategoryIdAndDescendantIds(final long categoryId, final LocalDateTime now) {
+
+        final Integer start = index.get(categoryId);
+        if (start == null) {
+            return EMPTY;
+        }
+
+        Descendants all = descendants.get(start);
+        if (all == null) {
+            all = walk(start, null);
+            descendants.lazySet(start, all);
+        }
+        if (!all.restricted) {
+            return toIds(all.nodes, all.nodes.length);
+        }
+        final Descendants available = walk(start, now);
+        return toIds(available.nodes, available.nodes.length);
+
+    }
+
+    /**
+     * @param categoryId category PK
+     *
+     * @return PK of category this category links to, or null
+     */
+    Long getLinkToId(final long categoryId) {
+        final Integer idx = index.get(categoryId);
+        if (idx == null || linkIds[idx] == 0L) {
+            return null;
+        }
+        return linkIds[idx];
+    }
+
+    private Descendants walk(final int start, final LocalDateTime now) {
+
+        final BitSet seen = new BitSet(ids.length);
+        final int[] found = new int[ids.length];
+        int count = 0;
+        int cursor = 0;
+        boolean restricted = false;
+
+        seen.set(start);
+        found[count++] = start;
+
+        while (cursor < count) {
+            final int node = found[cursor++];
+            for (int pass = 0; pass < 2; pass++) {
+                // children of linked category first, then own children
+                final int from = pass == 0 ? link[node] : node;
+                if (from == NONE) {
+                    continue;
+                }
+                for (int c = childStart[from]; c < childStart[from + 1]; c++) {
+                    final int child = children[c];
+                    if (seen.get(child)) {
+                        continue;
+                    }
+                    if (now == null) {
+                        restricted |= disabled[child] || availableFrom[child] != null || availableTo[child] != null;
+                    } else if (!DomainApiUtils.isObjectAvailableNow(!disabled[child], availableFrom[child], availableTo[child], now)) {
+                        continue;
+                    }
+                    seen.set(child);
+                    found[count++] = child;
+                }
+            }
+        }
+
+        return new Descendants(Arrays.copyOf(found, count), restricted);
+
+    }
+
+    private long[] toIds(final int[] nodes, final int count) {
+        final long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = ids[nodes[i]];
+        }
+        return result;
+    }
+
+    private static final class Descendants {
+
+        private final int[] nodes;
+        private final boolean restricted;
+
+        private Descendants(final int[] nodes, final boolean restricted) {
+            this.nodes = nodes;
+            this.restricted = restricted;
+        }
+    }
+
+}
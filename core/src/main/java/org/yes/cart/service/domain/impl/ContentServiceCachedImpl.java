@@ -242,6 +242,7 @@ public class ContentServiceCachedImpl implements ContentService {
             "contentService-contentAttributesRecursive",
             "contentService-childContent",
             "contentService-childContentRecursive",
+            "categoryService-categoryTree",
             "contentService-byId",
             "contentService-contentHasSubcontent",
             "shopService-shopContentIds",
@@ -266,6 +267,7 @@ public class ContentServiceCachedImpl implements ContentService {
             "contentService-contentAttributesRecursive",
             "contentService-childContent",
             "contentService-childContentRecursive",
+            "categoryService-categoryTree",
             "contentService-byId",
             "contentService-contentHasSubcontent",
             "shopService-shopContentIds",
@@ -289,6 +291,7 @@ public class ContentServiceCachedImpl implements ContentService {
             "contentService-contentAttributesRecursive",
             "contentService-childContent",
             "contentService-childContentRecursive",
+            "categoryService-categoryTree",
             "contentService-byId",
             "contentService-contentHasSubcontent",
             "shopService-shopContentIds",
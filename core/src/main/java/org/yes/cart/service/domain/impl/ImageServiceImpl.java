@@ -28,6 +28,7 @@ import org.yes.cart.service.domain.ImageService;
 import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.service.media.MediaFileNameStrategy;
 import org.yes.cart.service.media.MediaFileNameStrategyResolver;
+import org.yes.cart.service.media.impl.ImageResizeExecutor;
 import org.yes.cart.stream.io.IOProvider;
 
 import javax.imageio.ImageIO;
@@ -67,6 +68,8 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
 
     private final IOProvider ioProvider;
 
+    private ImageResizeExecutor resizeExecutor;
+
 
     /**
      * Construct image service.
@@ -357,23 +360,24 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
 
                 if (!resizedIsNewer) {
 
-                    final byte[] originalContent = ioProvider.read(original, ctx);
-                    final byte[] resizedContent = resizeImage(original, originalContent, width, height);
+                    if (resizeExecutor == null) {
+                        return resizeAndStore(original, resized, width, height, ctx);
+                    }
+
+                    final byte[] resizedContent = resizeExecutor.execute(resized, () -> {
+                        // another worker may have just finished the same resize
+                        if (ioProvider.isNewerThan(resized, original, ctx)) {
+                            return ioProvider.read(resized, ctx);
+                        }
+                        return resizeAndStore(original, resized, width, height, ctx);
+                    });
 
-                    if (resizedContent.length > 0) {
-                        ioProvider.write(resized, resizedContent, ctx);
+                    if (resizedContent != null) {
                         return resizedContent;
                     }
 
-                    /*
-                         If we failed to resize this is probably due to invalid color metadata for the original image.
-                         JDK image API will fail if the metadata is incorrect. In order to fail gracefully we
-                         just pass back the original bytes so that the original image is used instead. There will be an
-                         ERROR log produced by catch block from #resizeImage(), so sys admins should provide regular
-                         feedback to business users to fix these images. Usually the fix is  simply erasing all meta
-                         from the image.
-                     */
-                    return originalContent;
+                    // resize is overloaded, serve original rather than holding request thread
+                    return ioProvider.read(original, ctx);
                 }
 
                 return ioProvider.read(resized, ctx);
@@ -391,6 +395,32 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
         }
     }
 
+    private byte[] resizeAndStore(final String original,
+                                  final String resized,
+                                  final String width,
+                                  final String height,
+                                  final Map<String, Object> ctx) throws IOException {
+
+        final byte[] originalContent = ioProvider.read(original, ctx);
+        final byte[] resizedContent = resizeImage(original, originalContent, width, height);
+
+        if (resizedContent.length > 0) {
+            ioProvider.write(resized, resizedContent, ctx);
+            return resizedContent;
+        }
+
+        /*
+             If we failed to resize this is probably due to invalid color metadata for the original image.
+             JDK image API will fail if the metadata is incorrect. In order to fail gracefully we
+             just pass back the original bytes so that the original image is used instead. There will be an
+             ERROR log produced by catch block from #resizeImage(), so sys admins should provide regular
+             feedback to business users to fix these images. Usually the fix is  simply erasing all meta
+             from the image.
+         */
+        return originalContent;
+
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean isImageInRepository(final String fullFileName,
@@ -501,6 +531,15 @@ public class ImageServiceImpl extends BaseGenericServiceImpl<SeoImage> implement
         return seoImages.get(0);
     }
 
+    /**
+     * Spring IoC.
+     *
+     * @param resizeExecutor executor for on demand resizing, if not set resizing is performed on caller thread
+     */
+    public void setResizeExecutor(final ImageResizeExecutor resizeExecutor) {
+        this.resizeExecutor = resizeExecutor;
+    }
+
     /**
      * Spring IoC.
      *
@@ -18,13 +18,17 @@ package org.yes.cart.service.domain.impl;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.yes.cart.cache.CacheDependencyTracker;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.dao.ResultsIteratorCallback;
 import org.yes.cart.domain.entity.SkuPrice;
 import org.yes.cart.service.domain.PriceService;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User: denispavlov
@@ -33,17 +37,26 @@ import java.util.List;
  */
 public class PriceServiceCachedImpl implements PriceService {
 
+    private static final String MINIMAL_PRICE = "priceService-minimalPrice";
+    private static final String ALL_CURRENT_PRICES = "priceService-allCurrentPrices";
+    private static final String ALL_PRICES = "priceService-allPrices";
+
+    private static final List<String> PRICE_CACHES = Arrays.asList(MINIMAL_PRICE, ALL_CURRENT_PRICES, ALL_PRICES);
+
     private final PriceService priceService;
+    private final CacheDependencyTracker cacheDependencyTracker;
 
-    public PriceServiceCachedImpl(final PriceService priceService) {
+    public PriceServiceCachedImpl(final PriceService priceService,
+                                  final CacheDependencyTracker cacheDependencyTracker) {
         this.priceService = priceService;
+        this.cacheDependencyTracker = cacheDependencyTracker;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "priceService-minimalPrice")
+    @Cacheable(value = MINIMAL_PRICE)
     public SkuPrice getMinimalPrice(final Long productId,
                                     final String selectedSku,
                                     final long customerShopId,
@@ -52,6 +65,8 @@ public class PriceServiceCachedImpl implements PriceService {
                                     final BigDecimal quantity,
                                     final boolean enforceTier,
                                     final String pricingPolicy) {
+        track(MINIMAL_PRICE, SimpleKeyGenerator.generateKey(productId, selectedSku, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy),
+                productId, selectedSku);
         return priceService.getMinimalPrice(productId, selectedSku, customerShopId, masterShopId, currencyCode, quantity, enforceTier, pricingPolicy);
     }
 
@@ -59,23 +74,40 @@ public class PriceServiceCachedImpl implements PriceService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "priceService-allCurrentPrices")
+    @Cacheable(value = ALL_CURRENT_PRICES)
     public List<SkuPrice> getAllCurrentPrices(final Long productId,
                                               final String selectedSku,
                                               final long customerShopId,
                                               final Long masterShopId,
                                               final String currencyCode,
                                               final String pricingPolicy) {
+        track(ALL_CURRENT_PRICES, SimpleKeyGenerator.generateKey(productId, selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy),
+                productId, selectedSku);
         return priceService.getAllCurrentPrices(productId, selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, List<SkuPrice>> getAllCurrentPrices(final List<Long> productIds,
+                                                           final List<String> skuCodes,
+                                                           final long customerShopId,
+                                                           final Long masterShopId,
+                                                           final String currencyCode,
+                                                           final String pricingPolicy) {
+        // not cached, since key would be unique for each list, underlying price book is cached per SKU/product
+        return priceService.getAllCurrentPrices(productIds, skuCodes, customerShopId, masterShopId, currencyCode, pricingPolicy);
+    }
+
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "priceService-allPrices")
+    @Cacheable(value = ALL_PRICES)
     public List<SkuPrice> getAllPrices(final Long productId, final String selectedSku, final String currencyCode) {
+        track(ALL_PRICES, SimpleKeyGenerator.generateKey(productId, selectedSku, currencyCode), productId, selectedSku);
         return priceService.getAllPrices(productId, selectedSku, currencyCode);
     }
 
@@ -116,13 +148,12 @@ public class PriceServiceCachedImpl implements PriceService {
      */
     @Override
     @CacheEvict(value = {
-            "imageService-seoImage" ,
-            "priceService-minimalPrice",
-            "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "imageService-seoImage"
     }, allEntries = true)
     public SkuPrice create(final SkuPrice instance) {
-        return priceService.create(instance);
+        final SkuPrice created = priceService.create(instance);
+        cacheDependencyTracker.evict(PRICE_CACHES, "SkuPriceEntity", created.getSkuPriceId());
+        return created;
     }
 
     /**
@@ -130,13 +161,12 @@ public class PriceServiceCachedImpl implements PriceService {
      */
     @Override
     @CacheEvict(value = {
-            "imageService-seoImage" ,
-            "priceService-minimalPrice",
-            "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "imageService-seoImage"
     }, allEntries = true)
     public SkuPrice update(final SkuPrice instance) {
-        return priceService.update(instance);
+        final SkuPrice updated = priceService.update(instance);
+        cacheDependencyTracker.evict(PRICE_CACHES, "SkuPriceEntity", updated.getSkuPriceId());
+        return updated;
     }
 
     /**
@@ -144,12 +174,11 @@ public class PriceServiceCachedImpl implements PriceService {
      */
     @Override
     @CacheEvict(value = {
-            "imageService-seoImage" ,
-            "priceService-minimalPrice",
-            "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "imageService-seoImage"
     }, allEntries = true)
     public void delete(final SkuPrice instance) {
+        // resolve dependencies while price still exists
+        cacheDependencyTracker.evict(PRICE_CACHES, "SkuPriceEntity", instance.getSkuPriceId());
         priceService.delete(instance);
     }
 
@@ -157,7 +186,8 @@ public class PriceServiceCachedImpl implements PriceService {
     @CacheEvict(value = {
             "priceService-minimalPrice",
             "priceService-allCurrentPrices",
-            "priceService-allPrices"
+            "priceService-allPrices",
+            "priceService-priceBook"
     }, allEntries = true)
     public void refresh(final String shopCode, final String currency) {
         // clear all
@@ -194,4 +224,9 @@ public class PriceServiceCachedImpl implements PriceService {
     public GenericDAO<SkuPrice, Long> getGenericDao() {
         return priceService.getGenericDao();
     }
+
+    private void track(final String cacheName, final Object key, final Long productId, final String selectedSku) {
+        cacheDependencyTracker.track(cacheName, key, "ProductEntity", productId);
+        cacheDependencyTracker.track(cacheName, key, "sku", selectedSku);
+    }
 }
@@ -39,6 +39,7 @@ import java.util.*;
 public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implements PriceService {
 
     private final GenericDAO<SkuPrice, Long> skuPriceDao;
+    private final SkuPriceBook skuPriceBook;
 
     /**
      * Constructor.
@@ -46,8 +47,20 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
      * @param skuPriceDao         sku price dao service
      */
     public PriceServiceImpl(final GenericDAO<SkuPrice, Long> skuPriceDao) {
+        this(skuPriceDao, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param skuPriceDao         sku price dao service
+     * @param skuPriceBook        optional in memory price book for current price lookups
+     */
+    public PriceServiceImpl(final GenericDAO<SkuPrice, Long> skuPriceDao,
+                            final SkuPriceBook skuPriceBook) {
         super(skuPriceDao);
         this.skuPriceDao = skuPriceDao;
+        this.skuPriceBook = skuPriceBook;
 
     }
 
@@ -64,7 +77,39 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
                                     final boolean enforceTier,
                                     final String pricingPolicy) {
 
-        final List<Pair<String, SkuPrice>> skuPrices;
+        final List<Pair<String, SkuPrice>> skuPrices = getCurrentSkuPrices(
+                productId, selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy, quantity);
+
+        return getMinimalSkuPrice(skuPrices, selectedSku, enforceTier);
+    }
+
+    /**
+     * Get prices that are valid now, from price book if it is available.
+     *
+     * @param productId       product PK
+     * @param selectedSku     optional SKU code
+     * @param customerShopId  shop filter
+     * @param masterShopId    optional fallback shop filter
+     * @param currencyCode    currency code
+     * @param pricingPolicy   optional pricing policy
+     * @param quantity        optional quantity filter
+     *
+     * @return list of sku prices
+     */
+    private List<Pair<String, SkuPrice>> getCurrentSkuPrices(final Long productId,
+                                                             final String selectedSku,
+                                                             final long customerShopId,
+                                                             final Long masterShopId,
+                                                             final String currencyCode,
+                                                             final String pricingPolicy,
+                                                             final BigDecimal quantity) {
+
+        if (skuPriceBook != null) {
+            return skuPriceBook.getCurrentPrices(productId, selectedSku, customerShopId, masterShopId,
+                    currencyCode, pricingPolicy, quantity, now());
+        }
+
+        List<Pair<String, SkuPrice>> skuPrices;
         if (selectedSku == null && productId != null) {
             skuPrices = getSkuPrices(productId, customerShopId, masterShopId, currencyCode, pricingPolicy);
         } else if (selectedSku != null) {
@@ -73,14 +118,6 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
             skuPrices = Collections.emptyList();
         }
 
-        return getMinimalSkuPrice(skuPrices, selectedSku, quantity, enforceTier);
-    }
-
-    private SkuPrice getMinimalSkuPrice(List<Pair<String, SkuPrice>> skuPrices,
-                                        final String selectedSku,
-                                        final BigDecimal quantity,
-                                        final boolean enforceTier) {
-
         skuPrices = getSkuPricesFilteredByTimeFrame(skuPrices);
 
         if (quantity != null) {
@@ -89,6 +126,12 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
                     quantity);
         }
 
+        return skuPrices;
+    }
+
+    private SkuPrice getMinimalSkuPrice(final List<Pair<String, SkuPrice>> skuPrices,
+                                        final String selectedSku,
+                                        final boolean enforceTier) {
 
         BigDecimal overallMinimalRegularPrice = null;
         BigDecimal overallMinimalRegularPriceTier = null;
@@ -145,22 +188,62 @@ public class PriceServiceImpl extends BaseGenericServiceImpl<SkuPrice> implement
                                               final String currencyCode,
                                               final String pricingPolicy) {
 
-        final List<Pair<String, SkuPrice>> skuPrices;
-        if (selectedSku == null && productId != null) {
-            skuPrices = getSkuPrices(productId, customerShopId, masterShopId, currencyCode, pricingPolicy);
-        } else if (selectedSku != null) {
-            skuPrices = getSkuPrices(selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy);
-        } else {
-            skuPrices = Collections.emptyList();
-        }
-
-        final List<Pair<String, SkuPrice>> filtered = getSkuPricesFilteredByTimeFrame(skuPrices);
+        final List<Pair<String, SkuPrice>> filtered = getCurrentSkuPrices(
+                productId, selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy, null);
 
         final List<SkuPrice> prices = new ArrayList<>();
         for (final Pair<String, SkuPrice> price : filtered) {
             prices.add(price.getSecond());
         }
 
+        return getLowestPricePerTier(prices);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, List<SkuPrice>> getAllCurrentPrices(final List<Long> productIds,
+                                                           final List<String> skuCodes,
+                                                           final long customerShopId,
+                                                           final Long masterShopId,
+                                                           final String currencyCode,
+                                                           final String pricingPolicy) {
+
+        final List<Pair<String, SkuPrice>> filtered;
+        if (skuPriceBook != null) {
+            filtered = skuPriceBook.getCurrentPrices(productIds, skuCodes, customerShopId, masterShopId,
+                    currencyCode, pricingPolicy, null, now());
+        } else {
+            filtered = new ArrayList<>();
+            for (final Long productId : productIds) {
+                filtered.addAll(getCurrentSkuPrices(productId, null, customerShopId, masterShopId, currencyCode, pricingPolicy, null));
+            }
+            for (final String skuCode : skuCodes) {
+                filtered.addAll(getCurrentSkuPrices(null, skuCode, customerShopId, masterShopId, currencyCode, pricingPolicy, null));
+            }
+        }
+
+        final Map<String, List<SkuPrice>> bySku = new LinkedHashMap<>();
+        for (final Pair<String, SkuPrice> price : filtered) {
+            bySku.computeIfAbsent(price.getFirst(), k -> new ArrayList<>()).add(price.getSecond());
+        }
+        for (final Map.Entry<String, List<SkuPrice>> sku : bySku.entrySet()) {
+            sku.setValue(getLowestPricePerTier(sku.getValue()));
+        }
+
+        return bySku;
+    }
+
+    /**
+     * Sort prices by tier and keep only lowest price for each tier.
+     *
+     * @param prices prices (modified)
+     *
+     * @return prices
+     */
+    private List<SkuPrice> getLowestPricePerTier(final List<SkuPrice> prices) {
+
         prices.sort(SORT_PRICE_BY_QUANTITY);
 
         final Iterator<SkuPrice> pricesIt = prices.iterator();
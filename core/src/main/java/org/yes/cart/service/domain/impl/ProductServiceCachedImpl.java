@@ -18,6 +18,8 @@ package org.yes.cart.service.domain.impl;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.yes.cart.cache.CacheDependencyTracker;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.dao.ResultsIteratorCallback;
 import org.yes.cart.domain.dto.ProductSearchResultNavDTO;
@@ -29,9 +31,11 @@ import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
 import org.yes.cart.search.dto.NavigationContext;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.service.domain.ProductService;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -43,10 +47,20 @@ import java.util.Map;
  */
 public class ProductServiceCachedImpl implements ProductService {
 
+    private static final String SKU_BY_ID = "productService-skuById";
+    private static final String DEFAULT_IMAGE = "productService-defaultImage";
+    private static final String PRODUCT_BY_SKU_CODE = "productService-productBySkuCode";
+    private static final String PRODUCT_BY_ID = "productService-productById";
+
+    private static final List<String> PRODUCT_CACHES = Arrays.asList(SKU_BY_ID, DEFAULT_IMAGE, PRODUCT_BY_SKU_CODE, PRODUCT_BY_ID);
+
     private final ProductService productService;
+    private final CacheDependencyTracker cacheDependencyTracker;
 
-    public ProductServiceCachedImpl(final ProductService productService) {
+    public ProductServiceCachedImpl(final ProductService productService,
+                                    final CacheDependencyTracker cacheDependencyTracker) {
         this.productService = productService;
+        this.cacheDependencyTracker = cacheDependencyTracker;
     }
 
     /** {@inheritDoc} */
@@ -57,9 +71,15 @@ public class ProductServiceCachedImpl implements ProductService {
 
     /** {@inheritDoc} */
     @Override
-    @Cacheable(value = "productService-skuById")
+    @Cacheable(value = SKU_BY_ID)
     public ProductSku getSkuById(final Long skuId, final boolean withAttributes) {
-        return productService.getSkuById(skuId, withAttributes);
+        final ProductSku sku = productService.getSkuById(skuId, withAttributes);
+        final Object key = SimpleKeyGenerator.generateKey(skuId, withAttributes);
+        cacheDependencyTracker.track(SKU_BY_ID, key, "ProductSkuEntity", skuId);
+        if (sku != null && sku.getProduct() != null) {
+            cacheDependencyTracker.track(SKU_BY_ID, key, "ProductEntity", sku.getProduct().getProductId());
+        }
+        return sku;
     }
 
 
@@ -70,8 +90,9 @@ public class ProductServiceCachedImpl implements ProductService {
      * @return image file name if found.
      */
     @Override
-    @Cacheable(value = "productService-defaultImage")
+    @Cacheable(value = DEFAULT_IMAGE)
     public String getDefaultImage(final Long productId) {
+        cacheDependencyTracker.track(DEFAULT_IMAGE, SimpleKeyGenerator.generateKey(productId), "ProductEntity", productId);
         return productService.getDefaultImage(productId);
     }
 
@@ -139,9 +160,15 @@ public class ProductServiceCachedImpl implements ProductService {
      * @return product sku for this sku code
      */
     @Override
-    @Cacheable(value = "productService-productBySkuCode")
+    @Cacheable(value = PRODUCT_BY_SKU_CODE)
     public Product getProductBySkuCode(final String skuCode) {
-        return productService.getProductBySkuCode(skuCode);
+        final Product product = productService.getProductBySkuCode(skuCode);
+        final Object key = SimpleKeyGenerator.generateKey(skuCode);
+        cacheDependencyTracker.track(PRODUCT_BY_SKU_CODE, key, "sku", skuCode);
+        if (product != null) {
+            cacheDependencyTracker.track(PRODUCT_BY_SKU_CODE, key, "ProductEntity", product.getProductId());
+        }
+        return product;
     }
 
 
@@ -157,8 +184,9 @@ public class ProductServiceCachedImpl implements ProductService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable(value = "productService-productById")
+    @Cacheable(value = PRODUCT_BY_ID)
     public Product getProductById(final Long productId, final boolean withAttribute) {
+        cacheDependencyTracker.track(PRODUCT_BY_ID, SimpleKeyGenerator.generateKey(productId, withAttribute), "ProductEntity", productId);
         return productService.getProductById(productId, withAttribute);
     }
 
@@ -171,6 +199,15 @@ public class ProductServiceCachedImpl implements ProductService {
         return productService.getProductSearchResultDTOByQuery(navigationContext, firstResult, maxResults, sortFieldName, reverse);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Cacheable(value = "productService-productSearchResultDTOByQuery")
+    public ProductSearchResultPageDTO getProductSearchResultDTOByQuery(final NavigationContext navigationContext, final String searchAfter, final int maxResults, final String sortFieldName, final boolean reverse) {
+        return productService.getProductSearchResultDTOByQuery(navigationContext, searchAfter, maxResults, sortFieldName, reverse);
+    }
+
 
     /**
      * {@inheritDoc}
@@ -357,6 +394,38 @@ public class ProductServiceCachedImpl implements ProductService {
         return productService.getProductsSkuFullTextIndexState();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FTSStatisticsDTO getProductsFullTextSearchStatistics() {
+        return productService.getProductsFullTextSearchStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FTSStatisticsDTO getProductsSkuFullTextSearchStatistics() {
+        return productService.getProductsSkuFullTextSearchStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainProductsFullTextSearchQuery(final long queryId) {
+        return productService.explainProductsFullTextSearchQuery(queryId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainProductsSkuFullTextSearchQuery(final long queryId) {
+        return productService.explainProductsSkuFullTextSearchQuery(queryId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -431,6 +500,14 @@ public class ProductServiceCachedImpl implements ProductService {
         productService.reindexProductSku(code);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reindexProductSkuVolatile(final String code) {
+        productService.reindexProductSkuVolatile(code);
+    }
+
 
     /**
      * {@inheritDoc}
@@ -499,8 +576,6 @@ public class ProductServiceCachedImpl implements ProductService {
     /** {@inheritDoc} */
     @Override
     @CacheEvict(value ={
-            "productService-skuById",
-            "productService-defaultImage",
             "productService-randomProductByCategory",
             "productService-productAttributes",
             "productService-allProductsAttributeValues",
@@ -510,8 +585,6 @@ public class ProductServiceCachedImpl implements ProductService {
             "productService-featuredProducts",
             "productService-newProducts",
             "productService-taggedProducts",
-            "productService-productBySkuCode",
-            "productService-productById",
             "productService-productByQuery",
             "productService-productSearchResultDTOByQuery",
             "productService-productQtyByQuery",
@@ -520,14 +593,14 @@ public class ProductServiceCachedImpl implements ProductService {
 
     }, allEntries = true)
     public Product update(final Product instance) {
-        return productService.update(instance);
+        final Product updated = productService.update(instance);
+        cacheDependencyTracker.evict(PRODUCT_CACHES, "ProductEntity", updated.getProductId());
+        return updated;
     }
 
     /** {@inheritDoc} */
     @Override
     @CacheEvict(value ={
-            "productService-skuById",
-            "productService-defaultImage",
             "productService-randomProductByCategory",
             "productService-productAttributes",
             "productService-allProductsAttributeValues",
@@ -537,8 +610,6 @@ public class ProductServiceCachedImpl implements ProductService {
             "productService-featuredProducts",
             "productService-newProducts",
             "productService-taggedProducts",
-            "productService-productBySkuCode",
-            "productService-productById",
             "productService-productByQuery",
             "productService-productSearchResultDTOByQuery",
             "productService-productQtyByQuery",
@@ -548,6 +619,7 @@ public class ProductServiceCachedImpl implements ProductService {
     }, allEntries = true)
     public void delete(final Product instance) {
         productService.delete(instance);
+        cacheDependencyTracker.evict(PRODUCT_CACHES, "ProductEntity", instance.getProductId());
     }
 
     /** {@inheritDoc} */
@@ -38,6 +38,7 @@ import org.yes.cart.search.dao.entity.AdapterUtils;
 import org.yes.cart.search.dao.support.ShopCategoryRelationshipSupport;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
 import org.yes.cart.search.dto.NavigationContext;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.service.domain.AttributeService;
 import org.yes.cart.service.domain.ProductService;
 import org.yes.cart.service.domain.ProductSkuService;
@@ -454,12 +455,17 @@ public class ProductServiceImpl extends BaseGenericServiceImpl<Product> implemen
                 reverse,
                 AdapterUtils.FIELD_PK,
                 AdapterUtils.FIELD_CLASS,
-                AdapterUtils.FIELD_OBJECT
+                AdapterUtils.FIELD_OBJECT,
+                AdapterUtils.FIELD_QTY
         );
 
         final List<ProductSearchResultDTO> rez = new ArrayList<>(searchRez.getFirst().size());
         for (Object[] obj : searchRez.getFirst()) {
             final ProductSearchResultDTO dto = AdapterUtils.readObjectFieldValue((String) obj[2], ProductSearchResultDTOImpl.class);
+            if (dto != null && obj[3] != null) {
+                // inventory is updated in place, so it may be more recent than the stored object
+                dto.setQtyOnWarehouse(AdapterUtils.readQtyFieldValue((String) obj[3]));
+            }
             rez.add(dto);
         }
 
@@ -467,6 +473,42 @@ public class ProductServiceImpl extends BaseGenericServiceImpl<Product> implemen
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProductSearchResultPageDTO getProductSearchResultDTOByQuery(final NavigationContext navigationContext,
+                                                                       final String searchAfter,
+                                                                       final int maxResults,
+                                                                       final String sortFieldName,
+                                                                       final boolean reverse) {
+
+        final Pair<List<Object[]>, Pair<Integer, String>> searchRez = productDao.fullTextSearchAfter(
+                navigationContext.getProductQuery(),
+                searchAfter,
+                maxResults,
+                sortFieldName,
+                reverse,
+                AdapterUtils.FIELD_PK,
+                AdapterUtils.FIELD_CLASS,
+                AdapterUtils.FIELD_OBJECT,
+                AdapterUtils.FIELD_QTY
+        );
+
+        final List<ProductSearchResultDTO> rez = new ArrayList<>(searchRez.getFirst().size());
+        for (Object[] obj : searchRez.getFirst()) {
+            final ProductSearchResultDTO dto = AdapterUtils.readObjectFieldValue((String) obj[2], ProductSearchResultDTOImpl.class);
+            if (dto != null && obj[3] != null) {
+                // inventory is updated in place, so it may be more recent than the stored object
+                dto.setQtyOnWarehouse(AdapterUtils.readQtyFieldValue((String) obj[3]));
+            }
+            rez.add(dto);
+        }
+
+        return new ProductSearchResultPageDTOImpl(rez, -1, maxResults, searchRez.getSecond().getFirst(), sortFieldName, reverse, searchRez.getSecond().getSecond());
+
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -726,6 +768,38 @@ public class ProductServiceImpl extends BaseGenericServiceImpl<Product> implemen
         return productSkuDao.getFullTextIndexState();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FTSStatisticsDTO getProductsFullTextSearchStatistics() {
+        return productDao.getFullTextSearchStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FTSStatisticsDTO getProductsSkuFullTextSearchStatistics() {
+        return productSkuDao.getFullTextSearchStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainProductsFullTextSearchQuery(final long queryId) {
+        return productDao.explainFullTextSearchQuery(queryId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainProductsSkuFullTextSearchQuery(final long queryId) {
+        return productSkuDao.explainFullTextSearchQuery(queryId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -817,6 +891,18 @@ public class ProductServiceImpl extends BaseGenericServiceImpl<Product> implemen
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reindexProductSkuVolatile(final String code) {
+        final ProductSku productSku = productSkuService.findProductSkuBySkuCode(code);
+        if (productSku != null) {
+            // SKU documents do not have prices and inventory, so only product documents are updated
+            productDao.fullTextSearchReindexVolatile(productSku.getProduct().getProductId());
+        }
+    }
+
 
     /**
      * {@inheritDoc}
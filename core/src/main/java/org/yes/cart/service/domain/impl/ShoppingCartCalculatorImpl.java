@@ -1,12 +1,21 @@
 package org.yes.cart.service.domain.impl;
 
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.domain.ShoppingCartCalculator;
 import org.yes.cart.shoppingcart.*;
 import org.yes.cart.shoppingcart.impl.ShoppingCartImpl;
+import org.yes.cart.util.MoneyUtils;
 
 import java.math.BigDecimal;
+import java.util.*;
 
 /**
+ * Price calculator for single SKU prices.
+ *
+ * If {@link TaxProvider} is configured prices are evaluated directly in the same way as cart calculation does for
+ * item with promotions disabled (i.e. tax for SKU in current shop/location applied to given price), otherwise
+ * a throwaway cart with single item is recalculated using calculation strategy.
+ *
  * User: denispavlov
  * Date: 01/10/2015
  * Time: 08:56
@@ -14,12 +23,23 @@ import java.math.BigDecimal;
 public class ShoppingCartCalculatorImpl implements ShoppingCartCalculator {
 
     private final AmountCalculationStrategy calculationStrategy;
+    private final TaxProvider taxProvider;
 
     /**
      * @param calculationStrategy this calculation strategy must match the one used for the shopping cart
      */
     public ShoppingCartCalculatorImpl(final AmountCalculationStrategy calculationStrategy) {
+        this(calculationStrategy, null);
+    }
+
+    /**
+     * @param calculationStrategy this calculation strategy must match the one used for the shopping cart
+     * @param taxProvider         tax provider used by calculation strategy (null to always use calculation strategy)
+     */
+    public ShoppingCartCalculatorImpl(final AmountCalculationStrategy calculationStrategy,
+                                      final TaxProvider taxProvider) {
         this.calculationStrategy = calculationStrategy;
+        this.taxProvider = taxProvider;
     }
 
     private MutableShoppingCart createNewCart(final ShoppingCart currentCart,
@@ -73,6 +93,10 @@ public class ShoppingCartCalculatorImpl implements ShoppingCartCalculator {
                                      final String skuCode,
                                      final BigDecimal minimalPrice) {
 
+        if (taxProvider != null) {
+            return calculatePrices(currentCart, Collections.singletonList(new Pair<>(skuCode, minimalPrice))).get(0);
+        }
+
         final MutableShoppingCart cart = createNewCart(currentCart, true, false, true);
 
         cart.addProductSkuToCart(skuCode, skuCode, BigDecimal.ONE);
@@ -95,6 +119,61 @@ public class ShoppingCartCalculatorImpl implements ShoppingCartCalculator {
         return model;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PriceModel> calculatePrices(final ShoppingCart currentCart,
+                                            final List<Pair<String, BigDecimal>> skuPrices) {
+
+        final List<PriceModel> models = new ArrayList<>(skuPrices.size());
+
+        if (taxProvider == null) {
+            for (final Pair<String, BigDecimal> skuPrice : skuPrices) {
+                models.add(skuPrice.getSecond() != null ? calculatePrice(currentCart, skuPrice.getFirst(), skuPrice.getSecond()) : null);
+            }
+            return models;
+        }
+
+        final ShoppingContext ctx = currentCart.getShoppingContext();
+        final String shopCode = ctx.getShopCode();
+        final String currency = currentCart.getCurrencyCode();
+        final String countryCode = ctx.getCountryCode();
+        final String stateCode = ctx.getStateCode();
+
+        // tax depends only on SKU, so quantity tiers and repeated SKU share the lookup
+        final Map<String, TaxProvider.Tax> taxes = new HashMap<>();
+
+        for (final Pair<String, BigDecimal> skuPrice : skuPrices) {
+
+            final String skuCode = skuPrice.getFirst();
+            final BigDecimal price = skuPrice.getSecond();
+
+            if (price == null) {
+                models.add(null);
+                continue;
+            }
+
+            TaxProvider.Tax tax = taxes.get(skuCode);
+            if (tax == null) {
+                tax = taxProvider.determineTax(shopCode, currency, countryCode, stateCode, skuCode);
+                taxes.put(skuCode, tax);
+            }
+
+            final MoneyUtils.Money money = MoneyUtils.getMoney(price, tax.getRate(), !tax.isExcluded());
+
+            models.add(new DefaultPriceModel(
+                    money.getGross(),
+                    money.getNet(),
+                    tax.getCode(),
+                    tax.getRate(),
+                    tax.isExcluded()));
+
+        }
+
+        return models;
+    }
+
     public static class DefaultPriceModel implements PriceModel {
 
         private final BigDecimal grossPrice;
@@ -22,6 +22,8 @@ import org.yes.cart.domain.entity.ShoppingCartState;
 import org.yes.cart.service.domain.ShoppingCartStateService;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class ShoppingCartStateServiceImpl extends BaseGenericServiceImpl<ShoppingCartState> implements ShoppingCartStateService {
@@ -46,6 +48,17 @@ public class ShoppingCartStateServiceImpl extends BaseGenericServiceImpl<Shoppin
         return shoppingCartStateDao.findSingleByNamedQuery("SHOPPINGCARTSTATE.BY.GUID", guid);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ShoppingCartState> findByGuids(final Collection<String> guids) {
+        if (guids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return shoppingCartStateDao.findByNamedQuery("SHOPPINGCARTSTATE.BY.GUIDS", guids);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,440 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.domain.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.yes.cart.cache.CacheDependencyTracker;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.domain.misc.SkuPriceQuantityComparatorImpl;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * In memory price book that answers current price lookups without hitting the database.
+ *
+ * All prices of a SKU (or of all SKU of a product) in given currency are loaded with a single query (one
+ * query per batch of SKU or products) and compiled into {@link PriceRows}: rows are partitioned by shop,
+ * ordered by tier and price, and each partition has validity index of its rows ordered by sale from, so
+ * that every row is stored once. Lookup is a binary search for rows that started before the given time,
+ * which are filtered by sale to, put back in tier order and cut at the quantity tier, pricing policy is
+ * checked on the remaining rows.
+ *
+ * Compiled rows are kept in {@link #PRICE_BOOK} cache region and are tracked by product and SKU code,
+ * so that "dependency" eviction strategy for price and SKU changes (both local and cluster events)
+ * recompiles only the rows affected. Since rows hold whole validity time line they do not go stale
+ * when sale periods start or end.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 11:10
+ */
+public class SkuPriceBook {
+
+    static final String PRICE_BOOK = "priceService-priceBook";
+
+    private static final Comparator<SkuPrice> SORT_PRICE_BY_QUANTITY = new SkuPriceQuantityComparatorImpl();
+
+    private final GenericDAO<SkuPrice, Long> skuPriceDao;
+    private final CacheManager cacheManager;
+    private final CacheDependencyTracker cacheDependencyTracker;
+
+    /**
+     * Construct price book.
+     *
+     * @param skuPriceDao            sku price dao
+     * @param cacheManager           cache manager
+     * @param cacheDependencyTracker dependency tracker
+     */
+    public SkuPriceBook(final GenericDAO<SkuPrice, Long> skuPriceDao,
+                        final CacheManager cacheManager,
+                        final CacheDependencyTracker cacheDependencyTracker) {
+        this.skuPriceDao = skuPriceDao;
+        this.cacheManager = cacheManager;
+        this.cacheDependencyTracker = cacheDependencyTracker;
+    }
+
+    /**
+     * Get prices that are valid at given time.
+     *
+     * @param productId       product PK (used if SKU code is not specified)
+     * @param skuCode         optional SKU code
+     * @param customerShopId  shop
+     * @param masterShopId    optional fallback shop
+     * @param currencyCode    currency
+     * @param pricingPolicy   optional pricing policy, default prices are included for any policy
+     * @param quantity        optional quantity, if specified only tiers up to quantity are included
+     * @param now             time
+     *
+     * @return SKU code and price pairs ordered by tier and price within each shop
+     */
+    public List<Pair<String, SkuPrice>> getCurrentPrices(final Long productId,
+                                                         final String skuCode,
+                                                         final long customerShopId,
+                                                         final Long masterShopId,
+                                                         final String currencyCode,
+                                                         final String pricingPolicy,
+                                                         final BigDecimal quantity,
+                                                         final LocalDateTime now) {
+
+        if (skuCode != null) {
+            return getCurrentPrices(Collections.<Long>emptyList(), Collections.singletonList(skuCode),
+                    customerShopId, masterShopId, currencyCode, pricingPolicy, quantity, now);
+        } else if (productId != null) {
+            return getCurrentPrices(Collections.singletonList(productId), Collections.<String>emptyList(),
+                    customerShopId, masterShopId, currencyCode, pricingPolicy, quantity, now);
+        }
+        return Collections.emptyList();
+
+    }
+
+    /**
+     * Get prices that are valid at given time for several products and SKU. Rows that are not in the
+     * book yet are loaded with one query for all products and one for all SKU.
+     *
+     * @param productIds      products (all SKU of each product)
+     * @param skuCodes        SKU codes
+     * @param customerShopId  shop
+     * @param masterShopId    optional fallback shop
+     * @param currencyCode    currency
+     * @param pricingPolicy   optional pricing policy, default prices are included for any policy
+     * @param quantity        optional quantity, if specified only tiers up to quantity are included
+     * @param now             time
+     *
+     * @return SKU code and price pairs ordered by tier and price within each product/SKU and shop
+     */
+    public List<Pair<String, SkuPrice>> getCurrentPrices(final List<Long> productIds,
+                                                         final List<String> skuCodes,
+                                                         final long customerShopId,
+                                                         final Long masterShopId,
+                                                         final String currencyCode,
+                                                         final String pricingPolicy,
+                                                         final BigDecimal quantity,
+                                                         final LocalDateTime now) {
+
+        final Cache cache = this.cacheManager.getCache(PRICE_BOOK);
+
+        final List<PriceRows> all = new ArrayList<>(productIds.size() + skuCodes.size());
+
+        final Map<Long, String> missingProducts = new LinkedHashMap<>();
+        for (final Long productId : new LinkedHashSet<>(productIds)) {
+            final String key = "P:" + productId + ':' + currencyCode;
+            final PriceRows rows = getCachedRows(cache, key, "ProductEntity", productId);
+            if (rows != null) {
+                all.add(rows);
+            } else {
+                missingProducts.put(productId, key);
+            }
+        }
+
+        final Map<String, String> missingSkus = new LinkedHashMap<>();
+        for (final String skuCode : new LinkedHashSet<>(skuCodes)) {
+            final String key = "S:" + skuCode + ':' + currencyCode;
+            final PriceRows rows = getCachedRows(cache, key, "sku", skuCode);
+            if (rows != null) {
+                all.add(rows);
+            } else {
+                missingSkus.put(skuCode, key);
+            }
+        }
+
+        if (!missingProducts.isEmpty()) {
+            final Map<Object, List<SkuPrice>> byProduct = new HashMap<>();
+            final List<Object> loaded = this.skuPriceDao.findQueryObjectByNamedQuery(
+                    "PRODUCTID.SKUPRICE.BY.PRODUCTS.AND.CURRENCY", new ArrayList<>(missingProducts.keySet()), currencyCode);
+            for (final Object row : loaded) {
+                final Object[] productAndPrice = (Object[]) row;
+                byProduct.computeIfAbsent(productAndPrice[0], k -> new ArrayList<>()).add((SkuPrice) productAndPrice[1]);
+            }
+            for (final Map.Entry<Long, String> product : missingProducts.entrySet()) {
+                all.add(putRows(cache, product.getValue(), byProduct.get(product.getKey())));
+            }
+        }
+
+        if (!missingSkus.isEmpty()) {
+            final Map<String, List<SkuPrice>> bySku = new HashMap<>();
+            final List<SkuPrice> loaded = this.skuPriceDao.findByNamedQuery(
+                    "SKUPRICE.BY.CODES.AND.CURRENCY", new ArrayList<>(missingSkus.keySet()), currencyCode);
+            for (final SkuPrice price : loaded) {
+                bySku.computeIfAbsent(price.getSkuCode(), k -> new ArrayList<>()).add(price);
+            }
+            for (final Map.Entry<String, String> sku : missingSkus.entrySet()) {
+                all.add(putRows(cache, sku.getValue(), bySku.get(sku.getKey())));
+            }
+        }
+
+        final String policy = StringUtils.isNotBlank(pricingPolicy) ? pricingPolicy : null;
+        final long time = toMillis(now);
+
+        final List<Pair<String, SkuPrice>> current = new ArrayList<>();
+        for (final PriceRows rows : all) {
+            if (!rows.isEmpty()) {
+                rows.collect(customerShopId, policy, quantity, time, current);
+                if (masterShopId != null && masterShopId != customerShopId) {
+                    rows.collect(masterShopId, policy, quantity, time, current);
+                }
+            }
+        }
+        return current;
+
+    }
+
+    private PriceRows getCachedRows(final Cache cache,
+                                    final String key,
+                                    final String dependencyType,
+                                    final Object dependencyId) {
+
+        if (cache != null) {
+            final Cache.ValueWrapper cached = cache.get(key);
+            if (cached != null) {
+                return (PriceRows) cached.get();
+            }
+            // track before load, so that concurrent change evicts rows compiled from old prices
+            this.cacheDependencyTracker.track(PRICE_BOOK, key, dependencyType, dependencyId);
+        }
+        return null;
+
+    }
+
+    private PriceRows putRows(final Cache cache, final String key, final List<SkuPrice> prices) {
+
+        final PriceRows rows = new PriceRows(prices != null ? prices : Collections.<SkuPrice>emptyList());
+        if (cache != null) {
+            cache.put(key, rows);
+        }
+        return rows;
+
+    }
+
+    static long toMillis(final LocalDateTime dateTime) {
+        // UTC keeps the mapping monotonic (no DST overlaps), it is only used for ordering
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Compiled prices for single lookup key. Row data is held in parallel arrays indexed by row number,
+     * rows are grouped by shop and ordered by tier and price within shop.
+     */
+    static final class PriceRows implements Serializable {
+
+        private static final long serialVersionUID = 20261018L;
+
+        private static final int DEFAULT_POLICY = -1;
+
+        private final long[] shops;
+        private final Partition[] partitions;
+
+        private final SkuPrice[] prices;
+        private final BigDecimal[] tiers;
+        private final int[] policies;
+        private final String[] policyNames;
+        private final long[] validTo;
+
+        PriceRows(final List<SkuPrice> all) {
+
+            final List<SkuPrice> sorted = new ArrayList<>(all);
+            sorted.sort((p1, p2) -> {
+                final int byShop = Long.compare(p1.getShop().getShopId(), p2.getShop().getShopId());
+                return byShop != 0 ? byShop : SORT_PRICE_BY_QUANTITY.compare(p1, p2);
+            });
+
+            final int size = sorted.size();
+            this.prices = sorted.toArray(new SkuPrice[size]);
+            this.tiers = new BigDecimal[size];
+            this.policies = new int[size];
+
+            final List<String> names = new ArrayList<>();
+            final long[] from = new long[size];
+            this.validTo = new long[size];
+            for (int i = 0; i < size; i++) {
+                final SkuPrice price = this.prices[i];
+                this.tiers[i] = price.getQuantity();
+                final String policy = price.getPricingPolicy();
+                if (StringUtils.isBlank(policy)) {
+                    this.policies[i] = DEFAULT_POLICY;
+                } else {
+                    int idx = names.indexOf(policy);
+                    if (idx == -1) {
+                        idx = names.size();
+                        names.add(policy);
+                    }
+                    this.policies[i] = idx;
+                }
+                from[i] = price.getSalefrom() != null ? toMillis(price.getSalefrom()) : Long.MIN_VALUE;
+                // sale to is inclusive, so validity ends at the next millisecond
+                this.validTo[i] = price.getSaleto() != null ? toMillis(price.getSaleto()) + 1L : Long.MAX_VALUE;
+            }
+            this.policyNames = names.toArray(new String[names.size()]);
+
+            int shopCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || shopId(i) != shopId(i - 1)) {
+                    shopCount++;
+                }
+            }
+            this.shops = new long[shopCount];
+            this.partitions = new Partition[shopCount];
+
+            int start = 0;
+            int shop = 0;
+            for (int i = 1; i <= size; i++) {
+                if (i == size || shopId(i) != shopId(start)) {
+                    this.shops[shop] = shopId(start);
+                    this.partitions[shop] = new Partition(start, i, from);
+                    shop++;
+                    start = i;
+                }
+            }
+
+        }
+
+        private long shopId(final int row) {
+            return this.prices[row].getShop().getShopId();
+        }
+
+        boolean isEmpty() {
+            return this.prices.length == 0;
+        }
+
+        /**
+         * Collect rows valid at given time.
+         *
+         * @param shopId   shop
+         * @param policy   pricing policy or null for default
+         * @param quantity quantity or null for all tiers
+         * @param time     time in millis
+         * @param current  target
+         */
+        void collect(final long shopId,
+                     final String policy,
+                     final BigDecimal quantity,
+                     final long time,
+                     final List<Pair<String, SkuPrice>> current) {
+
+            final int shop = Arrays.binarySearch(this.shops, shopId);
+            if (shop < 0) {
+                return;
+            }
+
+            final int[] rows = this.partitions[shop].valid(time, this.validTo);
+            final int end = quantity != null ? tierUpperBound(rows, quantity) : rows.length;
+            final int policyIdx = policy != null ? indexOfPolicy(policy) : DEFAULT_POLICY;
+
+            for (int i = 0; i < end; i++) {
+                final int row = rows[i];
+                if (this.policies[row] == DEFAULT_POLICY || (policyIdx != DEFAULT_POLICY && this.policies[row] == policyIdx)) {
+                    final SkuPrice price = this.prices[row];
+                    current.add(new Pair<>(price.getSkuCode(), price));
+                }
+            }
+
+        }
+
+        private int indexOfPolicy(final String policy) {
+            for (int i = 0; i < this.policyNames.length; i++) {
+                if (this.policyNames[i].equals(policy)) {
+                    return i;
+                }
+            }
+            return DEFAULT_POLICY;
+        }
+
+        /**
+         * @return number of leading rows (in tier order) with tier less or equal to quantity
+         */
+        private int tierUpperBound(final int[] rows, final BigDecimal quantity) {
+            int lo = 0;
+            int hi = rows.length;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (this.tiers[rows[mid]].compareTo(quantity) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+    }
+
+    /**
+     * Validity index for rows of a single shop, holds row numbers ordered by sale from.
+     */
+    static final class Partition implements Serializable {
+
+        private static final long serialVersionUID = 20261018L;
+
+        private final long[] starts;
+        private final int[] rows;
+
+        Partition(final int start, final int end, final long[] from) {
+
+            final Integer[] byStart = new Integer[end - start];
+            for (int i = start; i < end; i++) {
+                byStart[i - start] = i;
+            }
+            Arrays.sort(byStart, (r1, r2) -> Long.compare(from[r1], from[r2]));
+
+            this.starts = new long[byStart.length];
+            this.rows = new int[byStart.length];
+            for (int i = 0; i < byStart.length; i++) {
+                this.rows[i] = byStart[i];
+                this.starts[i] = from[byStart[i]];
+            }
+
+        }
+
+        /**
+         * @param time    time in millis
+         * @param validTo end of validity (exclusive) for all rows
+         *
+         * @return rows valid at given time in row (i.e. tier) order
+         */
+        int[] valid(final long time, final long[] validTo) {
+            // number of rows that start before or at time
+            int lo = 0;
+            int hi = this.starts.length;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (this.starts[mid] <= time) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            final int[] valid = new int[lo];
+            int cnt = 0;
+            for (int i = 0; i < lo; i++) {
+                if (time < validTo[this.rows[i]]) {
+                    valid[cnt++] = this.rows[i];
+                }
+            }
+            Arrays.sort(valid, 0, cnt);
+            return cnt == lo ? valid : Arrays.copyOf(valid, cnt);
+        }
+
+    }
+
+}
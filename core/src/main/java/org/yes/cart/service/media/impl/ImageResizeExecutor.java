@@ -0,0 +1,227 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.media.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded worker pool for image resizing with single flight de-duplication.
+ *
+ * Resizing decodes the whole original into memory, so running it on request threads means that a burst of
+ * requests for a new image exhausts both web container threads and heap. All resize tasks are executed
+ * by fixed number of workers (defaults to number of cores) with bounded queue. Concurrent requests for the
+ * same key (i.e. same resized file) join the task that is already in progress instead of submitting another
+ * one.
+ *
+ * If the queue is full or the result is not available in time the caller gets null and is expected to
+ * degrade gracefully (e.g. serve original image). Public getters are exposed via JMX.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 23:20
+ */
+public class ImageResizeExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageResizeExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMs;
+
+    private final ConcurrentMap<String, Future<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    /**
+     * @param workers       number of resize workers, zero or less to use number of available processors
+     * @param queueCapacity maximum number of pending resize tasks
+     * @param timeoutMs     maximum time caller waits for result
+     */
+    public ImageResizeExecutor(final int workers,
+                               final int queueCapacity,
+                               final long timeoutMs) {
+
+        final int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger counter = new AtomicInteger();
+
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "yc-image-resize-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+
+    }
+
+    /**
+     * Execute resize task or join the one in progress for the same key.
+     *
+     * @param key    task key (e.g. resized file name, which includes size)
+     * @param resize resize task
+     *
+     * @return resized content or null if task could not be executed in time (queue is full, timeout, interrupt)
+     *
+     * @throws IOException resize task error
+     */
+    public byte[] execute(final String key, final Callable<byte[]> resize) throws IOException {
+
+        final FutureTask<byte[]> task = new FutureTask<>(resize);
+        final Future<byte[]> running = inFlight.putIfAbsent(key, task);
+
+        final Future<byte[]> result;
+        if (running == null) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        inFlight.remove(key, task);
+                    }
+                });
+                submitted.incrementAndGet();
+            } catch (RejectedExecutionException ree) {
+                inFlight.remove(key, task);
+                task.cancel(false); // release anyone who joined in the meantime
+                rejected.incrementAndGet();
+                LOG.warn("Image resize queue is full ({} pending), skipping resize for {}", executor.getQueue().size(), key);
+                return null;
+            }
+            result = task;
+        } else {
+            deduplicated.incrementAndGet();
+            result = running;
+        }
+
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException te) {
+            timedOut.incrementAndGet();
+            LOG.warn("Image resize for {} did not complete in {}ms", key, timeoutMs);
+            return null;
+        } catch (CancellationException ce) {
+            return null;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+
+    }
+
+    /**
+     * Spring IoC destroy method.
+     */
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return number of workers
+     */
+    public int getWorkers() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return number of workers currently resizing
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return number of resize tasks waiting for a worker
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return maximum number of pending resize tasks
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return number of distinct images being resized or waiting in queue
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return number of tasks submitted to workers
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return number of completed resize tasks
+     */
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * @return number of requests that joined resize already in progress
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.get();
+    }
+
+    /**
+     * @return number of requests rejected due to full queue
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return number of requests that did not get result in time
+     */
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+}
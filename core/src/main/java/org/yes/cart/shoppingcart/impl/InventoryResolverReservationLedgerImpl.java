@@ -0,0 +1,408 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.yes.cart.config.Configuration;
+import org.yes.cart.config.ConfigurationContext;
+import org.yes.cart.constants.Constants;
+import org.yes.cart.domain.entity.SkuWarehouse;
+import org.yes.cart.domain.entity.Warehouse;
+import org.yes.cart.service.domain.SkuWarehouseService;
+import org.yes.cart.shoppingcart.InventoryResolver;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inventory resolver that serves reservations of hot SKU's from in-memory ledger, so that concurrent
+ * checkouts for the same SKU do not serialise on a single {@link SkuWarehouse} row lock.
+ *
+ * Each (warehouse, SKU) cell leases a block of stock from the database by reserving it in
+ * {@link SkuWarehouse} (one row lock per block rather than per reservation). Reservations are then
+ * allocated from the lease using atomic counters, and voided reservations are returned to the lease.
+ * Since leased stock is already reserved in the database this works safely across several nodes and
+ * available to sell quantity never exceeds the actual stock. Unused lease of cells that were idle
+ * since the previous flush is returned to the database in periodic flush and on shutdown.
+ *
+ * Lease is only made available to other threads once the transaction that reserved it is committed,
+ * and local allocations are returned to the lease if the order transaction is rolled back.
+ *
+ * Database remains the source of truth: cells are created empty and lease from the current
+ * database state. If node terminates abnormally its unused lease (at most lease size per cell)
+ * remains reserved in the database until inventory is adjusted, i.e. the failure mode is under
+ * selling, never overselling.
+ *
+ * Backorder reservations, debit and credit are not on the hot path and are delegated directly.
+ *
+ * This resolver is optional and is enabled per fulfilment centre via SYSTEM_EXTENSION_CFG_PROPERTIES:
+ * FFCODE.inventoryResolver=inventoryResolverReservationLedger
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 18:40
+ */
+public class InventoryResolverReservationLedgerImpl implements InventoryResolver, Configuration, InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InventoryResolverReservationLedgerImpl.class);
+
+    private static final BigDecimal ZERO = BigDecimal.ZERO.setScale(Constants.DEFAULT_SCALE, RoundingMode.HALF_UP);
+
+    private final SkuWarehouseService skuWarehouseService;
+
+    private final Map<String, Cell> cells = new ConcurrentHashMap<>();
+
+    private long leaseUnits = toUnits(BigDecimal.TEN);
+    private TaskScheduler taskScheduler;
+    private long flushIntervalMs = 5000L;
+    private ScheduledFuture<?> flushTask;
+
+    private ConfigurationContext cfgContext;
+
+    public InventoryResolverReservationLedgerImpl(final SkuWarehouseService skuWarehouseService) {
+        this.skuWarehouseService = skuWarehouseService;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BigDecimal reservation(final Warehouse warehouse, final String productSkuCode, final BigDecimal reserveQty) {
+        return reservation(warehouse, productSkuCode, reserveQty, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BigDecimal reservation(final Warehouse warehouse, final String productSkuCode, final BigDecimal reserveQty, final boolean allowBackorder) {
+
+        final long units = allowBackorder ? -1L : toUnits(reserveQty);
+        if (units <= 0L) {
+            // backorders, zero and fractions beyond default scale are not leased
+            return skuWarehouseService.reservation(warehouse, productSkuCode, reserveQty, allowBackorder);
+        }
+
+        final Cell cell = cells.computeIfAbsent(key(warehouse, productSkuCode), k -> new Cell(warehouse, productSkuCode));
+        cell.active = true;
+
+        // fast path: allocate from lease
+        final long fromLease = cell.take(units);
+        if (fromLease == units) {
+            allocated(cell, units);
+            return ZERO;
+        }
+
+        synchronized (cell) {
+
+            // lease may have been topped up while we were waiting
+            final long taken = fromLease + cell.take(units - fromLease);
+            final long missing = units - taken;
+            long leased = 0L;
+
+            if (missing > 0L) {
+                final long request = Math.max(missing, leaseUnits);
+                final BigDecimal rest = skuWarehouseService.reservation(warehouse, productSkuCode, fromUnits(request), false);
+                leased = request - toUnitsRoundUp(rest);
+            }
+
+            final long fromNewLease = Math.min(leased, missing);
+            final long surplus = leased - fromNewLease;
+
+            // lease reserved in this transaction is only visible to others once it is committed
+            if (surplus > 0L) {
+                afterCompletion(() -> cell.available.addAndGet(surplus), null);
+            }
+            // stock allocated from committed lease is returned on rollback, new lease is rolled back in database
+            if (taken > 0L) {
+                afterCompletion(null, () -> cell.available.addAndGet(taken));
+            }
+            cell.allocated.addAndGet(taken + fromNewLease);
+            afterCompletion(null, () -> cell.allocated.addAndGet(-(taken + fromNewLease)));
+
+            final long notReserved = missing - fromNewLease;
+            return notReserved > 0L ? fromUnits(notReserved) : ZERO;
+
+        }
+
+    }
+
+    private void allocated(final Cell cell, final long units) {
+
+        cell.allocated.addAndGet(units);
+        afterCompletion(null, () -> {
+            cell.allocated.addAndGet(-units);
+            cell.available.addAndGet(units);
+        });
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BigDecimal voidReservation(final Warehouse warehouse, final String productSkuCode, final BigDecimal voidQty) {
+
+        final long units = toUnits(voidQty);
+        final Cell cell = units > 0L ? cells.get(key(warehouse, productSkuCode)) : null;
+        if (cell != null && cell.release(units)) {
+            // reservation stays in database, it just goes back to the lease
+            cell.active = true;
+            afterCompletion(() -> cell.available.addAndGet(units), () -> cell.allocated.addAndGet(units));
+            return ZERO;
+        }
+        return skuWarehouseService.voidReservation(warehouse, productSkuCode, voidQty);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BigDecimal debit(final Warehouse warehouse, final String productSkuCode, final BigDecimal debitQty) {
+        return skuWarehouseService.debit(warehouse, productSkuCode, debitQty);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BigDecimal credit(final Warehouse warehouse, final String productSkuCode, final BigDecimal addQty) {
+        return skuWarehouseService.credit(warehouse, productSkuCode, addQty);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SkuWarehouse findByWarehouseSku(final Warehouse warehouse, final String productSkuCode) {
+        return skuWarehouseService.findByWarehouseSku(warehouse, productSkuCode);
+    }
+
+    /**
+     * Return unused lease of all cells that had no activity since last flush back to database.
+     *
+     * @return number of cells flushed
+     */
+    int flush() {
+
+        int flushed = 0;
+        for (final Cell cell : cells.values()) {
+            if (cell.active) {
+                cell.active = false;
+                continue;
+            }
+            synchronized (cell) {
+                final long units = cell.available.getAndSet(0L);
+                if (units > 0L) {
+                    try {
+                        final BigDecimal rest = skuWarehouseService.voidReservation(cell.warehouse, cell.skuCode, fromUnits(units));
+                        if (rest.signum() > 0) {
+                            LOG.warn("Returned lease for {} on {} exceeds reserved quantity by {}", cell.skuCode, cell.warehouse.getCode(), rest);
+                        }
+                        flushed++;
+                    } catch (Exception exp) {
+                        cell.available.addAndGet(units);
+                        LOG.error("Unable to return lease for " + cell.skuCode + " on " + cell.warehouse.getCode() + ", cause: " + exp.getMessage(), exp);
+                    }
+                }
+            }
+        }
+        return flushed;
+
+    }
+
+    private void afterCompletion(final Runnable onCommit, final Runnable onRollback) {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                        if (onCommit != null) {
+                            onCommit.run();
+                        }
+                    } else if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                        if (onRollback != null) {
+                            onRollback.run();
+                        }
+                    } else {
+                        // not safe to make this stock available, it is returned on next inventory adjustment
+                        LOG.warn("Unknown transaction outcome, inventory lease is not adjusted");
+                    }
+                }
+            });
+        } else if (onCommit != null) {
+            onCommit.run();
+        }
+
+    }
+
+    private static String key(final Warehouse warehouse, final String productSkuCode) {
+        return warehouse.getWarehouseId() + "|" + productSkuCode;
+    }
+
+    /*
+     * Quantities are kept as long in units of default scale, -1 if quantity cannot be represented exactly.
+     */
+    private static long toUnits(final BigDecimal qty) {
+        if (qty == null || qty.signum() < 0) {
+            return -1L;
+        }
+        try {
+            return qty.movePointRight(Constants.DEFAULT_SCALE).longValueExact();
+        } catch (ArithmeticException ae) {
+            return -1L;
+        }
+    }
+
+    private static long toUnitsRoundUp(final BigDecimal qty) {
+        if (qty == null || qty.signum() <= 0) {
+            return 0L;
+        }
+        return qty.movePointRight(Constants.DEFAULT_SCALE).setScale(0, RoundingMode.CEILING).longValue();
+    }
+
+    private static BigDecimal fromUnits(final long units) {
+        return BigDecimal.valueOf(units, Constants.DEFAULT_SCALE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void afterPropertiesSet() throws Exception {
+
+        if (taskScheduler != null && flushIntervalMs > 0L) {
+            flushTask = taskScheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (Exception exp) {
+                    LOG.error("Unable to flush inventory ledger, cause: " + exp.getMessage(), exp);
+                }
+            }, flushIntervalMs);
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void destroy() throws Exception {
+
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        for (final Cell cell : cells.values()) {
+            cell.active = false;
+        }
+        final int flushed = flush();
+        LOG.info("Inventory ledger returned unused lease for {} cells", flushed);
+
+    }
+
+    /**
+     * Spring IoC. Quantity leased from database at a time.
+     *
+     * @param leaseQuantity lease size
+     */
+    public void setLeaseQuantity(final BigDecimal leaseQuantity) {
+        final long units = toUnits(leaseQuantity);
+        if (units <= 0L) {
+            throw new IllegalArgumentException("Lease quantity must be positive with scale of at most " + Constants.DEFAULT_SCALE);
+        }
+        this.leaseUnits = units;
+    }
+
+    /**
+     * Spring IoC. Enables periodic return of unused lease.
+     *
+     * @param taskScheduler scheduler
+     */
+    public void setTaskScheduler(final TaskScheduler taskScheduler) {
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Spring IoC. Flush interval, cell must be idle for one full interval before its lease is returned.
+     *
+     * @param flushIntervalMs interval in millis, 0 disables periodic flush
+     */
+    public void setFlushIntervalMs(final long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ConfigurationContext getCfgContext() {
+        return cfgContext;
+    }
+
+    public void setCfgContext(final ConfigurationContext cfgContext) {
+        this.cfgContext = cfgContext;
+    }
+
+    /**
+     * Ledger cell for single (warehouse, SKU) pair.
+     */
+    private static final class Cell {
+
+        private final Warehouse warehouse;
+        private final String skuCode;
+
+        /** leased from database and not allocated */
+        private final AtomicLong available = new AtomicLong(0L);
+        /** allocated from lease by this node net of voids */
+        private final AtomicLong allocated = new AtomicLong(0L);
+
+        private volatile boolean active;
+
+        private Cell(final Warehouse warehouse, final String skuCode) {
+            this.warehouse = warehouse;
+            this.skuCode = skuCode;
+        }
+
+        /**
+         * @return units taken from lease (up to requested)
+         */
+        private long take(final long units) {
+            while (true) {
+                final long current = available.get();
+                if (current <= 0L) {
+                    return 0L;
+                }
+                final long take = Math.min(current, units);
+                if (available.compareAndSet(current, current - take)) {
+                    return take;
+                }
+            }
+        }
+
+        /**
+         * @return true if units were allocated by this node and are now released
+         */
+        private boolean release(final long units) {
+            while (true) {
+                final long current = allocated.get();
+                if (current < units) {
+                    return false;
+                }
+                if (allocated.compareAndSet(current, current - units)) {
+                    return true;
+                }
+            }
+        }
+
+    }
+
+}
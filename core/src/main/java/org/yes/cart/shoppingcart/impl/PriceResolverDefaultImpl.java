@@ -22,6 +22,7 @@ import org.yes.cart.shoppingcart.PriceResolver;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User: denispavlov
@@ -48,4 +49,10 @@ public class PriceResolverDefaultImpl implements PriceResolver {
         return this.priceService.getAllCurrentPrices(productId, selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, List<SkuPrice>> getAllCurrentPrices(final List<Long> productIds, final List<String> skuCodes, final long customerShopId, final Long masterShopId, final String currencyCode, final String pricingPolicy) {
+        return this.priceService.getAllCurrentPrices(productIds, skuCodes, customerShopId, masterShopId, currencyCode, pricingPolicy);
+    }
+
 }
@@ -61,6 +61,12 @@ public class PriceResolverImpl
         return getPriceResolver(customerShopId).getAllCurrentPrices(productId, selectedSku, customerShopId, masterShopId, currencyCode, pricingPolicy);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, List<SkuPrice>> getAllCurrentPrices(final List<Long> productIds, final List<String> skuCodes, final long customerShopId, final Long masterShopId, final String currencyCode, final String pricingPolicy) {
+        return getPriceResolver(customerShopId).getAllCurrentPrices(productIds, skuCodes, customerShopId, masterShopId, currencyCode, pricingPolicy);
+    }
+
     protected PriceResolver getPriceResolver(final Long shopId) {
         PriceResolver resolver = customPriceResolvers.get(shopId);
         if (resolver == null) {
@@ -0,0 +1,605 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.impl;
+
+import org.yes.cart.shoppingcart.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary format for {@link ShoppingCartImpl} object graph.
+ *
+ * Each field is written explicitly in fixed order, numbers use variable length encoding and
+ * booleans are packed into bit flags, so that no class metadata or property names end up in
+ * the output. Format is versioned: {@link #VERSION} is the version produced by {@link #write(ShoppingCart)},
+ * any change to the field layout must increment it and keep reading of older versions in
+ * {@link #read(byte[], int, int, int)}.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:05
+ */
+public final class ShoppingCartBinaryFormat {
+
+    /**
+     * Current format version.
+     */
+    public static final int VERSION = 1;
+
+    private static final int DECIMAL_NULL = 0;
+    private static final int DECIMAL_LONG = 1;
+    private static final int DECIMAL_BIG = 2;
+
+    private ShoppingCartBinaryFormat() {
+        // no instance
+    }
+
+    /**
+     * Write cart using current {@link #VERSION}.
+     *
+     * @param shoppingCart cart to write
+     *
+     * @return bytes
+     *
+     * @throws IllegalArgumentException if cart is not {@link ShoppingCartImpl}
+     */
+    public static byte[] write(final ShoppingCart shoppingCart) {
+
+        if (!(shoppingCart instanceof ShoppingCartImpl)) {
+            throw new IllegalArgumentException("Unsupported cart implementation: " +
+                    (shoppingCart == null ? null : shoppingCart.getClass().getName()));
+        }
+
+        final ShoppingCartImpl cart = (ShoppingCartImpl) shoppingCart;
+        final Writer out = new Writer(256 + 128 * (cart.getItems().size() + cart.getGifts().size()));
+
+        out.writeString(cart.getGuid());
+        out.writeString(cart.getCurrentLocale());
+        out.writeString(cart.getCurrencyCode());
+        out.writeLong(cart.getModifiedTimestamp());
+        out.writeLong(cart.getProcessingStartTimestamp());
+        out.writeFlags(cart.isPromotionsDisabled());
+        out.writeString(cart.getOrdernum());
+
+        writeItems(out, cart.getItems());
+        writeItems(out, cart.getGifts());
+        writeItems(out, cart.getShipping());
+        out.writeStrings(cart.getCoupons());
+
+        writeContext(out, cart.getShoppingContext());
+        writeOrderInfo(out, cart.getOrderInfo());
+        writeTotal(out, cart.getTotal());
+
+        return out.toByteArray();
+
+    }
+
+    /**
+     * Read cart.
+     *
+     * @param bytes   data
+     * @param offset  offset of the first byte of cart data
+     * @param length  cart data length
+     * @param version format version that was used to write the data
+     *
+     * @return restored cart
+     *
+     * @throws IllegalArgumentException if version is not supported or data is malformed
+     */
+    public static ShoppingCartImpl read(final byte[] bytes, final int offset, final int length, final int version) {
+
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported cart format version: " + version);
+        }
+
+        final Reader in = new Reader(bytes, offset, length);
+
+        try {
+
+            final ShoppingCartImpl cart = new ShoppingCartImpl();
+
+            final String guid = in.readString();
+            cart.setCurrentLocale(in.readString());
+            cart.setCurrencyCode(in.readString());
+            final long modifiedTimestamp = in.readLong();
+            final long processingStartTimestamp = in.readLong();
+            final int flags = in.readFlags();
+            cart.setPromotionsDisabled(isSet(flags, 0));
+            cart.setOrdernum(in.readString());
+
+            readItems(in, cart.getItems());
+            readItems(in, cart.getGifts());
+            readItems(in, cart.getShipping());
+            final List<String> coupons = in.readStrings();
+            if (coupons != null) {
+                for (final String coupon : coupons) {
+                    cart.addCoupon(coupon);
+                }
+            }
+
+            readContext(in, cart.getShoppingContext());
+            readOrderInfo(in, cart.getOrderInfo());
+            final Total total = readTotal(in);
+
+            cart.restoreState(guid, modifiedTimestamp, processingStartTimestamp, total);
+
+            if (!in.isComplete()) {
+                throw new IllegalArgumentException("Unexpected trailing data in cart bytes");
+            }
+
+            return cart;
+
+        } catch (ArrayIndexOutOfBoundsException aioobe) {
+            throw new IllegalArgumentException("Truncated cart bytes", aioobe);
+        }
+
+    }
+
+    private static void writeItems(final Writer out, final List<CartItemImpl> items) {
+
+        out.writeSize(items.size());
+        for (final CartItemImpl item : items) {
+            out.writeString(item.getProductSkuCode());
+            out.writeString(item.getProductName());
+            out.writeString(item.getSupplierCode());
+            out.writeString(item.getDeliveryGroup());
+            out.writeDecimal(item.getQty());
+            out.writeDecimal(item.getPrice());
+            out.writeDecimal(item.getSalePrice());
+            out.writeDecimal(item.getListPrice());
+            out.writeDecimal(item.getNetPrice());
+            out.writeDecimal(item.getGrossPrice());
+            out.writeDecimal(item.getTaxRate());
+            out.writeString(item.getTaxCode());
+            out.writeFlags(item.isTaxExclusiveOfPrice(), item.isGift(), item.isPromoApplied(), item.isFixedPrice());
+            out.writeString(item.getAppliedPromo());
+        }
+
+    }
+
+    private static void readItems(final Reader in, final List<CartItemImpl> items) {
+
+        final int size = in.readSize();
+        for (int i = 0; i < size; i++) {
+            final CartItemImpl item = new CartItemImpl();
+            item.setProductSkuCode(in.readString());
+            item.setProductName(in.readString());
+            item.setSupplierCode(in.readString());
+            item.setDeliveryGroup(in.readString());
+            item.setQuantity(in.readDecimal());
+            item.setPrice(in.readDecimal());
+            item.setSalePrice(in.readDecimal());
+            item.setListPrice(in.readDecimal());
+            item.setNetPrice(in.readDecimal());
+            item.setGrossPrice(in.readDecimal());
+            item.setTaxRate(in.readDecimal());
+            item.setTaxCode(in.readString());
+            final int flags = in.readFlags();
+            item.setTaxExclusiveOfPrice(isSet(flags, 0));
+            item.setGift(isSet(flags, 1));
+            item.setPromoApplied(isSet(flags, 2));
+            item.setFixedPrice(isSet(flags, 3));
+            item.setAppliedPromo(in.readString());
+            items.add(item);
+        }
+
+    }
+
+    private static void writeContext(final Writer out, final ShoppingContext ctx) {
+
+        out.writeString(ctx.getCustomerName());
+        out.writeLong(ctx.getShopId());
+        out.writeString(ctx.getShopCode());
+        out.writeLong(ctx.getCustomerShopId());
+        out.writeString(ctx.getCustomerShopCode());
+        out.writeString(ctx.getCountryCode());
+        out.writeString(ctx.getStateCode());
+        out.writeString(ctx.getCustomerEmail());
+        out.writeStrings(ctx.getCustomerShops());
+        out.writeFlags(ctx.isTaxInfoChangeViewEnabled(), ctx.isTaxInfoEnabled(), ctx.isTaxInfoUseNet(),
+                ctx.isTaxInfoShowAmount(), ctx.isHidePrices());
+        out.writeStrings(ctx.getLatestViewedSkus());
+        out.writeStrings(ctx.getLatestViewedCategories());
+        out.writeString(ctx.getResolvedIp());
+
+    }
+
+    private static void readContext(final Reader in, final MutableShoppingContext ctx) {
+
+        ctx.setCustomerName(in.readString());
+        // shop must be set before customer shop as setters reset customer shop
+        ctx.setShopId(in.readLong());
+        final String shopCode = in.readString();
+        if (shopCode != null) {
+            ctx.setShopCode(shopCode);
+        }
+        ctx.setCustomerShopId(in.readLong());
+        ctx.setCustomerShopCode(in.readString());
+        ctx.setCountryCode(in.readString());
+        ctx.setStateCode(in.readString());
+        ctx.setCustomerEmail(in.readString());
+        ctx.setCustomerShops(in.readStrings());
+        final int flags = in.readFlags();
+        ctx.setTaxInfoChangeViewEnabled(isSet(flags, 0));
+        ctx.setTaxInfoEnabled(isSet(flags, 1));
+        ctx.setTaxInfoUseNet(isSet(flags, 2));
+        ctx.setTaxInfoShowAmount(isSet(flags, 3));
+        ctx.setHidePrices(isSet(flags, 4));
+        ctx.setLatestViewedSkus(in.readStrings());
+        ctx.setLatestViewedCategories(in.readStrings());
+        ctx.setResolvedIp(in.readString());
+
+    }
+
+    private static void writeOrderInfo(final Writer out, final OrderInfo info) {
+
+        out.writeString(info.getPaymentGatewayLabel());
+        out.writeFlags(info.isMultipleDelivery(), info.isSeparateBillingAddress(), info.isSeparateBillingAddressEnabled(),
+                info.isBillingAddressNotRequired(), info.isDeliveryAddressNotRequired());
+
+        final Map<String, Boolean> multipleDeliveryAvailable = info.getMultipleDeliveryAvailable();
+        out.writeSize(multipleDeliveryAvailable.size());
+        for (final Map.Entry<String, Boolean> entry : multipleDeliveryAvailable.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeFlags(entry.getValue());
+        }
+
+        final Map<String, Long> carrierSlaId = info.getCarrierSlaId();
+        out.writeSize(carrierSlaId.size());
+        for (final Map.Entry<String, Long> entry : carrierSlaId.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+
+        out.writeNullableLong(info.getBillingAddressId());
+        out.writeNullableLong(info.getDeliveryAddressId());
+
+        final Map<String, String> details = info.getDetails();
+        out.writeSize(details.size());
+        for (final Map.Entry<String, String> entry : details.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeString(entry.getValue());
+        }
+
+    }
+
+    private static void readOrderInfo(final Reader in, final MutableOrderInfo info) {
+
+        info.setPaymentGatewayLabel(in.readString());
+        final int flags = in.readFlags();
+        info.setMultipleDelivery(isSet(flags, 0));
+        info.setSeparateBillingAddress(isSet(flags, 1));
+        info.setSeparateBillingAddressEnabled(isSet(flags, 2));
+        info.setBillingAddressNotRequired(isSet(flags, 3));
+        info.setDeliveryAddressNotRequired(isSet(flags, 4));
+
+        int size = in.readSize();
+        final Map<String, Boolean> multipleDeliveryAvailable = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            multipleDeliveryAvailable.put(in.readString(), isSet(in.readFlags(), 0));
+        }
+        info.setMultipleDeliveryAvailable(multipleDeliveryAvailable);
+
+        size = in.readSize();
+        final Map<String, Long> carrierSlaId = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            carrierSlaId.put(in.readString(), in.readLong());
+        }
+        info.setCarrierSlaId(carrierSlaId);
+
+        info.setBillingAddressId(in.readNullableLong());
+        info.setDeliveryAddressId(in.readNullableLong());
+
+        size = in.readSize();
+        final Map<String, String> details = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            details.put(in.readString(), in.readString());
+        }
+        info.setDetails(details);
+
+    }
+
+    private static void writeTotal(final Writer out, final Total total) {
+
+        out.writeDecimal(total.getListSubTotal());
+        out.writeDecimal(total.getSaleSubTotal());
+        out.writeDecimal(total.getNonSaleSubTotal());
+        out.writeDecimal(total.getPriceSubTotal());
+        out.writeFlags(total.isOrderPromoApplied(), total.isDeliveryPromoApplied());
+        out.writeString(total.getAppliedOrderPromo());
+        out.writeDecimal(total.getSubTotal());
+        out.writeDecimal(total.getSubTotalTax());
+        out.writeDecimal(total.getSubTotalAmount());
+        out.writeDecimal(total.getDeliveryListCost());
+        out.writeDecimal(total.getDeliveryCost());
+        out.writeString(total.getAppliedDeliveryPromo());
+        out.writeDecimal(total.getDeliveryTax());
+        out.writeDecimal(total.getDeliveryCostAmount());
+        out.writeDecimal(total.getTotal());
+        out.writeDecimal(total.getTotalTax());
+        out.writeDecimal(total.getListTotalAmount());
+        out.writeDecimal(total.getTotalAmount());
+
+    }
+
+    private static Total readTotal(final Reader in) {
+
+        final BigDecimal listSubTotal = in.readDecimal();
+        final BigDecimal saleSubTotal = in.readDecimal();
+        final BigDecimal nonSaleSubTotal = in.readDecimal();
+        final BigDecimal priceSubTotal = in.readDecimal();
+        final int flags = in.readFlags();
+        final String appliedOrderPromo = in.readString();
+        final BigDecimal subTotal = in.readDecimal();
+        final BigDecimal subTotalTax = in.readDecimal();
+        final BigDecimal subTotalAmount = in.readDecimal();
+        final BigDecimal deliveryListCost = in.readDecimal();
+        final BigDecimal deliveryCost = in.readDecimal();
+        final String appliedDeliveryPromo = in.readString();
+        final BigDecimal deliveryTax = in.readDecimal();
+        final BigDecimal deliveryCostAmount = in.readDecimal();
+        final BigDecimal total = in.readDecimal();
+        final BigDecimal totalTax = in.readDecimal();
+        final BigDecimal listTotalAmount = in.readDecimal();
+        final BigDecimal totalAmount = in.readDecimal();
+
+        return new TotalImpl(
+                listSubTotal, saleSubTotal, nonSaleSubTotal, priceSubTotal,
+                isSet(flags, 0), appliedOrderPromo,
+                subTotal, subTotalTax, subTotalAmount,
+                deliveryListCost, deliveryCost,
+                isSet(flags, 1), appliedDeliveryPromo,
+                deliveryTax, deliveryCostAmount,
+                total, totalTax, listTotalAmount, totalAmount
+        );
+
+    }
+
+    private static boolean isSet(final int flags, final int bit) {
+        return (flags & (1 << bit)) != 0;
+    }
+
+
+    /**
+     * Growable byte buffer with variable length encoding of numbers.
+     */
+    private static final class Writer {
+
+        private byte[] buf;
+        private int pos;
+
+        private Writer(final int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        private void ensure(final int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + extra));
+            }
+        }
+
+        private void writeByte(final int value) {
+            ensure(1);
+            buf[pos++] = (byte) value;
+        }
+
+        private void writeBytes(final byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0L) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        private void writeLong(final long value) {
+            writeVarLong((value << 1) ^ (value >> 63)); // zig-zag, so that small negatives stay short
+        }
+
+        private void writeSize(final int size) {
+            writeVarLong(size);
+        }
+
+        private void writeNullableLong(final Long value) {
+            if (value == null) {
+                writeByte(0);
+            } else {
+                writeByte(1);
+                writeLong(value);
+            }
+        }
+
+        private void writeFlags(final boolean... flags) {
+            int value = 0;
+            for (int i = 0; i < flags.length; i++) {
+                if (flags[i]) {
+                    value |= 1 << i;
+                }
+            }
+            writeByte(value);
+        }
+
+        private void writeString(final String value) {
+            if (value == null) {
+                writeVarLong(0L);
+            } else {
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(bytes.length + 1L);
+                writeBytes(bytes);
+            }
+        }
+
+        private void writeStrings(final Collection<String> values) {
+            if (values == null) {
+                writeVarLong(0L);
+            } else {
+                writeVarLong(values.size() + 1L);
+                for (final String value : values) {
+                    writeString(value);
+                }
+            }
+        }
+
+        private void writeDecimal(final BigDecimal value) {
+            if (value == null) {
+                writeByte(DECIMAL_NULL);
+            } else {
+                final BigInteger unscaled = value.unscaledValue();
+                if (unscaled.bitLength() < 63) {
+                    writeByte(DECIMAL_LONG);
+                    writeLong(unscaled.longValue());
+                } else {
+                    writeByte(DECIMAL_BIG);
+                    final byte[] bytes = unscaled.toByteArray();
+                    writeSize(bytes.length);
+                    writeBytes(bytes);
+                }
+                writeLong(value.scale());
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+    }
+
+    /**
+     * Reader counterpart of {@link Writer}.
+     */
+    private static final class Reader {
+
+        private final byte[] buf;
+        private final int limit;
+        private int pos;
+
+        private Reader(final byte[] buf, final int offset, final int length) {
+            this.buf = buf;
+            this.pos = offset;
+            this.limit = offset + length;
+        }
+
+        private int readByte() {
+            if (pos >= limit) {
+                throw new ArrayIndexOutOfBoundsException(pos);
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        private long readVarLong() {
+            long value = 0L;
+            int shift = 0;
+            int b;
+            do {
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed variable length number");
+                }
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private long readLong() {
+            final long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1L);
+        }
+
+        private int readSize() {
+            final long size = readVarLong();
+            if (size < 0L || size > limit - pos) {
+                throw new IllegalArgumentException("Malformed size: " + size);
+            }
+            return (int) size;
+        }
+
+        private Long readNullableLong() {
+            return readByte() == 0 ? null : readLong();
+        }
+
+        private int readFlags() {
+            return readByte();
+        }
+
+        private int readNullableSize() {
+            final long size = readVarLong() - 1L;
+            if (size < -1L || size > limit - pos) {
+                throw new IllegalArgumentException("Malformed size: " + size);
+            }
+            return (int) size;
+        }
+
+        private String readString() {
+            final int length = readNullableSize();
+            if (length < 0) {
+                return null;
+            }
+            final String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        private List<String> readStrings() {
+            final int size = readNullableSize();
+            if (size < 0) {
+                return null;
+            }
+            final List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        private BigDecimal readDecimal() {
+            final int type = readByte();
+            switch (type) {
+                case DECIMAL_NULL:
+                    return null;
+                case DECIMAL_LONG:
+                    final long unscaled = readLong();
+                    return BigDecimal.valueOf(unscaled, (int) readLong());
+                case DECIMAL_BIG:
+                    final int length = readSize();
+                    if (length == 0) {
+                        throw new IllegalArgumentException("Malformed decimal");
+                    }
+                    final byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+                    pos += length;
+                    return new BigDecimal(new BigInteger(bytes), (int) readLong());
+                default:
+                    throw new IllegalArgumentException("Malformed decimal type: " + type);
+            }
+        }
+
+        private boolean isComplete() {
+            return pos == limit;
+        }
+
+    }
+
+}
@@ -123,6 +123,25 @@ public class ShoppingCartImpl implements MutableShoppingCart {
         return TimeContext.getMillis();
     }
 
+    /**
+     * Internal access to state that is not exposed through mutable cart API (used by
+     * {@link ShoppingCartBinaryFormat} to restore cart from bytes).
+     *
+     * @param guid                     cart guid
+     * @param modifiedTimestamp        last modified
+     * @param processingStartTimestamp processing start
+     * @param total                    cart total
+     */
+    void restoreState(final String guid,
+                      final long modifiedTimestamp,
+                      final long processingStartTimestamp,
+                      final Total total) {
+        this.guid = guid;
+        this.modifiedTimestamp = modifiedTimestamp;
+        this.processingStartTimestamp = processingStartTimestamp;
+        this.total = total;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void recalculate() {
@@ -24,6 +24,9 @@ import org.yes.cart.stream.io.FileSystemIOProvider;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 
 /**
@@ -93,6 +96,30 @@ public abstract class AbstractFileSystemIOProviderImpl implements FileSystemIOPr
 
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public SeekableByteChannel open(final String uri, final Map<String, Object> context) throws IOException {
+
+        final File file = resolveFileFromUri(uri, context);
+        if (file == null) {
+            throw new FileNotFoundException("Unable to resolve file path: " + uri);
+        }
+        if (!file.isFile()) {
+            throw new FileNotFoundException("File does not exist: " + file.getAbsolutePath());
+        }
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long lastModified(final String uri, final Map<String, Object> context) {
+
+        final File file = resolveFileFromUri(uri, context);
+        return file != null ? file.lastModified() : 0L;
+
+    }
+
     /** {@inheritDoc} */
     @Override
     public void write(final String uri, final byte[] content, final Map<String, Object> context) throws IOException {
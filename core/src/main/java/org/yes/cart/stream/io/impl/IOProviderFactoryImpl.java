@@ -21,6 +21,7 @@ import org.yes.cart.stream.io.IOProvider;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.util.Map;
 
 /**
@@ -82,6 +83,28 @@ public class IOProviderFactoryImpl implements IOProvider, FileSystemIOProvider {
         throw new IOException("Unsupported uri " + uri);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public SeekableByteChannel open(final String uri, final Map<String, Object> context) throws IOException {
+        for (final IOProvider ioProvider : ioProviders) {
+            if (ioProvider.supports(uri)) {
+                return ioProvider.open(uri, context);
+            }
+        }
+        throw new IOException("Unsupported uri " + uri);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long lastModified(final String uri, final Map<String, Object> context) {
+        for (final IOProvider ioProvider : ioProviders) {
+            if (ioProvider.supports(uri)) {
+                return ioProvider.lastModified(uri, context);
+            }
+        }
+        return 0L;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void write(final String uri, final byte[] content, final Map<String, Object> context) throws IOException {
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.cache.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.yes.cart.cache.CacheDependencyResolver;
+import org.yes.cart.domain.misc.Pair;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 10:25
+ */
+public class CacheDependencyTrackerImplTest {
+
+    private static final List<String> CACHES = Collections.singletonList("test");
+
+    private Cache cache;
+    private CacheDependencyTrackerImpl tracker;
+
+    @Before
+    public void setUp() throws Exception {
+
+        final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("test");
+        cache = cacheManager.getCache("test");
+        tracker = new CacheDependencyTrackerImpl(cacheManager);
+
+    }
+
+    @Test
+    public void testEvictByEntityPk() throws Exception {
+
+        put("p1", "ProductEntity", 1L);
+        put("p1-attrs", "ProductEntity", 1L);
+        put("p2", "ProductEntity", 2L);
+
+        assertEquals(2, tracker.evict(CACHES, "ProductEntity", 1L));
+
+        assertNull(cache.get("p1"));
+        assertNull(cache.get("p1-attrs"));
+        assertNotNull(cache.get("p2"));
+
+        assertEquals(0, tracker.evict(CACHES, "ProductEntity", 3L));
+        assertNotNull(cache.get("p2"));
+
+    }
+
+    @Test
+    public void testEvictResolvedDependencies() throws Exception {
+
+        tracker.setResolvers(Collections.<String, CacheDependencyResolver>singletonMap("SkuPriceEntity", new PriceResolver()));
+
+        put("abc", "sku", "ABC");
+        put("xyz", "sku", "XYZ");
+
+        assertEquals(1, tracker.evict(CACHES, "SkuPriceEntity", 10L));
+        assertNull(cache.get("abc"));
+        assertNotNull(cache.get("xyz"));
+
+        // unknown price, cannot tell which keys are affected
+        assertEquals(0, tracker.evict(CACHES, "SkuPriceEntity", 11L));
+        assertNull(cache.get("xyz"));
+
+    }
+
+    @Test
+    public void testEvictBulkResolvedDependencies() throws Exception {
+
+        final PriceResolver resolver = new PriceResolver();
+        tracker.setResolvers(Collections.<String, CacheDependencyResolver>singletonMap("SkuPriceEntity", resolver));
+
+        put("abc", "sku", "ABC");
+        put("def", "sku", "DEF");
+        put("xyz", "sku", "XYZ");
+
+        assertEquals(2, tracker.evict(CACHES, "SkuPriceEntity", Arrays.asList(10L, 12L)));
+        assertEquals(1, resolver.bulkCalls);
+        assertNull(cache.get("abc"));
+        assertNull(cache.get("def"));
+        assertNotNull(cache.get("xyz"));
+
+        // one of the prices is unknown, cannot tell which keys are affected
+        put("abc", "sku", "ABC");
+        assertEquals(0, tracker.evict(CACHES, "SkuPriceEntity", Arrays.asList(10L, 11L)));
+        assertNull(cache.get("abc"));
+        assertNull(cache.get("xyz"));
+
+    }
+
+    @Test
+    public void testEvictBulkAboveThresholdClearsCache() throws Exception {
+
+        final PriceResolver resolver = new PriceResolver();
+        tracker.setResolvers(Collections.<String, CacheDependencyResolver>singletonMap("SkuPriceEntity", resolver));
+        tracker.setMaxBulkEvictPks(1);
+
+        put("abc", "sku", "ABC");
+        put("xyz", "sku", "XYZ");
+
+        assertEquals(0, tracker.evict(CACHES, "SkuPriceEntity", Arrays.asList(10L, 12L)));
+        assertEquals(0, resolver.bulkCalls);
+        assertNull(cache.get("abc"));
+        assertNull(cache.get("xyz"));
+
+    }
+
+    @Test
+    public void testOverflowClearsCache() throws Exception {
+
+        tracker.setMaxKeysPerCache(2);
+
+        put("p1", "ProductEntity", 1L);
+        put("p2", "ProductEntity", 2L);
+        put("p3", "ProductEntity", 3L);
+
+        assertEquals(0, tracker.evict(CACHES, "ProductEntity", 1L));
+        assertNull(cache.get("p1"));
+        assertNull(cache.get("p2"));
+        assertNull(cache.get("p3"));
+
+        // tracking is back to normal after cache was cleared
+        put("p1", "ProductEntity", 1L);
+        put("p2", "ProductEntity", 2L);
+
+        assertEquals(1, tracker.evict(CACHES, "ProductEntity", 1L));
+        assertNull(cache.get("p1"));
+        assertNotNull(cache.get("p2"));
+
+    }
+
+    private static class PriceResolver implements CacheDependencyResolver {
+
+        private int bulkCalls = 0;
+
+        @Override
+        public List<Pair<String, Object>> findDependencies(final Long pk) {
+            if (pk == 10L) {
+                return Collections.singletonList(new Pair<>("sku", "ABC"));
+            } else if (pk == 12L) {
+                return Collections.singletonList(new Pair<>("sku", "DEF"));
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<Long, List<Pair<String, Object>>> findDependencies(final Collection<Long> pks) {
+            bulkCalls++;
+            final Map<Long, List<Pair<String, Object>>> dependencies = new HashMap<>();
+            for (final Long pk : pks) {
+                final List<Pair<String, Object>> pkDependencies = findDependencies(pk);
+                if (!pkDependencies.isEmpty()) {
+                    dependencies.put(pk, pkDependencies);
+                }
+            }
+            return dependencies;
+        }
+    }
+
+    private void put(final String key, final String type, final Object id) {
+        tracker.track("test", key, type, id);
+        cache.put(key, key);
+    }
+
+}
@@ -16,6 +16,8 @@
 
 package org.yes.cart.promotion.impl;
 
+import groovy.lang.MissingPropertyException;
+import org.codehaus.groovy.control.CompilationFailedException;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.integration.junit4.JUnit4Mockery;
@@ -28,6 +30,8 @@ import org.yes.cart.shoppingcart.CartItem;
 import org.yes.cart.shoppingcart.ShoppingCart;
 import org.yes.cart.shoppingcart.ShoppingContext;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 
 import static org.junit.Assert.*;
@@ -206,4 +210,54 @@ public class GroovyPromotionConditionParserTest {
 
 
     }
+
+    @Test
+    public void testParseGroovyConditionStaticWithFallback() throws Exception {
+
+        final ShoppingCart cart = mockery.mock(ShoppingCart.class, "cart");
+        final ShoppingContext cartCtx = mockery.mock(ShoppingContext.class, "cartCtx");
+        final CartItem cartItem = mockery.mock(CartItem.class, "cartItem");
+
+        mockery.checking(new Expectations() {{
+            allowing(cart).getShoppingContext(); will(returnValue(cartCtx));
+            allowing(cartCtx).getShopId(); will(returnValue(10L));
+            allowing(cartCtx).getCustomerShopId(); will(returnValue(1010L));
+            allowing(cartItem).getProductSkuCode(); will(returnValue("SKU001"));
+        }});
+
+        final GroovyPromotionConditionParser parser = new GroovyPromotionConditionParser();
+
+        final Class typed = parser.parseGroovyCondition(1L, "ABC#", "['SKU001', 'SKU002'].contains(SKU) && customerTags.contains('vip')", true);
+
+        final PromotionCondition condition = ((PromotionCondition) typed.newInstance());
+
+        assertTrue(condition.isEligible(new HashMap<String, Object>() {{
+            put("shoppingCart", cart);
+            put("shoppingCartItem", cartItem);
+            put("customerTags", Arrays.asList("b2b", "vip"));
+        }}));
+        assertFalse(condition.isEligible(new HashMap<String, Object>() {{
+            put("shoppingCart", cart);
+            put("shoppingCartItem", cartItem);
+            put("customerTags", Collections.singletonList("b2b"));
+        }}));
+
+        // "order" is not a declared variable, so static compilation fails
+        try {
+            parser.parseGroovyCondition(1L, "ABC#", "order.amount > 100", true);
+            fail("Undeclared variable must fail static compilation");
+        } catch (CompilationFailedException cfe) {
+            // OK
+        }
+        // dynamic condition compiles and fails at runtime as before
+        final PromotionCondition dynamic = (PromotionCondition) parser.parseGroovyCondition(1L, "ABC#", "order.amount > 100").newInstance();
+        try {
+            dynamic.isEligible(new HashMap<>());
+            fail("Undeclared variable must fail at runtime");
+        } catch (MissingPropertyException mpe) {
+            // OK
+        }
+
+    }
+
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.promotion.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.yes.cart.domain.entity.Promotion;
+import org.yes.cart.promotion.PromoTriplet;
+import org.yes.cart.promotion.PromotionConditionSupport;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 21:45
+ */
+public class PromotionConditionIndexTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testParseRequirements() throws Exception {
+
+        assertEquals("[SKU[A]]", PromotionConditionIndex.parseRequirements("SKU == 'A'").toString());
+        assertEquals("[SKU[A]]", PromotionConditionIndex.parseRequirements("return 'A' == shoppingCartItem.productSkuCode").toString());
+        assertEquals("[SKU[A, B]]", PromotionConditionIndex.parseRequirements("['A', 'B'].contains(shoppingCartItem.productSkuCode)").toString());
+        assertEquals("[SKU[A, B]]", PromotionConditionIndex.parseRequirements("SKU in ['A', 'B']").toString());
+        assertEquals("[BRAND[X, Y], TAG[vip]]", PromotionConditionIndex.parseRequirements("isSKUofBrand(SKU, 'X', 'Y') && customerTags.contains('vip')").toString());
+        assertEquals("[CATEGORY[cat1], SKU[A]]", PromotionConditionIndex.parseRequirements("isSKUinCategory(SKU, 'cat1') && (SKU == 'A' && shoppingCartItemTotal.priceSubTotal > 200.00)").toString());
+
+        // only leading requirements
+        assertEquals("[]", PromotionConditionIndex.parseRequirements("shoppingCartItemTotal.priceSubTotal > 200.00 && SKU == 'A'").toString());
+        assertEquals("[]", PromotionConditionIndex.parseRequirements("SKU == 'A' || SKU == 'B'").toString());
+        assertEquals("[]", PromotionConditionIndex.parseRequirements("!(SKU == 'A')").toString());
+        assertEquals("[]", PromotionConditionIndex.parseRequirements("def s = 'A'; SKU == s").toString());
+        assertEquals("[]", PromotionConditionIndex.parseRequirements("isSKUofBrand(SKU, brandName)").toString());
+        assertEquals("[]", PromotionConditionIndex.parseRequirements("").toString());
+        assertEquals("[]", PromotionConditionIndex.parseRequirements("#?/*").toString());
+
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+
+        final PromotionConditionSupport support = context.mock(PromotionConditionSupport.class, "support");
+
+        context.checking(new Expectations() {{
+            oneOf(support).isProductOfBrand("SKU-1", "X"); will(returnValue(true));
+            oneOf(support).isProductInCategory("SKU-1", 1010L, "cat1"); will(returnValue(false));
+            oneOf(support).isProductOfBrand("SKU-2", "X"); will(returnValue(false));
+        }});
+
+        final PromotionConditionIndex index = new PromotionConditionIndex();
+
+        final PromoTriplet always = promo("shoppingCartItemTotal.priceSubTotal > 200.00");
+        final PromoTriplet sku1 = promo("['SKU-1', 'SKU-3'].contains(SKU)");
+        final PromoTriplet sku1vip = promo("SKU == 'SKU-1' && customerTags.contains('vip')");
+        final PromoTriplet brandX = promo("isSKUofBrand(SKU, 'X')");
+        final PromoTriplet cat1 = promo("isSKUinCategory(SKU, 'cat1') && isSKUofBrand(SKU, 'X')");
+        final PromoTriplet vip = promo("customerTags.contains('vip')");
+
+        final List<List<PromoTriplet>> buckets = new ArrayList<>();
+        buckets.add(new ArrayList<>(Arrays.asList(always, sku1, brandX)));
+        buckets.add(Collections.singletonList(sku1vip));
+        buckets.add(Collections.singletonList(cat1));
+        buckets.add(Collections.singletonList(vip));
+
+        for (final List<PromoTriplet> bucket : buckets) {
+            for (final PromoTriplet promo : bucket) {
+                index.add(promo);
+            }
+        }
+
+        assertTrue(index.isSelective());
+
+        final List<List<PromoTriplet>> forSku1 = index.filter(buckets, "SKU-1", Collections.singletonList("vip"), 1010L, support);
+        assertEquals(3, forSku1.size());
+        assertEquals(Arrays.asList(always, sku1, brandX), forSku1.get(0));
+        assertEquals(Collections.singletonList(sku1vip), forSku1.get(1));
+        assertEquals(Collections.singletonList(vip), forSku1.get(2));
+
+        // brand does not match, so category is not checked, non vip customer
+        final List<List<PromoTriplet>> forSku2 = index.filter(buckets, "SKU-2", Collections.emptyList(), 1010L, support);
+        assertEquals(1, forSku2.size());
+        assertEquals(Collections.singletonList(always), forSku2.get(0));
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testNotSelective() throws Exception {
+
+        final PromotionConditionIndex index = new PromotionConditionIndex();
+        index.add(promo("true"));
+        index.add(promo("shoppingCartItemTotal.priceSubTotal > 200.00"));
+
+        assertFalse(index.isSelective());
+
+    }
+
+    private PromoTriplet promo(final String condition) {
+
+        final Promotion promotion = context.mock(Promotion.class, "promotion-" + condition);
+
+        context.checking(new Expectations() {{
+            allowing(promotion).getEligibilityCondition(); will(returnValue(condition));
+        }});
+
+        return new PromoTripletImpl(promotion, null, null);
+
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.domain.impl;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 20:40
+ */
+public class CategoryTreeTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    private static Object[] row(final long id, final long parentId, final Long linkToId) {
+        return row(id, parentId, linkToId, false, null, null);
+    }
+
+    private static Object[] row(final long id, final long parentId, final Long linkToId,
+                                final boolean disabled, final LocalDateTime from, final LocalDateTime to) {
+        return new Object[] { id, parentId, linkToId, disabled, from, to };
+    }
+
+    private static List<Object[]> rows(final Object[]... rows) {
+        return new ArrayList<>(Arrays.asList(rows));
+    }
+
+    private static void assertIds(final long[] actual, final long... expected) {
+        final long[] sorted = Arrays.copyOf(actual, actual.length);
+        Arrays.sort(sorted);
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    public void testDescendantsWithLinks() throws Exception {
+
+        final CategoryTree tree = new CategoryTree(rows(
+                row(100L, 100L, null),      // root
+                row(101L, 100L, null),
+                row(102L, 101L, null),
+                row(103L, 102L, null),
+                row(201L, 100L, null),
+                row(202L, 201L, 102L),      // link to 102
+                row(203L, 202L, null)
+        ));
+
+        assertEquals(7, tree.size());
+        assertIds(tree.getCategoryIdAndDescendantIds(101L, NOW), 101L, 102L, 103L);
+        // children of linked 102 become children of 202
+        assertIds(tree.getCategoryIdAndDescendantIds(201L, NOW), 103L, 201L, 202L, 203L);
+        assertIds(tree.getCategoryIdAndDescendantIds(103L, NOW), 103L);
+        assertIds(tree.getCategoryIdAndDescendantIds(999L, NOW));
+
+        assertEquals(Long.valueOf(102L), tree.getLinkToId(202L));
+        assertNull(tree.getLinkToId(201L));
+
+    }
+
+    @Test
+    public void testDescendantsAvailability() throws Exception {
+
+        final CategoryTree tree = new CategoryTree(rows(
+                row(100L, 100L, null),
+                row(101L, 100L, null, true, null, null),                        // disabled
+                row(102L, 101L, null),
+                row(103L, 100L, null, false, NOW.plusDays(1), null),            // not yet available
+                row(104L, 103L, null),
+                row(105L, 100L, null, false, NOW.minusDays(1), NOW.plusDays(1)) // available
+        ));
+
+        assertIds(tree.getCategoryIdAndDescendantIds(100L, NOW), 100L, 105L);
+        assertIds(tree.getCategoryIdAndDescendantIds(100L, NOW.plusDays(1).plusHours(1)), 100L, 103L, 104L);
+        // start category itself is always included
+        assertIds(tree.getCategoryIdAndDescendantIds(101L, NOW), 101L, 102L);
+
+    }
+
+    @Test
+    public void testIsSubcategory() throws Exception {
+
+        final CategoryTree tree = new CategoryTree(rows(
+                row(100L, 100L, null),
+                row(101L, 100L, null),
+                row(102L, 101L, null),
+                row(201L, 100L, null),
+                row(202L, 201L, 102L),
+                row(301L, 999L, null),      // orphan
+                row(302L, 301L, null),
+                row(401L, 402L, null),      // cyclic
+                row(402L, 401L, null)
+        ));
+
+        assertTrue(tree.isSubcategory(100L, 102L));
+        assertTrue(tree.isSubcategory(101L, 102L));
+        assertTrue(tree.isSubcategory(102L, 102L));
+        assertFalse(tree.isSubcategory(102L, 101L));
+        assertFalse(tree.isSubcategory(201L, 102L));
+        assertFalse(tree.isSubcategory(102L, 202L)); // links are not parents
+        assertFalse(tree.isSubcategory(999L, 999L));
+        assertFalse(tree.isSubcategory(999L, 101L));
+
+        assertTrue(tree.isSubcategory(301L, 302L));
+        assertFalse(tree.isSubcategory(100L, 302L));
+
+        assertTrue(tree.isSubcategory(401L, 402L));
+        assertTrue(tree.isSubcategory(402L, 401L));
+        assertFalse(tree.isSubcategory(100L, 401L));
+
+    }
+
+    @Test
+    public void testCyclicLinks() throws Exception {
+
+        final CategoryTree tree = new CategoryTree(rows(
+                row(100L, 100L, null),
+                row(101L, 100L, null),
+                row(102L, 101L, 100L)       // link back to root
+        ));
+
+        assertIds(tree.getCategoryIdAndDescendantIds(101L, NOW), 101L, 102L);
+        assertIds(tree.getCategoryIdAndDescendantIds(100L, NOW), 100L, 101L, 102L);
+
+    }
+
+}
@@ -34,6 +34,8 @@ import org.yes.cart.stream.io.IOProvider;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
@@ -143,6 +145,16 @@ public class ImageServiceTest {
                 return FileUtils.readFileToByteArray(new File(uri));
             }
 
+            @Override
+            public SeekableByteChannel open(final String uri, final Map<String, Object> context) throws IOException {
+                return Files.newByteChannel(new File(uri).toPath());
+            }
+
+            @Override
+            public long lastModified(final String uri, final Map<String, Object> context) {
+                return new File(uri).lastModified();
+            }
+
             @Override
             public void write(final String uri, final byte[] content, final Map<String, Object> context) throws IOException {
                 FileUtils.writeByteArrayToFile(new File(uri), content);
@@ -204,6 +216,16 @@ public class ImageServiceTest {
                 return FileUtils.readFileToByteArray(new File(uri));
             }
 
+            @Override
+            public SeekableByteChannel open(final String uri, final Map<String, Object> context) throws IOException {
+                return Files.newByteChannel(new File(uri).toPath());
+            }
+
+            @Override
+            public long lastModified(final String uri, final Map<String, Object> context) {
+                return new File(uri).lastModified();
+            }
+
             @Override
             public void write(final String uri, final byte[] content, final Map<String, Object> context) throws IOException {
                 FileUtils.writeByteArrayToFile(new File(uri), content);
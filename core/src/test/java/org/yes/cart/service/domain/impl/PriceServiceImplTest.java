@@ -18,17 +18,28 @@ package org.yes.cart.service.domain.impl;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
 import org.yes.cart.BaseCoreDBTestCase;
+import org.yes.cart.cache.CacheDependencyTracker;
+import org.yes.cart.cluster.service.CacheDirector;
+import org.yes.cart.cluster.service.impl.CacheDirectorImpl;
 import org.yes.cart.constants.ServiceSpringKeys;
 import org.yes.cart.domain.entity.Product;
 import org.yes.cart.domain.entity.Shop;
 import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.service.domain.PriceService;
 import org.yes.cart.service.domain.ProductService;
 import org.yes.cart.service.domain.ShopService;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -459,6 +470,36 @@ public class PriceServiceImplTest extends BaseCoreDBTestCase {
 
 
 
+    }
+
+    @Test
+    public void testGetAllCurrentPricesBulk() throws Exception {
+        Shop shop = shopService.getShopByDomainName("www.gadget.yescart.org");
+
+        ctx().getBean("cacheManager", CacheManager.class).getCache("priceService-priceBook").clear();
+
+        final Map<String, List<SkuPrice>> prices = priceService.getAllCurrentPrices(
+                Collections.singletonList(10000L), Arrays.asList("SOBOT-ORIG", "PRODUCT1", "NOSUCHSKU"),
+                shop.getShopId(), null, "EUR", "P1");
+
+        assertFalse(prices.containsKey("NOSUCHSKU"));
+
+        // bulk result is same as for individual SKU
+        for (final String sku : new String[] { "SOBOT-ORIG", "SOBOT-PINK", "SOBOT-LIGHT", "SOBOT-BEER", "PRODUCT1" }) {
+            final List<SkuPrice> single = priceService.getAllCurrentPrices(null, sku, shop.getShopId(), null, "EUR", "P1");
+            if (single.isEmpty()) {
+                assertFalse(sku, prices.containsKey(sku));
+            } else {
+                final List<SkuPrice> bulk = prices.get(sku);
+                assertEquals(sku, single.size(), bulk.size());
+                for (int i = 0; i < single.size(); i++) {
+                    assertEquals(sku, single.get(i).getSkuPriceId(), bulk.get(i).getSkuPriceId());
+                }
+            }
+        }
+        assertEquals(new BigDecimal("120.22"), prices.get("SOBOT-ORIG").get(0).getSalePrice());
+        assertFalse(prices.get("PRODUCT1").isEmpty());
+
     }
 
     @Test
@@ -710,4 +751,72 @@ public class PriceServiceImplTest extends BaseCoreDBTestCase {
 
     }
 
+    @Test
+    public void testDependentCacheEviction() {
+
+        final CacheManager cacheManager = ctx().getBean("cacheManager", CacheManager.class);
+        final Cache cache = cacheManager.getCache("priceService-minimalPrice");
+        cache.clear();
+        final Cache priceBook = cacheManager.getCache("priceService-priceBook");
+        priceBook.clear();
+
+        final CacheDirectorImpl cacheDirector = new CacheDirectorImpl();
+        cacheDirector.setEntityOperationCache((Map<String, Map<String, Set<Pair<String, String>>>>) ctx().getBean("evictionConfig"));
+        cacheDirector.setCacheManager(cacheManager);
+        cacheDirector.setCacheDependencyTracker(ctx().getBean("cacheDependencyTracker", CacheDependencyTracker.class));
+
+        final long shopId = shopService.getShopByDomainName("www.gadget.yescart.org").getShopId();
+
+        priceService.getMinimalPrice(10000L, null, shopId, null, "EUR", BigDecimal.ONE, false, null);
+        priceService.getMinimalPrice(null, "SOBOT-ORIG", shopId, null, "EUR", BigDecimal.ONE, false, null);
+        priceService.getMinimalPrice(null, "PRODUCT1", shopId, null, "EUR", BigDecimal.ONE, false, null);
+
+        final Object productKey = SimpleKeyGenerator.generateKey(10000L, null, shopId, null, "EUR", BigDecimal.ONE, false, null);
+        final Object origKey = SimpleKeyGenerator.generateKey(null, "SOBOT-ORIG", shopId, null, "EUR", BigDecimal.ONE, false, null);
+        final Object product1Key = SimpleKeyGenerator.generateKey(null, "PRODUCT1", shopId, null, "EUR", BigDecimal.ONE, false, null);
+
+        assertNotNull(cache.get(productKey));
+        assertNotNull(cache.get(origKey));
+        assertNotNull(cache.get(product1Key));
+        assertNotNull(priceBook.get("P:10000:EUR"));
+        assertNotNull(priceBook.get("S:SOBOT-ORIG:EUR"));
+        assertNotNull(priceBook.get("S:PRODUCT1:EUR"));
+
+        // SOBOT-PINK price affects product 10000, but not other SKU's
+        cacheDirector.onCacheableChange(CacheDirector.EntityOperation.UPDATE, "SkuPriceEntity", 1002L);
+
+        assertNull(cache.get(productKey));
+        assertNotNull(cache.get(origKey));
+        assertNotNull(cache.get(product1Key));
+        assertNull(priceBook.get("P:10000:EUR"));
+        assertNotNull(priceBook.get("S:SOBOT-ORIG:EUR"));
+        assertNotNull(priceBook.get("S:PRODUCT1:EUR"));
+
+        cacheDirector.onCacheableChange(CacheDirector.EntityOperation.UPDATE, "SkuPriceEntity", 1005L);
+
+        assertNull(cache.get(origKey));
+        assertNotNull(cache.get(product1Key));
+        assertNull(priceBook.get("S:SOBOT-ORIG:EUR"));
+        assertNotNull(priceBook.get("S:PRODUCT1:EUR"));
+
+        // bulk change resolves dependencies of all prices at once
+        priceService.getMinimalPrice(10000L, null, shopId, null, "EUR", BigDecimal.ONE, false, null);
+        priceService.getMinimalPrice(null, "SOBOT-ORIG", shopId, null, "EUR", BigDecimal.ONE, false, null);
+        assertNotNull(cache.get(productKey));
+        assertNotNull(cache.get(origKey));
+
+        cacheDirector.onCacheableBulkChange(CacheDirector.EntityOperation.UPDATE, "SkuPriceEntity", new Long[] { 1002L, 1005L });
+
+        assertNull(cache.get(productKey));
+        assertNull(cache.get(origKey));
+        assertNotNull(cache.get(product1Key));
+        assertNotNull(priceBook.get("S:PRODUCT1:EUR"));
+
+        // NOPROD-SKU price does not resolve to a product, so whole cache is cleared
+        cacheDirector.onCacheableChange(CacheDirector.EntityOperation.UPDATE, "SkuPriceEntity", 6L);
+
+        assertNull(cache.get(product1Key));
+
+    }
+
 }
@@ -6,6 +6,7 @@ import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 import org.yes.cart.domain.entity.Customer;
 import org.yes.cart.domain.entity.Shop;
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.promotion.PromotionContext;
 import org.yes.cart.promotion.PromotionContextFactory;
 import org.yes.cart.service.domain.CustomerService;
@@ -16,7 +17,9 @@ import org.yes.cart.shoppingcart.impl.DefaultAmountCalculationStrategy;
 import org.yes.cart.shoppingcart.impl.TotalImpl;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -493,4 +496,75 @@ public class ShoppingCartCalculatorImplTest {
         context.assertIsSatisfied();
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testCalculatePricesTaxProvider() throws Exception {
+
+        final TaxProvider taxProvider = context.mock(TaxProvider.class, "taxProvider");
+
+        final ShoppingCart currentCart = context.mock(ShoppingCart.class, "currentCart");
+        final ShoppingContext currentCartCtx = context.mock(ShoppingContext.class, "currentCartCtx");
+
+        final TaxProvider.Tax vat = context.mock(TaxProvider.Tax.class, "vat");
+        final TaxProvider.Tax fed = context.mock(TaxProvider.Tax.class, "fed");
+
+        context.checking(new Expectations() {{
+
+            allowing(currentCart).getCurrencyCode(); will(returnValue("EUR"));
+            allowing(currentCart).getShoppingContext(); will(returnValue(currentCartCtx));
+            allowing(currentCartCtx).getShopCode(); will(returnValue("SHOP10"));
+            allowing(currentCartCtx).getCountryCode(); will(returnValue("GB"));
+            allowing(currentCartCtx).getStateCode(); will(returnValue("GB-GB"));
+
+            // tax is resolved once per SKU
+            oneOf(taxProvider).determineTax("SHOP10", "EUR", "GB", "GB-GB", "SKU0001"); will(returnValue(vat));
+            oneOf(taxProvider).determineTax("SHOP10", "EUR", "GB", "GB-GB", "SKU0002"); will(returnValue(fed));
+
+            allowing(vat).getCode(); will(returnValue("VAT"));
+            allowing(vat).getRate(); will(returnValue(new BigDecimal("20")));
+            allowing(vat).isExcluded(); will(returnValue(false));
+            allowing(fed).getCode(); will(returnValue("FED"));
+            allowing(fed).getRate(); will(returnValue(new BigDecimal("12")));
+            allowing(fed).isExcluded(); will(returnValue(true));
+
+        }});
+
+        // Calculation strategy is not used when tax provider is available
+        final ShoppingCartCalculator calculator = new ShoppingCartCalculatorImpl(null, taxProvider);
+
+        final List<ShoppingCartCalculator.PriceModel> models = calculator.calculatePrices(currentCart, Arrays.asList(
+                new Pair<>("SKU0001", new BigDecimal("9.99")),
+                new Pair<>("SKU0002", new BigDecimal("9.99")),
+                new Pair<>("SKU0001", new BigDecimal("8.99")),
+                new Pair<>("SKU0002", null)
+        ));
+
+        assertEquals(4, models.size());
+
+        final ShoppingCartCalculator.PriceModel inclusive = models.get(0);
+        assertEquals("9.99", inclusive.getGrossPrice().toPlainString());
+        assertEquals("8.32", inclusive.getNetPrice().toPlainString());
+        assertEquals("1.67", inclusive.getTaxAmount().toPlainString());
+        assertEquals("VAT", inclusive.getTaxCode());
+        assertEquals("20", inclusive.getTaxRate().toPlainString());
+        assertFalse(inclusive.isTaxExclusive());
+
+        final ShoppingCartCalculator.PriceModel exclusive = models.get(1);
+        assertEquals("11.19", exclusive.getGrossPrice().toPlainString());
+        assertEquals("9.99", exclusive.getNetPrice().toPlainString());
+        assertEquals("1.20", exclusive.getTaxAmount().toPlainString());
+        assertEquals("FED", exclusive.getTaxCode());
+        assertEquals("12", exclusive.getTaxRate().toPlainString());
+        assertTrue(exclusive.isTaxExclusive());
+
+        final ShoppingCartCalculator.PriceModel tier = models.get(2);
+        assertEquals("8.99", tier.getGrossPrice().toPlainString());
+        assertEquals("7.49", tier.getNetPrice().toPlainString());
+        assertEquals("1.50", tier.getTaxAmount().toPlainString());
+
+        assertNull(models.get(3));
+
+        context.assertIsSatisfied();
+    }
+
+}
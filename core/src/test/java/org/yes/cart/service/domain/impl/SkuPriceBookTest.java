@@ -0,0 +1,250 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.domain.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.yes.cart.cache.CacheDependencyTracker;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.entity.Shop;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.misc.Pair;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 11:50
+ */
+public class SkuPriceBookTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Test
+    public void testGetCurrentPrices() throws Exception {
+
+        final GenericDAO<SkuPrice, Long> dao = context.mock(GenericDAO.class, "dao");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final CacheDependencyTracker tracker = context.mock(CacheDependencyTracker.class, "tracker");
+        final ConcurrentMapCache cache = new ConcurrentMapCache(SkuPriceBook.PRICE_BOOK);
+
+        final Shop shop10 = shop(10L);
+        final Shop shop20 = shop(20L);
+
+        final SkuPrice always = price(1L, shop10, "1", "100.00", null, null, null);
+        final SkuPrice tier5 = price(2L, shop10, "5", "90.00", null, null, null);
+        final SkuPrice sale = price(3L, shop10, "1", "80.00", null, NOW.minusDays(1L), NOW);
+        final SkuPrice future = price(4L, shop10, "1", "70.00", null, NOW.plusSeconds(1L), null);
+        final SkuPrice vip = price(5L, shop10, "1", "60.00", "VIP", null, null);
+        final SkuPrice master = price(6L, shop20, "1", "95.00", null, null, null);
+
+        context.checking(new Expectations() {{
+            allowing(cacheManager).getCache(SkuPriceBook.PRICE_BOOK); will(returnValue(cache));
+            oneOf(tracker).track(SkuPriceBook.PRICE_BOOK, "S:A:EUR", "sku", "A");
+            oneOf(dao).findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY", Arrays.asList("A"), "EUR");
+            will(returnValue(Arrays.asList(vip, future, master, sale, tier5, always)));
+        }});
+
+        final SkuPriceBook book = new SkuPriceBook(dao, cacheManager, tracker);
+
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, null, NOW), sale, always, tier5);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", "", BigDecimal.ONE, NOW), sale, always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, new BigDecimal("5"), NOW), sale, always, tier5);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", "VIP", BigDecimal.ONE, NOW), vip, sale, always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", "OTHER", BigDecimal.ONE, NOW), sale, always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, 20L, "EUR", null, BigDecimal.ONE, NOW), sale, always, master);
+        assertPrices(book.getCurrentPrices(10L, "A", 30L, null, "EUR", null, BigDecimal.ONE, NOW));
+
+        // sale to is inclusive, future price starts a second later
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, BigDecimal.ONE, NOW.plusNanos(999999L)), sale, always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, BigDecimal.ONE, NOW.plusNanos(1000000L)), always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, BigDecimal.ONE, NOW.plusSeconds(1L)), future, always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, BigDecimal.ONE, NOW.minusDays(2L)), always);
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testGetCurrentPricesOverlappingPeriods() throws Exception {
+
+        final GenericDAO<SkuPrice, Long> dao = context.mock(GenericDAO.class, "dao");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final CacheDependencyTracker tracker = context.mock(CacheDependencyTracker.class, "tracker");
+
+        final Shop shop10 = shop(10L);
+
+        // start order is different from tier order
+        final SkuPrice tier10 = price(1L, shop10, "10", "70.00", null, NOW.minusDays(3L), NOW.plusDays(3L));
+        final SkuPrice tier5 = price(2L, shop10, "5", "80.00", null, NOW.minusDays(2L), NOW.minusDays(1L));
+        final SkuPrice tier1 = price(3L, shop10, "1", "90.00", null, NOW.minusDays(1L), NOW.plusDays(1L));
+        final SkuPrice tier1always = price(4L, shop10, "1", "100.00", null, null, null);
+
+        context.checking(new Expectations() {{
+            allowing(cacheManager).getCache(SkuPriceBook.PRICE_BOOK); will(returnValue(null));
+            allowing(dao).findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY", Arrays.asList("A"), "EUR");
+            will(returnValue(Arrays.asList(tier10, tier5, tier1, tier1always)));
+        }});
+
+        final SkuPriceBook book = new SkuPriceBook(dao, cacheManager, tracker);
+
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, null, NOW.minusDays(4L)), tier1always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, null, NOW.minusDays(2L)), tier1always, tier5, tier10);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, null, NOW.minusDays(1L)), tier1, tier1always, tier5, tier10);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, new BigDecimal("5"), NOW), tier1, tier1always);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, null, NOW), tier1, tier1always, tier10);
+        assertPrices(book.getCurrentPrices(10L, "A", 10L, null, "EUR", null, null, NOW.plusDays(2L)), tier1always, tier10);
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testGetCurrentPricesByProduct() throws Exception {
+
+        final GenericDAO<SkuPrice, Long> dao = context.mock(GenericDAO.class, "dao");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final CacheDependencyTracker tracker = context.mock(CacheDependencyTracker.class, "tracker");
+
+        final Shop shop10 = shop(10L);
+
+        final SkuPrice skuA = price(1L, "A", shop10, "1", "100.00", null, null, null);
+        final SkuPrice skuB = price(2L, "B", shop10, "1", "90.00", null, null, null);
+
+        context.checking(new Expectations() {{
+            allowing(cacheManager).getCache(SkuPriceBook.PRICE_BOOK); will(returnValue(null));
+            exactly(2).of(dao).findQueryObjectByNamedQuery("PRODUCTID.SKUPRICE.BY.PRODUCTS.AND.CURRENCY", Arrays.asList(10L), "EUR");
+            will(returnValue(Arrays.asList(new Object[] { 10L, skuA }, new Object[] { 10L, skuB })));
+        }});
+
+        final SkuPriceBook book = new SkuPriceBook(dao, cacheManager, tracker);
+
+        // without cache region rows are compiled on every call
+        assertPrices(book.getCurrentPrices(10L, null, 10L, null, "EUR", null, BigDecimal.ONE, NOW), skuB, skuA);
+        assertPrices(book.getCurrentPrices(10L, null, 10L, null, "EUR", null, BigDecimal.ONE, NOW), skuB, skuA);
+        assertTrue(book.getCurrentPrices((Long) null, null, 10L, null, "EUR", null, BigDecimal.ONE, NOW).isEmpty());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testGetCurrentPricesBulk() throws Exception {
+
+        final GenericDAO<SkuPrice, Long> dao = context.mock(GenericDAO.class, "dao");
+        final CacheManager cacheManager = context.mock(CacheManager.class, "cacheManager");
+        final CacheDependencyTracker tracker = context.mock(CacheDependencyTracker.class, "tracker");
+        final ConcurrentMapCache cache = new ConcurrentMapCache(SkuPriceBook.PRICE_BOOK);
+
+        final Shop shop10 = shop(10L);
+
+        final SkuPrice skuA = price(1L, "A", shop10, "1", "100.00", null, null, null);
+        final SkuPrice skuB = price(2L, "B", shop10, "1", "90.00", null, null, null);
+        final SkuPrice skuC = price(3L, "C", shop10, "1", "80.00", null, null, null);
+
+        context.checking(new Expectations() {{
+            allowing(cacheManager).getCache(SkuPriceBook.PRICE_BOOK); will(returnValue(cache));
+            oneOf(tracker).track(SkuPriceBook.PRICE_BOOK, "S:A:EUR", "sku", "A");
+            oneOf(dao).findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY", Arrays.asList("A"), "EUR");
+            will(returnValue(Arrays.asList(skuA)));
+            oneOf(tracker).track(SkuPriceBook.PRICE_BOOK, "P:20:EUR", "ProductEntity", 20L);
+            oneOf(dao).findQueryObjectByNamedQuery("PRODUCTID.SKUPRICE.BY.PRODUCTS.AND.CURRENCY", Arrays.asList(20L), "EUR");
+            will(returnValue(Collections.singletonList(new Object[] { 20L, skuC })));
+            oneOf(tracker).track(SkuPriceBook.PRICE_BOOK, "S:B:EUR", "sku", "B");
+            oneOf(tracker).track(SkuPriceBook.PRICE_BOOK, "S:X:EUR", "sku", "X");
+            oneOf(dao).findByNamedQuery("SKUPRICE.BY.CODES.AND.CURRENCY", Arrays.asList("B", "X"), "EUR");
+            will(returnValue(Arrays.asList(skuB)));
+        }});
+
+        final SkuPriceBook book = new SkuPriceBook(dao, cacheManager, tracker);
+
+        assertPrices(book.getCurrentPrices(null, "A", 10L, null, "EUR", null, BigDecimal.ONE, NOW), skuA);
+
+        // A is in the book already, B and X (no prices) are loaded by one query
+        assertPrices(book.getCurrentPrices(Collections.singletonList(20L), Arrays.asList("A", "B", "X", "A"), 10L, null, "EUR", null, BigDecimal.ONE, NOW), skuA, skuC, skuB);
+
+        // all in the book now
+        assertPrices(book.getCurrentPrices(Collections.singletonList(20L), Arrays.asList("X", "B", "A"), 10L, null, "EUR", null, BigDecimal.ONE, NOW), skuC, skuB, skuA);
+
+        context.assertIsSatisfied();
+
+    }
+
+    private Shop shop(final long shopId) {
+        final Shop shop = context.mock(Shop.class, "shop" + shopId);
+        context.checking(new Expectations() {{
+            allowing(shop).getShopId(); will(returnValue(shopId));
+        }});
+        return shop;
+    }
+
+    private SkuPrice price(final long id,
+                           final Shop shop,
+                           final String tier,
+                           final String salePrice,
+                           final String policy,
+                           final LocalDateTime from,
+                           final LocalDateTime to) {
+        return price(id, "A", shop, tier, salePrice, policy, from, to);
+    }
+
+    private SkuPrice price(final long id,
+                           final String skuCode,
+                           final Shop shop,
+                           final String tier,
+                           final String salePrice,
+                           final String policy,
+                           final LocalDateTime from,
+                           final LocalDateTime to) {
+        final SkuPrice price = context.mock(SkuPrice.class, "price" + id);
+        context.checking(new Expectations() {{
+            allowing(price).getSkuCode(); will(returnValue(skuCode));
+            allowing(price).getShop(); will(returnValue(shop));
+            allowing(price).getQuantity(); will(returnValue(new BigDecimal(tier)));
+            allowing(price).getSalePriceForCalculation(); will(returnValue(new Pair<>(new BigDecimal(salePrice), null)));
+            allowing(price).getPricingPolicy(); will(returnValue(policy));
+            allowing(price).getSalefrom(); will(returnValue(from));
+            allowing(price).getSaleto(); will(returnValue(to));
+        }});
+        return price;
+    }
+
+    private static void assertPrices(final List<Pair<String, SkuPrice>> actual, final SkuPrice... expected) {
+        final List<SkuPrice> prices = new ArrayList<>();
+        for (final Pair<String, SkuPrice> price : actual) {
+            assertEquals(price.getSecond().getSkuCode(), price.getFirst());
+            prices.add(price.getSecond());
+        }
+        assertEquals(Arrays.asList(expected), prices);
+    }
+
+}
@@ -24,6 +24,8 @@ import org.yes.cart.domain.entity.ShoppingCartState;
 import org.yes.cart.service.domain.ShoppingCartStateService;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -77,6 +79,30 @@ public class TestShoppingCartStateServiceImpl extends BaseCoreDBTestCase {
         assertTrue(carts.isEmpty());
     }
 
+    @Test
+    public void testFindByGuids() {
+
+        final String uuid1 = UUID.randomUUID().toString();
+        final String uuid2 = UUID.randomUUID().toString();
+
+        assertTrue(shoppingCartStateService.findByGuids(Collections.emptyList()).isEmpty());
+        assertTrue(shoppingCartStateService.findByGuids(Arrays.asList(uuid1, uuid2)).isEmpty());
+
+        final ShoppingCartState scs = shoppingCartStateService.getGenericDao().getEntityFactory().getByIface(ShoppingCartState.class);
+        scs.setGuid(uuid1);
+        scs.setCustomerEmail("bob@doe.com");
+        scs.setState("State".getBytes());
+        shoppingCartStateService.create(scs);
+
+        final List<ShoppingCartState> carts = shoppingCartStateService.findByGuids(Arrays.asList(uuid1, uuid2));
+        assertEquals(1, carts.size());
+        assertEquals(uuid1, carts.get(0).getGuid());
+
+        shoppingCartStateService.delete(scs);
+
+        assertTrue(shoppingCartStateService.findByGuids(Arrays.asList(uuid1, uuid2)).isEmpty());
+    }
+
     @Test
     public void testFindByModificationPrior() {
 
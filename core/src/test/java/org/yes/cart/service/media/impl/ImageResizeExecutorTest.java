@@ -0,0 +1,180 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.media.impl;
+
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 23:40
+ */
+public class ImageResizeExecutorTest {
+
+    @Test
+    public void testSingleFlight() throws Exception {
+
+        final ImageResizeExecutor executor = new ImageResizeExecutor(2, 10, 10000L);
+        final ExecutorService requests = Executors.newFixedThreadPool(10);
+
+        try {
+
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger resized = new AtomicInteger();
+
+            final Callable<byte[]> resize = () -> {
+                resized.incrementAndGet();
+                started.countDown();
+                release.await();
+                return new byte[] { 1, 2, 3 };
+            };
+
+            final List<Future<byte[]>> results = new ArrayList<>();
+            results.add(requests.submit(() -> executor.execute("50x50/a.jpg", resize)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 9; i++) {
+                results.add(requests.submit(() -> executor.execute("50x50/a.jpg", resize)));
+            }
+
+            while (executor.getDeduplicatedCount() < 9L) {
+                Thread.sleep(10L);
+            }
+            assertEquals(1, executor.getInFlightCount());
+
+            release.countDown();
+
+            for (final Future<byte[]> result : results) {
+                assertArrayEquals(new byte[] { 1, 2, 3 }, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, resized.get());
+            assertEquals(1L, executor.getSubmittedCount());
+            assertEquals(0, executor.getInFlightCount());
+
+            // completed tasks are not cached
+            assertArrayEquals(new byte[] { 1, 2, 3 }, executor.execute("50x50/a.jpg", resize));
+            assertEquals(2, resized.get());
+
+        } finally {
+            requests.shutdownNow();
+            executor.destroy();
+        }
+
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+
+        final ImageResizeExecutor executor = new ImageResizeExecutor(1, 1, 10000L);
+        final ExecutorService requests = Executors.newFixedThreadPool(2);
+
+        try {
+
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+
+            final Callable<byte[]> resize = () -> {
+                started.countDown();
+                release.await();
+                return new byte[] { 1 };
+            };
+
+            final Future<byte[]> busy = requests.submit(() -> executor.execute("a", resize));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            final Future<byte[]> queued = requests.submit(() -> executor.execute("b", resize));
+            while (executor.getQueueDepth() < 1) {
+                Thread.sleep(10L);
+            }
+
+            assertNull(executor.execute("c", resize));
+            assertEquals(1L, executor.getRejectedCount());
+            assertEquals(1, executor.getWorkers());
+
+            release.countDown();
+            assertArrayEquals(new byte[] { 1 }, busy.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new byte[] { 1 }, queued.get(5, TimeUnit.SECONDS));
+
+        } finally {
+            requests.shutdownNow();
+            executor.destroy();
+        }
+
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+
+        final ImageResizeExecutor executor = new ImageResizeExecutor(1, 1, 50L);
+
+        try {
+
+            final CountDownLatch release = new CountDownLatch(1);
+
+            assertNull(executor.execute("slow", () -> {
+                release.await();
+                return new byte[0];
+            }));
+            assertEquals(1L, executor.getTimedOutCount());
+            release.countDown();
+
+        } finally {
+            executor.destroy();
+        }
+
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+
+        final ImageResizeExecutor executor = new ImageResizeExecutor(1, 1, 10000L);
+
+        try {
+
+            try {
+                executor.execute("missing", () -> {
+                    throw new FileNotFoundException("missing");
+                });
+                fail("IOException expected");
+            } catch (FileNotFoundException fnf) {
+                assertEquals("missing", fnf.getMessage());
+            }
+
+            try {
+                executor.execute("broken", () -> {
+                    throw new Exception("broken");
+                });
+                fail("IOException expected");
+            } catch (IOException ioe) {
+                assertEquals("broken", ioe.getCause().getMessage());
+            }
+
+        } finally {
+            executor.destroy();
+        }
+
+    }
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.shoppingcart.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Invocation;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.yes.cart.domain.entity.Warehouse;
+import org.yes.cart.service.domain.SkuWarehouseService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 19:10
+ */
+public class InventoryResolverReservationLedgerImplTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    private static final BigDecimal ZERO = new BigDecimal("0.00");
+
+    @After
+    public void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testReservationFromLease() throws Exception {
+
+        final SkuWarehouseService skuWarehouseService = context.mock(SkuWarehouseService.class, "skuWarehouseService");
+        final Warehouse warehouse = context.mock(Warehouse.class, "warehouse");
+
+        context.checking(new Expectations() {{
+            allowing(warehouse).getWarehouseId(); will(returnValue(1L));
+            exactly(2).of(skuWarehouseService).reservation(warehouse, "SKU", new BigDecimal("10.00"), false); will(returnValue(ZERO));
+        }});
+
+        final InventoryResolverReservationLedgerImpl ledger = new InventoryResolverReservationLedgerImpl(skuWarehouseService);
+
+        // first lease covers 10 reservations, 11th takes next lease
+        for (int i = 0; i < 11; i++) {
+            assertEquals(ZERO, ledger.reservation(warehouse, "SKU", BigDecimal.ONE));
+        }
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testReservationStockExhausted() throws Exception {
+
+        final SkuWarehouseService skuWarehouseService = context.mock(SkuWarehouseService.class, "skuWarehouseService");
+        final Warehouse warehouse = context.mock(Warehouse.class, "warehouse");
+
+        context.checking(new Expectations() {{
+            allowing(warehouse).getWarehouseId(); will(returnValue(1L));
+            oneOf(skuWarehouseService).reservation(warehouse, "SKU", new BigDecimal("10.00"), false); will(returnValue(new BigDecimal("7.00")));
+            oneOf(skuWarehouseService).reservation(warehouse, "SKU", new BigDecimal("10.00"), false); will(returnValue(new BigDecimal("10.00")));
+        }});
+
+        final InventoryResolverReservationLedgerImpl ledger = new InventoryResolverReservationLedgerImpl(skuWarehouseService);
+
+        // only 3 left in stock
+        assertEquals(new BigDecimal("2.00"), ledger.reservation(warehouse, "SKU", new BigDecimal(5)));
+        assertEquals(new BigDecimal("1.00"), ledger.reservation(warehouse, "SKU", BigDecimal.ONE));
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testBackorderAndFractionsDelegated() throws Exception {
+
+        final SkuWarehouseService skuWarehouseService = context.mock(SkuWarehouseService.class, "skuWarehouseService");
+        final Warehouse warehouse = context.mock(Warehouse.class, "warehouse");
+
+        context.checking(new Expectations() {{
+            allowing(warehouse).getWarehouseId(); will(returnValue(1L));
+            oneOf(skuWarehouseService).reservation(warehouse, "SKU", BigDecimal.ONE, true); will(returnValue(ZERO));
+            oneOf(skuWarehouseService).reservation(warehouse, "SKU", new BigDecimal("0.001"), false); will(returnValue(ZERO));
+            oneOf(skuWarehouseService).voidReservation(warehouse, "SKU", BigDecimal.ONE); will(returnValue(BigDecimal.ONE));
+            oneOf(skuWarehouseService).debit(warehouse, "SKU", BigDecimal.ONE); will(returnValue(ZERO));
+            oneOf(skuWarehouseService).credit(warehouse, "SKU", BigDecimal.ONE); will(returnValue(ZERO));
+        }});
+
+        final InventoryResolverReservationLedgerImpl ledger = new InventoryResolverReservationLedgerImpl(skuWarehouseService);
+
+        assertEquals(ZERO, ledger.reservation(warehouse, "SKU", BigDecimal.ONE, true));
+        assertEquals(ZERO, ledger.reservation(warehouse, "SKU", new BigDecimal("0.001")));
+        // nothing was reserved from lease, so void goes to DB
+        assertEquals(BigDecimal.ONE, ledger.voidReservation(warehouse, "SKU", BigDecimal.ONE));
+        assertEquals(ZERO, ledger.debit(warehouse, "SKU", BigDecimal.ONE));
+        assertEquals(ZERO, ledger.credit(warehouse, "SKU", BigDecimal.ONE));
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testVoidAndFlush() throws Exception {
+
+        final SkuWarehouseService skuWarehouseService = context.mock(SkuWarehouseService.class, "skuWarehouseService");
+        final Warehouse warehouse = context.mock(Warehouse.class, "warehouse");
+
+        context.checking(new Expectations() {{
+            allowing(warehouse).getWarehouseId(); will(returnValue(1L));
+            allowing(warehouse).getCode(); will(returnValue("WH1"));
+            oneOf(skuWarehouseService).reservation(warehouse, "SKU", new BigDecimal("10.00"), false); will(returnValue(ZERO));
+            oneOf(skuWarehouseService).voidReservation(warehouse, "SKU", new BigDecimal("10.00")); will(returnValue(ZERO));
+        }});
+
+        final InventoryResolverReservationLedgerImpl ledger = new InventoryResolverReservationLedgerImpl(skuWarehouseService);
+
+        assertEquals(ZERO, ledger.reservation(warehouse, "SKU", new BigDecimal(2)));
+        // voided reservation goes back to the lease
+        assertEquals(ZERO, ledger.voidReservation(warehouse, "SKU", new BigDecimal(2)));
+
+        // cell is active, so first flush does not return lease
+        assertEquals(0, ledger.flush());
+        // idle cell returns all 10
+        assertEquals(1, ledger.flush());
+        assertEquals(0, ledger.flush());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testTransactionOutcome() throws Exception {
+
+        final SkuWarehouseService skuWarehouseService = context.mock(SkuWarehouseService.class, "skuWarehouseService");
+        final Warehouse warehouse = context.mock(Warehouse.class, "warehouse");
+
+        context.checking(new Expectations() {{
+            allowing(warehouse).getWarehouseId(); will(returnValue(1L));
+            exactly(2).of(skuWarehouseService).reservation(warehouse, "SKU", new BigDecimal("10.00"), false); will(returnValue(ZERO));
+        }});
+
+        final InventoryResolverReservationLedgerImpl ledger = new InventoryResolverReservationLedgerImpl(skuWarehouseService);
+
+        // lease is rolled back, so next transaction has to lease again
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(ZERO, ledger.reservation(warehouse, "SKU", new BigDecimal(2)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // surplus of committed lease is available for others
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(ZERO, ledger.reservation(warehouse, "SKU", new BigDecimal(2)));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // allocation from lease is returned on rollback
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(ZERO, ledger.reservation(warehouse, "SKU", new BigDecimal(5)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // so all 8 are still available
+        assertEquals(ZERO, ledger.reservation(warehouse, "SKU", new BigDecimal(8)));
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testConcurrentReservations() throws Exception {
+
+        final Mockery context = new JUnit4Mockery() {{
+            setThreadingPolicy(new Synchroniser());
+        }};
+
+        final SkuWarehouseService skuWarehouseService = context.mock(SkuWarehouseService.class, "skuWarehouseService");
+        final Warehouse warehouse = context.mock(Warehouse.class, "warehouse");
+
+        final AtomicInteger leases = new AtomicInteger();
+
+        context.checking(new Expectations() {{
+            allowing(warehouse).getWarehouseId(); will(returnValue(1L));
+            allowing(skuWarehouseService).reservation(warehouse, "SKU", new BigDecimal("100.00"), false);
+            will(new CustomAction("lease") {
+                @Override
+                public Object invoke(final Invocation invocation) throws Throwable {
+                    // 1000 items in stock
+                    return leases.incrementAndGet() <= 10 ? ZERO : new BigDecimal("100.00");
+                }
+            });
+        }});
+
+        final InventoryResolverReservationLedgerImpl ledger = new InventoryResolverReservationLedgerImpl(skuWarehouseService);
+        ledger.setLeaseQuantity(new BigDecimal(100));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<BigDecimal>> results = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            results.add(executor.submit(() -> ledger.reservation(warehouse, "SKU", BigDecimal.ONE)));
+        }
+        int reserved = 0;
+        for (final Future<BigDecimal> result : results) {
+            if (result.get(10, TimeUnit.SECONDS).signum() == 0) {
+                reserved++;
+            }
+        }
+        executor.shutdown();
+
+        // no overselling
+        assertEquals(1000, reserved);
+
+        context.assertIsSatisfied();
+
+    }
+
+    private void complete(final int status) {
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (final TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+}
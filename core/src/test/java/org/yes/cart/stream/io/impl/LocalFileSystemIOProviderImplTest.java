@@ -19,10 +19,15 @@ package org.yes.cart.stream.io.impl;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.regex.Pattern;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * User: denispavlov
@@ -71,4 +76,35 @@ public class LocalFileSystemIOProviderImplTest {
         assertTrue(io.supports("file://" + io.getOsAwarePath("/some/path/to/a/file")));
 
     }
+
+    @Test
+    public void testOpenAndLastModified() throws Exception {
+
+        final LocalFileSystemIOProviderImpl io = new LocalFileSystemIOProviderImpl();
+
+        final File file = File.createTempFile("ioprovider", ".txt");
+        try {
+            Files.write(file.toPath(), "content".getBytes(StandardCharsets.US_ASCII));
+
+            try (SeekableByteChannel channel = io.open(file.getAbsolutePath(), null)) {
+                assertTrue(channel instanceof FileChannel);
+                assertEquals(7L, channel.size());
+                final ByteBuffer buffer = ByteBuffer.allocate(7);
+                channel.read(buffer);
+                assertEquals("content", new String(buffer.array(), StandardCharsets.US_ASCII));
+            }
+            assertEquals(file.lastModified(), io.lastModified(file.getAbsolutePath(), null));
+
+            try {
+                io.open(file.getAbsolutePath() + ".none", null);
+                fail("FileNotFoundException expected");
+            } catch (FileNotFoundException fnf) {
+                // expected
+            }
+            assertEquals(0L, io.lastModified(file.getAbsolutePath() + ".none", null));
+        } finally {
+            assertTrue(file.delete());
+        }
+
+    }
 }
@@ -433,4 +433,12 @@ public interface GenericDAO<T, PK extends Serializable> {
      * Clear session.
      */
     void clear();
+
+    /**
+     * Set JDBC batch size for the current session, which overrides hibernate.jdbc.batch_size
+     * for this session only.
+     *
+     * @param batchSize batch size (null to revert to the session factory default)
+     */
+    void setJdbcBatchSize(Integer batchSize);
 }
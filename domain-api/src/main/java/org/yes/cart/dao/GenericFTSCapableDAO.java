@@ -20,6 +20,7 @@ import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 
 import java.io.Serializable;
 import java.util.List;
@@ -39,6 +40,18 @@ public interface GenericFTSCapableDAO<T, PK extends Serializable, FTQ> extends G
      */
     IndexBuilder.FTIndexState getFullTextIndexState();
 
+    /**
+     * @return search latency statistics of full text index.
+     */
+    FTSStatisticsDTO getFullTextSearchStatistics();
+
+    /**
+     * Explain slow query recorded in statistics, see {@link org.yes.cart.search.dao.GenericFTS#explainFullTextSearchQuery(long)}.
+     * @param queryId slow query id
+     * @return explanation or null if query is no longer available
+     */
+    String explainFullTextSearchQuery(long queryId);
+
     /**
      * Force reindex the all entities.
      *
@@ -62,6 +75,14 @@ public interface GenericFTSCapableDAO<T, PK extends Serializable, FTQ> extends G
      */
     void fullTextSearchReindex(PK primaryKey, boolean purgeOnly);
 
+    /**
+     * Reindex volatile values (such as prices and inventory) of given entity, see
+     * {@link org.yes.cart.search.dao.IndexBuilder#fullTextSearchReindexVolatile(java.io.Serializable)}.
+     *
+     * @param primaryKey to reindex.
+     */
+    void fullTextSearchReindexVolatile(PK primaryKey);
+
 
     /**
      * Get the full text search result.
@@ -118,6 +139,25 @@ public interface GenericFTSCapableDAO<T, PK extends Serializable, FTQ> extends G
                                                  boolean reverse,
                                                  String ... fields);
 
+    /**
+     * Get the full text search result page that follows the position defined by continuation token.
+     *
+     * @param query         full text search query
+     * @param searchAfter   opaque continuation token from previous page (null for first page)
+     * @param maxResults    size of result set
+     * @param sortFieldName optional  sort field name
+     * @param reverse       reverse the search result
+     * @param fields        list of fields for projections
+     *
+     * @return page results (first) and pair of total hits and continuation token for next page (second)
+     */
+    Pair<List<Object[]>, Pair<Integer, String>> fullTextSearchAfter(FTQ query,
+                                                                     String searchAfter,
+                                                                     int maxResults,
+                                                                     String sortFieldName,
+                                                                     boolean reverse,
+                                                                     String ... fields);
+
     /**
      * Get the full text search result. The map returned by this method should be a single use only.
      * i.e. DO NOT CACHE this method. There are no benefits to this as final FilterNavigationRecord's are already
@@ -36,7 +36,7 @@ public interface ProductSearchResultPageDTO extends Serializable {
     /**
      * Offset for first item.
      *
-     * @return offset
+     * @return offset, or -1 if this page was retrieved using search after token
      */
     int getFirst();
 
@@ -68,6 +68,14 @@ public interface ProductSearchResultPageDTO extends Serializable {
      */
     boolean isSortDesc();
 
+    /**
+     * Opaque continuation token that can be used to retrieve next page, see
+     * {@link org.yes.cart.service.domain.ProductService#getProductSearchResultDTOByQuery(org.yes.cart.search.dto.NavigationContext, String, int, String, boolean)}
+     *
+     * @return token or null if there are no more pages or this page was retrieved by offset
+     */
+    String getSearchAfter();
+
     /**
      * Creates copy of this object
      *
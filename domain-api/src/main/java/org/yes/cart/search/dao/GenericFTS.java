@@ -19,6 +19,7 @@ package org.yes.cart.search.dao;
 import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 
 import java.io.Serializable;
 import java.util.List;
@@ -88,6 +89,28 @@ public interface GenericFTS<PK extends Serializable, FTQ> {
                                                  boolean reverse,
                                                  String... fields);
 
+    /**
+     * Get the full text search result page that follows the position defined by continuation token.
+     * Unlike offset based paging cost of this query does not depend on how deep the page is, since
+     * only page size top hits need to be collected.
+     *
+     * @param query         lucene search query
+     * @param searchAfter   opaque continuation token from previous page (null for first page)
+     * @param maxResults    size of result set
+     * @param sortFieldName optional  sort field name
+     * @param reverse       reverse the search result
+     * @param fields        list of fields for projections
+     *
+     * @return page results (first) and pair of total hits and continuation token for next page (second),
+     *         token is null if there are no more pages
+     */
+    Pair<List<Object[]>, Pair<Integer, String>> fullTextSearchAfter(FTQ query,
+                                                                     String searchAfter,
+                                                                     int maxResults,
+                                                                     String sortFieldName,
+                                                                     boolean reverse,
+                                                                     String... fields);
+
     /**
      * Get the full text search result. The map returned by this method should be a single use only.
      * i.e. DO NOT CACHE this method. There are no benefits to this as final FilterNavigationRecord's are already
@@ -112,4 +135,20 @@ public interface GenericFTS<PK extends Serializable, FTQ> {
      */
     int fullTextSearchCount(FTQ query);
 
+    /**
+     * Get search latency statistics for this index, see {@link FTSStatisticsDTO}.
+     *
+     * @return statistics snapshot
+     */
+    FTSStatisticsDTO getFullTextSearchStatistics();
+
+    /**
+     * Explain slow query recorded in statistics by running it against current index.
+     *
+     * @param queryId slow query id (see {@link org.yes.cart.search.dto.impl.FTSSlowQueryDTO#getId()})
+     *
+     * @return explanation of the top hit or null if query is no longer available
+     */
+    String explainFullTextSearchQuery(long queryId);
+
 }
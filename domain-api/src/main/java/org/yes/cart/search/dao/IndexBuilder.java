@@ -51,6 +51,38 @@ public interface IndexBuilder<T, PK extends Serializable> {
          */
         long getLastIndexCount();
 
+        /**
+         * Throughput of the entity read stage (entities streamed from persistence layer per second) for
+         * the last full reindex (either in progress or completed).
+         *
+         * @return entities per second
+         */
+        double getReadThroughput();
+
+        /**
+         * Throughput of the document build stage (entities converted to documents per second) for
+         * the last full reindex (either in progress or completed).
+         *
+         * @return entities per second
+         */
+        double getBuildThroughput();
+
+        /**
+         * Throughput of the index write stage (documents added to index per second) for the last full
+         * reindex (either in progress or completed).
+         *
+         * @return documents per second
+         */
+        double getWriteThroughput();
+
+        /**
+         * Index was built with previous document structure and has to be rebuilt by full reindex,
+         * until then single entity updates are not applied.
+         *
+         * @return true if full reindex is required
+         */
+        boolean isFullTextIndexOutdated();
+
     }
 
     /**
@@ -88,4 +120,13 @@ public interface IndexBuilder<T, PK extends Serializable> {
      */
     void fullTextSearchReindex(PK primaryKey, boolean purgeOnly);
 
+    /**
+     * Reindex volatile values (such as prices and inventory) of given entity in place. If index does
+     * not support in place updates or the change affects structure of indexed documents this is
+     * equivalent to {@link #fullTextSearchReindex(Serializable)}.
+     *
+     * @param primaryKey to reindex.
+     */
+    void fullTextSearchReindexVolatile(PK primaryKey);
+
 }
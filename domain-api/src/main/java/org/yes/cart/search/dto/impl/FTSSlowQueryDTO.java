@@ -0,0 +1,104 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package org.yes.cart.search.dto.impl;
+
+import java.io.Serializable;
+
+/**
+ * Full text search query that took longer than configured threshold. Id can be used to request
+ * explanation of the query against current index.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:14
+ */
+public class FTSSlowQueryDTO implements Serializable {
+
+    private static final long serialVersionUID = 20261018L;
+
+    private long id;
+
+    private long timestamp;
+
+    private String timer;
+
+    private long durationMs;
+
+    private String query;
+
+    private int hits;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(final long id) {
+        this.id = id;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(final long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getTimer() {
+        return timer;
+    }
+
+    public void setTimer(final String timer) {
+        this.timer = timer;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(final long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(final String query) {
+        this.query = query;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public void setHits(final int hits) {
+        this.hits = hits;
+    }
+
+    @Override
+    public String toString() {
+        return "FTSSlowQueryDTO{" +
+                "id=" + id +
+                ", timer='" + timer + '\'' +
+                ", durationMs=" + durationMs +
+                ", hits=" + hits +
+                ", query='" + query + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package org.yes.cart.search.dto.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full text search statistics for single index on a node: latency per search method, age of current
+ * index reader and most recent slow queries.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:14
+ */
+public class FTSStatisticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 20261018L;
+
+    private String indexName;
+
+    private long indexReaderVersion;
+
+    private int indexReaderNumDocs;
+
+    private long indexReaderAgeMs;
+
+    private long slowQueryThresholdMs;
+
+    private List<FTSTimerStatisticsDTO> timers = new ArrayList<>();
+
+    private List<FTSSlowQueryDTO> slowQueries = new ArrayList<>();
+
+    private String nodeId;
+
+    private String nodeUri;
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(final String indexName) {
+        this.indexName = indexName;
+    }
+
+    public long getIndexReaderVersion() {
+        return indexReaderVersion;
+    }
+
+    public void setIndexReaderVersion(final long indexReaderVersion) {
+        this.indexReaderVersion = indexReaderVersion;
+    }
+
+    public int getIndexReaderNumDocs() {
+        return indexReaderNumDocs;
+    }
+
+    public void setIndexReaderNumDocs(final int indexReaderNumDocs) {
+        this.indexReaderNumDocs = indexReaderNumDocs;
+    }
+
+    public long getIndexReaderAgeMs() {
+        return indexReaderAgeMs;
+    }
+
+    public void setIndexReaderAgeMs(final long indexReaderAgeMs) {
+        this.indexReaderAgeMs = indexReaderAgeMs;
+    }
+
+    public long getSlowQueryThresholdMs() {
+        return slowQueryThresholdMs;
+    }
+
+    public void setSlowQueryThresholdMs(final long slowQueryThresholdMs) {
+        this.slowQueryThresholdMs = slowQueryThresholdMs;
+    }
+
+    public List<FTSTimerStatisticsDTO> getTimers() {
+        return timers;
+    }
+
+    public void setTimers(final List<FTSTimerStatisticsDTO> timers) {
+        this.timers = timers;
+    }
+
+    public List<FTSSlowQueryDTO> getSlowQueries() {
+        return slowQueries;
+    }
+
+    public void setSlowQueries(final List<FTSSlowQueryDTO> slowQueries) {
+        this.slowQueries = slowQueries;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(final String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getNodeUri() {
+        return nodeUri;
+    }
+
+    public void setNodeUri(final String nodeUri) {
+        this.nodeUri = nodeUri;
+    }
+
+    @Override
+    public String toString() {
+        return "FTSStatisticsDTO{" +
+                "indexName='" + indexName + '\'' +
+                ", indexReaderVersion=" + indexReaderVersion +
+                ", indexReaderNumDocs=" + indexReaderNumDocs +
+                ", indexReaderAgeMs=" + indexReaderAgeMs +
+                ", timers=" + timers +
+                ", slowQueries=" + slowQueries.size() +
+                ", nodeId='" + nodeId + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package org.yes.cart.search.dto.impl;
+
+import java.io.Serializable;
+
+/**
+ * Latency distribution of a single full text search method (e.g. search, count, navigation or
+ * individual facet). All durations are in microseconds, percentiles are approximate upper bounds
+ * with relative error not exceeding 12.5%.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:14
+ */
+public class FTSTimerStatisticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 20261018L;
+
+    private String name;
+
+    private long count;
+
+    private long mean;
+
+    private long p50;
+
+    private long p90;
+
+    private long p99;
+
+    private long max;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(final long count) {
+        this.count = count;
+    }
+
+    public long getMean() {
+        return mean;
+    }
+
+    public void setMean(final long mean) {
+        this.mean = mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public void setP50(final long p50) {
+        this.p50 = p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public void setP90(final long p90) {
+        this.p90 = p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public void setP99(final long p99) {
+        this.p99 = p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void setMax(final long max) {
+        this.max = max;
+    }
+
+    @Override
+    public String toString() {
+        return "FTSTimerStatisticsDTO{" +
+                "name='" + name + '\'' +
+                ", count=" + count +
+                ", mean=" + mean +
+                ", p50=" + p50 +
+                ", p90=" + p90 +
+                ", p99=" + p99 +
+                ", max=" + max +
+                '}';
+    }
+}
@@ -20,6 +20,7 @@ import org.yes.cart.domain.entity.SkuPrice;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Price service.
@@ -76,6 +77,28 @@ public interface PriceService extends GenericService<SkuPrice> {
                                        final String currencyCode,
                                        final String pricingPolicy);
 
+    /**
+     * Get all current prices for several products and/or SKU at once. This is bulk version of
+     * {@link #getAllCurrentPrices(Long, String, long, Long, String, String)} for listings, which resolves
+     * prices for the whole list in one lookup rather than one per product.
+     *
+     * @param productIds     products (all SKU of each product are included)
+     * @param skuCodes       SKU codes
+     * @param customerShopId shop for which to get the price for
+     * @param masterShopId   optional fallback shop (if specified the result will be a merge of prices available in both shops)
+     * @param currencyCode   desirable currency
+     * @param pricingPolicy  optional pricing policy
+     *
+     * @return current prices by SKU code, each list ordered by tier with lowest price per tier (SKU without
+     *         prices are not included)
+     */
+    Map<String, List<SkuPrice>> getAllCurrentPrices(final List<Long> productIds,
+                                                    final List<String> skuCodes,
+                                                    final long customerShopId,
+                                                    final Long masterShopId,
+                                                    final String currencyCode,
+                                                    final String pricingPolicy);
+
 
     /**
      * Get all prices gor given product skus (all), no date or shop filtering.
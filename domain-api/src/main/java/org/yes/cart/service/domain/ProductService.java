@@ -25,6 +25,7 @@ import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
 import org.yes.cart.search.dto.NavigationContext;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
@@ -222,6 +223,24 @@ public interface ProductService extends GenericService<Product> {
                                                                 String sortFieldName,
                                                                 boolean reverse);
 
+    /**
+     * Get the page of products, that match the given query, following the position defined by
+     * continuation token. Cost of this query does not depend on the depth of the page.
+     *
+     * @param navigationContext navigation context
+     * @param searchAfter       continuation token from previous page {@link ProductSearchResultPageDTO#getSearchAfter()},
+     *                          null for first page
+     * @param maxResults        quantity results to return
+     * @param sortFieldName     sort field name
+     * @param reverse           reverse the search result if true
+     * @return list of products
+     */
+    ProductSearchResultPageDTO getProductSearchResultDTOByQuery(NavigationContext navigationContext,
+                                                                String searchAfter,
+                                                                int maxResults,
+                                                                String sortFieldName,
+                                                                boolean reverse);
+
     /**
      * Create filter navigation records counts.
      *
@@ -259,6 +278,34 @@ public interface ProductService extends GenericService<Product> {
      */
     IndexBuilder.FTIndexState getProductsSkuFullTextIndexState();
 
+    /**
+     * @return search latency statistics of products full text index.
+     */
+    FTSStatisticsDTO getProductsFullTextSearchStatistics();
+
+    /**
+     * @return search latency statistics of SKU full text index.
+     */
+    FTSStatisticsDTO getProductsSkuFullTextSearchStatistics();
+
+    /**
+     * Explain slow query recorded in products full text index statistics.
+     *
+     * @param queryId slow query id
+     *
+     * @return explanation or null if query is no longer available
+     */
+    String explainProductsFullTextSearchQuery(long queryId);
+
+    /**
+     * Explain slow query recorded in SKU full text index statistics.
+     *
+     * @param queryId slow query id
+     *
+     * @return explanation or null if query is no longer available
+     */
+    String explainProductsSkuFullTextSearchQuery(long queryId);
+
     /**
      * Reindex the products.
      *
@@ -326,6 +373,14 @@ public interface ProductService extends GenericService<Product> {
      */
     void reindexProductSku(String code);
 
+    /**
+     * Reindex prices and inventory of the product. This is much cheaper than {@link #reindexProductSku(String)}
+     * and should be used when only prices or inventory have changed.
+     *
+     * @param code the product SKU code
+     */
+    void reindexProductSkuVolatile(String code);
+
 
     /**
      * Get product sku by code.
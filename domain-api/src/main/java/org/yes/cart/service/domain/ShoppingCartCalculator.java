@@ -1,8 +1,10 @@
 package org.yes.cart.service.domain;
 
+import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.shoppingcart.ShoppingCart;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Calculator allows to perform complex calculation that are usually done in cart calculation
@@ -61,4 +63,16 @@ public interface ShoppingCartCalculator {
                               String skuCode,
                               BigDecimal minimalPrice);
 
+    /**
+     * Calculate price models for a batch of SKU prices (e.g. all prices shown on a listing page) in one call.
+     * Result for each pair is equivalent to {@link #calculatePrice(ShoppingCart, String, BigDecimal)}.
+     *
+     * @param currentCart current cart (to provide additional data such as location)
+     * @param skuPrices pairs of SKU code and price determined by price service
+     *
+     * @return price models in the same order as skuPrices (null for pairs with null price)
+     */
+    List<PriceModel> calculatePrices(ShoppingCart currentCart,
+                                     List<Pair<String, BigDecimal>> skuPrices);
+
 }
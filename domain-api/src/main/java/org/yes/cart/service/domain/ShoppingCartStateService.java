@@ -20,6 +20,7 @@ import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.domain.entity.ShoppingCartState;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -38,6 +39,15 @@ public interface ShoppingCartStateService extends GenericService<ShoppingCartSta
      */
     ShoppingCartState findByGuid(String guid);
 
+    /**
+     * Get states by guids.
+     *
+     * @param guids guids
+     *
+     * @return states found (in no particular order)
+     */
+    List<ShoppingCartState> findByGuids(Collection<String> guids);
+
     /**
      * Get state by guid.
      *
@@ -17,6 +17,7 @@
 package org.yes.cart.stream.io;
 
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.util.Map;
 
 /**
@@ -71,6 +72,30 @@ public interface IOProvider {
      */
     byte[] read(String uri, Map<String, Object> context) throws IOException;
 
+    /**
+     * Open content for streaming, so that large content can be served without reading it into memory.
+     * File system based providers return {@link java.nio.channels.FileChannel}, which allows zero copy
+     * transfer to the target channel. Caller is responsible for closing the channel.
+     *
+     * @param uri uri of the read target
+     * @param context any applicable context for given provider
+     *
+     * @return channel positioned at the start of the content
+     *
+     * @throws IOException in case if content cannot be opened ({@link java.io.FileNotFoundException} if it does not exist)
+     */
+    SeekableByteChannel open(String uri, Map<String, Object> context) throws IOException;
+
+    /**
+     * Last modified timestamp of the content.
+     *
+     * @param uri uri of the target
+     * @param context any applicable context for given provider
+     *
+     * @return last modified timestamp in milliseconds or 0 if resource does not exist
+     */
+    long lastModified(String uri, Map<String, Object> context);
+
     /**
      * Write content as bytes.
      *
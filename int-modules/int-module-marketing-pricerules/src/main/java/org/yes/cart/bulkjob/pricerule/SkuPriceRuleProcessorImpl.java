@@ -0,0 +1,587 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkjob.pricerule;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yes.cart.bulkjob.cron.AbstractLastRunDependentProcessorImpl;
+import org.yes.cart.constants.Constants;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.entity.Shop;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.entity.SkuPriceRule;
+import org.yes.cart.pricerule.SkuPriceRuleCondition;
+import org.yes.cart.pricerule.SkuPriceRuleConditionParser;
+import org.yes.cart.promotion.PromotionConditionSupport;
+import org.yes.cart.service.async.JobStatusAware;
+import org.yes.cart.service.async.JobStatusListener;
+import org.yes.cart.service.async.impl.JobStatusListenerLoggerWrapperImpl;
+import org.yes.cart.service.async.model.JobStatus;
+import org.yes.cart.service.domain.ShopService;
+import org.yes.cart.service.domain.SystemService;
+import org.yes.cart.shoppingcart.TaxProvider;
+import org.yes.cart.util.DateUtils;
+import org.yes.cart.util.MoneyUtils;
+import org.yes.cart.util.TimeContext;
+import org.yes.cart.util.log.Markers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processor that generates SKU prices from cost prices using {@link SkuPriceRule}'s.
+ *
+ * Cost price is a price with "COST" pricing policy in the shop and currency of the rule. Each cost
+ * tier is evaluated against active rules of the shop and currency in rank order and the first eligible
+ * rule determines the generated price. Generated prices are flagged as auto generated and are updated
+ * or removed by this job only.
+ *
+ * Last time this job runs is stored in system preferences: JOB_SKU_PRICE_RULE_LR
+ * So that next run we only generate prices for SKU whose cost has changed since last job run. If
+ * active rules for shop and currency change all SKU of this shop and currency are regenerated.
+ * Removing cost price does not change the time stamps, so generated prices for such SKU are only
+ * removed on full run (i.e. when the last run preference is cleared or rules change).
+ *
+ * SKU are processed in partitions (batch size) in parallel, each partition is written in its own
+ * transaction.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:30
+ */
+public class SkuPriceRuleProcessorImpl extends AbstractLastRunDependentProcessorImpl
+        implements SkuPriceRuleProcessorInternal, JobStatusAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SkuPriceRuleProcessorImpl.class);
+
+    private static final String LAST_RUN_PREF = "JOB_SKU_PRICE_RULE_LR";
+    private static final String BATCH_SIZE_PREF = "JOB_SKU_PRICE_RULE_BATCH_SIZE";
+
+    static final String COST_POLICY = "COST";
+
+    private static final BigDecimal DEFAULT_ROUNDING = new BigDecimal("0.01");
+
+    private final GenericDAO<SkuPriceRule, Long> skuPriceRuleDao;
+    private final GenericDAO<SkuPrice, Long> skuPriceDao;
+    private final ShopService shopService;
+    private final SkuPriceRuleConditionParser conditionParser;
+    private final PromotionConditionSupport conditionSupport;
+    private final TaxProvider taxProvider;
+
+    private int batchSize = 500;
+    private int threads = 4;
+
+    private final Map<String, String> activeRules = new ConcurrentHashMap<>();
+
+    private final JobStatusListener listener = new JobStatusListenerLoggerWrapperImpl(LOG);
+
+    public SkuPriceRuleProcessorImpl(final GenericDAO<SkuPriceRule, Long> skuPriceRuleDao,
+                                     final GenericDAO<SkuPrice, Long> skuPriceDao,
+                                     final ShopService shopService,
+                                     final SkuPriceRuleConditionParser conditionParser,
+                                     final PromotionConditionSupport conditionSupport,
+                                     final TaxProvider taxProvider,
+                                     final SystemService systemService) {
+        super(systemService);
+        this.skuPriceRuleDao = skuPriceRuleDao;
+        this.skuPriceDao = skuPriceDao;
+        this.shopService = shopService;
+        this.conditionParser = conditionParser;
+        this.conditionSupport = conditionSupport;
+        this.taxProvider = taxProvider;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JobStatus getStatus(final String token) {
+        return listener.getLatestStatus();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected String getLastRunPreferenceAttributeName() {
+        return LAST_RUN_PREF;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean doRun(final Instant lastRun) {
+
+        LOG.info("Generating prices from price rules, last run {}", lastRun != null ? DateUtils.formatSDT(lastRun) : "none");
+
+        final LocalDateTime now = TimeContext.getLocalDateTime();
+        final int batchSize = determineBatchSize();
+        final List<SkuPriceRule> allRules = self().findAllRules();
+
+        final int[] counts = new int[] { 0, 0, 0 };
+        boolean success = true;
+
+        for (final Shop shop : shopService.getAll()) {
+
+            for (final String currency : shop.getSupportedCurrenciesAsList()) {
+
+                final List<SkuPriceRule> rules = new ArrayList<>();
+                final List<SkuPriceRule> active = new ArrayList<>();
+                for (final SkuPriceRule rule : allRules) {
+                    if (shop.getCode().equals(rule.getShopCode()) && currency.equals(rule.getCurrency())) {
+                        rules.add(rule);
+                        if (isActive(rule, now)) {
+                            active.add(rule);
+                            conditionParser.parse(rule); // compile before partitions are processed in parallel
+                        }
+                    }
+                }
+                active.sort(Comparator.comparingInt(SkuPriceRule::getRank));
+
+                final String key = shop.getCode() + ":" + currency;
+                final String activeNow = getActiveRulesKey(active);
+                final String activeBefore = activeRules.get(key);
+
+                final boolean full;
+                if (lastRun == null) {
+                    full = true;
+                } else if (activeBefore != null) {
+                    full = !activeBefore.equals(activeNow);
+                } else {
+                    full = isChangedSince(rules, lastRun, now);
+                }
+
+                if (active.isEmpty() && !full) {
+                    activeRules.put(key, activeNow);
+                    continue; // no rules, no changes to rules, so there is nothing to generate
+                }
+
+                final List<String> skuCodes = self().findSkuCodes(shop.getShopId(), currency, full ? null : lastRun);
+
+                LOG.info("Generating prices for shop {} in {}: {} SKU ({} run)", shop.getCode(), currency, skuCodes.size(), full ? "full" : "incremental");
+
+                if (generatePricesInPartitions(shop, currency, active, skuCodes, batchSize, counts)) {
+                    activeRules.put(key, activeNow);
+                } else {
+                    success = false;
+                }
+
+            }
+
+        }
+
+        LOG.info("Generated prices from price rules, created {}, updated {}, removed {}", counts[0], counts[1], counts[2]);
+
+        listener.notifyPing(null); // unset last message
+
+        return success;
+    }
+
+    /*
+     * Process SKU in partitions of batch size using worker threads.
+     */
+    private boolean generatePricesInPartitions(final Shop shop,
+                                               final String currency,
+                                               final List<SkuPriceRule> rules,
+                                               final List<String> skuCodes,
+                                               final int batchSize,
+                                               final int[] counts) {
+
+        if (skuCodes.isEmpty()) {
+            return true;
+        }
+
+        final int partitionCount = (skuCodes.size() + batchSize - 1) / batchSize;
+        final int threads = Math.max(1, Math.min(this.threads, partitionCount));
+
+        final AtomicInteger threadNo = new AtomicInteger(0);
+        final ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "sku-price-rule-" + shop.getCode() + "-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final SkuPriceRuleProcessorInternal proxy = self();
+        final List<Future<int[]>> partitions = new ArrayList<>(partitionCount);
+        boolean success = true;
+        try {
+
+            for (int start = 0; start < skuCodes.size(); start += batchSize) {
+                final List<String> partition = skuCodes.subList(start, Math.min(start + batchSize, skuCodes.size()));
+                partitions.add(workers.submit(() -> proxy.generatePrices(shop.getShopId(), currency, rules, partition)));
+            }
+
+            int done = 0;
+            for (final Future<int[]> partition : partitions) {
+                try {
+                    final int[] partitionCounts = partition.get();
+                    counts[0] += partitionCounts[0];
+                    counts[1] += partitionCounts[1];
+                    counts[2] += partitionCounts[2];
+                } catch (ExecutionException exp) {
+                    success = false;
+                    LOG.error(Markers.alert(), "Generating prices for shop " + shop.getCode() + " in " + currency
+                            + " failed: " + exp.getCause().getMessage(), exp.getCause());
+                }
+                done++;
+                listener.notifyPing("Generating prices for shop " + shop.getCode() + " in " + currency + ", processed "
+                        + done + " of " + partitionCount + " partitions, created: " + counts[0] + ", updated: " + counts[1] + ", removed: " + counts[2]);
+            }
+
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Generating prices for shop {} in {} was interrupted", shop.getCode(), currency);
+            success = false;
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return success;
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<SkuPriceRule> findAllRules() {
+        return skuPriceRuleDao.findAll();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<String> findSkuCodes(final long shopId, final String currency, final Instant since) {
+        if (since == null) {
+            return (List) skuPriceDao.findQueryObjectByNamedQuery("SKUCODE.SKUPRICE.COST.OR.GENERATED.BY.SHOP.AND.CURRENCY",
+                    shopId, currency, COST_POLICY, Boolean.TRUE);
+        }
+        return (List) skuPriceDao.findQueryObjectByNamedQuery("SKUCODE.SKUPRICE.COST.BY.SHOP.AND.CURRENCY.CHANGED.SINCE",
+                shopId, currency, COST_POLICY, since);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int[] generatePrices(final long shopId,
+                                final String currency,
+                                final List<SkuPriceRule> rules,
+                                final List<String> skuCodes) {
+
+        final LocalDateTime now = TimeContext.getLocalDateTime();
+
+        final Map<String, List<SkuPrice>> costs = new HashMap<>();
+        final Map<String, List<SkuPrice>> generated = new HashMap<>();
+        for (final SkuPrice price : skuPriceDao.findByNamedQuery("SKUPRICE.BY.SHOP.AND.CURRENCY.AND.CODES", shopId, currency, skuCodes)) {
+            if (price.isAutoGenerated()) {
+                generated.computeIfAbsent(price.getSkuCode(), k -> new ArrayList<>()).add(price);
+            } else if (COST_POLICY.equals(price.getPricingPolicy()) && isActive(price, now)) {
+                costs.computeIfAbsent(price.getSkuCode(), k -> new ArrayList<>()).add(price);
+            }
+        }
+
+        final List<SkuPriceRuleCondition> conditions = new ArrayList<>(rules.size());
+        for (final SkuPriceRule rule : rules) {
+            conditions.add(conditionParser.parse(rule));
+        }
+
+        final int[] counts = new int[] { 0, 0, 0 };
+
+        // Only partition writes are batched, rest of the application uses default settings
+        skuPriceDao.setJdbcBatchSize(skuCodes.size());
+        try {
+
+            for (final String skuCode : skuCodes) {
+
+                final Map<String, SkuPrice> existing = new HashMap<>();
+                for (final SkuPrice price : generated.getOrDefault(skuCode, Collections.emptyList())) {
+                    final SkuPrice duplicate = existing.put(getPriceKey(price.getQuantity(), price.getPricingPolicy()), price);
+                    if (duplicate != null) {
+                        skuPriceDao.delete(duplicate);
+                        counts[2]++;
+                    }
+                }
+
+                for (final SkuPrice cost : getLowestCostPerTier(costs.get(skuCode))) {
+
+                    final SkuPriceRule rule = findEligibleRule(rules, conditions, cost);
+                    if (rule == null || SkuPriceRule.ACTION_SKIP.equals(rule.getRuleAction())) {
+                        continue;
+                    }
+
+                    SkuPrice price = existing.remove(getPriceKey(cost.getQuantity(), rule.getPricePolicy()));
+                    if (price == null) {
+                        price = skuPriceDao.getEntityFactory().getByIface(SkuPrice.class);
+                        price.setSkuCode(skuCode);
+                        price.setShop(cost.getShop());
+                        price.setCurrency(currency);
+                        price.setQuantity(cost.getQuantity());
+                        price.setPricingPolicy(rule.getPricePolicy());
+                        price.setAutoGenerated(true);
+                        applyRule(rule, cost, price);
+                        skuPriceDao.create(price);
+                        counts[0]++;
+                    } else if (applyRule(rule, cost, price)) {
+                        skuPriceDao.update(price);
+                        counts[1]++;
+                    }
+
+                }
+
+                // no longer eligible
+                for (final SkuPrice price : existing.values()) {
+                    skuPriceDao.delete(price);
+                    counts[2]++;
+                }
+
+            }
+
+            // Flush all changes of the partition together so that writes are batched
+            skuPriceDao.flush();
+
+        } finally {
+            skuPriceDao.setJdbcBatchSize(null);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Find first eligible rule.
+     *
+     * @param rules      rules in rank order
+     * @param conditions compiled conditions for rules
+     * @param cost       cost price
+     *
+     * @return rule or null
+     */
+    SkuPriceRule findEligibleRule(final List<SkuPriceRule> rules,
+                                  final List<SkuPriceRuleCondition> conditions,
+                                  final SkuPrice cost) {
+
+        final Map<String, Object> context = new HashMap<>();
+        context.put(SkuPriceRuleCondition.SKU, cost.getSkuCode());
+        context.put(SkuPriceRuleCondition.COST, MoneyUtils.secondOrFirst(cost.getSalePriceForCalculation()));
+        context.put(SkuPriceRuleCondition.QUANTITY, cost.getQuantity());
+        context.put(SkuPriceRuleCondition.SHOP_ID, cost.getShop().getShopId());
+        context.put(SkuPriceRuleCondition.SHOP_CODE, cost.getShop().getCode());
+        context.put(SkuPriceRuleCondition.CURRENCY, cost.getCurrency());
+        context.put(SkuPriceRuleCondition.CONDITION_SUPPORT, conditionSupport);
+
+        for (int i = 0; i < rules.size(); i++) {
+            try {
+                if (conditions.get(i).isEligible(context)) {
+                    return rules.get(i);
+                }
+            } catch (Exception exp) {
+                LOG.error("Price rule {} failed for SKU {}: {}", rules.get(i).getCode(), cost.getSkuCode(), exp.getMessage());
+            }
+        }
+        return null;
+
+    }
+
+    /**
+     * Apply rule to generated price.
+     *
+     * @param rule  rule
+     * @param cost  cost price
+     * @param price generated price
+     *
+     * @return true if generated price has changed
+     */
+    boolean applyRule(final SkuPriceRule rule, final SkuPrice cost, final SkuPrice price) {
+
+        final BigDecimal regularPrice = calculatePrice(rule, cost);
+        final boolean priceUponRequest = SkuPriceRule.ACTION_PRICE_UPON_REQUEST.equals(rule.getRuleAction());
+
+        final boolean changed = !MoneyUtils.isFirstEqualToSecond(regularPrice, price.getRegularPrice())
+                || price.getSalePrice() != null
+                || price.getMinimalPrice() != null
+                || price.getSalefrom() != null
+                || price.getSaleto() != null
+                || price.isPriceUponRequest() != priceUponRequest
+                || price.isPriceOnOffer()
+                || !StringUtils.equals(price.getTag(), rule.getPriceTag())
+                || !StringUtils.equals(price.getRef(), rule.getPriceRef());
+
+        if (changed) {
+            price.setRegularPrice(regularPrice);
+            price.setSalePrice(null);
+            price.setMinimalPrice(null);
+            price.setSalefrom(null);
+            price.setSaleto(null);
+            price.setPriceUponRequest(priceUponRequest);
+            price.setPriceOnOffer(false);
+            price.setTag(rule.getPriceTag());
+            price.setRef(rule.getPriceRef());
+        }
+
+        return changed;
+
+    }
+
+    /**
+     * Calculate price: cost plus margin percent, plus margin amount, plus default tax (if required),
+     * rounded to the rounding unit.
+     *
+     * @param rule rule
+     * @param cost cost price
+     *
+     * @return price
+     */
+    BigDecimal calculatePrice(final SkuPriceRule rule, final SkuPrice cost) {
+
+        BigDecimal price = MoneyUtils.secondOrFirst(cost.getSalePriceForCalculation());
+
+        if (rule.getMarginPercent() != null) {
+            price = price.add(price.multiply(rule.getMarginPercent()).divide(MoneyUtils.HUNDRED, 10, RoundingMode.HALF_UP));
+        }
+        if (rule.getMarginAmount() != null) {
+            price = price.add(rule.getMarginAmount());
+        }
+        if (rule.isAddDefaultTax()) {
+            final TaxProvider.Tax tax = taxProvider.determineTax(cost.getShop().getCode(), cost.getCurrency(), null, null, cost.getSkuCode());
+            if (MoneyUtils.isPositive(tax.getRate())) {
+                price = price.add(price.multiply(tax.getRate()).divide(MoneyUtils.HUNDRED, 10, RoundingMode.HALF_UP));
+            }
+        }
+
+        final BigDecimal unit = MoneyUtils.isPositive(rule.getRoundingUnit()) ? rule.getRoundingUnit() : DEFAULT_ROUNDING;
+        price = price.divide(unit, 0, RoundingMode.HALF_UP).multiply(unit);
+
+        if (price.signum() < 0) {
+            return MoneyUtils.ZERO;
+        }
+        return price.setScale(Constants.MONEY_SCALE, RoundingMode.HALF_UP);
+
+    }
+
+    private List<SkuPrice> getLowestCostPerTier(final List<SkuPrice> costs) {
+
+        if (costs == null) {
+            return Collections.emptyList();
+        }
+
+        final Map<BigDecimal, SkuPrice> lowest = new TreeMap<>();
+        for (final SkuPrice cost : costs) {
+            final BigDecimal tier = cost.getQuantity().stripTrailingZeros();
+            final SkuPrice current = lowest.get(tier);
+            if (current == null || MoneyUtils.isFirstBiggerThanSecond(
+                    MoneyUtils.secondOrFirst(current.getSalePriceForCalculation()),
+                    MoneyUtils.secondOrFirst(cost.getSalePriceForCalculation()))) {
+                lowest.put(tier, cost);
+            }
+        }
+        return new ArrayList<>(lowest.values());
+
+    }
+
+    private String getPriceKey(final BigDecimal quantity, final String pricingPolicy) {
+        return quantity.stripTrailingZeros().toPlainString() + ":" + StringUtils.defaultString(pricingPolicy);
+    }
+
+    private boolean isActive(final SkuPrice price, final LocalDateTime now) {
+        return (price.getSalefrom() == null || !price.getSalefrom().isAfter(now))
+                && (price.getSaleto() == null || !price.getSaleto().isBefore(now));
+    }
+
+    private boolean isActive(final SkuPriceRule rule, final LocalDateTime now) {
+        return rule.isEnabled()
+                && (rule.getEnabledFrom() == null || !rule.getEnabledFrom().isAfter(now))
+                && (rule.getEnabledTo() == null || !rule.getEnabledTo().isBefore(now));
+    }
+
+    /*
+     * Active rules are remembered between runs, so that disabled or removed rules trigger full run.
+     */
+    private String getActiveRulesKey(final List<SkuPriceRule> active) {
+        final StringBuilder key = new StringBuilder();
+        for (final SkuPriceRule rule : active) {
+            key.append(rule.getSkuPriceRuleId()).append('@');
+            if (rule.getUpdatedTimestamp() != null) {
+                key.append(rule.getUpdatedTimestamp().toEpochMilli());
+            }
+            key.append(';');
+        }
+        return key.toString();
+    }
+
+    /*
+     * Used after restart when active rules from previous run are not known.
+     */
+    private boolean isChangedSince(final List<SkuPriceRule> rules, final Instant lastRun, final LocalDateTime now) {
+        final LocalDateTime since = DateUtils.ldtFrom(lastRun.toEpochMilli());
+        for (final SkuPriceRule rule : rules) {
+            if (rule.getUpdatedTimestamp() == null || !rule.getUpdatedTimestamp().isBefore(lastRun)) {
+                return true;
+            }
+            if (isWithin(rule.getEnabledFrom(), since, now) || isWithin(rule.getEnabledTo(), since, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isWithin(final LocalDateTime date, final LocalDateTime from, final LocalDateTime to) {
+        return date != null && date.isAfter(from) && !date.isAfter(to);
+    }
+
+    private int determineBatchSize() {
+
+        final String av = getSystemService().getAttributeValue(BATCH_SIZE_PREF);
+
+        if (av != null && StringUtils.isNotBlank(av)) {
+            int batch = NumberUtils.toInt(av);
+            if (batch > 0) {
+                return batch;
+            }
+        }
+        return this.batchSize;
+
+    }
+
+    /**
+     * Number of SKU in one partition (one transaction).
+     *
+     * @param batchSize batch size
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Number of partitions processed in parallel.
+     *
+     * @param threads number of worker threads
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    private SkuPriceRuleProcessorInternal self;
+
+    private SkuPriceRuleProcessorInternal self() {
+        if (self == null) {
+            self = getSelf();
+        }
+        return self;
+    }
+
+    public SkuPriceRuleProcessorInternal getSelf() {
+        return null;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkjob.pricerule;
+
+import org.yes.cart.domain.entity.SkuPriceRule;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:30
+ */
+public interface SkuPriceRuleProcessorInternal extends Runnable {
+
+    /**
+     * All price rules.
+     *
+     * @return rules
+     */
+    List<SkuPriceRule> findAllRules();
+
+    /**
+     * Find SKU that need price generation.
+     *
+     * @param shopId   shop PK
+     * @param currency currency
+     * @param since    null to get all SKU that have cost or generated prices, otherwise
+     *                 only SKU whose cost price has changed since given time
+     *
+     * @return SKU codes
+     */
+    List<String> findSkuCodes(long shopId, String currency, Instant since);
+
+    /**
+     * Generate prices for a partition of SKU. Existing generated prices are updated or
+     * removed so that they match the rules.
+     *
+     * @param shopId   shop PK
+     * @param currency currency
+     * @param rules    active rules ordered by rank
+     * @param skuCodes SKU to process
+     *
+     * @return counts { created, updated, removed }
+     */
+    int[] generatePrices(long shopId, String currency, List<SkuPriceRule> rules, List<String> skuCodes);
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.pricerule;
+
+import java.util.Map;
+
+/**
+ * Compiled eligibility condition of {@link org.yes.cart.domain.entity.SkuPriceRule}.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:10
+ */
+public interface SkuPriceRuleCondition {
+
+    String SKU = "SKU";
+    String COST = "cost";
+    String QUANTITY = "quantity";
+    String SHOP_ID = "shopId";
+    String SHOP_CODE = "shopCode";
+    String CURRENCY = "currency";
+    String CONDITION_SUPPORT = "conditionSupport";
+
+    /**
+     * @return rule PK
+     */
+    long getSkuPriceRuleId();
+
+    /**
+     * @return rule code
+     */
+    String getSkuPriceRuleCode();
+
+    /**
+     * Check if cost price in given context is eligible for this rule.
+     *
+     * @param context context (see constants of this interface for available keys)
+     *
+     * @return true if rule should be applied
+     */
+    boolean isEligible(Map<String, Object> context);
+
+}
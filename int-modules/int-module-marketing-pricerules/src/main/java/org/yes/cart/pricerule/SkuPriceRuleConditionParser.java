@@ -0,0 +1,39 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.pricerule;
+
+import org.yes.cart.domain.entity.SkuPriceRule;
+
+/**
+ * Parser for eligibility condition of price rules.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:10
+ */
+public interface SkuPriceRuleConditionParser {
+
+    /**
+     * Parse eligibility condition of price rule.
+     *
+     * @param rule rule
+     *
+     * @return condition (never null, invalid conditions are never eligible)
+     */
+    SkuPriceRuleCondition parse(SkuPriceRule rule);
+
+}
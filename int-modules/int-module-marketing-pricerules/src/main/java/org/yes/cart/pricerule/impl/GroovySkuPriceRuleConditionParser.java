@@ -0,0 +1,153 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.pricerule.impl;
+
+import groovy.lang.GroovyClassLoader;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yes.cart.domain.entity.SkuPriceRule;
+import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.pricerule.SkuPriceRuleCondition;
+import org.yes.cart.pricerule.SkuPriceRuleConditionParser;
+import org.yes.cart.util.log.Markers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Groovy backed price rule parser. rule.getEligibilityCondition() is assumed to be groovy
+ * script, which has the same helper functions as promotion conditions.
+ *
+ * Compiled conditions are kept until the condition of the rule changes, so that the price rule
+ * job does not load new classes on every run.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:20
+ */
+public class GroovySkuPriceRuleConditionParser implements SkuPriceRuleConditionParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroovySkuPriceRuleConditionParser.class);
+
+    private final GroovyClassLoader gcl = new GroovyClassLoader();
+
+    private final Map<Long, Pair<String, SkuPriceRuleCondition>> conditions = new ConcurrentHashMap<>();
+
+    /** {@inheritDoc} */
+    @Override
+    public SkuPriceRuleCondition parse(final SkuPriceRule rule) {
+
+        final Pair<String, SkuPriceRuleCondition> cached = conditions.get(rule.getSkuPriceRuleId());
+        if (cached != null && StringUtils.equals(cached.getFirst(), rule.getEligibilityCondition())) {
+            return cached.getSecond();
+        }
+
+        SkuPriceRuleCondition condition;
+
+        try {
+            final Class cl = parseGroovyCondition(rule.getSkuPriceRuleId(),
+                                                  rule.getCode(),
+                                                  rule.getEligibilityCondition());
+
+            condition = (SkuPriceRuleCondition) cl.newInstance();
+        } catch (Exception exp) {
+            LOG.error(Markers.alert(), "Unable to create groovy class for price rule: " + rule.getCode() + ", cause: " + exp.getMessage(), exp);
+            condition = new NullSkuPriceRuleCondition(rule.getSkuPriceRuleId(), rule.getCode());
+        }
+
+        conditions.put(rule.getSkuPriceRuleId(), new Pair<>(rule.getEligibilityCondition(), condition));
+
+        return condition;
+    }
+
+    Class parseGroovyCondition(final long ruleId, final String ruleCode, final String condition) {
+
+        final StringBuilder script = new StringBuilder();
+
+        appendImports(script);
+        appendStartClass(script, ruleId, ruleCode);
+        appendBody(script, condition);
+        appendEndClass(script);
+
+        LOG.debug("Creating price rule condition class {}\n{}", ruleCode, script);
+
+        return gcl.parseClass(script.toString());
+
+    }
+
+    String clenseRuleCode(final String ruleCode) {
+        return ruleCode.replaceAll("([^a-zA-Z0-9])", "_");
+    }
+
+    /*
+     * Declare all necessary imports to compile groovy class
+     */
+    void appendImports(final StringBuilder script) {
+        script.append("import org.yes.cart.pricerule.SkuPriceRuleCondition;\n");
+    }
+
+    /*
+     * Declare SkuPriceRuleCondition class and assign top level variables to be available in
+     * eligibility conditions.
+     */
+    void appendStartClass(final StringBuilder script, final long ruleId, final String ruleCode) {
+        script.append("public class SkuPriceRule").append(clenseRuleCode(ruleCode)).append(" implements SkuPriceRuleCondition {\n");
+        script.append("public long getSkuPriceRuleId() {\n");
+        script.append("return ").append(ruleId).append(";\n");
+        script.append("}\n");
+        script.append("public String getSkuPriceRuleCode() {\n");
+        script.append("return '").append(ruleCode).append("';\n");
+        script.append("}\n");
+        script.append("public boolean isEligible(Map<String, Object> context) {\n");
+        // Basic variables
+        script.append("def SKU = context.SKU;\n");
+        script.append("def cost = context.cost;\n");
+        script.append("def quantity = context.quantity;\n");
+        script.append("def shopId = context.shopId;\n");
+        script.append("def shopCode = context.shopCode;\n");
+        script.append("def currency = context.currency;\n");
+        // Functions
+        script.append("def product = { String code -> context.conditionSupport.getProductBySkuCode(code); }\n");
+        script.append("def productSku = { String code -> context.conditionSupport.getProductSkuByCode(code); }\n");
+        script.append("def brand = { String code -> context.conditionSupport.getProductBrand(code); }\n");
+        script.append("def hasProductAttribute = { String code, String attr -> context.conditionSupport.hasProductAttribute(code, attr); }\n");
+        script.append("def productAttributeValue = { String code, String attr -> context.conditionSupport.getProductAttribute(code, attr); }\n");
+        script.append("def isSKUofBrand = { String code, String... brandNames -> context.conditionSupport.isProductOfBrand(code, brandNames); }\n");
+        script.append("def isSKUinCategory = { String code, String... categoryGUIDs -> context.conditionSupport.isProductInCategory(code, shopId, categoryGUIDs); }\n");
+    }
+
+    /*
+     * Append eligibility condition as body of the method. The return statement is assumed to
+     * be inside the eligibility condition
+     */
+    void appendBody(final StringBuilder script, final String body) {
+        if (StringUtils.isBlank(body)) {
+            script.append("return true;\n");
+        } else {
+            script.append(body);
+        }
+    }
+
+    /*
+     * Closing brackets.
+     */
+    void appendEndClass(final StringBuilder script) {
+        script.append("\n}\n}");
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.pricerule.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yes.cart.pricerule.SkuPriceRuleCondition;
+
+import java.util.Map;
+
+/**
+ * Condition used for rules that cannot be compiled.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 14:15
+ */
+public class NullSkuPriceRuleCondition implements SkuPriceRuleCondition {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NullSkuPriceRuleCondition.class);
+
+    private final long skuPriceRuleId;
+    private final String skuPriceRuleCode;
+
+    public NullSkuPriceRuleCondition(final long skuPriceRuleId,
+                                     final String skuPriceRuleCode) {
+        this.skuPriceRuleId = skuPriceRuleId;
+        this.skuPriceRuleCode = skuPriceRuleCode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSkuPriceRuleId() {
+        return skuPriceRuleId;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getSkuPriceRuleCode() {
+        return skuPriceRuleCode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isEligible(final Map<String, Object> context) {
+        LOG.warn("Null condition invoked for price rule: {}", skuPriceRuleCode);
+        return false;
+    }
+}
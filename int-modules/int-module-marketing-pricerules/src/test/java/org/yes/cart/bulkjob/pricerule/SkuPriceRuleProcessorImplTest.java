@@ -0,0 +1,191 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.bulkjob.pricerule;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.yes.cart.dao.EntityFactory;
+import org.yes.cart.dao.GenericDAO;
+import org.yes.cart.domain.entity.Shop;
+import org.yes.cart.domain.entity.SkuPrice;
+import org.yes.cart.domain.entity.SkuPriceRule;
+import org.yes.cart.domain.entity.impl.ShopEntity;
+import org.yes.cart.domain.entity.impl.SkuPriceEntity;
+import org.yes.cart.domain.entity.impl.SkuPriceRuleEntity;
+import org.yes.cart.pricerule.impl.GroovySkuPriceRuleConditionParser;
+import org.yes.cart.promotion.PromotionConditionSupport;
+import org.yes.cart.shoppingcart.TaxProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 15:45
+ */
+public class SkuPriceRuleProcessorImplTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testGeneratePrices() throws Exception {
+
+        final GenericDAO<SkuPriceRule, Long> ruleDao = context.mock(GenericDAO.class, "ruleDao");
+        final GenericDAO<SkuPrice, Long> priceDao = context.mock(GenericDAO.class, "priceDao");
+        final EntityFactory entityFactory = context.mock(EntityFactory.class, "entityFactory");
+        final PromotionConditionSupport support = context.mock(PromotionConditionSupport.class, "support");
+        final TaxProvider taxProvider = context.mock(TaxProvider.class, "taxProvider");
+        final TaxProvider.Tax tax = context.mock(TaxProvider.Tax.class, "tax");
+
+        final Shop shop = new ShopEntity();
+        shop.setShopId(10L);
+        shop.setCode("SHOP10");
+
+        final SkuPrice costA1 = price(shop, "A", "1", "10.00", "COST", false);
+        final SkuPrice costA5 = price(shop, "A", "5", "8.00", "COST", false);
+        final SkuPrice costA5expired = price(shop, "A", "5", "1.00", "COST", false);
+        costA5expired.setSaleto(LocalDateTime.now().minusDays(1L));
+        final SkuPrice listA1 = price(shop, "A", "1", "99.00", null, false);
+        final SkuPrice genA1 = price(shop, "A", "1", "11.00", null, true);
+        final SkuPrice genA10 = price(shop, "A", "10", "9.00", null, true);
+        final SkuPrice costB1 = price(shop, "B", "1", "50.00", "COST", false);
+        final SkuPrice costS1 = price(shop, "S", "1", "5.00", "COST", false);
+        final SkuPrice genS1 = price(shop, "S", "1", "6.00", null, true);
+        final SkuPrice costD1 = price(shop, "D", "1", "20.00", "COST", false);
+        final SkuPrice genD1 = price(shop, "D", "1", "28.80", null, true);
+
+        final SkuPrice newA5 = new SkuPriceEntity();
+        final SkuPrice newB1 = new SkuPriceEntity();
+
+        final List<String> skuCodes = Arrays.asList("A", "B", "S", "D");
+
+        context.checking(new Expectations() {{
+            oneOf(priceDao).findByNamedQuery("SKUPRICE.BY.SHOP.AND.CURRENCY.AND.CODES", 10L, "EUR", skuCodes);
+            will(returnValue(Arrays.asList(costA1, costA5, costA5expired, listA1, genA1, genA10, costB1, costS1, genS1, costD1, genD1)));
+            allowing(priceDao).getEntityFactory(); will(returnValue(entityFactory));
+            exactly(2).of(entityFactory).getByIface(SkuPrice.class); will(onConsecutiveCalls(returnValue(newA5), returnValue(newB1)));
+            oneOf(priceDao).update(genA1);
+            oneOf(priceDao).create(newA5);
+            oneOf(priceDao).delete(genA10);
+            oneOf(priceDao).create(newB1);
+            oneOf(priceDao).delete(genS1);
+            oneOf(priceDao).setJdbcBatchSize(4);
+            oneOf(priceDao).flush();
+            oneOf(priceDao).setJdbcBatchSize(with(aNull(Integer.class)));
+            allowing(taxProvider).determineTax(with(equal("SHOP10")), with(equal("EUR")), with(aNull(String.class)), with(aNull(String.class)), with(any(String.class)));
+            will(returnValue(tax));
+            allowing(tax).getRate(); will(returnValue(new BigDecimal("20.00")));
+        }});
+
+        final SkuPriceRuleProcessorImpl processor = new SkuPriceRuleProcessorImpl(
+                ruleDao, priceDao, null, new GroovySkuPriceRuleConditionParser(), support, taxProvider, null);
+
+        final List<SkuPriceRule> rules = Arrays.asList(
+                rule(1L, SkuPriceRule.ACTION_SKIP, "SKU == 'S'", null, null, "0.01", false),
+                rule(2L, SkuPriceRule.ACTION_PRICE_UPON_REQUEST, "cost >= 40", null, "10", "1", false),
+                rule(3L, SkuPriceRule.ACTION_PRICE_CALCULATE, "true", "20", null, "0.05", true)
+        );
+
+        final int[] counts = processor.generatePrices(10L, "EUR", rules, skuCodes);
+
+        assertArrayEquals(new int[] { 2, 1, 2 }, counts);
+
+        assertEquals("14.40", genA1.getRegularPrice().toPlainString());
+        assertFalse(genA1.isPriceUponRequest());
+
+        assertEquals("A", newA5.getSkuCode());
+        assertSame(shop, newA5.getShop());
+        assertEquals("EUR", newA5.getCurrency());
+        assertEquals("5", newA5.getQuantity().toPlainString());
+        assertEquals("11.50", newA5.getRegularPrice().toPlainString());
+        assertTrue(newA5.isAutoGenerated());
+        assertNull(newA5.getPricingPolicy());
+
+        assertEquals("B", newB1.getSkuCode());
+        assertEquals("60.00", newB1.getRegularPrice().toPlainString());
+        assertTrue(newB1.isPriceUponRequest());
+        assertTrue(newB1.isAutoGenerated());
+
+        assertEquals("28.80", genD1.getRegularPrice().toPlainString());
+
+        context.assertIsSatisfied();
+
+    }
+
+    @Test
+    public void testCalculatePrice() throws Exception {
+
+        final SkuPriceRuleProcessorImpl processor = new SkuPriceRuleProcessorImpl(
+                null, null, null, null, null, null, null);
+
+        final Shop shop = new ShopEntity();
+        shop.setCode("SHOP10");
+
+        final SkuPrice cost = price(shop, "A", "1", "9.99", "COST", false);
+
+        assertEquals("9.99", processor.calculatePrice(rule(1L, SkuPriceRule.ACTION_PRICE_CALCULATE, "true", null, null, null, false), cost).toPlainString());
+        assertEquals("11.99", processor.calculatePrice(rule(1L, SkuPriceRule.ACTION_PRICE_CALCULATE, "true", "20", null, null, false), cost).toPlainString());
+        assertEquals("12.00", processor.calculatePrice(rule(1L, SkuPriceRule.ACTION_PRICE_CALCULATE, "true", "20", null, "1", false), cost).toPlainString());
+        assertEquals("7.00", processor.calculatePrice(rule(1L, SkuPriceRule.ACTION_PRICE_CALCULATE, "true", "-20", "-1", "0.5", false), cost).toPlainString());
+        assertEquals("0.00", processor.calculatePrice(rule(1L, SkuPriceRule.ACTION_PRICE_CALCULATE, "true", null, "-10", null, false), cost).toPlainString());
+
+    }
+
+    private SkuPrice price(final Shop shop,
+                           final String sku,
+                           final String tier,
+                           final String price,
+                           final String policy,
+                           final boolean generated) {
+        final SkuPrice skuPrice = new SkuPriceEntity();
+        skuPrice.setShop(shop);
+        skuPrice.setSkuCode(sku);
+        skuPrice.setCurrency("EUR");
+        skuPrice.setQuantity(new BigDecimal(tier));
+        skuPrice.setRegularPrice(new BigDecimal(price));
+        skuPrice.setPricingPolicy(policy);
+        skuPrice.setAutoGenerated(generated);
+        return skuPrice;
+    }
+
+    private SkuPriceRule rule(final long id,
+                              final String action,
+                              final String condition,
+                              final String marginPercent,
+                              final String marginAmount,
+                              final String rounding,
+                              final boolean addTax) {
+        final SkuPriceRule rule = new SkuPriceRuleEntity();
+        rule.setSkuPriceRuleId(id);
+        rule.setCode("RULE" + id);
+        rule.setRuleAction(action);
+        rule.setEligibilityCondition(condition);
+        rule.setMarginPercent(marginPercent != null ? new BigDecimal(marginPercent) : null);
+        rule.setMarginAmount(marginAmount != null ? new BigDecimal(marginAmount) : null);
+        rule.setRoundingUnit(rounding != null ? new BigDecimal(rounding) : null);
+        rule.setAddDefaultTax(addTax);
+        return rule;
+    }
+
+}
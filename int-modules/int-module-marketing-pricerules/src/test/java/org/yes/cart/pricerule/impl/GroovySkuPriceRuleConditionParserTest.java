@@ -0,0 +1,104 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.pricerule.impl;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.yes.cart.domain.entity.SkuPriceRule;
+import org.yes.cart.domain.entity.impl.SkuPriceRuleEntity;
+import org.yes.cart.pricerule.SkuPriceRuleCondition;
+import org.yes.cart.promotion.PromotionConditionSupport;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 15:30
+ */
+public class GroovySkuPriceRuleConditionParserTest {
+
+    private final Mockery mockery = new JUnit4Mockery();
+
+    @Test
+    public void testParse() throws Exception {
+
+        final PromotionConditionSupport support = mockery.mock(PromotionConditionSupport.class, "support");
+
+        mockery.checking(new Expectations() {{
+            allowing(support).isProductOfBrand("ABC", new String[] { "FutureRobots" }); will(returnValue(true));
+            allowing(support).isProductOfBrand("DEF", new String[] { "FutureRobots" }); will(returnValue(false));
+        }});
+
+        final GroovySkuPriceRuleConditionParser parser = new GroovySkuPriceRuleConditionParser();
+
+        final SkuPriceRule rule = rule(1L, "RULE#1", "isSKUofBrand(SKU, 'FutureRobots') && cost < 100");
+
+        final SkuPriceRuleCondition condition = parser.parse(rule);
+        assertEquals("SkuPriceRuleRULE_1", condition.getClass().getSimpleName());
+        assertEquals(1L, condition.getSkuPriceRuleId());
+        assertEquals("RULE#1", condition.getSkuPriceRuleCode());
+
+        assertTrue(condition.isEligible(context("ABC", "99.99", support)));
+        assertFalse(condition.isEligible(context("ABC", "100.00", support)));
+        assertFalse(condition.isEligible(context("DEF", "99.99", support)));
+
+        // compiled once per condition
+        assertSame(condition, parser.parse(rule));
+        rule.setEligibilityCondition("SKU == 'DEF'");
+        final SkuPriceRuleCondition changed = parser.parse(rule);
+        assertNotSame(condition, changed);
+        assertTrue(changed.isEligible(context("DEF", "99.99", support)));
+
+    }
+
+    @Test
+    public void testParseBlankAndInvalid() throws Exception {
+
+        final GroovySkuPriceRuleConditionParser parser = new GroovySkuPriceRuleConditionParser();
+
+        assertTrue(parser.parse(rule(2L, "BLANK", " ")).isEligible(new HashMap<>()));
+
+        final SkuPriceRuleCondition invalid = parser.parse(rule(3L, "INVALID", "SKU == ("));
+        assertTrue(invalid instanceof NullSkuPriceRuleCondition);
+        assertFalse(invalid.isEligible(new HashMap<>()));
+
+    }
+
+    private SkuPriceRule rule(final long id, final String code, final String condition) {
+        final SkuPriceRule rule = new SkuPriceRuleEntity();
+        rule.setSkuPriceRuleId(id);
+        rule.setCode(code);
+        rule.setEligibilityCondition(condition);
+        return rule;
+    }
+
+    private Map<String, Object> context(final String sku, final String cost, final PromotionConditionSupport support) {
+        final Map<String, Object> context = new HashMap<>();
+        context.put(SkuPriceRuleCondition.SKU, sku);
+        context.put(SkuPriceRuleCondition.COST, new BigDecimal(cost));
+        context.put(SkuPriceRuleCondition.CONDITION_SUPPORT, support);
+        return context;
+    }
+
+}
@@ -55,49 +55,77 @@ public class CacheEvictionQueueProcessorImpl implements Runnable, DisposableBean
     public void run() {
 
         int count = 0;
+        int pks = 0;
+        int requeued = 0;
+
+        // drain everything in one go, queue coalesces changes to one item per entity operation and type
+        final List<CacheEvictionQueue.CacheEvictionItem> items = this.cacheEvictionQueue.dequeueAll();
+        if (items.isEmpty()) {
+            LOG.debug("No pending cache evictions");
+            return;
+        }
 
+        final List<String> targets = new ArrayList<>();
         try {
+            final List<Node> cluster = nodeService.getSfNodes();
+            for (final Node node : cluster) {
+                targets.add(node.getId());
+            }
+        } catch (Exception exp) {
+            LOG.error("Unable to resolve cluster nodes for remote cache eviction: " + exp.getMessage(), exp);
+            for (final CacheEvictionQueue.CacheEvictionItem item : items) {
+                this.cacheEvictionQueue.requeue(item);
+            }
+            return;
+        }
 
-            CacheEvictionQueue.CacheEvictionItem item;
-            while (!this.shutdown.get() && (item = this.cacheEvictionQueue.dequeue()) != null) {
-
-                try {
-                    SecurityContextHolder.getContext().setAuthentication(new RunAsUserAuthentication(item.getUser(), "", Collections.EMPTY_LIST));
-                    final Map<String, Object> params = new HashMap<>();
-                    params.put(AsyncContext.TIMEOUT_KEY, AttributeNamesKeys.System.SYSTEM_BACKDOOR_CACHE_TIMEOUT_MS);
-                    final AsyncContext threadContext = asyncContextFactory.getInstance(params);
-
-                    final List<Node> cluster = nodeService.getSfNodes();
-                    final List<String> targets = new ArrayList<>();
-                    for (final Node node : cluster) {
-                        targets.add(node.getId());
-                    }
-
-                    final HashMap<String, Object> payload = new HashMap<>();
-                    payload.put("entityOperation", item.getOperation());
-                    payload.put("entityName", item.getEntityName());
-                    payload.put("pkValues", item.getPKs().toArray(new Long[item.getPKs().size()]));
-
-                    final RspMessage message = new ContextRspMessageImpl(
-                            nodeService.getCurrentNodeId(),
-                            targets,
-                            "CacheDirector.onCacheableBulkChange",
-                            payload,
-                            threadContext
-                    );
-
-                    nodeService.broadcast(message);
-                    count++;
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
+        for (final CacheEvictionQueue.CacheEvictionItem item : items) {
+
+            if (this.shutdown.get()) {
+                // keep undelivered items in queue rather than dropping them
+                this.cacheEvictionQueue.requeue(item);
+                requeued++;
+                continue;
             }
 
-        } catch (Exception exp) {
-            LOG.error("Unable to perform remote cache eviction: " + exp.getMessage(), exp);
+            try {
+                SecurityContextHolder.getContext().setAuthentication(new RunAsUserAuthentication(item.getUser(), "", Collections.EMPTY_LIST));
+                final Map<String, Object> params = new HashMap<>();
+                params.put(AsyncContext.TIMEOUT_KEY, AttributeNamesKeys.System.SYSTEM_BACKDOOR_CACHE_TIMEOUT_MS);
+                final AsyncContext threadContext = asyncContextFactory.getInstance(params);
+
+                final Long[] pkValues = item.getPKs().toArray(new Long[item.getPKs().size()]);
+
+                final HashMap<String, Object> payload = new HashMap<>();
+                payload.put("entityOperation", item.getOperation());
+                payload.put("entityName", item.getEntityName());
+                payload.put("pkValues", pkValues);
+
+                final RspMessage message = new ContextRspMessageImpl(
+                        nodeService.getCurrentNodeId(),
+                        targets,
+                        "CacheDirector.onCacheableBulkChange",
+                        payload,
+                        threadContext
+                );
+
+                nodeService.broadcast(message);
+                count++;
+                pks += pkValues.length;
+            } catch (Exception exp) {
+                LOG.error("Unable to perform remote cache eviction for " + item.getOperation() + " "
+                        + item.getEntityName() + ", will retry on next run: " + exp.getMessage(), exp);
+                this.cacheEvictionQueue.requeue(item);
+                requeued++;
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
         }
 
-        LOG.info("Performed {} cache eviction calls", count);
+        if (requeued > 0) {
+            LOG.warn("Returned {} cache eviction calls to queue", requeued);
+        }
+        LOG.info("Performed {} cache eviction calls for {} PKs", count, pks);
 
     }
 
@@ -22,6 +22,7 @@ import org.yes.cart.cluster.service.BackdoorService;
 import org.yes.cart.config.ConfigurationListener;
 import org.yes.cart.dao.GenericDAO;
 import org.yes.cart.domain.entity.Product;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.service.domain.ProductService;
 import org.yes.cart.utils.impl.ObjectUtil;
 
@@ -191,6 +192,22 @@ public class LocalBackdoorServiceImpl implements BackdoorService {
         throw new UnsupportedOperationException("ADMIN does not support product index");
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<FTSStatisticsDTO> getFullTextSearchStatistics() {
+        throw new UnsupportedOperationException("ADMIN does not support product index");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainFullTextSearchQuery(final String indexName, final long queryId) {
+        throw new UnsupportedOperationException("ADMIN does not support product index");
+    }
+
     /**
      * {@inheritDoc}
      */
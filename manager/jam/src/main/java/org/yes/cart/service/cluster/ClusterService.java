@@ -21,6 +21,7 @@ import org.yes.cart.domain.dto.impl.CacheInfoDTO;
 import org.yes.cart.domain.dto.impl.ConfigurationDTO;
 import org.yes.cart.domain.dto.impl.ModuleDTO;
 import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.service.async.model.AsyncContext;
 
 import java.util.List;
@@ -178,6 +179,27 @@ public interface ClusterService {
      */
     List<Object[]> ftQuery(AsyncContext context, String query, String node);
 
+    /**
+     * Get full text search latency statistics from all index capable nodes.
+     *
+     * @param context web service context
+     *
+     * @return statistics per index per node
+     */
+    Map<String, List<FTSStatisticsDTO>> getFullTextSearchStatistics(AsyncContext context);
+
+    /**
+     * Explain slow full text search query on given node.
+     *
+     * @param context   web service context
+     * @param node      node on which query was recorded
+     * @param indexName index name
+     * @param queryId   slow query id
+     *
+     * @return explanation or null if query is no longer available
+     */
+    String explainFullTextSearchQuery(AsyncContext context, String node, String indexName, long queryId);
+
     /**
      * Reload system configurations.
      *
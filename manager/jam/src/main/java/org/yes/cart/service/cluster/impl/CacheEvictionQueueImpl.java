@@ -27,15 +27,21 @@ import org.yes.cart.service.async.model.AsyncContext;
 import org.yes.cart.service.async.utils.ThreadLocalAsyncContextUtils;
 import org.yes.cart.util.log.Markers;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * Cache eviction queue that accumulates changed PK's per user, entity operation and entity name.
+ *
+ * PK's are appended to primitive chunked buffers without locking (duplicates are removed when queue
+ * is drained), so that large admin edits and imports do not rebuild PK sets on every change. Drain
+ * swaps the whole batch of pending changes in one go and waits only for writers that are still
+ * appending to it. Queue size is the number of PK's appended to current batch, so that memory is bounded
+ * regardless of how many distinct entities are changed.
+ *
  * User: denispavlov
  * Date: 26/05/2018
  * Time: 08:42
@@ -44,15 +50,17 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheEvictionQueueImpl.class);
 
-    private final Map<Key, Set<Long>> queue = new ConcurrentHashMap<>();
+    private final AtomicReference<Batch> queue = new AtomicReference<>(new Batch());
+
+    private final Queue<CacheEvictionItem> drained = new ConcurrentLinkedQueue<>();
 
-    private int maxQueueSize = 1000;
+    private int maxQueueSize = 100000;
 
     @Override
     public void enqueue(final String entityOperation, final String entityName, final Long pkValue) {
 
-        if (this.queue.size() > maxQueueSize) {
-            LOG.error(Markers.alert(), "Cache eviction queue is full");
+        if (pkValue == null) {
+            LOG.debug("Cannot invalidate cache for entity [" + entityName + "] - no pk value");
             return;
         }
 
@@ -68,49 +76,125 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
             return;
         }
 
-        queue.compute(new Key(username, entityOperation, entityName), (k, v) ->
-                (v == null) ? Collections.singleton(pkValue) :
-                        (v.contains(pkValue) ? v :
-                        Stream.of(v, Collections.singleton(pkValue))
-                                .flatMap(Collection::stream)
-                                .collect(Collectors.toSet())));
+        append(new Key(username, entityOperation, entityName), new long[] { pkValue });
+
+    }
+
+    @Override
+    public void requeue(final CacheEvictionItem item) {
+
+        final Collection<Long> pkValues = item.getPKs();
+        if (pkValues.isEmpty()) {
+            return;
+        }
+        final long[] pks = new long[pkValues.size()];
+        int i = 0;
+        for (final Long pk : pkValues) {
+            pks[i++] = pk;
+        }
+        append(new Key(item.getUser(), item.getOperation(), item.getEntityName()), pks);
+
+    }
+
+    private void append(final Key key, final long[] pkValues) {
+
+        while (true) {
+
+            final Batch batch = this.queue.get();
+            batch.writers.incrementAndGet();
+            try {
+
+                if (batch != this.queue.get()) {
+                    continue; // drained while we were entering, retry with new batch
+                }
+
+                if (batch.size.addAndGet(pkValues.length) > maxQueueSize) {
+                    batch.size.addAndGet(-pkValues.length);
+                    LOG.error(Markers.alert(), "Cache eviction queue is full, dropping {} changes of {} by {}",
+                            pkValues.length, key.entityName, key.user);
+                    return;
+                }
+
+                final PrimaryKeys pks = batch.changes.computeIfAbsent(key, k -> new PrimaryKeys());
+                for (final long pkValue : pkValues) {
+                    pks.add(pkValue);
+                }
+                return;
+
+            } finally {
+                batch.writers.decrementAndGet();
+            }
+
+        }
 
     }
 
     @Override
     public CacheEvictionItem dequeue() {
 
-        final Key key = this.queue.isEmpty() ? null : this.queue.keySet().iterator().next();
-        if (key == null) {
-            return null;
+        CacheEvictionItem item = this.drained.poll();
+        if (item == null) {
+            this.drained.addAll(drain());
+            item = this.drained.poll();
         }
+        return item;
+
+    }
+
+    @Override
+    public List<CacheEvictionItem> dequeueAll() {
 
-        final Set<Long> update = this.queue.remove(key);
+        final List<CacheEvictionItem> all = new ArrayList<>();
+        CacheEvictionItem item;
+        while ((item = this.drained.poll()) != null) {
+            all.add(item);
+        }
+        all.addAll(drain());
+        return all;
+
+    }
+
+    private List<CacheEvictionItem> drain() {
+
+        final Batch batch = this.queue.getAndSet(new Batch());
+        // writers only append to a buffer, so this wait is very short
+        while (batch.writers.get() > 0) {
+            Thread.yield();
+        }
+
+        if (batch.changes.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        return new Item(key, update);
+        final List<CacheEvictionItem> items = new ArrayList<>(batch.changes.size());
+        for (final Map.Entry<Key, PrimaryKeys> change : batch.changes.entrySet()) {
+            items.add(new Item(change.getKey(), change.getValue().toDistinctArray()));
+        }
+        return items;
 
     }
 
     @Override
     public void clear() {
 
-        queue.clear();
+        this.queue.set(new Batch());
+        this.drained.clear();
 
     }
 
     @Override
     public void destroy() throws Exception {
         LOG.debug("Shutting down cache eviction queue");
-        this.queue.clear();
+        clear();
     }
 
     private static class Item implements CacheEvictionItem {
 
         private final Key key;
-        private final Set<Long> pks;
+        private final long[] pks;
 
 
-        private Item(final Key key, final Set<Long> pks) {
+        private Item(final Key key, final long[] pks) {
             this.key = key;
             this.pks = pks;
         }
@@ -131,8 +215,8 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
         }
 
         @Override
-        public Set<Long> getPKs() {
-            return pks;
+        public Collection<Long> getPKs() {
+            return new PrimaryKeyList(pks);
         }
     }
 
@@ -155,14 +239,14 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
 
             final Key key = (Key) o;
 
-            if (user != null ? !user.equals(key.user) : key.user != null) return false;
+            if (!user.equals(key.user)) return false;
             if (!entityOperation.equals(key.entityOperation)) return false;
             return entityName.equals(key.entityName);
         }
 
         @Override
         public int hashCode() {
-            int result = user != null ? user.hashCode() : 0;
+            int result = user.hashCode();
             result = 31 * result + entityOperation.hashCode();
             result = 31 * result + entityName.hashCode();
             return result;
@@ -170,7 +254,107 @@ public class CacheEvictionQueueImpl implements CacheEvictionQueue, DisposableBea
     }
 
     /**
-     * Maximum cache eviction items in queue.
+     * Pending changes that are drained together. Writers register themselves before appending,
+     * so that drain can wait for in flight appends after batch is swapped.
+     */
+    private static final class Batch {
+
+        private final Map<Key, PrimaryKeys> changes = new ConcurrentHashMap<>();
+        private final AtomicInteger writers = new AtomicInteger(0);
+        private final AtomicInteger size = new AtomicInteger(0);
+
+    }
+
+    /**
+     * Append only buffer of primitive PK's made of linked chunks. Slot in a chunk is claimed with
+     * a single increment, full chunk is replaced by a bigger one with a single CAS.
+     */
+    private static final class PrimaryKeys {
+
+        private static final int MIN_CHUNK = 16;
+        private static final int MAX_CHUNK = 4096;
+
+        private final AtomicReference<Chunk> head = new AtomicReference<>(new Chunk(null, MIN_CHUNK));
+
+        private void add(final long pk) {
+
+            while (true) {
+                final Chunk chunk = this.head.get();
+                final int idx = chunk.size.getAndIncrement();
+                if (idx < chunk.values.length) {
+                    chunk.values[idx] = pk;
+                    return;
+                }
+                final Chunk next = new Chunk(chunk, Math.min(chunk.values.length << 1, MAX_CHUNK));
+                next.values[0] = pk;
+                next.size.set(1);
+                if (this.head.compareAndSet(chunk, next)) {
+                    return;
+                }
+            }
+
+        }
+
+        private long[] toDistinctArray() {
+
+            int total = 0;
+            for (Chunk chunk = this.head.get(); chunk != null; chunk = chunk.previous) {
+                total += Math.min(chunk.size.get(), chunk.values.length);
+            }
+            final long[] all = new long[total];
+            int pos = 0;
+            for (Chunk chunk = this.head.get(); chunk != null; chunk = chunk.previous) {
+                final int size = Math.min(chunk.size.get(), chunk.values.length);
+                System.arraycopy(chunk.values, 0, all, pos, size);
+                pos += size;
+            }
+
+            Arrays.sort(all);
+            int distinct = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (i == 0 || all[i] != all[distinct - 1]) {
+                    all[distinct++] = all[i];
+                }
+            }
+            return distinct == all.length ? all : Arrays.copyOf(all, distinct);
+
+        }
+
+    }
+
+    private static final class Chunk {
+
+        private final Chunk previous;
+        private final long[] values;
+        private final AtomicInteger size = new AtomicInteger(0);
+
+        private Chunk(final Chunk previous, final int capacity) {
+            this.previous = previous;
+            this.values = new long[capacity];
+        }
+    }
+
+    private static final class PrimaryKeyList extends AbstractList<Long> implements RandomAccess {
+
+        private final long[] pks;
+
+        private PrimaryKeyList(final long[] pks) {
+            this.pks = pks;
+        }
+
+        @Override
+        public Long get(final int index) {
+            return pks[index];
+        }
+
+        @Override
+        public int size() {
+            return pks.length;
+        }
+    }
+
+    /**
+     * Maximum number of changed PK's in queue.
      *
      * @param maxQueueSize max size
      */
@@ -30,6 +30,7 @@ import org.yes.cart.domain.dto.impl.CacheInfoDTO;
 import org.yes.cart.domain.dto.impl.ConfigurationDTO;
 import org.yes.cart.domain.dto.impl.ModuleDTO;
 import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.service.async.model.AsyncContext;
 import org.yes.cart.service.async.model.JobContextKeys;
 import org.yes.cart.service.cluster.ClusterService;
@@ -439,6 +440,65 @@ public class ClusterServiceImpl implements ClusterService {
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, List<FTSStatisticsDTO>> getFullTextSearchStatistics(final AsyncContext context) {
+
+        final RspMessage message = new ContextRspMessageImpl(
+                nodeService.getCurrentNodeId(),
+                determineIndexCapableTargets(),
+                "BackdoorService.getFullTextSearchStatistics",
+                null,
+                context
+        );
+
+        nodeService.broadcast(message);
+
+        final Map<String, List<FTSStatisticsDTO>> info = new HashMap<>();
+        if (CollectionUtils.isNotEmpty(message.getResponses())) {
+
+            for (final Message response : message.getResponses()) {
+
+                if (response.getPayload() instanceof List) {
+                    info.put(response.getSource(), (List<FTSStatisticsDTO>) response.getPayload());
+                }
+
+            }
+
+        }
+
+        return info;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainFullTextSearchQuery(final AsyncContext context, final String node, final String indexName, final long queryId) {
+
+        final RspMessage message = new ContextRspMessageImpl(
+                nodeService.getCurrentNodeId(),
+                Collections.singletonList(node),
+                "BackdoorService.explainFullTextSearchQuery",
+                new Object[] { indexName, queryId },
+                context
+        );
+
+        nodeService.broadcast(message);
+
+        if (CollectionUtils.isNotEmpty(message.getResponses())) {
+
+            return (String) message.getResponses().get(0).getPayload();
+
+        }
+
+        return null;
+
+    }
+
     /**
      * {@inheritDoc}
      */
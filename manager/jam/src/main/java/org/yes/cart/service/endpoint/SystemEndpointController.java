@@ -20,6 +20,7 @@ import org.springframework.security.access.annotation.Secured;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.yes.cart.domain.vo.*;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 
 import java.util.List;
 
@@ -115,6 +116,30 @@ public interface SystemEndpointController {
     @ResponseBody
     List<Object[]> ftQuery(@RequestBody String query, @PathVariable("node") String node) throws Exception;
 
+    /**
+     * Get full text search latency statistics (timers, index reader age and slow queries).
+     *
+     * @return list of statistics per each index per node.
+     */
+    @Secured({"ROLE_SMADMIN"})
+    @RequestMapping(value = "/ftstats", method = RequestMethod.GET, produces = { MediaType.APPLICATION_JSON_VALUE })
+    @ResponseBody
+    List<FTSStatisticsDTO> getFullTextSearchStatistics() throws Exception;
+
+    /**
+     * Explain slow full text search query.
+     *
+     * @param node  node on which query was recorded
+     * @param index index name
+     * @param id    slow query id
+     *
+     * @return explanation of the query against current index
+     */
+    @Secured({"ROLE_SMADMIN"})
+    @RequestMapping(value = "/ftstats/{node}/{index}/{id}", method = RequestMethod.GET, produces = { MediaType.TEXT_PLAIN_VALUE })
+    @ResponseBody
+    String explainFullTextSearchQuery(@PathVariable("node") String node, @PathVariable("index") String index, @PathVariable("id") long id) throws Exception;
+
     /**
      * Get cache information.
      *
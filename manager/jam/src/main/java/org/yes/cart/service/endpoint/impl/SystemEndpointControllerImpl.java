@@ -27,6 +27,7 @@ import org.yes.cart.domain.dto.impl.CacheInfoDTO;
 import org.yes.cart.domain.dto.impl.ConfigurationDTO;
 import org.yes.cart.domain.dto.impl.ModuleDTO;
 import org.yes.cart.domain.vo.*;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.service.async.AsyncContextFactory;
 import org.yes.cart.service.async.model.AsyncContext;
 import org.yes.cart.service.async.model.JobStatus;
@@ -137,6 +138,29 @@ public class SystemEndpointControllerImpl implements SystemEndpointController {
         return clusterService.ftQuery(createCtx(param), query, node);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public @ResponseBody
+    List<FTSStatisticsDTO> getFullTextSearchStatistics() throws Exception {
+        final Map<String, Object> param = new HashMap<>();
+        param.put(AsyncContext.TIMEOUT_KEY, AttributeNamesKeys.System.SYSTEM_BACKDOOR_CACHE_TIMEOUT_MS);
+        final Map<String, List<FTSStatisticsDTO>> stats = clusterService.getFullTextSearchStatistics(createCtx(param));
+        final List<FTSStatisticsDTO> all = new ArrayList<>(stats.size() * 2);
+        for (final List<FTSStatisticsDTO> nodeStats : stats.values()) {
+            all.addAll(nodeStats);
+        }
+        return all;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @ResponseBody
+    String explainFullTextSearchQuery(@PathVariable("node") final String node, @PathVariable("index") final String index, @PathVariable("id") final long id) throws Exception {
+        final Map<String, Object> param = new HashMap<>();
+        param.put(AsyncContext.TIMEOUT_KEY, AttributeNamesKeys.System.SYSTEM_BACKDOOR_SQL_TIMEOUT_MS);
+        return clusterService.explainFullTextSearchQuery(createCtx(param), node, index, id);
+    }
+
     /** {@inheritDoc} */
     @Override
     public @ResponseBody
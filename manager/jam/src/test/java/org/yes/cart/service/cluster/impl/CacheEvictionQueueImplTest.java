@@ -0,0 +1,248 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.service.cluster.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.yes.cart.cluster.service.CacheEvictionQueue;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 19:10
+ */
+public class CacheEvictionQueueImplTest {
+
+    @Before
+    public void setUp() throws Exception {
+        login();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testEnqueueNoUser() throws Exception {
+
+        SecurityContextHolder.clearContext();
+
+        final CacheEvictionQueueImpl queue = new CacheEvictionQueueImpl();
+        queue.enqueue("Update", "Product", 1L);
+
+        assertTrue(queue.dequeueAll().isEmpty());
+
+    }
+
+    @Test
+    public void testEnqueueCoalesce() throws Exception {
+
+        final CacheEvictionQueueImpl queue = new CacheEvictionQueueImpl();
+
+        for (long pk = 100L; pk > 0L; pk--) {
+            queue.enqueue("Update", "Product", pk);
+            queue.enqueue("Update", "Product", pk);
+        }
+        queue.enqueue("Delete", "Product", 5L);
+        queue.enqueue("Update", "Category", 5L);
+        queue.enqueue("Update", "Category", null);
+
+        final Map<String, CacheEvictionQueue.CacheEvictionItem> items = byKey(queue.dequeueAll());
+        assertEquals(3, items.size());
+
+        final CacheEvictionQueue.CacheEvictionItem products = items.get("admin:Update:Product");
+        assertEquals("admin", products.getUser());
+        assertEquals(100, products.getPKs().size());
+        long expected = 1L;
+        for (final Long pk : products.getPKs()) {
+            assertEquals(expected++, pk.longValue());
+        }
+
+        assertEquals(Collections.singletonList(5L), new ArrayList<>(items.get("admin:Delete:Product").getPKs()));
+        assertEquals(Collections.singletonList(5L), new ArrayList<>(items.get("admin:Update:Category").getPKs()));
+
+        assertTrue(queue.dequeueAll().isEmpty());
+        assertNull(queue.dequeue());
+
+    }
+
+    @Test
+    public void testEnqueueKeepsUser() throws Exception {
+
+        final CacheEvictionQueueImpl queue = new CacheEvictionQueueImpl();
+
+        queue.enqueue("Update", "Product", 1L);
+        login("manager");
+        queue.enqueue("Update", "Product", 2L);
+        queue.enqueue("Update", "Product", 3L);
+
+        final Map<String, CacheEvictionQueue.CacheEvictionItem> items = byKey(queue.dequeueAll());
+        assertEquals(2, items.size());
+        assertEquals(Collections.singletonList(1L), new ArrayList<>(items.get("admin:Update:Product").getPKs()));
+        assertEquals(Arrays.asList(2L, 3L), new ArrayList<>(items.get("manager:Update:Product").getPKs()));
+
+        // requeue keeps user of the item rather than current one
+        queue.requeue(items.get("admin:Update:Product"));
+        final List<CacheEvictionQueue.CacheEvictionItem> retry = queue.dequeueAll();
+        assertEquals(1, retry.size());
+        assertEquals("admin", retry.get(0).getUser());
+
+    }
+
+    @Test
+    public void testEnqueueMaxQueueSizeCountsPKs() throws Exception {
+
+        final CacheEvictionQueueImpl queue = new CacheEvictionQueueImpl();
+        queue.setMaxQueueSize(5);
+
+        for (long pk = 1L; pk <= 10L; pk++) {
+            queue.enqueue("Update", "Product", pk);
+        }
+
+        final List<CacheEvictionQueue.CacheEvictionItem> items = queue.dequeueAll();
+        assertEquals(1, items.size());
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), new ArrayList<>(items.get(0).getPKs()));
+
+        // limit applies to each batch
+        queue.enqueue("Update", "Product", 11L);
+        assertEquals(Collections.singletonList(11L), new ArrayList<>(queue.dequeueAll().get(0).getPKs()));
+
+    }
+
+    @Test
+    public void testRequeueMergesWithPending() throws Exception {
+
+        final CacheEvictionQueueImpl queue = new CacheEvictionQueueImpl();
+
+        queue.enqueue("Update", "Product", 1L);
+        queue.enqueue("Update", "Product", 2L);
+
+        final List<CacheEvictionQueue.CacheEvictionItem> failed = queue.dequeueAll();
+        assertEquals(1, failed.size());
+
+        queue.enqueue("Update", "Product", 2L);
+        queue.enqueue("Update", "Product", 3L);
+        queue.requeue(failed.get(0));
+
+        final List<CacheEvictionQueue.CacheEvictionItem> retry = queue.dequeueAll();
+        assertEquals(1, retry.size());
+        assertEquals(Arrays.asList(1L, 2L, 3L), new ArrayList<>(retry.get(0).getPKs()));
+
+    }
+
+    @Test
+    public void testConcurrentEnqueueAndDequeueAll() throws Exception {
+
+        final int writers = 8;
+        final int pksPerWriter = 20000;
+
+        final CacheEvictionQueueImpl queue = new CacheEvictionQueueImpl();
+        queue.setMaxQueueSize(writers * pksPerWriter);
+
+        final Set<Long> received = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean duplicate = new AtomicBoolean(false);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(writers);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final long offset = (long) w * pksPerWriter;
+            threads.add(new Thread(() -> {
+                login();
+                try {
+                    start.await();
+                    for (long pk = 1L; pk <= pksPerWriter; pk++) {
+                        queue.enqueue("Update", "Product", offset + pk);
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    done.countDown();
+                }
+            }));
+        }
+
+        final Thread reader = new Thread(() -> {
+            while (done.getCount() > 0L) {
+                collect(queue.dequeueAll(), received, duplicate);
+            }
+        });
+
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        reader.start();
+        start.countDown();
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        reader.join();
+
+        collect(queue.dequeueAll(), received, duplicate);
+
+        assertFalse("PK delivered twice", duplicate.get());
+        assertEquals(writers * pksPerWriter, received.size());
+        for (long pk = 1L; pk <= writers * pksPerWriter; pk++) {
+            assertTrue("PK lost " + pk, received.contains(pk));
+        }
+
+    }
+
+    private static void collect(final List<CacheEvictionQueue.CacheEvictionItem> items,
+                                final Set<Long> received,
+                                final AtomicBoolean duplicate) {
+        for (final CacheEvictionQueue.CacheEvictionItem item : items) {
+            for (final Long pk : item.getPKs()) {
+                if (!received.add(pk)) {
+                    duplicate.set(true);
+                }
+            }
+        }
+    }
+
+    private static Map<String, CacheEvictionQueue.CacheEvictionItem> byKey(final List<CacheEvictionQueue.CacheEvictionItem> items) {
+        final Map<String, CacheEvictionQueue.CacheEvictionItem> map = new HashMap<>();
+        for (final CacheEvictionQueue.CacheEvictionItem item : items) {
+            map.put(item.getUser() + ":" + item.getOperation() + ":" + item.getEntityName(), item);
+        }
+        return map;
+    }
+
+    private static void login() {
+        login("admin");
+    }
+
+    private static void login(final String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, "", Collections.singletonList(new SimpleGrantedAuthority("ROLE_SMADMIN"))));
+    }
+
+}
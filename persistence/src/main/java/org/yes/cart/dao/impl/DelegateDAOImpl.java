@@ -375,4 +375,12 @@ public class DelegateDAOImpl<T, PK extends Serializable> implements GenericDAO<T
         delegate.clear();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setJdbcBatchSize(final Integer batchSize) {
+        delegate.setJdbcBatchSize(batchSize);
+    }
+
 }
@@ -595,4 +595,12 @@ public class GenericDAOHibernateImpl<T, PK extends Serializable> implements Gene
         sessionFactory.getCurrentSession().clear();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setJdbcBatchSize(final Integer batchSize) {
+        sessionFactory.getCurrentSession().setJdbcBatchSize(batchSize);
+    }
+
 }
@@ -26,6 +26,7 @@ import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.GenericFTS;
 import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -398,6 +399,14 @@ public class GenericFTSCapableDAOImpl<T, PK extends Serializable>
         genericDAO.clear();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setJdbcBatchSize(final Integer batchSize) {
+        genericDAO.setJdbcBatchSize(batchSize);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -433,6 +442,14 @@ public class GenericFTSCapableDAOImpl<T, PK extends Serializable>
         return genericFTS.fullTextSearch(query, firstResult, maxResults, sortFieldName, reverse, fields);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Pair<List<Object[]>, Pair<Integer, String>> fullTextSearchAfter(final Object query, final String searchAfter, final int maxResults, final String sortFieldName, final boolean reverse, final String... fields) {
+        return genericFTS.fullTextSearchAfter(query, searchAfter, maxResults, sortFieldName, reverse, fields);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -457,6 +474,22 @@ public class GenericFTSCapableDAOImpl<T, PK extends Serializable>
         return indexBuilder.getFullTextIndexState();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FTSStatisticsDTO getFullTextSearchStatistics() {
+        return genericFTS.getFullTextSearchStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainFullTextSearchQuery(final long queryId) {
+        return genericFTS.explainFullTextSearchQuery(queryId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -481,6 +514,14 @@ public class GenericFTSCapableDAOImpl<T, PK extends Serializable>
         indexBuilder.fullTextSearchReindex(primaryKey, purgeOnly);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fullTextSearchReindexVolatile(final PK primaryKey) {
+        indexBuilder.fullTextSearchReindexVolatile(primaryKey);
+    }
+
     private List<T> getEntitiesByPks(final List<PK> pks) {
         final List<T> entities = new ArrayList<>();
         if (CollectionUtils.isNotEmpty(pks)) {
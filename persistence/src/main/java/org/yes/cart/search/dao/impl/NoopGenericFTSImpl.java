@@ -20,6 +20,7 @@ import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.GenericFTS;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 
 import java.io.Serializable;
 import java.util.Collections;
@@ -53,6 +54,11 @@ public class NoopGenericFTSImpl<PK extends Serializable, FTQ> implements Generic
         return new Pair<>(Collections.emptyList(), 0);
     }
 
+    @Override
+    public Pair<List<Object[]>, Pair<Integer, String>> fullTextSearchAfter(final FTQ query, final String searchAfter, final int maxResults, final String sortFieldName, final boolean reverse, final String... fields) {
+        return new Pair<>(Collections.emptyList(), new Pair<>(0, null));
+    }
+
     @Override
     public Map<String, List<Pair<Pair<String, I18NModel>, Integer>>> fullTextSearchNavigation(final FTQ query, final List<FilteredNavigationRecordRequest> facetingRequest) {
         return Collections.emptyMap();
@@ -62,4 +68,14 @@ public class NoopGenericFTSImpl<PK extends Serializable, FTQ> implements Generic
     public int fullTextSearchCount(final FTQ query) {
         return 0;
     }
+
+    @Override
+    public FTSStatisticsDTO getFullTextSearchStatistics() {
+        return new FTSStatisticsDTO();
+    }
+
+    @Override
+    public String explainFullTextSearchQuery(final long queryId) {
+        return null;
+    }
 }
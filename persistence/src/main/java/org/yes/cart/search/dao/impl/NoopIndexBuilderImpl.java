@@ -49,6 +49,26 @@ public class NoopIndexBuilderImpl<T, PK extends Serializable> implements IndexBu
             public long getLastIndexCount() {
                 return 0;
             }
+
+            @Override
+            public double getReadThroughput() {
+                return 0d;
+            }
+
+            @Override
+            public double getBuildThroughput() {
+                return 0d;
+            }
+
+            @Override
+            public double getWriteThroughput() {
+                return 0d;
+            }
+
+            @Override
+            public boolean isFullTextIndexOutdated() {
+                return false;
+            }
         };
     }
 
@@ -66,4 +86,9 @@ public class NoopIndexBuilderImpl<T, PK extends Serializable> implements IndexBu
     public void fullTextSearchReindex(final PK primaryKey, final boolean purgeOnly) {
         // noop
     }
+
+    @Override
+    public void fullTextSearchReindexVolatile(final PK primaryKey) {
+        // noop
+    }
 }
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.apache.commons.lang.StringUtils;
@@ -33,9 +34,11 @@ import org.yes.cart.domain.i18n.impl.StringI18NModel;
 import org.yes.cart.util.DateUtils;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * User: denispavlov
@@ -50,9 +53,12 @@ public class AdapterUtils {
     public static final String FIELD_CLASS = "_CLASS";
     public static final String FIELD_OBJECT = "_OBJECT";
     public static final String FIELD_INDEXTIME = "_IDXTIME";
+    public static final String FIELD_QTY = "_QTY";
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final TypeReference<Map<Long, Map<String, BigDecimal>>> QTY_TYPE = new TypeReference<Map<Long, Map<String, BigDecimal>>>() { };
+
     static {
 
         MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
@@ -96,6 +102,24 @@ public class AdapterUtils {
     }
 
 
+    /**
+     * Reads quantity on warehouse (shop PK => SKU code => quantity) from stored field.
+     *
+     * @param serialized field value
+     */
+    public static Map<Long, Map<String, BigDecimal>> readQtyFieldValue(final String serialized) {
+
+        if (StringUtils.isNotBlank(serialized)) {
+            try {
+                return MAPPER.readValue(serialized, QTY_TYPE);
+            } catch (Exception exp) {
+                LOGFTQ.error("Unable to de-serialise the object in field: " + FIELD_QTY + ", object: " + serialized, exp);
+            }
+        }
+        return null;
+    }
+
+
     /**
      * Write object to string.
      *
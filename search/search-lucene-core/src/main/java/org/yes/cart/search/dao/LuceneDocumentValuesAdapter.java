@@ -0,0 +1,52 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao;
+
+import org.apache.lucene.document.Document;
+import org.yes.cart.domain.misc.Pair;
+
+import java.io.Serializable;
+
+/**
+ * Document adapter that separates volatile values of the entity (such as prices and inventory) from the
+ * rest of the document. Volatile values are kept in numeric and binary doc values, so that they can be
+ * updated in place without rebuilding the documents.
+ *
+ * Documents created by {@link #toDocument(Object)} must contain
+ * {@link org.yes.cart.search.dao.entity.LuceneDocumentAdapterUtils#FIELD_DOCVALUES_KEY} and
+ * {@link org.yes.cart.search.dao.entity.LuceneDocumentAdapterUtils#FIELD_DOCVALUES_SIGNATURE}.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 17:40
+ */
+public interface LuceneDocumentValuesAdapter<T, PK extends Serializable> extends LuceneDocumentAdapter<T, PK> {
+
+    /**
+     * Adapt volatile values of the entity. Each document contains key and signature fields of the
+     * corresponding document created by {@link #toDocument(Object)} and doc values fields to update.
+     *
+     * If signatures of all documents match signatures of indexed documents the doc values can be
+     * updated in place, otherwise the entity must be fully reindexed.
+     *
+     * @param entity entity to adapt
+     *
+     * @return doc values documents, or null if entity should not be in the index
+     */
+    Pair<PK, Document[]> toDocumentValues(T entity);
+
+}
@@ -16,11 +16,14 @@
 
 package org.yes.cart.search.dao;
 
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.facet.taxonomy.SearcherTaxonomyManager;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.IndexSearcher;
 
+import java.io.IOException;
+
 /**
  * User: denispavlov
  * Date: 31/03/2017
@@ -51,15 +54,33 @@ public interface LuceneIndexProvider {
      */
     void releaseIndexReader(IndexSearcher searcher);
 
+    /**
+     * Time when searcher returned by {@link #provideIndexReader()} was opened. Since searchers are
+     * reopened only when index has changed this shows how stale current view of the index is.
+     *
+     * @return timestamp (millis) of current searcher or 0 if index is not open
+     */
+    long getIndexReaderTimestamp();
+
     /**
      * Writer for given index. There can be only single writer for index, which is open
      * as application context starts up and is closed automatically when application context
      * is shutdown.
      *
+     * Writer must be released by the same thread via {@link #releaseIndexWriter(IndexWriter)}
+     * once changes are made, live index is not swapped while writer is in use.
+     *
      * @return writer
      */
     IndexWriter provideIndexWriter();
 
+    /**
+     * Release writer.
+     *
+     * @param writer writer
+     */
+    void releaseIndexWriter(IndexWriter writer);
+
     /**
      * Refreshing the index is necessary do that readers can "see" the most up
      * to date version of index. If refresh is not called the readers only see
@@ -70,6 +91,21 @@ public interface LuceneIndexProvider {
      */
     void refreshIndexIfNecessary();
 
+    /**
+     * Sorted set facet state for given field. Building this state requires scanning all ordinals
+     * in the index, so provider caches states for the current searcher generation and rebuilds
+     * them only after {@link #refreshIndexIfNecessary()} opens a new searcher.
+     *
+     * @param searcher searcher acquired via {@link #provideIndexReader()}
+     * @param field    sorted set doc values facet field
+     *
+     * @return reader state for given searcher
+     *
+     * @throws IOException if state cannot be created
+     * @throws IllegalArgumentException if field is not indexed as sorted set doc values
+     */
+    SortedSetDocValuesReaderState provideFacetsReaderState(IndexSearcher searcher, String field) throws IOException;
+
 
     /**
      * Searcher for given index. Note that provided index searcher operated on cached
@@ -92,10 +128,20 @@ public interface LuceneIndexProvider {
      * as application context starts up and is closed automatically when application context
      * is shutdown.
      *
+     * Writer must be released by the same thread via {@link #releaseFacetsWriter(DirectoryTaxonomyWriter)}
+     * once changes are made, live index is not swapped while writer is in use.
+     *
      * @return writer
      */
     DirectoryTaxonomyWriter provideFacetsWriter();
 
+    /**
+     * Release writer.
+     *
+     * @param writer writer
+     */
+    void releaseFacetsWriter(DirectoryTaxonomyWriter writer);
+
     /**
      * Refreshing the index is necessary do that readers can "see" the most up
      * to date version of index. If refresh is not called the readers only see
@@ -111,5 +157,47 @@ public interface LuceneIndexProvider {
      */
     void refreshIfNecessary();
 
+    /**
+     * Searchers are reopened in background, so changes made via {@link #provideIndexWriter()} become
+     * visible with a slight delay. Callers that need to see the change immediately can wait for the
+     * sequence number returned by the writer operation.
+     *
+     * @param writer     writer that performed the change
+     * @param generation sequence number returned by the writer operation
+     *
+     * @return true if change is visible, false if wait timed out or writer is no longer live
+     */
+    boolean waitForGeneration(IndexWriter writer, long generation);
+
+    /**
+     * Writer for a shadow index, which is a complete new generation of index and taxonomy built in
+     * a side directory. Shadow index is not visible to searchers until {@link #swapShadowIndex()} is
+     * invoked, so full rebuild does not affect search results while it is running. Subsequent calls
+     * return the same writer until shadow index is swapped or discarded.
+     *
+     * @return shadow index writer
+     */
+    IndexWriter provideShadowIndexWriter();
+
+    /**
+     * Taxonomy writer for the shadow index (see {@link #provideShadowIndexWriter()}).
+     *
+     * @return shadow taxonomy writer
+     */
+    DirectoryTaxonomyWriter provideShadowFacetsWriter();
+
+    /**
+     * Commit shadow index and atomically make it the live index. Searchers acquired before the swap
+     * remain valid, previous generation is removed once all of them are released.
+     *
+     * @throws IllegalStateException if there is no shadow index
+     */
+    void swapShadowIndex();
+
+    /**
+     * Discard shadow index (e.g. when rebuild failed). Does nothing if there is no shadow index.
+     */
+    void discardShadowIndex();
+
 
 }
@@ -17,9 +17,12 @@
 package org.yes.cart.search.dao.entity;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.apache.lucene.document.*;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.util.BytesRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,10 +31,9 @@ import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.search.query.impl.LuceneSearchUtil;
 import org.yes.cart.search.util.SearchUtil;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.*;
 
 import static org.yes.cart.search.dao.entity.AdapterUtils.*;
 
@@ -46,6 +48,15 @@ public class LuceneDocumentAdapterUtils {
 
     public static final int CHAR_THRESHOLD = 2;
 
+    /**
+     * Key of the document for in place doc values updates (not stored, not tokenized).
+     */
+    public static final String FIELD_DOCVALUES_KEY = "_DVKEY";
+    /**
+     * Signature of the document structure that is not covered by doc values (stored only).
+     */
+    public static final String FIELD_DOCVALUES_SIGNATURE = "_DVSIG";
+
     private LuceneDocumentAdapterUtils() {
         // no instance
     }
@@ -154,6 +165,14 @@ public class LuceneDocumentAdapterUtils {
              */
             document.add(new StringField(FIELD_PK, value, Field.Store.YES));
 
+            /*
+                Numeric doc values allow bulk PK collection without loading stored documents,
+                see PrimaryKeyCollector
+             */
+            if (NumberUtils.isDigits(value)) {
+                document.add(new NumericDocValuesField(FIELD_PK, NumberUtils.toLong(value)));
+            }
+
             /*
                 Additional field to save type of the object
              */
@@ -572,4 +591,114 @@ public class LuceneDocumentAdapterUtils {
             document.add(new NumericDocValuesField(name, value));
         }
     }
+
+    /**
+     * Adds a numeric sort field. Unlike {@link #addSortField(Document, String, Long, boolean)} value is kept
+     * as numeric doc values, which can be updated in place (see {@link #addDocValuesKeyField(Document, String)}).
+     *
+     * @param document document
+     * @param name     field name
+     * @param value    value
+     */
+    public static void addNumericSortField(final Document document, final String name, final long value) {
+        document.add(new NumericDocValuesField(name, value));
+    }
+
+    /**
+     * Adds serialised version of object into binary doc values field, which can be updated in place
+     * (see {@link #addDocValuesKeyField(Document, String)}). Values are not stored, but can be retrieved
+     * in the same way as stored fields from {@link org.yes.cart.search.dao.impl.GenericFTSLuceneImpl}.
+     *
+     * @param document document
+     * @param name     field name
+     * @param object   object
+     */
+    public static void addObjectDocValuesField(final Document document, final String name, final Object object) {
+        if (object != null) {
+            try {
+                document.add(new BinaryDocValuesField(name, new BytesRef(writeObjectFieldValue(object))));
+            } catch (Exception exp) {
+                LOGFTQ.error("Unable to serialise the object into field: " + name + ", object: " + object, exp);
+            }
+        }
+    }
+
+    /**
+     * Adds unique document key, which is used to update doc values of this document in place.
+     *
+     * @param document document
+     * @param key      unique key
+     */
+    public static void addDocValuesKeyField(final Document document, final String key) {
+        document.add(new StringField(FIELD_DOCVALUES_KEY, key, Field.Store.NO));
+    }
+
+    /**
+     * Adds signature of the given fields (see {@link #docValuesSignature(Iterable)}).
+     *
+     * @param document document
+     * @param fields   fields to sign
+     *
+     * @return signature
+     */
+    public static long addDocValuesSignatureField(final Document document, final Iterable<IndexableField> fields) {
+        final long signature = docValuesSignature(fields);
+        document.add(new StoredField(FIELD_DOCVALUES_SIGNATURE, signature));
+        return signature;
+    }
+
+    /**
+     * Signature of the document structure. Numeric and binary doc values fields contribute only with their names,
+     * since their values can be updated in place. All other fields contribute with name and value, so if any of them
+     * changes the document has to be rebuilt.
+     *
+     * Debug fields (with "_debug" suffix) are only present when trace is enabled and are ignored.
+     *
+     * @param fields fields to sign
+     *
+     * @return 64 bit FNV-1a hash of the fields
+     */
+    public static long docValuesSignature(final Iterable<IndexableField> fields) {
+
+        final List<String> parts = new ArrayList<>();
+        for (final IndexableField field : fields) {
+            if (field.name().endsWith("_debug")) {
+                continue;
+            }
+            if (isUpdatableDocValues(field)) {
+                parts.add(field.name());
+            } else if (field.stringValue() != null) {
+                parts.add(field.name() + '=' + field.stringValue());
+            } else if (field.numericValue() != null) {
+                parts.add(field.name() + '=' + field.numericValue());
+            } else if (field.binaryValue() != null) {
+                parts.add(field.name() + '=' + field.binaryValue().toString());
+            } else {
+                parts.add(field.name());
+            }
+        }
+        Collections.sort(parts);
+
+        long hash = 0xcbf29ce484222325L;
+        for (final String part : parts) {
+            for (final byte b : part.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xff);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= 0xff; // separator
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+
+    }
+
+    /**
+     * @param field field
+     *
+     * @return true if field value can be updated in place (numeric and binary doc values only)
+     */
+    public static boolean isUpdatableDocValues(final IndexableField field) {
+        final DocValuesType type = field.fieldType().docValuesType();
+        return type == DocValuesType.NUMERIC || type == DocValuesType.BINARY;
+    }
 }
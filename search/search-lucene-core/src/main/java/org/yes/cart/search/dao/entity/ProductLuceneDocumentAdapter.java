@@ -19,6 +19,7 @@ package org.yes.cart.search.dao.entity;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yes.cart.constants.AttributeNamesKeys;
@@ -32,7 +33,7 @@ import org.yes.cart.domain.entity.*;
 import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.domain.i18n.impl.StringI18NModel;
 import org.yes.cart.domain.misc.Pair;
-import org.yes.cart.search.dao.LuceneDocumentAdapter;
+import org.yes.cart.search.dao.LuceneDocumentValuesAdapter;
 import org.yes.cart.search.dao.support.*;
 import org.yes.cart.search.util.SearchUtil;
 import org.yes.cart.util.DomainApiUtils;
@@ -44,6 +45,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static org.yes.cart.search.dao.entity.AdapterUtils.FIELD_QTY;
 import static org.yes.cart.search.dao.entity.LuceneDocumentAdapterUtils.*;
 import static org.yes.cart.search.query.ProductSearchQueryBuilder.*;
 /**
@@ -51,7 +53,7 @@ import static org.yes.cart.search.query.ProductSearchQueryBuilder.*;
  * Date: 07/04/2017
  * Time: 14:21
  */
-public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Product, Long> {
+public class ProductLuceneDocumentAdapter implements LuceneDocumentValuesAdapter<Product, Long> {
 
     private static final Logger LOGFTQ = LoggerFactory.getLogger("FTQ");
 
@@ -182,11 +184,8 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
                     addInstantField(document, PRODUCT_CREATED_FIELD, entity.getCreatedTimestamp(), false);
                     addSortField(document, PRODUCT_CREATED_SORT_FIELD, entity.getCreatedTimestamp(), false);
 
-                    // Inventory flag
-                    addInventoryFields(document, result, available, now);
-
-                    // Add prices
-                    addPriceFields(document, entity, allPrices, result, available, now);
+                    // Inventory flags and prices
+                    addVolatileFields(document, entity, allPrices, result, available, now);
 
                     // Add categories
                     addCategoryFields(document, entity, available, now);
@@ -215,6 +214,101 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
         return entity != null ? new Pair<>(entity.getProductId(), null) : null;
     }
 
+    /**
+     * Prices and inventory change much more often than the rest of the product, so they are kept in doc values
+     * which can be updated in place. Values for every supplier specific result are produced in exactly the same
+     * way as for {@link #toDocument(Product)}, so that signatures of the documents can be compared.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public Pair<Long, Document[]> toDocumentValues(final Product entity) {
+
+        final LocalDateTime now = now();
+
+        if (isProductInCategoryHasSkuAndAvailableNow(entity, now)) {
+
+            try {
+
+                final Map<String, ProductSearchResultDTO> resultsByFc = new HashMap<>();
+                final Map<ProductSearchResultDTO, Set<Long>> availableIn = new HashMap<>();
+
+                populateResultsByFc(entity, now, resultsByFc, availableIn);
+
+                final List<SkuPrice> allPrices = determineAllActivePrices(entity);
+
+                final List<Document> documents = new ArrayList<>(resultsByFc.size());
+
+                for (final ProductSearchResultDTO result : resultsByFc.values()) {
+
+                    final Set<Long> available = availableIn.get(result);
+
+                    if (CollectionUtils.isEmpty(available)) {
+                        continue; // Same as toDocument()
+                    }
+
+                    final Document values = new Document();
+                    addVolatileFields(values, entity, allPrices, result, available, now);
+                    documents.add(values);
+
+                }
+
+                return new Pair<>(entity.getProductId(), documents.toArray(new Document[documents.size()]));
+
+            } catch (Exception exp) {
+                LOGFTQ.error("Unable to adapt product prices and inventory to index document values, code: " + entity.getCode()
+                                + ", cause: " + exp.getMessage(), exp);
+            }
+
+        }
+        return null;
+    }
+
+    /**
+     * Add volatile fields (inventory flags, prices and quantities) followed by key and signature of the document
+     * (see {@link LuceneDocumentValuesAdapter}).
+     *
+     * @param document    index document
+     * @param entity      product
+     * @param allPrices   all prices for all SKU in all shops
+     * @param result      current supplier specific result hit
+     * @param available   shop PKs where this result is available
+     * @param now         time now
+     */
+    protected void addVolatileFields(final Document document,
+                                     final Product entity,
+                                     final List<SkuPrice> allPrices,
+                                     final ProductSearchResultDTO result,
+                                     final Set<Long> available,
+                                     final LocalDateTime now) {
+
+        final Document values = new Document();
+
+        // Inventory flag
+        addInventoryFields(values, result, available, now);
+
+        // Add prices
+        addPriceFields(values, entity, allPrices, result, available, now);
+
+        // Quantities overlay the ones in the stored object, which are only updated on full reindex
+        final Map<Long, Map<String, BigDecimal>> qty = new HashMap<>();
+        for (final Long shop : available) {
+            final Map<String, BigDecimal> qtyBySku = result.getQtyOnWarehouse(shop);
+            if (qtyBySku != null) {
+                qty.put(shop, qtyBySku);
+            }
+        }
+        addObjectDocValuesField(values, FIELD_QTY, qty);
+
+        addDocValuesKeyField(values, entity.getProductId() + ":" + result.getFulfilmentCentreCode());
+        addDocValuesSignatureField(values, values);
+
+        for (final IndexableField field : values) {
+            document.add(field);
+        }
+
+    }
+
     /**
      * Add attribute fields.
      *
@@ -456,8 +550,7 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
                             addStoredField(document, facetName + "_debug", String.valueOf(longPrice));
                         }
                         addFacetField(document, facetName, longPrice);
-                        addNumericField(document, facetName + "_range", longPrice, false);
-                        addSortField(document, facetName + "_sort", longPrice, false);
+                        addNumericSortField(document, facetName + "_sort", longPrice);
                         if (hasOffer) {
                             addNumericField(document, PRODUCT_SHOP_HASOFFER_FIELD + currency.getKey(), shop.getKey(), false);
                         }
@@ -473,8 +566,7 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
                                     final String subFacetName = SearchUtil.priceFacetName(subShop.getShopId(), currency.getKey());
 
                                     addFacetField(document, subFacetName, longPrice);
-                                    addNumericField(document, subFacetName + "_range", longPrice, false);
-                                    addSortField(document, subFacetName + "_sort", longPrice, false);
+                                    addNumericSortField(document, subFacetName + "_sort", longPrice);
                                     if (hasOffer) {
                                         addNumericField(document, PRODUCT_SHOP_HASOFFER_FIELD + currency.getKey(), subShop.getShopId(), false);
                                     }
@@ -717,17 +809,16 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
                 addStoredField(document, PRODUCT_SHOP_INSTOCK_FIELD + "_debug", shop.toString());
             }
             addNumericField(document, PRODUCT_SHOP_INSTOCK_FIELD, shop, false);
+            // Flags are numeric doc values, so that they can be updated in place
             if (result.getAvailability() == Product.AVAILABILITY_ALWAYS) {
                 boost = 0.95f; // Always = -5% boost (stocked items must be first)
-                addSortField(document, PRODUCT_AVAILABILITY_SORT_FIELD + shop.toString(), "095");
-                addNumericField(document, PRODUCT_SHOP_INSTOCK_FLAG_FIELD + "1", shop, false);
-                addSortField(document, PRODUCT_SHOP_INSTOCK_FLAG_SORT_FIELD + shop.toString(), "1");
+                addNumericSortField(document, PRODUCT_AVAILABILITY_SORT_FIELD + shop.toString(), 95L);
+                addNumericSortField(document, PRODUCT_SHOP_INSTOCK_FLAG_SORT_FIELD + shop.toString(), 1L);
             } else if (result.getAvailability() == Product.AVAILABILITY_PREORDER &&
                     DomainApiUtils.isObjectAvailableNow(true, result.getAvailablefrom(), null, now)) {
                 boost = 1.25f; // Preorder is 1.25f = 25% boost
-                addSortField(document, PRODUCT_AVAILABILITY_SORT_FIELD + shop.toString(), "125");
-                addNumericField(document, PRODUCT_SHOP_INSTOCK_FLAG_FIELD + "1", shop, false);
-                addSortField(document, PRODUCT_SHOP_INSTOCK_FLAG_SORT_FIELD + shop.toString(), "1");
+                addNumericSortField(document, PRODUCT_AVAILABILITY_SORT_FIELD + shop.toString(), 125L);
+                addNumericSortField(document, PRODUCT_SHOP_INSTOCK_FLAG_SORT_FIELD + shop.toString(), 1L);
             } else { // Standard stock
                 final Map<String, BigDecimal> qty = result.getQtyOnWarehouse(shop);
                 boolean hasStock = false;
@@ -738,9 +829,8 @@ public class ProductLuceneDocumentAdapter implements LuceneDocumentAdapter<Produ
                     }
                 }
                 boost = hasStock ? 1.0f : 0.9f; // Standard + Backorder in stock = no boost, out of stock = -10% boost
-                addSortField(document, PRODUCT_AVAILABILITY_SORT_FIELD + shop.toString(), hasStock ? "100" : "090");
-                addNumericField(document, PRODUCT_SHOP_INSTOCK_FLAG_FIELD + (hasStock ? "1" : "0"), shop, false);
-                addSortField(document, PRODUCT_SHOP_INSTOCK_FLAG_SORT_FIELD + shop.toString(), hasStock ? "1" : "0");
+                addNumericSortField(document, PRODUCT_AVAILABILITY_SORT_FIELD + shop.toString(), hasStock ? 100L : 90L);
+                addNumericSortField(document, PRODUCT_SHOP_INSTOCK_FLAG_SORT_FIELD + shop.toString(), hasStock ? 1L : 0L);
             }
         }
         addStoredField(document, PRODUCT_SHOP_INSTOCK_FIELD + "_boost", boost);
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.TopOrdAndIntQueue;
+import org.apache.lucene.facet.range.LongRange;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Facet counts for all sorted set and long range dimensions of the navigation request, which are
+ * accumulated in a single walk over matching documents of {@link FacetsCollector}. This replaces
+ * {@link org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts} and
+ * {@link org.apache.lucene.facet.range.LongRangeFacetCounts} that iterate over all hits per dimension.
+ *
+ * Each dimension is registered under its own key (facet name), failures for a dimension are isolated
+ * so that one misconfigured field does not break the rest of the navigation.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 10:12
+ */
+public class CombinedFacetCounts {
+
+    private final Map<String, SortedSetDim> sortedSetDims = new LinkedHashMap<>();
+    private final Map<String, RangeDim> rangeDims = new LinkedHashMap<>();
+
+    private boolean counted = false;
+
+    /**
+     * Register sorted set dimension. Field is used as both the index field and dimension name.
+     *
+     * @param key   dimension key
+     * @param state reader state for the field
+     *
+     * @throws IllegalArgumentException if dimension was not indexed
+     */
+    public void addSortedSetDim(final String key, final SortedSetDocValuesReaderState state) {
+
+        final String field = state.getField();
+        final SortedSetDocValuesReaderState.OrdRange ordRange = state.getOrdRange(field);
+        if (ordRange == null) {
+            throw new IllegalArgumentException("dimension \"" + field + "\" was not indexed");
+        }
+        this.sortedSetDims.put(key, new SortedSetDim(field, state, ordRange));
+
+    }
+
+    /**
+     * Register long range dimension.
+     *
+     * @param key    dimension key
+     * @param field  numeric doc values field
+     * @param ranges ranges to count
+     */
+    public void addRangeDim(final String key, final String field, final LongRange[] ranges) {
+
+        this.rangeDims.put(key, new RangeDim(field, ranges));
+
+    }
+
+    /**
+     * Count all registered dimensions in one pass over matching documents.
+     *
+     * @param facetsCollector collector with matching documents
+     *
+     * @throws IOException error reading index
+     */
+    public void count(final FacetsCollector facetsCollector) throws IOException {
+
+        if (counted) {
+            throw new IllegalStateException("Facets have already been counted");
+        }
+        counted = true;
+
+        if (sortedSetDims.isEmpty() && rangeDims.isEmpty()) {
+            return;
+        }
+
+        final SortedSetDim[] ssDims = sortedSetDims.values().toArray(new SortedSetDim[sortedSetDims.size()]);
+        final RangeDim[] rDims = rangeDims.values().toArray(new RangeDim[rangeDims.size()]);
+
+        final SortedSetDocValues[] ssSegValues = new SortedSetDocValues[ssDims.length];
+        final LongValues[] ssOrdMaps = new LongValues[ssDims.length];
+        final NumericDocValues[] rSegValues = new NumericDocValues[rDims.length];
+        final Bits[] rSegDocsWithField = new Bits[rDims.length];
+
+        for (final FacetsCollector.MatchingDocs hits : facetsCollector.getMatchingDocs()) {
+
+            if (hits.totalHits == 0 || hits.bits == null) {
+                continue;
+            }
+
+            final LeafReader reader = hits.context.reader();
+
+            boolean any = false;
+            for (int i = 0; i < ssDims.length; i++) {
+                ssSegValues[i] = null;
+                ssOrdMaps[i] = null;
+                final SortedSetDim dim = ssDims[i];
+                if (dim.error == null) {
+                    try {
+                        if (ReaderUtil.getTopLevelContext(hits.context).reader() != dim.state.getReader()) {
+                            throw new IllegalStateException("the SortedSetDocValuesReaderState provided to this class does not match the reader being searched; you must create a new SortedSetDocValuesReaderState every time you open a new IndexReader");
+                        }
+                        ssSegValues[i] = reader.getSortedSetDocValues(dim.field);
+                        if (ssSegValues[i] != null && dim.ordinalMap != null) {
+                            ssOrdMaps[i] = dim.ordinalMap.getGlobalOrds(hits.context.ord);
+                        }
+                    } catch (IllegalArgumentException | IllegalStateException iae) {
+                        dim.error = iae;
+                        ssSegValues[i] = null;
+                    }
+                }
+                any |= ssSegValues[i] != null;
+            }
+            for (int i = 0; i < rDims.length; i++) {
+                rSegValues[i] = null;
+                rSegDocsWithField[i] = null;
+                final RangeDim dim = rDims[i];
+                if (dim.error == null) {
+                    try {
+                        rSegValues[i] = DocValues.getNumeric(reader, dim.field);
+                        rSegDocsWithField[i] = DocValues.getDocsWithField(reader, dim.field);
+                    } catch (IllegalArgumentException | IllegalStateException iae) {
+                        dim.error = iae;
+                        rSegValues[i] = null;
+                    }
+                }
+                any |= rSegValues[i] != null;
+            }
+
+            if (!any) {
+                continue;
+            }
+
+            final DocIdSetIterator docs = hits.bits.iterator();
+            if (docs == null) {
+                continue;
+            }
+
+            int doc;
+            while ((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+
+                for (int i = 0; i < ssDims.length; i++) {
+                    final SortedSetDocValues segValues = ssSegValues[i];
+                    if (segValues != null) {
+                        final int[] counts = ssDims[i].counts;
+                        final LongValues ordMap = ssOrdMaps[i];
+                        segValues.setDocument(doc);
+                        long ord;
+                        if (ordMap != null) {
+                            while ((ord = segValues.nextOrd()) != SortedSetDocValues.NO_MORE_ORDS) {
+                                counts[(int) ordMap.get(ord)]++;
+                            }
+                        } else {
+                            while ((ord = segValues.nextOrd()) != SortedSetDocValues.NO_MORE_ORDS) {
+                                counts[(int) ord]++;
+                            }
+                        }
+                    }
+                }
+
+                for (int i = 0; i < rDims.length; i++) {
+                    final NumericDocValues segValues = rSegValues[i];
+                    if (segValues != null && rSegDocsWithField[i].get(doc)) {
+                        final RangeDim dim = rDims[i];
+                        final long value = segValues.get(doc);
+                        boolean matched = false;
+                        for (int r = 0; r < dim.ranges.length; r++) {
+                            if (dim.ranges[r].accept(value)) {
+                                dim.counts[r]++;
+                                matched = true;
+                            }
+                        }
+                        if (matched) {
+                            dim.totCount++;
+                        }
+                    }
+                }
+
+            }
+        }
+
+    }
+
+    /**
+     * Top children for given dimension. Sorted set dimensions are ordered by count descending, range
+     * dimensions preserve the order of the ranges as registered.
+     *
+     * @param topN max number of children (applies to sorted set dimensions)
+     * @param key  dimension key
+     *
+     * @return facet result or null if no dimension is registered for this key
+     *
+     * @throws IllegalStateException if counting for this dimension failed
+     */
+    public FacetResult getTopChildren(final int topN, final String key) {
+
+        if (!counted) {
+            throw new IllegalStateException("Facets have not been counted");
+        }
+
+        final SortedSetDim ssDim = sortedSetDims.get(key);
+        if (ssDim != null) {
+            return ssDim.getTopChildren(topN);
+        }
+        final RangeDim rDim = rangeDims.get(key);
+        if (rDim != null) {
+            return rDim.getTopChildren();
+        }
+        return null;
+
+    }
+
+    private static final class SortedSetDim {
+
+        private final String field;
+        private final SortedSetDocValuesReaderState state;
+        private final SortedSetDocValuesReaderState.OrdRange ordRange;
+        private final MultiDocValues.OrdinalMap ordinalMap;
+        private final int[] counts;
+        private RuntimeException error;
+
+        private SortedSetDim(final String field,
+                             final SortedSetDocValuesReaderState state,
+                             final SortedSetDocValuesReaderState.OrdRange ordRange) {
+            this.field = field;
+            this.state = state;
+            this.ordRange = ordRange;
+            MultiDocValues.OrdinalMap map = null;
+            try {
+                final SortedSetDocValues dv = state.getDocValues();
+                if (dv instanceof MultiDocValues.MultiSortedSetDocValues) {
+                    map = ((MultiDocValues.MultiSortedSetDocValues) dv).mapping;
+                }
+            } catch (IOException ioe) {
+                this.error = new IllegalStateException(ioe.getMessage(), ioe);
+            }
+            this.ordinalMap = map;
+            this.counts = new int[state.getSize()];
+        }
+
+        private FacetResult getTopChildren(final int topN) {
+
+            if (error != null) {
+                throw error;
+            }
+
+            TopOrdAndIntQueue q = null;
+            TopOrdAndIntQueue.OrdAndValue reuse = null;
+            int bottomCount = 0;
+            int dimCount = 0;
+            int childCount = 0;
+
+            for (int ord = ordRange.start; ord <= ordRange.end; ord++) {
+                final int count = counts[ord];
+                if (count > 0) {
+                    dimCount += count;
+                    childCount++;
+                    if (count > bottomCount) {
+                        if (reuse == null) {
+                            reuse = new TopOrdAndIntQueue.OrdAndValue();
+                        }
+                        reuse.ord = ord;
+                        reuse.value = count;
+                        if (q == null) {
+                            q = new TopOrdAndIntQueue(topN);
+                        }
+                        reuse = q.insertWithOverflow(reuse);
+                        if (q.size() == topN) {
+                            bottomCount = q.top().value;
+                        }
+                    }
+                }
+            }
+
+            if (q == null) {
+                return null;
+            }
+
+            final SortedSetDocValues dv;
+            try {
+                dv = state.getDocValues();
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe.getMessage(), ioe);
+            }
+
+            final LabelAndValue[] labelValues = new LabelAndValue[q.size()];
+            for (int i = labelValues.length - 1; i >= 0; i--) {
+                final TopOrdAndIntQueue.OrdAndValue ordAndValue = q.pop();
+                final BytesRef term = dv.lookupOrd(ordAndValue.ord);
+                final String[] parts = FacetsConfig.stringToPath(term.utf8ToString());
+                labelValues[i] = new LabelAndValue(parts[1], ordAndValue.value);
+            }
+
+            return new FacetResult(field, new String[0], dimCount, labelValues, childCount);
+        }
+
+    }
+
+    private static final class RangeDim {
+
+        private final String field;
+        private final LongRange[] ranges;
+        private final int[] counts;
+        private int totCount;
+        private RuntimeException error;
+
+        private RangeDim(final String field, final LongRange[] ranges) {
+            this.field = field;
+            this.ranges = ranges;
+            this.counts = new int[ranges.length];
+        }
+
+        private FacetResult getTopChildren() {
+
+            if (error != null) {
+                throw error;
+            }
+
+            final LabelAndValue[] labelValues = new LabelAndValue[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                labelValues[i] = new LabelAndValue(ranges[i].label, counts[i]);
+            }
+            return new FacetResult(field, new String[0], totCount, labelValues, labelValues.length);
+        }
+
+    }
+
+}
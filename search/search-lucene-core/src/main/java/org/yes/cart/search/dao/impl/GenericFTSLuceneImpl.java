@@ -22,11 +22,10 @@ import org.apache.commons.lang.math.NumberUtils;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.facet.*;
 import org.apache.lucene.facet.range.LongRange;
-import org.apache.lucene.facet.range.LongRangeFacetCounts;
-import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
-import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.index.*;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.*;
+import org.apache.lucene.util.BytesRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yes.cart.constants.Constants;
@@ -35,10 +34,14 @@ import org.yes.cart.domain.i18n.impl.StringI18NModel;
 import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.GenericFTS;
 import org.yes.cart.search.dao.LuceneIndexProvider;
+import org.yes.cart.search.dao.entity.AdapterUtils;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.search.query.impl.AsIsAnalyzer;
 import org.yes.cart.util.log.Markers;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -56,8 +59,17 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
     private static final int MAX_FACETS = 100;
 
+    private static final String TIMER_SEARCH = "search";
+    private static final String TIMER_SEARCH_AFTER = "searchAfter";
+    private static final String TIMER_COUNT = "count";
+    private static final String TIMER_NAVIGATION = "navigation";
+    private static final String TIMER_NAVIGATION_COUNT = "navigation:count";
+    private static final String TIMER_FACET_PREFIX = "facet:";
+
     private LuceneIndexProvider luceneIndexProvider;
 
+    private final LuceneSearchStatistics statistics = new LuceneSearchStatistics();
+
 
     /**
      * {@inheritDoc}
@@ -93,18 +105,15 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
         LOGFTQ.debug("Run count query {}", query);
 
-        final List<Long> pks = new ArrayList<>();
+        List<Long> pks = Collections.emptyList();
 
+        final long start = System.nanoTime();
         IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
         try {
-            final TopDocs topDocs = searcher.search(query, Integer.MAX_VALUE);
-            if (topDocs.totalHits > 0) {
-                for (final ScoreDoc hit : topDocs.scoreDocs) {
-                    final Document doc = searcher.doc(hit.doc, PKS);
-                    pks.add(Long.valueOf(doc.get("_PK")));
-                    logExplanation(searcher, query, null, hit.doc);
-                }
-            }
+            // unbounded search, so no top docs queue and no stored fields, just PK's by relevance
+            final PrimaryKeyCollector collector = new PrimaryKeyCollector(true);
+            searcher.search(query, collector);
+            pks = collector.getPrimaryKeys();
         } catch (IllegalStateException ise) {
             LOG.warn("Failed to run query " + query + ", caused: " + ise.getMessage());
         } catch (Exception exp) {
@@ -113,6 +122,8 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
             this.luceneIndexProvider.releaseIndexReader(searcher);
         }
 
+        this.statistics.record(TIMER_SEARCH, start, query, pks.size());
+
         LOGFTQ.debug("Result is {} query {}", pks, query);
 
         return pks;
@@ -127,17 +138,15 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
         LOGFTQ.debug("Run count query {}", query);
 
         final List<Long> pks = new ArrayList<>();
+        int hits = 0;
 
+        final long start = System.nanoTime();
         IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
         try {
-            final TopDocs topDocs;
-            Sort sort = null;
-            if (StringUtils.isNotBlank(sortFieldName)) {
-                sort = new Sort(new SortField(sortFieldName, SortField.Type.STRING_VAL, reverse));
-                topDocs = searcher.search(query, firstResult + maxResults, sort);
-            } else {
-                topDocs = searcher.search(query, firstResult + maxResults);
-            }
+            // same sort as search after, so that offset pages and continuation tokens follow one order
+            final Sort sort = createSearchAfterSort(searcher, sortFieldName, reverse);
+            final TopDocs topDocs = searcher.search(query, firstResult + maxResults, sort);
+            hits = topDocs.totalHits;
             if (topDocs.totalHits > 0) {
                 for (int i = firstResult; i < firstResult + maxResults; i++) {
                     final ScoreDoc hit = topDocs.scoreDocs[i];
@@ -154,6 +163,8 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
             this.luceneIndexProvider.releaseIndexReader(searcher);
         }
 
+        this.statistics.record(TIMER_SEARCH, start, query, hits);
+
         LOGFTQ.debug("Result is {} query {}", pks, query);
 
         return pks;
@@ -171,18 +182,16 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
         Pair<List<Object[]>, Integer> result = EMPTY;
         int lastResult = maxResults < 0 ? Integer.MAX_VALUE : firstResult + maxResults;
+        int hits = 0;
 
+        final long start = System.nanoTime();
         IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
         try {
             final Set<String> retrieve = new HashSet<>(Arrays.asList(fields));
-            final TopDocs topDocs;
-            Sort sort = null;
-            if (StringUtils.isNotBlank(sortFieldName)) {
-                sort = new Sort(new SortField(sortFieldName, SortField.Type.STRING_VAL, reverse));
-                topDocs = searcher.search(query, lastResult, sort);
-            } else {
-                topDocs = searcher.search(query, lastResult);
-            }
+            // same sort as search after, so that offset pages and continuation tokens follow one order
+            final Sort sort = createSearchAfterSort(searcher, sortFieldName, reverse);
+            final TopDocs topDocs = searcher.search(query, lastResult, sort);
+            hits = topDocs.totalHits;
             if (topDocs.totalHits > firstResult) {
 
                 lastResult = lastResult > topDocs.totalHits ? topDocs.totalHits : lastResult;
@@ -191,12 +200,7 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
                 for (int i = firstResult; i < lastResult; i++) {
                     final ScoreDoc hit = topDocs.scoreDocs[i];
-                    final Document doc = searcher.doc(hit.doc, retrieve);
-                    final Object[] values = new Object[fields.length];
-                    for (int ii = 0; ii < fields.length; ii++) {
-                        values[ii] = doc.get(fields[ii]);
-                    }
-                    resItems.add(values);
+                    resItems.add(readFields(searcher, hit.doc, retrieve, fields));
                     logExplanation(searcher, query, sort, hit.doc);
                 }
 
@@ -208,6 +212,7 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
             LOG.error("Failed to run query " + query + ", caused: " + exp.getMessage(), exp);
         } finally {
             this.luceneIndexProvider.releaseIndexReader(searcher);
+            this.statistics.record(TIMER_SEARCH, start, query, hits);
         }
 
         LOGFTQ.debug("Result is {} query {}", result, query);
@@ -215,6 +220,234 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
         return result;
     }
 
+    private static final Pair<List<Object[]>, Pair<Integer, String>> EMPTY_AFTER = new Pair<List<Object[]>, Pair<Integer, String>>(Collections.EMPTY_LIST, new Pair<>(0, null));
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Pair<List<Object[]>, Pair<Integer, String>> fullTextSearchAfter(final Query query, final String searchAfter, final int maxResults, final String sortFieldName, final boolean reverse, final String... fields) {
+
+        LOGFTQ.debug("Run search after query {}, after {}", query, searchAfter);
+
+        if (maxResults <= 0) {
+            return EMPTY_AFTER;
+        }
+
+        Pair<List<Object[]>, Pair<Integer, String>> result = EMPTY_AFTER;
+
+        final long start = System.nanoTime();
+        IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
+        try {
+            final Set<String> retrieve = new HashSet<>(Arrays.asList(fields));
+            final Sort sort = createSearchAfterSort(searcher, sortFieldName, reverse);
+            final TopDocs topDocs = searcher.searchAfter(decodeSearchAfter(searcher, sort, searchAfter), query, maxResults, sort);
+            if (topDocs.scoreDocs.length > 0) {
+
+                final List<Object[]> resItems = new ArrayList<>(topDocs.scoreDocs.length);
+
+                for (final ScoreDoc hit : topDocs.scoreDocs) {
+                    resItems.add(readFields(searcher, hit.doc, retrieve, fields));
+                    logExplanation(searcher, query, sort, hit.doc);
+                }
+
+                // full page means there may be more results
+                final String next = topDocs.scoreDocs.length == maxResults ?
+                        encodeSearchAfter(sort, (FieldDoc) topDocs.scoreDocs[topDocs.scoreDocs.length - 1]) : null;
+
+                result = new Pair<>(resItems, new Pair<>(topDocs.totalHits, next));
+            } else {
+                result = new Pair<>(Collections.EMPTY_LIST, new Pair<>(topDocs.totalHits, null));
+            }
+        } catch (IllegalStateException | IllegalArgumentException ise) {
+            LOG.warn("Failed to run query " + query + ", after " + searchAfter + ", caused: " + ise.getMessage());
+        } catch (Exception exp) {
+            LOG.error("Failed to run query " + query + ", after " + searchAfter + ", caused: " + exp.getMessage(), exp);
+        } finally {
+            this.luceneIndexProvider.releaseIndexReader(searcher);
+        }
+
+        this.statistics.record(TIMER_SEARCH_AFTER, start, query, result.getSecond().getFirst());
+
+        LOGFTQ.debug("Result is {} query {}", result, query);
+
+        return result;
+    }
+
+    /*
+        Numeric doc values fields (e.g. prices that are updated in place) are sorted as long, all other sort
+        fields are sorted doc values strings.
+     */
+    private Sort createSort(final IndexSearcher searcher, final String sortFieldName, final boolean reverse) {
+
+        for (final LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            final FieldInfo info = leaf.reader().getFieldInfos().fieldInfo(sortFieldName);
+            if (info != null) {
+                if (info.getDocValuesType() == DocValuesType.NUMERIC) {
+                    return new Sort(new SortField(sortFieldName, SortField.Type.LONG, reverse));
+                }
+                break;
+            }
+        }
+        return new Sort(new SortField(sortFieldName, SortField.Type.STRING_VAL, reverse));
+
+    }
+
+    /*
+        Search after always uses field sort (relevance is sorted by score), so that continuation token
+        can carry sort values. Unique key (numeric doc values of PK) is appended as tie breaker, which
+        makes sort values identify the last document regardless of its doc id. Offset searches use the
+        same sort, so that clients mixing page numbers and tokens get one total order.
+     */
+    private Sort createSearchAfterSort(final IndexSearcher searcher, final String sortFieldName, final boolean reverse) {
+
+        final List<SortField> sortFields = new ArrayList<>(2);
+        if (StringUtils.isNotBlank(sortFieldName)) {
+            sortFields.add(createSort(searcher, sortFieldName, reverse).getSort()[0]);
+        } else {
+            sortFields.add(SortField.FIELD_SCORE);
+        }
+        for (final LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            final FieldInfo info = leaf.reader().getFieldInfos().fieldInfo(AdapterUtils.FIELD_PK);
+            if (info != null) {
+                if (info.getDocValuesType() == DocValuesType.NUMERIC) {
+                    sortFields.add(new SortField(AdapterUtils.FIELD_PK, SortField.Type.LONG));
+                }
+                break;
+            }
+        }
+        return new Sort(sortFields.toArray(new SortField[sortFields.size()]));
+
+    }
+
+    /*
+        Stored fields are read from the document, fields that are not stored are read from binary doc
+        values (e.g. inventory that is updated in place).
+     */
+    private Object[] readFields(final IndexSearcher searcher, final int docId, final Set<String> retrieve, final String... fields) throws IOException {
+
+        final Document doc = searcher.doc(docId, retrieve);
+        final Object[] values = new Object[fields.length];
+        LeafReaderContext leaf = null;
+        for (int ii = 0; ii < fields.length; ii++) {
+            values[ii] = doc.get(fields[ii]);
+            if (values[ii] == null) {
+                if (leaf == null) {
+                    final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+                    leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+                }
+                final FieldInfo info = leaf.reader().getFieldInfos().fieldInfo(fields[ii]);
+                if (info != null && info.getDocValuesType() == DocValuesType.BINARY) {
+                    final BytesRef bytes = DocValues.getBinary(leaf.reader(), fields[ii]).get(docId - leaf.docBase);
+                    if (bytes.length > 0) {
+                        values[ii] = bytes.utf8ToString();
+                    }
+                }
+            }
+        }
+        return values;
+
+    }
+
+    /*
+        Continuation token is URL safe base64 of "doc:value[:value]" with one value per sort field. Sort value
+        is base64 of the sort term bytes, NUMERIC_PREFIX followed by value for numeric sort, SCORE_PREFIX
+        followed by float bits for relevance or empty for documents without value.
+
+        When sort ends with unique key, doc is left empty and token is re-anchored on sort values only, so
+        it stays valid after searcher is reopened (e.g. after shadow index swap or merge). Doc id is used
+        as tie breaker only for indexes without unique key.
+     */
+    private static final String TOKEN_DELIMITER = ":";
+    private static final String NUMERIC_PREFIX = "#";
+    private static final String SCORE_PREFIX = "~";
+
+    String encodeSearchAfter(final Sort sort, final FieldDoc last) {
+
+        final StringBuilder token = new StringBuilder();
+        if (!hasUniqueKey(sort)) {
+            token.append(last.doc);
+        }
+        for (final Object value : last.fields) {
+            token.append(TOKEN_DELIMITER);
+            if (value instanceof BytesRef) {
+                final BytesRef bytes = (BytesRef) value;
+                token.append(Base64.getUrlEncoder().withoutPadding().encodeToString(
+                        Arrays.copyOfRange(bytes.bytes, bytes.offset, bytes.offset + bytes.length)));
+            } else if (value instanceof Long) {
+                token.append(NUMERIC_PREFIX).append(value);
+            } else if (value instanceof Float) {
+                token.append(SCORE_PREFIX).append(Float.floatToIntBits((Float) value));
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+
+    }
+
+    FieldDoc decodeSearchAfter(final IndexSearcher searcher, final Sort sort, final String searchAfter) {
+
+        if (StringUtils.isBlank(searchAfter)) {
+            return null;
+        }
+
+        final String[] parts;
+        try {
+            parts = StringUtils.splitPreserveAllTokens(
+                    new String(Base64.getUrlDecoder().decode(searchAfter), StandardCharsets.UTF_8), TOKEN_DELIMITER);
+        } catch (IllegalArgumentException iae) {
+            throw new IllegalArgumentException("Invalid search after token: " + searchAfter, iae);
+        }
+
+        // token must be created with same sort
+        if (parts.length != sort.getSort().length + 1) {
+            throw new IllegalArgumentException("Invalid search after token: " + searchAfter);
+        }
+
+        final int doc;
+        if (hasUniqueKey(sort)) {
+            // all sort values are equal only for the last document, so anchor after any document of this reader
+            doc = Math.max(0, searcher.getIndexReader().maxDoc() - 1);
+        } else if (NumberUtils.isDigits(parts[0]) && NumberUtils.toInt(parts[0]) < searcher.getIndexReader().maxDoc()) {
+            doc = NumberUtils.toInt(parts[0]);
+        } else {
+            throw new IllegalArgumentException("Invalid search after token: " + searchAfter);
+        }
+
+        final Object[] values = new Object[parts.length - 1];
+        for (int i = 1; i < parts.length; i++) {
+            final String part = parts[i];
+            final SortField.Type type = sort.getSort()[i - 1].getType();
+            if (type == SortField.Type.LONG) {
+                if (!part.startsWith(NUMERIC_PREFIX) || !NumberUtils.isDigits(StringUtils.removeStart(part.substring(NUMERIC_PREFIX.length()), "-"))) {
+                    throw new IllegalArgumentException("Invalid search after token: " + searchAfter);
+                }
+                values[i - 1] = NumberUtils.toLong(part.substring(NUMERIC_PREFIX.length()));
+            } else if (type == SortField.Type.SCORE) {
+                if (!part.startsWith(SCORE_PREFIX) || !NumberUtils.isDigits(StringUtils.removeStart(part.substring(SCORE_PREFIX.length()), "-"))) {
+                    throw new IllegalArgumentException("Invalid search after token: " + searchAfter);
+                }
+                values[i - 1] = Float.intBitsToFloat(NumberUtils.toInt(part.substring(SCORE_PREFIX.length())));
+            } else if (part.isEmpty()) {
+                values[i - 1] = null;
+            } else {
+                try {
+                    values[i - 1] = new BytesRef(Base64.getUrlDecoder().decode(part));
+                } catch (IllegalArgumentException iae) {
+                    throw new IllegalArgumentException("Invalid search after token: " + searchAfter, iae);
+                }
+            }
+        }
+        return new FieldDoc(doc, Float.NaN, values);
+
+    }
+
+    private boolean hasUniqueKey(final Sort sort) {
+
+        final SortField[] fields = sort.getSort();
+        return AdapterUtils.FIELD_PK.equals(fields[fields.length - 1].getField());
+
+    }
+
     private void logExplanation(final IndexSearcher searcher, final Query query, final Sort sort, final int doc) throws Exception {
         if (LOGFTQ.isTraceEnabled()) {
 
@@ -252,25 +485,23 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
         final FacetsCollector fc = new FacetsCollector();
 
+        final long start = System.nanoTime();
         IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
         try {
 
             FacetsCollector.search(searcher, query, 0, fc);
 
+            final CombinedFacetCounts facets = new CombinedFacetCounts();
+            final Map<String, Long> facetTimes = new HashMap<>();
+
             for (final FilteredNavigationRecordRequest request : facetingRequest) {
 
+                final long facetStart = System.nanoTime();
                 try {
                     // always reset to empty first (could be multiple attribute mappings with invalid fields type in index, so hard reset)
-                    final List<Pair<Pair<String, I18NModel>, Integer>> values = new ArrayList<>();
-                    result.put(request.getFacetName(), values);
+                    result.put(request.getFacetName(), new ArrayList<>());
 
-                    final FacetsConfig facetsConfig = new FacetsConfig();
-                    facetsConfig.setIndexFieldName(request.getField(), request.getField());
-                    final boolean range = request.isRangeValue();
-
-                    Facets facets = null;
-
-                    if (range) {
+                    if (request.isRangeValue()) {
 
                         final List<Pair<String, String>> ranges = request.getRangeValues();
                         if (CollectionUtils.isNotEmpty(ranges)) {
@@ -282,76 +513,39 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
                                 longRanges[r] = new LongRange(compareValue, NumberUtils.toLong(rangeVals.getFirst()), true, NumberUtils.toLong(rangeVals.getSecond()), false);
                             }
 
-                            facets = new LongRangeFacetCounts(request.getField(), fc, longRanges);
+                            facets.addRangeDim(request.getFacetName(), request.getField(), longRanges);
                         }
 
                     } else {
 
-                        facets = new SortedSetDocValuesFacetCounts(new DefaultSortedSetDocValuesReaderState(searcher.getIndexReader(), request.getField()), fc);
+                        facets.addSortedSetDim(request.getFacetName(), this.luceneIndexProvider.provideFacetsReaderState(searcher, request.getField()));
 
                     }
+                } catch (IllegalArgumentException | IllegalStateException iae) {
+                    LOG.warn(Markers.alert(), "Failed to create facet for request " + request + ", caused: " + iae.getMessage());
+                } catch (Exception exp) {
+                    LOG.error(Markers.alert(), "Failed to create facet for request " + request + ", caused: " + exp.getMessage(), exp);
+                }
+                facetTimes.put(request.getFacetName(), System.nanoTime() - facetStart);
+            }
 
-                    if (facets != null) {
-
-                        final FacetResult topValues = facets.getTopChildren(MAX_FACETS, request.getField());
-
-                        if (topValues != null && topValues.value != null && topValues.value.intValue() > 0) {
-
-                            final Map<String, Pair<Pair<String, I18NModel>, Integer>> distinctFacetValues =
-                                    new LinkedHashMap<>(topValues.labelValues.length * 2);
-
-                            for (final LabelAndValue lav : topValues.labelValues) {
-
-                                final Pair<String, I18NModel> label;
-                                final int pos = lav.label.indexOf(Constants.FACET_NAVIGATION_DELIMITER);
-                                if (pos != -1) {
-                                    final String value = lav.label.substring(0, pos);
-                                    final String displayValue = lav.label.substring(pos + Constants.FACET_NAVIGATION_DELIMITER.length());
-                                    label = new Pair<>(
-                                            value,
-                                            new StringI18NModel(displayValue)
-                                    );
-                                } else {
-                                    label = new Pair<>(
-                                            lav.label,
-                                            null
-                                    );
-                                }
-
-                                Pair<Pair<String, I18NModel>, Integer> existing = distinctFacetValues.get(label.getFirst());
-                                if (existing != null) {
-                                    /*
-                                        if we have this value then need to de-duplicate
-                                        we choose more complete I18n model (assumed to be the one with most translations)
-                                     */
-
-                                    // if existing i18n model is not null and has more values we keep it
-                                    if (existing.getFirst().getSecond() != null &&
-                                            (label.getSecond() == null ||
-                                            existing.getFirst().getSecond().getAllValues().size() > label.getSecond().getAllValues().size())) {
-                                        distinctFacetValues.put(
-                                                label.getFirst(),
-                                                new Pair<>(existing.getFirst(), lav.value.intValue() + existing.getSecond())
-                                        );
-                                    } else { // otherwise swap it for new AV i18n model
-                                        distinctFacetValues.put(
-                                                label.getFirst(),
-                                                new Pair<>(label, lav.value.intValue() + existing.getSecond())
-                                        );
-                                    }
-                                } else {
-                                    distinctFacetValues.put(
-                                            label.getFirst(),
-                                            new Pair<>(label, lav.value.intValue())
-                                    );
-                                }
+            // single pass over matching documents for all dimensions
+            final long countStart = System.nanoTime();
+            facets.count(fc);
+            this.statistics.record(TIMER_NAVIGATION_COUNT, countStart, null, 0);
 
-                            }
+            for (final FilteredNavigationRecordRequest request : facetingRequest) {
 
-                            // populate with distinct facet values only
-                            values.addAll(distinctFacetValues.values());
+                // facet time is its setup (reader state, ranges) and reading of top values
+                final long facetStart = System.nanoTime() - facetTimes.getOrDefault(request.getFacetName(), 0L);
+                try {
 
-                        }
+                    final FacetResult topValues = facets.getTopChildren(MAX_FACETS, request.getFacetName());
+
+                    if (topValues != null && topValues.value != null && topValues.value.intValue() > 0) {
+
+                        // populate with distinct facet values only
+                        result.get(request.getFacetName()).addAll(toDistinctFacetValues(topValues));
 
                     }
                 } catch (IllegalArgumentException | IllegalStateException iae) {
@@ -359,6 +553,7 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
                 } catch (Exception exp) {
                     LOG.error(Markers.alert(), "Failed to create facet for request " + request + ", caused: " + exp.getMessage(), exp);
                 }
+                this.statistics.record(TIMER_FACET_PREFIX + request.getFacetName(), facetStart, null, 0);
             }
 
         } catch (IllegalStateException ise) {
@@ -369,11 +564,77 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
             this.luceneIndexProvider.releaseIndexReader(searcher);
         }
 
+        this.statistics.record(TIMER_NAVIGATION, start, query, totalHits(fc));
+
         LOGFTQ.debug("Result is {} query {}", result, query);
 
         return result;
     }
 
+    private int totalHits(final FacetsCollector fc) {
+        int total = 0;
+        for (final FacetsCollector.MatchingDocs docs : fc.getMatchingDocs()) {
+            total += docs.totalHits;
+        }
+        return total;
+    }
+
+    private Collection<Pair<Pair<String, I18NModel>, Integer>> toDistinctFacetValues(final FacetResult topValues) {
+
+        final Map<String, Pair<Pair<String, I18NModel>, Integer>> distinctFacetValues =
+                new LinkedHashMap<>(topValues.labelValues.length * 2);
+
+        for (final LabelAndValue lav : topValues.labelValues) {
+
+            final Pair<String, I18NModel> label;
+            final int pos = lav.label.indexOf(Constants.FACET_NAVIGATION_DELIMITER);
+            if (pos != -1) {
+                final String value = lav.label.substring(0, pos);
+                final String displayValue = lav.label.substring(pos + Constants.FACET_NAVIGATION_DELIMITER.length());
+                label = new Pair<>(
+                        value,
+                        new StringI18NModel(displayValue)
+                );
+            } else {
+                label = new Pair<>(
+                        lav.label,
+                        null
+                );
+            }
+
+            Pair<Pair<String, I18NModel>, Integer> existing = distinctFacetValues.get(label.getFirst());
+            if (existing != null) {
+                /*
+                    if we have this value then need to de-duplicate
+                    we choose more complete I18n model (assumed to be the one with most translations)
+                 */
+
+                // if existing i18n model is not null and has more values we keep it
+                if (existing.getFirst().getSecond() != null &&
+                        (label.getSecond() == null ||
+                        existing.getFirst().getSecond().getAllValues().size() > label.getSecond().getAllValues().size())) {
+                    distinctFacetValues.put(
+                            label.getFirst(),
+                            new Pair<>(existing.getFirst(), lav.value.intValue() + existing.getSecond())
+                    );
+                } else { // otherwise swap it for new AV i18n model
+                    distinctFacetValues.put(
+                            label.getFirst(),
+                            new Pair<>(label, lav.value.intValue() + existing.getSecond())
+                    );
+                }
+            } else {
+                distinctFacetValues.put(
+                        label.getFirst(),
+                        new Pair<>(label, lav.value.intValue())
+                );
+            }
+
+        }
+
+        return distinctFacetValues.values();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -384,6 +645,7 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
 
         int count = 0;
 
+        final long start = System.nanoTime();
         IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
 
         try {
@@ -396,11 +658,96 @@ public class GenericFTSLuceneImpl implements GenericFTS<Long, org.apache.lucene.
             this.luceneIndexProvider.releaseIndexReader(searcher);
         }
 
+        this.statistics.record(TIMER_COUNT, start, query, count);
+
         LOGFTQ.debug("Count is {} query {}", count, query);
 
         return count;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FTSStatisticsDTO getFullTextSearchStatistics() {
+
+        final FTSStatisticsDTO stats = new FTSStatisticsDTO();
+        stats.setIndexName(this.luceneIndexProvider.getName());
+
+        final long readerTimestamp = this.luceneIndexProvider.getIndexReaderTimestamp();
+        if (readerTimestamp > 0L) {
+            stats.setIndexReaderAgeMs(System.currentTimeMillis() - readerTimestamp);
+        }
+
+        try {
+            final IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
+            try {
+                final IndexReader reader = searcher.getIndexReader();
+                if (reader instanceof DirectoryReader) {
+                    stats.setIndexReaderVersion(((DirectoryReader) reader).getVersion());
+                }
+                stats.setIndexReaderNumDocs(reader.numDocs());
+            } finally {
+                this.luceneIndexProvider.releaseIndexReader(searcher);
+            }
+        } catch (Exception exp) {
+            LOG.warn("Unable to read index state for {}, caused: {}", stats.getIndexName(), exp.getMessage());
+        }
+
+        this.statistics.populate(stats);
+
+        return stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainFullTextSearchQuery(final long queryId) {
+
+        final Query query = this.statistics.getSlowQuery(queryId);
+        if (query == null) {
+            return null;
+        }
+
+        final StringBuilder explanation = new StringBuilder();
+        explanation.append("Query: ").append(query).append("\n");
+
+        IndexSearcher searcher = this.luceneIndexProvider.provideIndexReader();
+        try {
+            final TopDocs topDocs = searcher.search(query, 1);
+            explanation.append("Hits: ").append(topDocs.totalHits).append("\n");
+            if (topDocs.scoreDocs.length > 0) {
+                final int doc = topDocs.scoreDocs[0].doc;
+                explanation.append("#").append(doc).append(" result: \n\n").append(searcher.explain(query, doc));
+            }
+        } catch (Exception exp) {
+            LOG.error("Failed to explain query " + query + ", caused: " + exp.getMessage(), exp);
+            explanation.append("Error: ").append(exp.getMessage());
+        } finally {
+            this.luceneIndexProvider.releaseIndexReader(searcher);
+        }
+
+        return explanation.toString();
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param slowQueryThresholdMs queries that take longer are recorded in slow query log
+     */
+    public void setSlowQueryThresholdMs(final long slowQueryThresholdMs) {
+        this.statistics.setSlowQueryThresholdMs(slowQueryThresholdMs);
+    }
+
+    /**
+     * Spring IoC.
+     *
+     * @param slowQueryLogSize number of most recent slow queries to keep
+     */
+    public void setSlowQueryLogSize(final int slowQueryLogSize) {
+        this.statistics.setSlowQueryLogSize(slowQueryLogSize);
+    }
 
     /**
      * Spring IoC.
@@ -28,6 +28,8 @@ import org.yes.cart.search.dao.LuceneDocumentAdapter;
 import org.yes.cart.search.dao.LuceneIndexProvider;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * User: denispavlov
@@ -40,6 +42,8 @@ public class IndexBuilderLuceneHibernateTxAwareImpl<T, PK extends Serializable>
     protected SessionFactory sessionFactory;
     protected PlatformTransactionManager platformTransactionManager;
     protected String findAllNamedQuery;
+    protected String findAllPrimaryKeysNamedQuery;
+    protected String findByIdsNamedQuery;
 
     public IndexBuilderLuceneHibernateTxAwareImpl(final LuceneDocumentAdapter<T, PK> documentAdapter,
                                                   final LuceneIndexProvider indexProvider,
@@ -63,6 +67,53 @@ public class IndexBuilderLuceneHibernateTxAwareImpl<T, PK extends Serializable>
         return genericDao.findByNamedQueryIterator(this.findAllNamedQuery);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected ResultsIterator<PK> findAllPrimaryKeysIterator() {
+        if (StringUtils.isBlank(this.findAllPrimaryKeysNamedQuery)) {
+            final ResultsIterator<T> all = findAllIterator();
+            return new ResultsIterator<PK>() {
+                @Override
+                public void remove() {
+                    all.remove();
+                }
+
+                @Override
+                public void close() {
+                    all.close();
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return all.hasNext();
+                }
+
+                @Override
+                public PK next() {
+                    return getPrimaryKey(all.next());
+                }
+            };
+        }
+        return (ResultsIterator) genericDao.findQueryObjectByNamedQueryIterator(this.findAllPrimaryKeysNamedQuery);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected List<T> findByIds(final List<PK> primaryKeys) {
+        if (StringUtils.isBlank(this.findByIdsNamedQuery)) {
+            final List<T> entities = new ArrayList<>(primaryKeys.size());
+            for (final PK primaryKey : primaryKeys) {
+                final T entity = findById(primaryKey);
+                if (entity != null) {
+                    entities.add(entity);
+                }
+            }
+            return entities;
+        }
+        return genericDao.findByNamedQuery(this.findByIdsNamedQuery, primaryKeys);
+    }
+
     /** {@inheritDoc} */
     @Override
     protected T unproxyEntity(final T entity) {
@@ -70,6 +121,13 @@ public class IndexBuilderLuceneHibernateTxAwareImpl<T, PK extends Serializable>
         return entity;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected PK getPrimaryKey(final T entity) {
+        return (PK) this.sessionFactory.getCurrentSession().getIdentifier(entity);
+    }
+
     /** {@inheritDoc} */
     @Override
     protected void endBatch(final Object tx) {
@@ -119,4 +177,22 @@ public class IndexBuilderLuceneHibernateTxAwareImpl<T, PK extends Serializable>
     public void setFindAllNamedQuery(final String findAllNamedQuery) {
         this.findAllNamedQuery = findAllNamedQuery;
     }
+
+    /**
+     * Sprig IoC.
+     *
+     * @param findAllPrimaryKeysNamedQuery named query to select all PK's (used by pipelined full reindex)
+     */
+    public void setFindAllPrimaryKeysNamedQuery(final String findAllPrimaryKeysNamedQuery) {
+        this.findAllPrimaryKeysNamedQuery = findAllPrimaryKeysNamedQuery;
+    }
+
+    /**
+     * Sprig IoC.
+     *
+     * @param findByIdsNamedQuery named query to load entities by PK's (used by pipelined full reindex)
+     */
+    public void setFindByIdsNamedQuery(final String findByIdsNamedQuery) {
+        this.findByIdsNamedQuery = findByIdsNamedQuery;
+    }
 }
@@ -17,12 +17,18 @@
 package org.yes.cart.search.dao.impl;
 
 import org.apache.lucene.document.Document;
-import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.task.TaskExecutor;
@@ -30,14 +36,26 @@ import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dao.LuceneDocumentAdapter;
+import org.yes.cart.search.dao.LuceneDocumentValuesAdapter;
 import org.yes.cart.search.dao.LuceneIndexProvider;
 import org.yes.cart.search.dao.entity.AdapterUtils;
 import org.yes.cart.search.dao.entity.LuceneDocumentAdapterUtils;
 import org.yes.cart.search.query.impl.LuceneSearchUtil;
 import org.yes.cart.util.TimeContext;
+import org.yes.cart.util.log.Markers;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -56,6 +74,8 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
     private final LuceneIndexProvider indexProvider;
 
     private TaskExecutor indexExecutor;
+    private int documentBuilderThreads = 1;
+    private boolean waitForVisibility = false;
 
     public IndexBuilderLuceneImpl(final LuceneDocumentAdapter<T, PK> documentAdapter,
                                   final LuceneIndexProvider indexProvider) {
@@ -72,6 +92,29 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
         this.indexExecutor = indexExecutor;
     }
 
+    /**
+     * Single entity reindex does not refresh searchers, they are reopened in background by the index provider.
+     * When set, single entity reindex blocks until the change is visible to searchers.
+     *
+     * @param waitForVisibility true to wait for change to be visible (default false)
+     */
+    public void setWaitForVisibility(final boolean waitForVisibility) {
+        this.waitForVisibility = waitForVisibility;
+    }
+
+    /**
+     * Number of threads that build documents during asynchronous full reindex. With more than one thread
+     * full reindex is pipelined: indexing thread only streams primary keys and workers load entities
+     * (each worker within its own transaction), build documents and add them to the index writer.
+     *
+     * Synchronous full reindex is always single threaded since it runs within caller's transaction.
+     *
+     * @param documentBuilderThreads number of document builder threads (default 1)
+     */
+    public void setDocumentBuilderThreads(final int documentBuilderThreads) {
+        this.documentBuilderThreads = Math.max(1, documentBuilderThreads);
+    }
+
     /**
      * Extension hook for persistence layer.
      *
@@ -87,6 +130,85 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
     @Override
     public void fullTextSearchReindex(final PK primaryKey, final boolean purgeOnly) {
 
+        if (asyncRunningState.get() == RUNNING) {
+            // full reindex is building shadow index, so this change has to be reapplied after swap
+            updatedDuringFullReindex.put(primaryKey, purgeOnly);
+        }
+
+        if (!purgeOnly && !isLiveIndexCurrent()) {
+            // new documents cannot be added to outdated index, keep old ones until full reindex
+            LOGFTQ.debug("Index {} is outdated, skipping update of _PK:{}", indexProvider.getName(), primaryKey);
+            return;
+        }
+
+        fullTextSearchReindexLive(primaryKey, purgeOnly);
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fullTextSearchReindexVolatile(final PK primaryKey) {
+
+        if (this.documentAdapter instanceof LuceneDocumentValuesAdapter && asyncRunningState.get() != RUNNING && isLiveIndexCurrent()) {
+
+            final Long indexed = findDocumentsSignature(primaryKey);
+            if (indexed != null) {
+
+                final T entity = this.findById(primaryKey);
+                final Pair<PK, Document[]> values = entity != null ?
+                        ((LuceneDocumentValuesAdapter<T, PK>) this.documentAdapter).toDocumentValues(entity) : null;
+
+                if (values != null && values.getSecond() != null && indexed.equals(documentsSignature(values.getSecond()))) {
+
+                    final String name = indexProvider.getName();
+                    final IndexWriter iw = indexProvider.provideIndexWriter();
+                    long generation = 0L;
+                    boolean updated = false;
+                    try {
+
+                        for (final Document document : values.getSecond()) {
+                            final List<Field> updates = new ArrayList<>();
+                            for (final IndexableField ixf : document) {
+                                if (LuceneDocumentAdapterUtils.isUpdatableDocValues(ixf)) {
+                                    updates.add((Field) ixf);
+                                }
+                            }
+                            generation = iw.updateDocValues(
+                                    new Term(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_KEY, document.get(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_KEY)),
+                                    updates.toArray(new Field[updates.size()]));
+                        }
+
+                        updated = true;
+                        LOGFTQ.trace("Updated {} document values _PK:{}", name, primaryKey);
+
+                    } catch (Exception exp) {
+                        LOGFTQ.error("Unable to update " + name + " document values with _PK:" + primaryKey + ", full reindex of entity will be attempted", exp);
+                    } finally {
+                        indexProvider.releaseIndexWriter(iw);
+                    }
+
+                    if (updated) {
+                        if (waitForVisibility) {
+                            indexProvider.waitForGeneration(iw, generation);
+                        }
+                        return;
+                    }
+
+                }
+
+            }
+
+        }
+
+        // Not indexed, documents structure has changed or full reindex is running
+        fullTextSearchReindex(primaryKey, false);
+
+    }
+
+    private void fullTextSearchReindexLive(final PK primaryKey, final boolean purgeOnly) {
+
         boolean remove = purgeOnly;
 
         Pair<PK, Document[]> documents = null;
@@ -95,25 +217,38 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
             documents = this.documentAdapter.toDocument(entity);
             remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
         }
+        if (documents == null) {
+            documents = new Pair<>(primaryKey, null); // purge only needs PK
+        }
 
         final long indexTime = now();
         final String name = indexProvider.getName();
         final IndexWriter iw = indexProvider.provideIndexWriter();
+        long generation = -1L;
         try {
 
             long counts[] = new long[] { 0L, 0L, 0L };
-            fullTextSearchReindexSingleEntity(iw, name, documents, remove, indexTime, counts);
+            generation = fullTextSearchReindexSingleEntity(iw, name, documents, remove, indexTime, counts);
+            recordDocumentsSignature(this.documentSignatures, primaryKey, documents, remove);
+            if (remove && this.documentAdapter instanceof LuceneDocumentValuesAdapter) {
+                // do not look up signature in the index, which may still have removed documents until refreshed
+                this.documentSignatures.put(primaryKey, NOT_INDEXED);
+            }
 
             if (LOGFTQ.isTraceEnabled()) {
                 LOGFTQ.trace("Processed index entity {} with PK {}, added: {}, removed: {}, failed: {}",
                         name, primaryKey, counts[0], counts[1], counts[2]);
             }
 
-            // Refresh ensures we use an updated index
-            indexProvider.refreshIfNecessary();
-
         } catch (Exception exp) {
             LOGFTQ.error("Unable to remove " + name + " document with _PK:" + primaryKey, exp);
+        } finally {
+            indexProvider.releaseIndexWriter(iw);
+        }
+
+        if (generation >= 0L && waitForVisibility) {
+            // Searchers are reopened in background, wait only if change must be visible on return
+            indexProvider.waitForGeneration(iw, generation);
         }
 
     }
@@ -128,9 +263,11 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
      * @param indexTime  time of this index (added as field to added documents)
      * @param counts     counts[3] = { added, removed, failed }
      *
+     * @return index writer sequence number of the last change
+     *
      * @throws IOException error
      */
-    protected void fullTextSearchReindexSingleEntity(final IndexWriter iw,
+    protected long fullTextSearchReindexSingleEntity(final IndexWriter iw,
                                                       final String indexName,
                                                       final Pair<PK, Document[]> documents,
                                                       final boolean remove,
@@ -140,7 +277,7 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
         final PK primaryKey = documents.getFirst();
 
         // Remove all documents with primary key (could be multiple)
-        iw.deleteDocuments(new Term(AdapterUtils.FIELD_PK, String.valueOf(primaryKey)));
+        long generation = iw.deleteDocuments(new Term(AdapterUtils.FIELD_PK, String.valueOf(primaryKey)));
         counts[1]++;
         LOGFTQ.trace("Removing {} document _PK:{}", indexName, primaryKey);
 
@@ -157,7 +294,7 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
                             facetsConfig.setMultiValued(facetField.dim, true); // TODO: revisit this but for now all fields assumed to have multivalue
                         }
                     }
-                    iw.addDocument(facetsConfig.build(document));
+                    generation = iw.addDocument(facetsConfig.build(document));
                     counts[0]++;
                 } catch (Exception sde) {
                     LOGFTQ.error("Updating {} document _PK:{} failed ... cause: {}", indexName, documents.getFirst(), sde.getMessage());
@@ -167,6 +304,8 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
             LOGFTQ.trace("Updating {} document _PK:{}", indexName, primaryKey);
         }
 
+        return generation;
+
     }
 
     /**
@@ -184,6 +323,11 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
 
     private final AtomicInteger asyncRunningState = new AtomicInteger(IDLE);
     private final AtomicLong currentIndexingCount = new AtomicLong(0);
+    private final Map<PK, Boolean> updatedDuringFullReindex = new ConcurrentHashMap<>();
+    private volatile Map<PK, Long> documentSignatures = new ConcurrentHashMap<>();
+    private volatile Map<PK, Long> shadowDocumentSignatures = new ConcurrentHashMap<>();
+    private volatile Boolean liveIndexCurrent = null;
+    private final ReindexThroughput throughput = new ReindexThroughput();
 
     /**
      * {@inheritDoc}
@@ -202,7 +346,11 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
         return new FTIndexStateImpl(
                 asyncRunningState.get() == RUNNING,
                 asyncRunningState.get() == COMPLETED,
-                currentIndexingCount.get()
+                currentIndexingCount.get(),
+                throughput.getRate(throughput.read),
+                throughput.getRate(throughput.built),
+                throughput.getRate(throughput.written),
+                !isLiveIndexCurrent()
         );
     }
 
@@ -252,6 +400,24 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
      */
     protected abstract ResultsIterator<T> findAllIterator();
 
+    /**
+     * Extension hook for persistence layer. Used by pipelined full reindex, which only needs primary keys
+     * on the reading thread, so that entity graphs are loaded only once by document builders.
+     *
+     * @return scroll through primary keys of all entities
+     */
+    protected abstract ResultsIterator<PK> findAllPrimaryKeysIterator();
+
+    /**
+     * Extension hook for persistence layer. Loads chunk of entities in one go with all relationships
+     * necessary for indexing.
+     *
+     * @param primaryKeys PK's
+     *
+     * @return entities that still exist
+     */
+    protected abstract List<T> findByIds(List<PK> primaryKeys);
+
     /**
      * Extension hook for persistence layer.
      *
@@ -261,6 +427,15 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
      */
     protected abstract T unproxyEntity(T entity);
 
+    /**
+     * Extension hook for persistence layer.
+     *
+     * @param entity entity
+     *
+     * @return primary key of the entity (must not initialise the entity)
+     */
+    protected abstract PK getPrimaryKey(T entity);
+
     /**
      * Extension hook called on each batch commit.
      *
@@ -283,9 +458,11 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
             final Logger log = LOGFTQ;
 
             Object tx = null;
+            boolean swapped = false;
             try {
                 TimeContext.setNow(); // TODO: Time Machine
                 currentIndexingCount.set(0);
+                throughput.start();
 
                 final String name = indexProvider.getName();
 
@@ -298,52 +475,71 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
                 }
 
                 final long indexTime = now();
-                final IndexWriter iw = indexProvider.provideIndexWriter();
+                final IndexWriter iw = indexProvider.provideShadowIndexWriter();
+                shadowDocumentSignatures = new ConcurrentHashMap<>();
 
-                final ResultsIterator<T> all = findAllIterator();
+                if (async && documentBuilderThreads > 1) {
 
-                try {
+                    index = fullTextSearchReindexParallel(iw, name, indexTime, batchSize, tx, counts);
 
-                    while (all.hasNext()) {
+                } else {
 
-                        final T entity = unproxyEntity(all.next());
+                    final ResultsIterator<T> all = findAllIterator();
 
-                        final Pair<PK, Document[]> documents = documentAdapter.toDocument(entity);
-                        boolean remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
+                    try {
+
+                        while (all.hasNext()) {
+
+                            final T entity = unproxyEntity(all.next());
+                            throughput.read.incrementAndGet();
+
+                            final Pair<PK, Document[]> documents = documentAdapter.toDocument(entity);
+                            boolean remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
+                            throughput.built.incrementAndGet();
 
-                        fullTextSearchReindexSingleEntity(iw, name, documents, remove, indexTime, counts);
+                            fullTextSearchReindexSingleEntity(iw, name, documents, remove, indexTime, counts);
+                            recordDocumentsSignature(shadowDocumentSignatures, documents.getFirst(), documents, remove);
+                            throughput.written.set(counts[0]);
 
-                        index++;
+                            index++;
 
-                        if (index % batchSize == 0) {
-                            // TODO: may need to revisit this in favour of iw.flush()
-                            iw.commit();  //apply changes to indexes
-                            indexProvider.refreshIfNecessary(); // make changes visible
-                            endBatch(tx);
-                            if (log.isInfoEnabled()) {
-                                log.info("Indexed {} items of {} class", index, indexProvider.getName());
+                            if (index % batchSize == 0) {
+                                endBatch(tx);
+                                if (log.isInfoEnabled()) {
+                                    log.info("Indexed {} items of {} class", index, indexProvider.getName());
+                                }
                             }
+                            currentIndexingCount.compareAndSet(index - 1, index);
                         }
-                        currentIndexingCount.compareAndSet(index - 1, index);
-                    }
 
-                    // Remove unindexed values
-                    iw.deleteDocuments(LongPoint.newRangeQuery(AdapterUtils.FIELD_INDEXTIME, 0, indexTime - 1));
+                    } finally {
+                        all.close();
+                    }
 
-                } finally {
-                    all.close();
                 }
 
-                iw.commit();  //apply changes to indexes
-                indexProvider.refreshIfNecessary(); // make changes visible
                 endBatch(tx);
+                iw.forceMerge(1, true); // optimise the index before it becomes visible
+                indexProvider.swapShadowIndex(); // make changes visible
+                documentSignatures = shadowDocumentSignatures;
+                liveIndexCurrent = Boolean.TRUE;
+                swapped = true;
+
+                final long replayed = fullTextSearchReindexUpdatedDuringFullReindex();
+
                 if (log.isInfoEnabled()) {
-                    log.info("Indexed {} items of {} class, added: {}, removed: {}, failed: {}", index, indexProvider.getName(), counts[0], counts[1], counts[2]);
+                    log.info("Indexed {} items of {} class, added: {}, removed: {}, failed: {}, throughput (per sec) read: {}, build: {}, write: {}",
+                            index, indexProvider.getName(), counts[0], counts[1], counts[2],
+                            (long) throughput.getRate(throughput.read), (long) throughput.getRate(throughput.built), (long) throughput.getRate(throughput.written));
+                    log.info("Reapplied {} changes of {} class made during full reindex", replayed, indexProvider.getName());
                 }
-                iw.forceMerge(1, true); // optimise the index
             } catch (Exception exp) {
                 LOGFTQ.error("Error during indexing", exp);
+                if (!swapped) {
+                    indexProvider.discardShadowIndex();
+                }
             } finally {
+                throughput.finish();
                 asyncRunningState.set(COMPLETED);
                 if (async) {
                     try {
@@ -361,20 +557,368 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
         };
     }
 
+    /**
+     * Changes to single entities made while full reindex is running are applied to the live index, which
+     * is then replaced by the shadow index. This reapplies these changes to the new live index.
+     *
+     * @return number of reapplied changes
+     */
+    private long fullTextSearchReindexUpdatedDuringFullReindex() {
+
+        long replayed = 0L;
+        while (!updatedDuringFullReindex.isEmpty()) {
+            final Iterator<Map.Entry<PK, Boolean>> it = updatedDuringFullReindex.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<PK, Boolean> update = it.next();
+                it.remove();
+                fullTextSearchReindexLive(update.getKey(), update.getValue());
+                replayed++;
+            }
+        }
+        return replayed;
+
+    }
+
+    /**
+     * Pipelined full reindex. Current thread streams primary keys in chunks, which are handed over to
+     * a pool of {@link #documentBuilderThreads} workers that load each chunk of entities with a single
+     * query, build documents and add them to the index writer. Number of chunks in flight is bounded,
+     * so reading does not run away from slower workers.
+     *
+     * @param iw         index writer
+     * @param indexName  index name
+     * @param indexTime  time of this index (added as field to added documents)
+     * @param batchSize  commit batch size
+     * @param tx         current tx object of the reading thread
+     * @param counts     counts[3] = { added, removed, failed }
+     *
+     * @return number of entities read
+     *
+     * @throws Exception error
+     */
+    private long fullTextSearchReindexParallel(final IndexWriter iw,
+                                               final String indexName,
+                                               final long indexTime,
+                                               final int batchSize,
+                                               final Object tx,
+                                               final long[] counts) throws Exception {
+
+        final Logger log = LOGFTQ;
+
+        final int threads = this.documentBuilderThreads;
+        final int chunkSize = Math.max(1, batchSize / threads);
+        final int maxChunksInFlight = threads * 2;
+        final Instant time = TimeContext.getTime();
+
+        final AtomicInteger threadNo = new AtomicInteger(0);
+        final ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "ft-reindex-" + indexName + "-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Semaphore inFlight = new Semaphore(maxChunksInFlight);
+        final AtomicLong[] totals = new AtomicLong[] { new AtomicLong(0L), new AtomicLong(0L), new AtomicLong(0L) };
+
+        final ResultsIterator<PK> all = findAllPrimaryKeysIterator();
+
+        long index = 0;
+        try {
+
+            List<PK> chunk = new ArrayList<>(chunkSize);
+            while (all.hasNext()) {
+
+                chunk.add(all.next());
+                throughput.read.incrementAndGet();
+
+                index++;
+
+                if (chunk.size() == chunkSize) {
+                    inFlight.acquire();
+                    workers.execute(createDocumentBuilderRunnable(chunk, iw, indexName, indexTime, time, totals, inFlight));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+
+                if (index % batchSize == 0) {
+                    endBatch(tx);
+                    if (log.isInfoEnabled()) {
+                        log.info("Read {}, indexed {} items of {} class", index, currentIndexingCount.get(), indexName);
+                    }
+                }
+
+            }
+
+            if (!chunk.isEmpty()) {
+                inFlight.acquire();
+                workers.execute(createDocumentBuilderRunnable(chunk, iw, indexName, indexTime, time, totals, inFlight));
+            }
+
+            inFlight.acquire(maxChunksInFlight); // wait for all chunks to complete
+            inFlight.release(maxChunksInFlight);
+
+        } finally {
+            all.close();
+            workers.shutdownNow();
+            counts[0] += totals[0].get();
+            counts[1] += totals[1].get();
+            counts[2] += totals[2].get();
+        }
+
+        return index;
+
+    }
+
+    private Runnable createDocumentBuilderRunnable(final List<PK> primaryKeys,
+                                                   final IndexWriter iw,
+                                                   final String indexName,
+                                                   final long indexTime,
+                                                   final Instant time,
+                                                   final AtomicLong[] totals,
+                                                   final Semaphore inFlight) {
+        return () -> {
+            final long counts[] = new long[] { 0L, 0L, 0L };
+            Object tx = null;
+            try {
+                TimeContext.setTime(time);
+                tx = startTx();
+
+                // removed entities are not returned, so they are simply never written to the new shadow generation
+                final List<T> entities = findByIds(primaryKeys);
+                for (final T entity : entities) {
+
+                    try {
+                        final Pair<PK, Document[]> documents = documentAdapter.toDocument(unproxyEntity(entity));
+                        boolean remove = documents == null || documents.getSecond() == null || documents.getSecond().length == 0;
+                        throughput.built.incrementAndGet();
+
+                        final long added = counts[0];
+                        fullTextSearchReindexSingleEntity(iw, indexName, documents, remove, indexTime, counts);
+                        recordDocumentsSignature(shadowDocumentSignatures, documents.getFirst(), documents, remove);
+                        throughput.written.addAndGet(counts[0] - added);
+                    } catch (Exception exp) {
+                        LOGFTQ.error("Updating {} document _PK:{} failed ... cause: {}", indexName, getPrimaryKey(entity), exp.getMessage());
+                        counts[2]++;
+                    }
+
+                }
+                currentIndexingCount.addAndGet(primaryKeys.size());
+
+            } catch (Exception exp) {
+                LOGFTQ.error("Error during indexing", exp);
+            } finally {
+                if (tx != null) {
+                    try {
+                        endTx(tx);
+                    } catch (Exception exp) {
+                        // OK
+                    }
+                }
+                totals[0].addAndGet(counts[0]);
+                totals[1].addAndGet(counts[1]);
+                totals[2].addAndGet(counts[2]);
+                TimeContext.destroy();
+                inFlight.release();
+            }
+        };
+    }
+
+    private static final Long NOT_INDEXED = Long.MIN_VALUE;
+
+    /**
+     * Signature of documents currently in the live index. Signatures are kept in memory once entity is indexed,
+     * but after restart they are read from {@link LuceneDocumentAdapterUtils#FIELD_DOCVALUES_SIGNATURE} stored in
+     * the index (and cached), so that volatile updates do not fall back to full entity reindex.
+     *
+     * @param primaryKey PK
+     *
+     * @return signature or null if entity is not in the index or its documents have no signature
+     */
+    private Long findDocumentsSignature(final PK primaryKey) {
+
+        final Long known = this.documentSignatures.get(primaryKey);
+        if (known != null) {
+            return NOT_INDEXED.equals(known) ? null : known;
+        }
+
+        final IndexSearcher searcher = indexProvider.provideIndexReader();
+        try {
+            final TopDocs hits = searcher.search(new TermQuery(new Term(AdapterUtils.FIELD_PK, String.valueOf(primaryKey))), Integer.MAX_VALUE);
+            if (hits.scoreDocs.length == 0) {
+                return null;
+            }
+            final Document[] documents = new Document[hits.scoreDocs.length];
+            for (int i = 0; i < hits.scoreDocs.length; i++) {
+                final ScoreDoc hit = hits.scoreDocs[i];
+                documents[i] = searcher.doc(hit.doc, Collections.singleton(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_SIGNATURE));
+            }
+            final Long signature = documentsSignature(documents);
+            if (signature != null) {
+                this.documentSignatures.putIfAbsent(primaryKey, signature);
+            }
+            return signature;
+        } catch (Exception exp) {
+            LOGFTQ.error("Unable to read " + indexProvider.getName() + " document signature with _PK:" + primaryKey, exp);
+            return null;
+        } finally {
+            indexProvider.releaseIndexReader(searcher);
+        }
+
+    }
+
+    /**
+     * Index built before in place doc values updates were introduced has sort fields of prices and availability
+     * as SORTED doc values, which Lucene does not allow to change to NUMERIC by adding new documents. Such index
+     * has no {@link LuceneDocumentAdapterUtils#FIELD_DOCVALUES_KEY}. It is checked once and reported as outdated
+     * (see {@link FTIndexState#isFullTextIndexOutdated()}) until full reindex job or admin rebuilds it.
+     *
+     * @return true if documents of current structure can be added to live index
+     */
+    private boolean isLiveIndexCurrent() {
+
+        final Boolean known = this.liveIndexCurrent;
+        if (known != null) {
+            return known;
+        }
+        if (!(this.documentAdapter instanceof LuceneDocumentValuesAdapter)) {
+            this.liveIndexCurrent = Boolean.TRUE;
+            return true;
+        }
+
+        boolean current = true;
+        final IndexSearcher searcher = indexProvider.provideIndexReader();
+        try {
+            final IndexReader reader = searcher.getIndexReader();
+            if (reader.numDocs() > 0) {
+                current = false;
+                for (final LeafReaderContext leaf : reader.leaves()) {
+                    if (leaf.reader().getFieldInfos().fieldInfo(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_KEY) != null) {
+                        current = true;
+                        break;
+                    }
+                }
+            }
+        } finally {
+            indexProvider.releaseIndexReader(searcher);
+        }
+
+        this.liveIndexCurrent = current;
+
+        if (!current) {
+            LOGFTQ.error(Markers.alert(), "Index {} was built with previous document structure, full reindex is required", indexProvider.getName());
+        }
+        return current;
+
+    }
+
+    /**
+     * Remember signature of indexed documents, so that volatile values can be updated in place
+     * when signature does not change.
+     *
+     * @param signatures signatures of the index
+     * @param primaryKey PK
+     * @param documents  indexed documents
+     * @param remove     true if documents were removed
+     */
+    private void recordDocumentsSignature(final Map<PK, Long> signatures, final PK primaryKey, final Pair<PK, Document[]> documents, final boolean remove) {
+
+        final Long signature = remove || !(this.documentAdapter instanceof LuceneDocumentValuesAdapter) ?
+                null : documentsSignature(documents.getSecond());
+        if (signature != null) {
+            signatures.put(primaryKey, signature);
+        } else {
+            signatures.remove(primaryKey);
+        }
+
+    }
+
+    /**
+     * Combined signature of entity documents (order independent).
+     *
+     * @param documents documents
+     *
+     * @return signature or null if any of the documents has no signature
+     */
+    static Long documentsSignature(final Document[] documents) {
+
+        long signature = 0L;
+        long count = 0L;
+        for (final Document document : documents) {
+            if (document == null) {
+                continue;
+            }
+            final IndexableField field = document.getField(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_SIGNATURE);
+            if (field == null || field.numericValue() == null) {
+                return null;
+            }
+            signature += field.numericValue().longValue();
+            count++;
+        }
+        return signature + count * 0x9E3779B97F4A7C15L;
+
+    }
+
     long now() {
         return TimeContext.getMillis();
     }
 
+    /**
+     * Per stage counters of the last full reindex.
+     */
+    static class ReindexThroughput {
+
+        private final AtomicLong read = new AtomicLong(0L);
+        private final AtomicLong built = new AtomicLong(0L);
+        private final AtomicLong written = new AtomicLong(0L);
+        private volatile long started = 0L;
+        private volatile long finished = 0L;
+
+        void start() {
+            read.set(0L);
+            built.set(0L);
+            written.set(0L);
+            finished = 0L;
+            started = System.currentTimeMillis();
+        }
+
+        void finish() {
+            finished = System.currentTimeMillis();
+        }
+
+        double getRate(final AtomicLong counter) {
+            final long start = started;
+            if (start == 0L) {
+                return 0d;
+            }
+            final long end = finished > 0L ? finished : System.currentTimeMillis();
+            final long elapsed = Math.max(1L, end - start);
+            return counter.get() * 1000d / elapsed;
+        }
+
+    }
+
     static class FTIndexStateImpl implements FTIndexState {
 
         private boolean fullTextSearchReindexInProgress = false;
         private boolean fullTextSearchReindexCompleted = false;
         private long lastIndexCount = 0;
+        private double readThroughput = 0d;
+        private double buildThroughput = 0d;
+        private double writeThroughput = 0d;
+        private boolean fullTextIndexOutdated = false;
 
         public FTIndexStateImpl(final boolean fullTextSearchReindexInProgress, final boolean fullTextSearchReindexCompleted, final long lastIndexCount) {
+            this(fullTextSearchReindexInProgress, fullTextSearchReindexCompleted, lastIndexCount, 0d, 0d, 0d, false);
+        }
+
+        public FTIndexStateImpl(final boolean fullTextSearchReindexInProgress, final boolean fullTextSearchReindexCompleted, final long lastIndexCount,
+                                final double readThroughput, final double buildThroughput, final double writeThroughput,
+                                final boolean fullTextIndexOutdated) {
             this.fullTextSearchReindexInProgress = fullTextSearchReindexInProgress;
             this.fullTextSearchReindexCompleted = fullTextSearchReindexCompleted;
             this.lastIndexCount = lastIndexCount;
+            this.readThroughput = readThroughput;
+            this.buildThroughput = buildThroughput;
+            this.writeThroughput = writeThroughput;
+            this.fullTextIndexOutdated = fullTextIndexOutdated;
         }
 
         @Override
@@ -391,6 +935,26 @@ public abstract class IndexBuilderLuceneImpl<T, PK extends Serializable> impleme
         public long getLastIndexCount() {
             return lastIndexCount;
         }
+
+        @Override
+        public double getReadThroughput() {
+            return readThroughput;
+        }
+
+        @Override
+        public double getBuildThroughput() {
+            return buildThroughput;
+        }
+
+        @Override
+        public double getWriteThroughput() {
+            return writeThroughput;
+        }
+
+        @Override
+        public boolean isFullTextIndexOutdated() {
+            return fullTextIndexOutdated;
+        }
     }
 
 }
@@ -17,11 +17,17 @@
 package org.yes.cart.search.dao.impl;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.facet.taxonomy.SearcherTaxonomyManager;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.*;
 import org.slf4j.Logger;
@@ -32,13 +38,41 @@ import org.yes.cart.search.dao.LuceneIndexProvider;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
- * In Memory implementation of Lucene index provider.
+ * Lucene index provider.
  *
- * FOR TEST PURPOSES ONLY as it uses small byte buffers and result poor performance on large indexes.
+ * Index and taxonomy are kept as a generation (directories, writers and searcher managers), so that full
+ * rebuild can be performed in a shadow generation and swapped in atomically once it is complete. Each searcher
+ * holds its generation, so searchers acquired before the swap remain valid and old generation is closed and
+ * its directories are removed only after last of those searchers is released. Writers are provided under
+ * read lock and swap takes write lock, so swap waits for changes in progress and nothing is written to old
+ * generation after it is swapped. Current generation of file system indexes is recorded in
+ * "generation" file in the index base directory, so that the swapped index is picked up on restart.
+ *
+ * Searchers of live generation are reopened by background near real time threads (one for index and
+ * one for taxonomy), so changes become visible within {@link #setRefreshMaxStaleSec(double)} without
+ * writers having to refresh after each change. Callers that need to see their change immediately
+ * use {@link #waitForGeneration(IndexWriter, long)}.
+ *
+ * "ram" URI is FOR TEST PURPOSES ONLY as it uses small byte buffers and result poor performance on large indexes.
  * see {@link RAMDirectory} for more details.
  *
  *
@@ -48,24 +82,61 @@ import java.nio.file.Paths;
  */
 public class LuceneIndexProviderImpl implements LuceneIndexProvider, InitializingBean, DisposableBean {
 
+    private static final String[] FS_PREFIXES = new String[] { "auto://", "mmap://", "nio://", "simple://" };
+    private static final String GENERATION_FILE = "generation";
+    private static final Pattern GENERATION_DIR = Pattern.compile("^(index|taxonomy)(-[0-9]+)?$");
+
     private final Logger LOGFTQ = LoggerFactory.getLogger("FTQ");
 
-    private Directory index = null;
-    private SearcherManager indexReaderManager;
-    private IndexWriter indexWriter;
+    private volatile IndexGeneration live;
+    private IndexGeneration shadow;
+    private final Object shadowLock = new Object();
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Map<Directory, IndexGeneration> generations = new ConcurrentHashMap<>();
 
-    private Directory facets = null;
-    private SearcherTaxonomyManager facetsReaderManager;
-    private DirectoryTaxonomyWriter facetsWriter;
+    private volatile FacetsReaderStateCache facetsReaderStateCache = new FacetsReaderStateCache(null);
+    private final AtomicLong facetsReaderStateHits = new AtomicLong(0L);
+    private final AtomicLong facetsReaderStateMisses = new AtomicLong(0L);
 
     private final String name;
     private final String uri;
 
+    private double refreshMaxStaleSec = 1.0d;
+    private double refreshMinStaleSec = 0.025d;
+    private int refreshMaxWaitMs = 10000;
+
     public LuceneIndexProviderImpl(final String name, final String uri) {
         this.name = name;
         this.uri = uri;
     }
 
+    /**
+     * Maximum time before changes become visible to searchers if no one is waiting for them.
+     *
+     * @param refreshMaxStaleSec max staleness in seconds (default 1.0)
+     */
+    public void setRefreshMaxStaleSec(final double refreshMaxStaleSec) {
+        this.refreshMaxStaleSec = refreshMaxStaleSec;
+    }
+
+    /**
+     * Maximum time before changes become visible to searchers if there are callers waiting for them.
+     *
+     * @param refreshMinStaleSec min staleness in seconds (default 0.025)
+     */
+    public void setRefreshMinStaleSec(final double refreshMinStaleSec) {
+        this.refreshMinStaleSec = refreshMinStaleSec;
+    }
+
+    /**
+     * Maximum time {@link #waitForGeneration(IndexWriter, long)} blocks.
+     *
+     * @param refreshMaxWaitMs max wait in millis (default 10000)
+     */
+    public void setRefreshMaxWaitMs(final int refreshMaxWaitMs) {
+        this.refreshMaxWaitMs = refreshMaxWaitMs;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -79,11 +150,25 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public IndexSearcher provideIndexReader() {
-        try {
-            return indexReaderManager.acquire();
-        } catch (IOException e) {
-            LOGFTQ.error("Unable to acquire index reader " + name + ", cause: " + e.getMessage());
-            throw new RuntimeException(e);
+        while (true) {
+            final IndexGeneration generation = this.live;
+            if (!holdGeneration(generation)) {
+                continue; // generation was swapped and closed while acquiring, retry with new one
+            }
+            try {
+                return generation.indexReaderManager.acquire();
+            } catch (AlreadyClosedException ace) {
+                releaseGeneration(generation);
+                if (generation == this.live) {
+                    LOGFTQ.error("Unable to acquire index reader " + name + ", cause: " + ace.getMessage());
+                    throw ace;
+                }
+                // generation was swapped while acquiring, retry with new one
+            } catch (IOException e) {
+                releaseGeneration(generation);
+                LOGFTQ.error("Unable to acquire index reader " + name + ", cause: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
         }
     }
 
@@ -92,30 +177,42 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public void releaseIndexReader(final IndexSearcher searcher) {
+        final IndexGeneration generation = generationOf(searcher.getIndexReader());
         try {
-            indexReaderManager.release(searcher);
+            // release only decrements reader reference, so it is safe for searchers from swapped generations
+            generation.indexReaderManager.release(searcher);
         } catch (IOException e) {
             LOGFTQ.error("Unable to release index reader " + name + ", cause: " + e.getMessage());
             throw new RuntimeException(e);
+        } finally {
+            releaseGeneration(generation);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getIndexReaderTimestamp() {
+        final IndexGeneration generation = this.live;
+        return generation != null ? generation.readerTimestamp : 0L;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public IndexWriter provideIndexWriter() {
-        if (indexWriter == null) {
-            final IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer());
-            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
-            try {
-                return indexWriter = new IndexWriter(index, config);
-            } catch (IOException e) {
-                LOGFTQ.error("Unable to acquire index writer " + name + ", cause: " + e.getMessage());
-                throw new RuntimeException(e);
-            }
-        }
-        return indexWriter;
+        swapLock.readLock().lock();
+        return this.live.indexWriter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void releaseIndexWriter(final IndexWriter writer) {
+        swapLock.readLock().unlock();
     }
 
     /**
@@ -123,11 +220,72 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public void refreshIndexIfNecessary() {
+        swapLock.readLock().lock();
         try {
-            indexReaderManager.maybeRefreshBlocking();
+            this.live.indexReaderManager.maybeRefreshBlocking();
         } catch (IOException e) {
             LOGFTQ.error("Unable to refresh index " + name + ", cause: " + e.getMessage());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSetDocValuesReaderState provideFacetsReaderState(final IndexSearcher searcher, final String field) throws IOException {
+
+        final IndexReader reader = searcher.getIndexReader();
+        final FacetsReaderStateCache cache = this.facetsReaderStateCache;
+
+        if (cache.reader != reader) {
+            // stale searcher acquired before last refresh, do not pollute current generation
+            facetsReaderStateMisses.incrementAndGet();
+            return new DefaultSortedSetDocValuesReaderState(reader, field);
+        }
+
+        final SortedSetDocValuesReaderState cached = cache.states.get(field);
+        if (cached != null) {
+            facetsReaderStateHits.incrementAndGet();
+            return cached;
         }
+
+        facetsReaderStateMisses.incrementAndGet();
+        final SortedSetDocValuesReaderState state = new DefaultSortedSetDocValuesReaderState(reader, field);
+        final SortedSetDocValuesReaderState existing = cache.states.putIfAbsent(field, state);
+        return existing != null ? existing : state;
+
+    }
+
+    /**
+     * Bind facet reader state cache to current searcher generation.
+     */
+    void resetFacetsReaderStateCache() {
+
+        final IndexSearcher searcher = provideIndexReader();
+        try {
+            this.facetsReaderStateCache = new FacetsReaderStateCache(searcher.getIndexReader());
+        } finally {
+            releaseIndexReader(searcher);
+        }
+        LOGFTQ.debug("Reset facets reader state cache for {}, hits: {}, misses: {}",
+                name, facetsReaderStateHits.get(), facetsReaderStateMisses.get());
+
+    }
+
+    /**
+     * @return number of facet reader state requests served from cache
+     */
+    public long getFacetsReaderStateHits() {
+        return facetsReaderStateHits.get();
+    }
+
+    /**
+     * @return number of facet reader state requests that required ordinals scan
+     */
+    public long getFacetsReaderStateMisses() {
+        return facetsReaderStateMisses.get();
     }
 
 
@@ -136,11 +294,25 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public SearcherTaxonomyManager.SearcherAndTaxonomy provideFacetsReader() {
-        try {
-            return facetsReaderManager.acquire();
-        } catch (IOException e) {
-            LOGFTQ.error("Unable to acquire facets reader " + name + ", cause: " + e.getMessage());
-            throw new RuntimeException(e);
+        while (true) {
+            final IndexGeneration generation = this.live;
+            if (!holdGeneration(generation)) {
+                continue; // generation was swapped and closed while acquiring, retry with new one
+            }
+            try {
+                return generation.facetsReaderManager.acquire();
+            } catch (AlreadyClosedException ace) {
+                releaseGeneration(generation);
+                if (generation == this.live) {
+                    LOGFTQ.error("Unable to acquire facets reader " + name + ", cause: " + ace.getMessage());
+                    throw ace;
+                }
+                // generation was swapped while acquiring, retry with new one
+            } catch (IOException e) {
+                releaseGeneration(generation);
+                LOGFTQ.error("Unable to acquire facets reader " + name + ", cause: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
         }
     }
 
@@ -149,11 +321,14 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public void releaseFacetsReader(final SearcherTaxonomyManager.SearcherAndTaxonomy searcher) {
+        final IndexGeneration generation = generationOf(searcher.searcher.getIndexReader());
         try {
-            facetsReaderManager.release(searcher);
+            generation.facetsReaderManager.release(searcher);
         } catch (IOException e) {
             LOGFTQ.error("Unable to release facets reader " + name + ", cause: " + e.getMessage());
             throw new RuntimeException(e);
+        } finally {
+            releaseGeneration(generation);
         }
     }
 
@@ -162,15 +337,16 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public DirectoryTaxonomyWriter provideFacetsWriter() {
-        if (facetsWriter == null) {
-            try {
-                return facetsWriter = new DirectoryTaxonomyWriter(facets, IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
-            } catch (IOException e) {
-                LOGFTQ.error("Unable to acquire facets writer " + name + ", cause: " + e.getMessage());
-                throw new RuntimeException(e);
-            }
-        }
-        return facetsWriter;
+        swapLock.readLock().lock();
+        return this.live.facetsWriter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void releaseFacetsWriter(final DirectoryTaxonomyWriter writer) {
+        swapLock.readLock().unlock();
     }
 
     /**
@@ -178,10 +354,13 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
      */
     @Override
     public void refreshFacetsIfNecessary() {
+        swapLock.readLock().lock();
         try {
-            facetsReaderManager.maybeRefreshBlocking();
+            this.live.facetsReaderManager.maybeRefreshBlocking();
         } catch (IOException e) {
             LOGFTQ.error("Unable to refresh facets " + name + ", cause: " + e.getMessage());
+        } finally {
+            swapLock.readLock().unlock();
         }
     }
 
@@ -194,22 +373,405 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
         this.refreshFacetsIfNecessary();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean waitForGeneration(final IndexWriter writer, final long generation) {
+        final IndexGeneration current = this.live;
+        if (current.indexWriter != writer) {
+            return false; // generation was swapped, change is not going to be visible
+        }
+        try {
+            if (current.indexReopenThread.waitForGeneration(generation, refreshMaxWaitMs)) {
+                return true;
+            }
+            LOGFTQ.warn("Change {} to index {} is not visible after {}ms", generation, name, refreshMaxWaitMs);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalArgumentException | IllegalStateException ise) {
+            LOGFTQ.warn("Unable to wait for change {} to index {}, cause: {}", generation, name, ise.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexWriter provideShadowIndexWriter() {
+        synchronized (shadowLock) {
+            if (shadow == null) {
+                String suffix = "-" + System.currentTimeMillis();
+                if (suffix.equals(this.live.suffix)) {
+                    suffix = "-" + (System.currentTimeMillis() + 1L);
+                }
+                try {
+                    shadow = openGeneration(suffix, IndexWriterConfig.OpenMode.CREATE);
+                } catch (Exception e) {
+                    LOGFTQ.error("Unable to create shadow index " + name + ", cause: " + e.getMessage());
+                    throw new RuntimeException(e);
+                }
+                LOGFTQ.info("Created shadow index generation {} for {}", suffix, name);
+            }
+            return shadow.indexWriter;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DirectoryTaxonomyWriter provideShadowFacetsWriter() {
+        provideShadowIndexWriter();
+        synchronized (shadowLock) {
+            return shadow.facetsWriter;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void swapShadowIndex() {
+
+        final IndexGeneration next;
+        synchronized (shadowLock) {
+            next = shadow;
+            shadow = null;
+        }
+        if (next == null) {
+            throw new IllegalStateException("No shadow index to swap for " + name);
+        }
+
+        try {
+            next.indexWriter.commit();
+            next.facetsWriter.commit();
+            openReaders(next);
+            writeGeneration(next.suffix);
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to swap shadow index " + name + ", cause: " + e.getMessage());
+            stopReopenThreads(next);
+            closeGeneration(next, true);
+            throw new RuntimeException(e);
+        }
+
+        final IndexGeneration previous;
+        swapLock.writeLock().lock(); // waits for writers that are still making changes to live generation
+        try {
+            previous = this.live;
+            this.live = next;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        resetFacetsReaderStateCache();
+        retireGeneration(previous);
+
+        LOGFTQ.info("Swapped index generation {} to {} for {}", previous.suffix, next.suffix, name);
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void discardShadowIndex() {
+
+        final IndexGeneration discard;
+        synchronized (shadowLock) {
+            discard = shadow;
+            shadow = null;
+        }
+        if (discard != null) {
+            closeGeneration(discard, true);
+            LOGFTQ.info("Discarded shadow index generation {} for {}", discard.suffix, name);
+        }
+
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void afterPropertiesSet() throws Exception {
 
-        index = getInstance(uri + File.separatorChar + name + File.separatorChar + "index");
-        provideIndexWriter();
-        indexReaderManager = new SearcherManager(indexWriter, null);
+        final String suffix = readGeneration();
+        live = openGeneration(suffix, IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        openReaders(live);
+        resetFacetsReaderStateCache();
+        removeStaleGenerations(suffix);
+
+    }
+
+    private IndexGeneration openGeneration(final String suffix, final IndexWriterConfig.OpenMode openMode) throws Exception {
+
+        final IndexGeneration generation = new IndexGeneration(suffix);
+        generation.index = getInstance(uri + File.separatorChar + name + File.separatorChar + "index" + suffix);
+        generation.facets = getInstance(uri + File.separatorChar + name + File.separatorChar + "taxonomy" + suffix);
+
+        final IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer());
+        config.setOpenMode(openMode);
+        try {
+            generation.indexWriter = new IndexWriter(generation.index, config);
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to acquire index writer " + name + ", cause: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+        try {
+            generation.facetsWriter = new DirectoryTaxonomyWriter(generation.facets, openMode);
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to acquire facets writer " + name + ", cause: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+        return generation;
+
+    }
+
+    private void openReaders(final IndexGeneration generation) throws IOException {
+
+        generation.indexReaderManager = new SearcherManager(generation.indexWriter, null);
+        generation.indexReaderManager.addListener(new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+                // nothing to do
+            }
+
+            @Override
+            public void afterRefresh(final boolean didRefresh) {
+                if (didRefresh) {
+                    generation.readerTimestamp = System.currentTimeMillis();
+                    if (generation == live) {
+                        resetFacetsReaderStateCache();
+                    }
+                }
+            }
+        });
+        generation.readerTimestamp = System.currentTimeMillis();
+        generation.facetsReaderManager = new SearcherTaxonomyManager(generation.indexWriter, null, generation.facetsWriter);
+
+        generation.indexReopenThread = new ControlledRealTimeReopenThread<>(
+                generation.indexWriter, generation.indexReaderManager, refreshMaxStaleSec, refreshMinStaleSec);
+        generation.indexReopenThread.setName("ft-nrt-" + name + "-index" + generation.suffix);
+        generation.indexReopenThread.setDaemon(true);
+        generation.indexReopenThread.start();
+
+        generation.facetsReopenThread = new ControlledRealTimeReopenThread<>(
+                generation.indexWriter, generation.facetsReaderManager, refreshMaxStaleSec, refreshMinStaleSec);
+        generation.facetsReopenThread.setName("ft-nrt-" + name + "-taxonomy" + generation.suffix);
+        generation.facetsReopenThread.setDaemon(true);
+        generation.facetsReopenThread.start();
+
+        this.generations.put(generation.indexWriter.getDirectory(), generation);
+
+    }
+
+    private void stopReopenThreads(final IndexGeneration generation) {
+
+        if (generation.indexReopenThread != null) {
+            generation.indexReopenThread.close();
+        }
+        if (generation.facetsReopenThread != null) {
+            generation.facetsReopenThread.close();
+        }
+
+    }
+
+    /**
+     * Hold generation for a searcher.
+     *
+     * @param generation generation
+     *
+     * @return false if generation is already closed
+     */
+    private boolean holdGeneration(final IndexGeneration generation) {
+
+        int holds;
+        do {
+            holds = generation.holds.get();
+            if (holds == 0) {
+                return false;
+            }
+        } while (!generation.holds.compareAndSet(holds, holds + 1));
+        return true;
+
+    }
+
+    /**
+     * Release hold of the generation. Generation that is no longer live is closed and removed
+     * when last hold is released.
+     *
+     * @param generation generation
+     */
+    private void releaseGeneration(final IndexGeneration generation) {
+
+        if (generation.holds.decrementAndGet() == 0) {
+            closeGeneration(generation, true);
+        }
+
+    }
+
+    private IndexGeneration generationOf(final IndexReader reader) {
+
+        if (reader instanceof DirectoryReader) {
+            final IndexGeneration generation = this.generations.get(((DirectoryReader) reader).directory());
+            if (generation != null) {
+                return generation;
+            }
+        }
+        throw new IllegalArgumentException("Searcher does not belong to index " + name);
+
+    }
+
+    /**
+     * Close searcher managers of swapped generation and release its live hold, so that generation is
+     * removed when the last searcher of this generation is released.
+     *
+     * @param generation swapped generation
+     */
+    private void retireGeneration(final IndexGeneration generation) {
+
+        stopReopenThreads(generation);
+        try {
+            generation.facetsReaderManager.close();
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to release facet searchers " + name + ", cause: " + e.getMessage());
+        }
+        try {
+            generation.indexReaderManager.close();
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to release index searchers " + name + ", cause: " + e.getMessage());
+        }
+        releaseGeneration(generation);
+
+    }
+
+    /**
+     * Close writers and directories of generation that is not live. Writers of swapped generation are
+     * not in use (swap waits for them), so nothing is lost when pending changes are rolled back.
+     *
+     * @param generation generation
+     * @param remove     remove directories
+     */
+    private void closeGeneration(final IndexGeneration generation, final boolean remove) {
+
+        this.generations.remove(generation.indexWriter.getDirectory());
+        try {
+            generation.indexWriter.rollback();
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to release index writer " + name + ", cause: " + e.getMessage());
+        }
+        try {
+            generation.facetsWriter.rollback();
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to release facet writer " + name + ", cause: " + e.getMessage());
+        }
+        try {
+            generation.index.close();
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to release index directory " + name + ", cause: " + e.getMessage());
+        }
+        try {
+            generation.facets.close();
+        } catch (IOException e) {
+            LOGFTQ.error("Unable to release facet directory " + name + ", cause: " + e.getMessage());
+        }
+        if (remove) {
+            final Path base = getBasePath();
+            if (base != null) {
+                removeDirectory(base.resolve("index" + generation.suffix));
+                removeDirectory(base.resolve("taxonomy" + generation.suffix));
+            }
+            LOGFTQ.info("Removed index generation {} for {}", generation.suffix, name);
+        }
+
+    }
+
+    private String readGeneration() {
+
+        final Path base = getBasePath();
+        if (base != null) {
+            final Path file = base.resolve(GENERATION_FILE);
+            if (Files.exists(file)) {
+                try {
+                    final String suffix = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+                    if (GENERATION_DIR.matcher("index" + suffix).matches()) {
+                        return suffix;
+                    }
+                    LOGFTQ.warn("Invalid index generation {} for {}, using default", suffix, name);
+                } catch (IOException e) {
+                    LOGFTQ.error("Unable to read index generation " + name + ", cause: " + e.getMessage());
+                }
+            }
+        }
+        return "";
+
+    }
+
+    private void writeGeneration(final String suffix) throws IOException {
+
+        final Path base = getBasePath();
+        if (base != null) {
+            final Path tmp = base.resolve(GENERATION_FILE + ".tmp");
+            Files.write(tmp, suffix.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, base.resolve(GENERATION_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+    }
+
+    private void removeStaleGenerations(final String suffix) {
 
-        facets = getInstance(uri + File.separatorChar + name + File.separatorChar + "taxonomy");
-        provideFacetsWriter();
-        facetsReaderManager = new SearcherTaxonomyManager(indexWriter, null, facetsWriter);
+        final Path base = getBasePath();
+        if (base != null && Files.isDirectory(base)) {
+            final List<Path> stale = new ArrayList<>();
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(base, Files::isDirectory)) {
+                for (final Path dir : dirs) {
+                    final String dirName = dir.getFileName().toString();
+                    if (GENERATION_DIR.matcher(dirName).matches()
+                            && !dirName.equals("index" + suffix) && !dirName.equals("taxonomy" + suffix)) {
+                        stale.add(dir);
+                    }
+                }
+            } catch (IOException e) {
+                LOGFTQ.error("Unable to list index generations " + name + ", cause: " + e.getMessage());
+            }
+            for (final Path dir : stale) {
+                LOGFTQ.info("Removing stale index generation {} for {}", dir.getFileName(), name);
+                removeDirectory(dir);
+            }
+        }
+
+    }
+
+    private void removeDirectory(final Path dir) {
+
+        if (Files.exists(dir)) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                    try {
+                        Files.delete(file);
+                    } catch (IOException e) {
+                        LOGFTQ.warn("Unable to remove {}, cause: {}", file, e.getMessage());
+                    }
+                });
+            } catch (IOException e) {
+                LOGFTQ.warn("Unable to remove {}, cause: {}", dir, e.getMessage());
+            }
+        }
 
     }
 
+    Path getBasePath() {
+        if (uri != null) {
+            for (final String prefix : FS_PREFIXES) {
+                if (uri.startsWith(prefix)) {
+                    return fromString(prefix, uri + File.separatorChar + name);
+                }
+            }
+        }
+        return null;
+    }
+
     Directory getInstance(final String uri) throws Exception {
         if (uri == null || uri.startsWith("ram" + File.separator)) {
             LOGFTQ.info("Starting RAM directory for {}", name);
@@ -244,40 +806,78 @@ public class LuceneIndexProviderImpl implements LuceneIndexProvider, Initializin
     @Override
     public void destroy() throws Exception {
 
+        discardShadowIndex();
+
+        final IndexGeneration generation = this.live;
         LOGFTQ.info("Closing directory for {}", name);
+        stopReopenThreads(generation);
         try {
-            indexReaderManager.close();
+            generation.indexReaderManager.close();
         } catch (IOException e) {
             LOGFTQ.error("Unable to release index searchers " + name + ", cause: " + e.getMessage());
         }
         try {
-            if (indexWriter != null) {
-                indexWriter.close();
-            }
+            generation.indexWriter.close();
         } catch (IOException e) {
             LOGFTQ.error("Unable to release index writer " + name + ", cause: " + e.getMessage());
         }
         try {
-            index.close();
+            generation.index.close();
         } catch (IOException e) {
             LOGFTQ.error("Unable to release index directory " + name + ", cause: " + e.getMessage());
         }
         try {
-            facetsReaderManager.close();
+            generation.facetsReaderManager.close();
         } catch (IOException e) {
             LOGFTQ.error("Unable to release facet searchers " + name + ", cause: " + e.getMessage());
         }
         try {
-            if (facetsWriter != null) {
-                facetsWriter.close();
-            }
+            generation.facetsWriter.close();
         } catch (IOException e) {
             LOGFTQ.error("Unable to release facet writer " + name + ", cause: " + e.getMessage());
         }
         try {
-            facets.close();
+            generation.facets.close();
         } catch (IOException e) {
             LOGFTQ.error("Unable to release facet directory " + name + ", cause: " + e.getMessage());
         }
     }
+
+    /**
+     * Index and taxonomy directories with their writers and searchers.
+     */
+    private static final class IndexGeneration {
+
+        private final String suffix;
+        private final AtomicInteger holds = new AtomicInteger(1); // live hold and one per acquired searcher
+
+        private Directory index;
+        private IndexWriter indexWriter;
+        private SearcherManager indexReaderManager;
+        private ControlledRealTimeReopenThread<IndexSearcher> indexReopenThread;
+        private volatile long readerTimestamp;
+
+        private Directory facets;
+        private DirectoryTaxonomyWriter facetsWriter;
+        private SearcherTaxonomyManager facetsReaderManager;
+        private ControlledRealTimeReopenThread<SearcherTaxonomyManager.SearcherAndTaxonomy> facetsReopenThread;
+
+        private IndexGeneration(final String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
+    /**
+     * Facet states that are valid for a single searcher generation.
+     */
+    private static final class FacetsReaderStateCache {
+
+        private final IndexReader reader;
+        private final Map<String, SortedSetDocValuesReaderState> states = new ConcurrentHashMap<>();
+
+        private FacetsReaderStateCache(final IndexReader reader) {
+            this.reader = reader;
+        }
+    }
+
 }
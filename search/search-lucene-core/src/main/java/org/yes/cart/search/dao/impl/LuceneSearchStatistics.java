@@ -0,0 +1,288 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.search.Query;
+import org.yes.cart.search.dto.impl.FTSSlowQueryDTO;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
+import org.yes.cart.search.dto.impl.FTSTimerStatisticsDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency statistics for full text search. Each timer keeps a log-linear histogram of durations
+ * (8 sub buckets per power of two in microseconds), so recording is a few atomic increments and
+ * percentiles can be computed at any time without keeping individual samples.
+ *
+ * Queries that exceed slow query threshold are kept in a fixed size ring buffer, so that most recent
+ * slow queries can be inspected (and explained) on demand.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:40
+ */
+public class LuceneSearchStatistics {
+
+    private static final int MAX_TIMERS = 500;
+
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    private final AtomicLong slowQuerySequence = new AtomicLong(0L);
+    private volatile AtomicReferenceArray<SlowQuery> slowQueries = new AtomicReferenceArray<>(50);
+
+    private volatile long slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(500L);
+
+    /**
+     * Record duration of a search method.
+     *
+     * @param timer      timer name
+     * @param startNanos start time as returned by {@link System#nanoTime()}
+     * @param query      query executed
+     * @param hits       number of hits
+     */
+    public void record(final String timer, final long startNanos, final Query query, final int hits) {
+
+        final long durationNanos = System.nanoTime() - startNanos;
+
+        LatencyHistogram histogram = timers.get(timer);
+        if (histogram == null) {
+            if (timers.size() >= MAX_TIMERS) {
+                return; // do not let dynamic timer names (e.g. facets) grow unbounded
+            }
+            histogram = timers.computeIfAbsent(timer, name -> new LatencyHistogram());
+        }
+        histogram.record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+
+        if (query != null && durationNanos >= slowQueryThresholdNanos) {
+            final AtomicReferenceArray<SlowQuery> ring = slowQueries;
+            final long id = slowQuerySequence.incrementAndGet();
+            ring.set((int) (id % ring.length()), new SlowQuery(id, System.currentTimeMillis(), timer,
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos), query, hits));
+        }
+
+    }
+
+    /**
+     * Slow query by id.
+     *
+     * @param id slow query id
+     *
+     * @return query or null if it has been overwritten by newer slow queries
+     */
+    public Query getSlowQuery(final long id) {
+
+        final AtomicReferenceArray<SlowQuery> ring = slowQueries;
+        if (id <= 0L) {
+            return null;
+        }
+        final SlowQuery slow = ring.get((int) (id % ring.length()));
+        if (slow != null && slow.id == id) {
+            return slow.query;
+        }
+        return null;
+
+    }
+
+    /**
+     * Populate statistics snapshot with timers (sorted by name) and slow queries (most recent first).
+     *
+     * @param stats statistics to populate
+     */
+    public void populate(final FTSStatisticsDTO stats) {
+
+        stats.setSlowQueryThresholdMs(TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos));
+
+        final List<String> names = new ArrayList<>(timers.keySet());
+        Collections.sort(names);
+        final List<FTSTimerStatisticsDTO> timerStats = new ArrayList<>(names.size());
+        for (final String name : names) {
+            final LatencyHistogram histogram = timers.get(name);
+            if (histogram != null) {
+                timerStats.add(histogram.toDTO(name));
+            }
+        }
+        stats.setTimers(timerStats);
+
+        final AtomicReferenceArray<SlowQuery> ring = slowQueries;
+        final List<FTSSlowQueryDTO> slow = new ArrayList<>(ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            final SlowQuery query = ring.get(i);
+            if (query != null) {
+                slow.add(query.toDTO());
+            }
+        }
+        slow.sort((q1, q2) -> Long.compare(q2.getId(), q1.getId()));
+        stats.setSlowQueries(slow);
+
+    }
+
+    /**
+     * Clear all timers and slow queries.
+     */
+    public void reset() {
+        timers.clear();
+        slowQueries = new AtomicReferenceArray<>(slowQueries.length());
+    }
+
+    /**
+     * @param slowQueryThresholdMs queries that take longer than this are recorded in slow query log
+     */
+    public void setSlowQueryThresholdMs(final long slowQueryThresholdMs) {
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+    }
+
+    /**
+     * @param slowQueryLogSize number of most recent slow queries to keep
+     */
+    public void setSlowQueryLogSize(final int slowQueryLogSize) {
+        this.slowQueries = new AtomicReferenceArray<>(Math.max(1, slowQueryLogSize));
+    }
+
+    /**
+     * Histogram with buckets [0..7] holding exact values and 8 linear sub buckets for every power
+     * of two above that, so bucket width never exceeds 1/8 of its lower bound.
+     */
+    static final class LatencyHistogram {
+
+        private static final int SUB_BUCKETS_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKETS_BITS;
+        private static final int BUCKETS = (63 - SUB_BUCKETS_BITS + 1) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong(0L);
+
+        void record(final long value) {
+
+            final long safe = value < 0L ? 0L : value;
+            buckets.incrementAndGet(bucket(safe));
+            count.increment();
+            total.add(safe);
+            long current;
+            while ((current = max.get()) < safe && !max.compareAndSet(current, safe)) {
+                // retry
+            }
+
+        }
+
+        long percentile(final double percentile) {
+
+            final long[] snapshot = new long[BUCKETS];
+            long all = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                all += snapshot[i];
+            }
+            if (all == 0L) {
+                return 0L;
+            }
+            final long rank = Math.max(1L, (long) Math.ceil(all * percentile / 100d));
+            long seen = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+
+        }
+
+        FTSTimerStatisticsDTO toDTO(final String name) {
+
+            final FTSTimerStatisticsDTO dto = new FTSTimerStatisticsDTO();
+            final long cnt = count.sum();
+            dto.setName(name);
+            dto.setCount(cnt);
+            dto.setMean(cnt > 0L ? total.sum() / cnt : 0L);
+            dto.setP50(percentile(50d));
+            dto.setP90(percentile(90d));
+            dto.setP99(percentile(99d));
+            dto.setMax(max.get());
+            return dto;
+
+        }
+
+        static int bucket(final long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            final int exp = 63 - Long.numberOfLeadingZeros(value);
+            final int sub = (int) (value >>> (exp - SUB_BUCKETS_BITS)) & (SUB_BUCKETS - 1);
+            return (exp - SUB_BUCKETS_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(final int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            final int exp = bucket / SUB_BUCKETS + SUB_BUCKETS_BITS - 1;
+            final int sub = bucket % SUB_BUCKETS;
+            final long lower = ((long) (SUB_BUCKETS + sub)) << (exp - SUB_BUCKETS_BITS);
+            return lower + (1L << (exp - SUB_BUCKETS_BITS)) - 1L;
+        }
+
+    }
+
+    private static final class SlowQuery {
+
+        private final long id;
+        private final long timestamp;
+        private final String timer;
+        private final long durationMs;
+        private final Query query;
+        private final int hits;
+
+        private SlowQuery(final long id,
+                          final long timestamp,
+                          final String timer,
+                          final long durationMs,
+                          final Query query,
+                          final int hits) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.timer = timer;
+            this.durationMs = durationMs;
+            this.query = query;
+            this.hits = hits;
+        }
+
+        private FTSSlowQueryDTO toDTO() {
+            final FTSSlowQueryDTO dto = new FTSSlowQueryDTO();
+            dto.setId(id);
+            dto.setTimestamp(timestamp);
+            dto.setTimer(timer);
+            dto.setDurationMs(durationMs);
+            dto.setQuery(String.valueOf(query));
+            dto.setHits(hits);
+            return dto;
+        }
+
+    }
+
+}
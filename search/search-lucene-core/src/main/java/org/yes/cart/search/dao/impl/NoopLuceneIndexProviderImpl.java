@@ -16,6 +16,7 @@
 
 package org.yes.cart.search.dao.impl;
 
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
 import org.apache.lucene.facet.taxonomy.SearcherTaxonomyManager;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
 import org.apache.lucene.index.IndexWriter;
@@ -44,16 +45,31 @@ public class NoopLuceneIndexProviderImpl implements LuceneIndexProvider {
 
     }
 
+    @Override
+    public long getIndexReaderTimestamp() {
+        return 0L;
+    }
+
     @Override
     public IndexWriter provideIndexWriter() {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void releaseIndexWriter(final IndexWriter writer) {
+
+    }
+
     @Override
     public void refreshIndexIfNecessary() {
 
     }
 
+    @Override
+    public SortedSetDocValuesReaderState provideFacetsReaderState(final IndexSearcher searcher, final String field) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public SearcherTaxonomyManager.SearcherAndTaxonomy provideFacetsReader() {
         throw new UnsupportedOperationException();
@@ -69,6 +85,11 @@ public class NoopLuceneIndexProviderImpl implements LuceneIndexProvider {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void releaseFacetsWriter(final DirectoryTaxonomyWriter writer) {
+
+    }
+
     @Override
     public void refreshFacetsIfNecessary() {
 
@@ -78,4 +99,29 @@ public class NoopLuceneIndexProviderImpl implements LuceneIndexProvider {
     public void refreshIfNecessary() {
 
     }
+
+    @Override
+    public boolean waitForGeneration(final IndexWriter writer, final long generation) {
+        return false;
+    }
+
+    @Override
+    public IndexWriter provideShadowIndexWriter() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DirectoryTaxonomyWriter provideShadowFacetsWriter() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void swapShadowIndex() {
+
+    }
+
+    @Override
+    public void discardShadowIndex() {
+
+    }
 }
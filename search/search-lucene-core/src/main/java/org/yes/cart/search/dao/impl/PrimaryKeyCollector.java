@@ -0,0 +1,200 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.util.InPlaceMergeSorter;
+import org.yes.cart.search.dao.entity.AdapterUtils;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Collector that gathers {@link AdapterUtils#FIELD_PK} of all matching documents into a primitive
+ * array. No priority queue is allocated, so memory used is proportional to number of hits only.
+ *
+ * When relevance order is required scores are kept in a parallel primitive array and hits are
+ * sorted by score once collection is complete (ties keep index order, same as {@link org.apache.lucene.search.TopDocs}).
+ * Otherwise no scoring is performed and PK's are returned in index order.
+ *
+ * Primary keys are read from numeric doc values. Segments written before doc values were added to
+ * primary key field fall back to stored field, so the collector works on old indexes until they
+ * are fully rebuilt.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 11:05
+ */
+public class PrimaryKeyCollector extends SimpleCollector {
+
+    private static final Set<String> PKS = Collections.singleton(AdapterUtils.FIELD_PK);
+
+    private final boolean sortByScore;
+
+    private long[] pks = new long[64];
+    private float[] scores;
+    private int size = 0;
+    private boolean sorted = false;
+
+    private NumericDocValues pkValues;
+    private LeafReader reader;
+    private Scorer scorer;
+
+    /**
+     * @param sortByScore true to return PK's by relevance, false for index order without scoring
+     */
+    public PrimaryKeyCollector(final boolean sortByScore) {
+        this.sortByScore = sortByScore;
+        this.scores = sortByScore ? new float[64] : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doSetNextReader(final LeafReaderContext context) throws IOException {
+        this.reader = context.reader();
+        final FieldInfo pkInfo = this.reader.getFieldInfos().fieldInfo(AdapterUtils.FIELD_PK);
+        if (pkInfo != null && pkInfo.getDocValuesType() == DocValuesType.NUMERIC) {
+            this.pkValues = this.reader.getNumericDocValues(AdapterUtils.FIELD_PK);
+        } else {
+            this.pkValues = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setScorer(final Scorer scorer) throws IOException {
+        this.scorer = scorer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void collect(final int doc) throws IOException {
+        final long pk;
+        if (this.pkValues != null) {
+            pk = this.pkValues.get(doc);
+        } else {
+            final Document document = this.reader.document(doc, PKS);
+            pk = Long.valueOf(document.get(AdapterUtils.FIELD_PK));
+        }
+        if (this.size == this.pks.length) {
+            this.pks = Arrays.copyOf(this.pks, this.size << 1);
+            if (this.sortByScore) {
+                this.scores = Arrays.copyOf(this.scores, this.size << 1);
+            }
+        }
+        if (this.sortByScore) {
+            this.scores[this.size] = this.scorer.score();
+        }
+        this.pks[this.size++] = pk;
+        this.sorted = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean needsScores() {
+        return sortByScore;
+    }
+
+    /**
+     * @return number of collected hits
+     */
+    public int getTotalHits() {
+        return size;
+    }
+
+    /**
+     * @return collected primary keys (copy trimmed to size)
+     */
+    public long[] toArray() {
+        sortIfNecessary();
+        return Arrays.copyOf(this.pks, this.size);
+    }
+
+    /**
+     * @return read only list view backed by collected primary keys
+     */
+    public List<Long> getPrimaryKeys() {
+        sortIfNecessary();
+        return new PrimaryKeyList(this.pks, this.size);
+    }
+
+    private void sortIfNecessary() {
+        if (this.sortByScore && !this.sorted) {
+            final long[] pks = this.pks;
+            final float[] scores = this.scores;
+            // stable sort, so equal scores keep doc id order
+            new InPlaceMergeSorter() {
+                @Override
+                protected int compare(final int i, final int j) {
+                    return Float.compare(scores[j], scores[i]);
+                }
+
+                @Override
+                protected void swap(final int i, final int j) {
+                    final long pk = pks[i];
+                    pks[i] = pks[j];
+                    pks[j] = pk;
+                    final float score = scores[i];
+                    scores[i] = scores[j];
+                    scores[j] = score;
+                }
+            }.sort(0, this.size);
+            this.sorted = true;
+        }
+    }
+
+    private static final class PrimaryKeyList extends AbstractList<Long> implements RandomAccess {
+
+        private final long[] pks;
+        private final int size;
+
+        private PrimaryKeyList(final long[] pks, final int size) {
+            this.pks = pks;
+            this.size = size;
+        }
+
+        @Override
+        public Long get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return pks[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
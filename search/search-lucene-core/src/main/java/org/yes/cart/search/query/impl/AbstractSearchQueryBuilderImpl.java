@@ -18,6 +18,7 @@ package org.yes.cart.search.query.impl;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
 import org.yes.cart.search.query.SearchQueryBuilder;
@@ -163,6 +164,33 @@ public abstract class AbstractSearchQueryBuilderImpl implements SearchQueryBuild
         return new BoostQuery(query, boost);
     }
 
+    /**
+     * Create range query on numeric doc values field. Slower than {@link #createRangeQuery(String, Long, Long)},
+     * but works with values that are updated in place.
+     *
+     * @param field field name
+     * @param low from value (inclusive)
+     * @param high to value (exclusive)
+     *
+     * @return range query
+     */
+    protected Query createDocValuesRangeQuery(final String field, final Long low, final Long high) {
+        return NumericDocValuesField.newRangeQuery(field, low != null ? low : Long.MIN_VALUE, high != null ? Math.addExact(high, -1) : Long.MAX_VALUE);
+    }
+
+    /**
+     * Create exact query on numeric doc values field. Slower than {@link #createNumericQuery(String, long)},
+     * but works with values that are updated in place.
+     *
+     * @param field field name
+     * @param value value
+     *
+     * @return exact value query
+     */
+    protected Query createDocValuesNumericQuery(final String field, final long value) {
+        return NumericDocValuesField.newExactQuery(field, value);
+    }
+
     /**
      * Check if raw value is empty.
      *
@@ -38,15 +38,16 @@ public class InStockProductSearchQueryBuilder extends AbstractSearchQueryBuilder
     @Override
     public List<Query> createQueryChain(final NavigationContext<Query> navigationContext, final String parameter, final Object value) {
 
-        String strValue = "1";
+        long flag = 1L;
         if (value instanceof Collection) {
             if (CollectionUtils.isNotEmpty((Collection) value)) {
-                strValue = "0".equals(((Collection) value).iterator().next()) ? "0" : "1";
+                flag = "0".equals(((Collection) value).iterator().next()) ? 0L : 1L;
             }
         } else {
-            strValue = "0".equals(value) ? "0" : "1";
+            flag = "0".equals(value) ? 0L : 1L;
         }
 
-        return Collections.singletonList(createNumericQuery(PRODUCT_SHOP_INSTOCK_FLAG_FIELD + strValue, navigationContext.getCustomerShopId()));
+        // in stock flags are updated in place so use doc values
+        return Collections.singletonList(createDocValuesNumericQuery(PRODUCT_SHOP_INSTOCK_FLAG_SORT_FIELD + navigationContext.getCustomerShopId(), flag));
     }
 }
@@ -71,7 +71,7 @@ public class PriceSearchQueryBuilder extends AbstractSearchQueryBuilderImpl impl
         final Long from = SearchUtil.priceToLong(priceParams.getSecond().getFirst());
         final Long to = SearchUtil.priceToLong(priceParams.getSecond().getSecond());
 
-        // field name for from and to will be the same
-        return Collections.singletonList(createRangeQuery(facet + "_range", from, to));
+        // field name for from and to will be the same, prices are updated in place so use doc values
+        return Collections.singletonList(createDocValuesRangeQuery(facet, from, to));
     }
 }
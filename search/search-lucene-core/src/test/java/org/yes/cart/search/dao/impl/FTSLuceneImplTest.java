@@ -20,6 +20,7 @@ import org.apache.commons.lang.math.NumberUtils;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.FuzzyQuery;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -27,14 +28,19 @@ import org.apache.lucene.search.TermQuery;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.yes.cart.dao.ResultsIterator;
 import org.yes.cart.domain.i18n.I18NModel;
 import org.yes.cart.domain.misc.Pair;
+import org.yes.cart.search.dao.IndexBuilder;
 import org.yes.cart.search.dao.LuceneDocumentAdapter;
+import org.yes.cart.search.dao.LuceneDocumentValuesAdapter;
 import org.yes.cart.search.dao.LuceneIndexProvider;
 import org.yes.cart.search.dao.entity.AdapterUtils;
 import org.yes.cart.search.dao.entity.LuceneDocumentAdapterUtils;
 import org.yes.cart.search.dto.FilteredNavigationRecordRequest;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
+import org.yes.cart.search.dto.impl.FTSTimerStatisticsDTO;
 import org.yes.cart.search.dto.impl.FilteredNavigationRecordRequestImpl;
 
 import java.util.*;
@@ -163,9 +169,36 @@ public class FTSLuceneImplTest {
         }
     }
 
+    private static class MapValuesLuceneDocumentAdapter extends MapLuceneDocumentAdapter implements LuceneDocumentValuesAdapter<Map<String, Object>, Long> {
+
+        private int toDocumentCalls = 0;
+
+        @Override
+        public Pair<Long, Document[]> toDocument(final Map<String, Object> entity) {
+            toDocumentCalls++;
+            final Map<String, Object> fields = new HashMap<>(entity);
+            fields.remove("price");
+            final Pair<Long, Document[]> documents = super.toDocument(fields);
+            for (final IndexableField field : toDocumentValues(entity).getSecond()[0]) {
+                documents.getSecond()[0].add(field);
+            }
+            return documents;
+        }
+
+        @Override
+        public Pair<Long, Document[]> toDocumentValues(final Map<String, Object> entity) {
+            final Document values = new Document();
+            LuceneDocumentAdapterUtils.addNumericSortField(values, "price_sort", (Long) entity.get("price"));
+            LuceneDocumentAdapterUtils.addDocValuesKeyField(values, (String) entity.get("_PK"));
+            LuceneDocumentAdapterUtils.addDocValuesSignatureField(values, values);
+            return new Pair<>(NumberUtils.toLong((String) entity.get("_PK")), new Document[] { values });
+        }
+    }
+
     private static class MapIndexBuilderLucene extends IndexBuilderLuceneImpl<Map<String, Object>, Long> {
 
         private List<Map<String, Object>> docs = null;
+        private int findByIdCalls = 0;
 
         public MapIndexBuilderLucene(final LuceneDocumentAdapter<Map<String, Object>, Long> documentAdapter,
                                      final LuceneIndexProvider indexProvider) {
@@ -179,6 +212,7 @@ public class FTSLuceneImplTest {
 
         @Override
         protected Map<String, Object> findById(final Long primaryKey) {
+            findByIdCalls++;
             for (final Map<String, Object> doc : this.docs) {
                 if (doc.get(AdapterUtils.FIELD_PK).equals(String.valueOf(primaryKey))) {
                     return doc;
@@ -220,11 +254,55 @@ public class FTSLuceneImplTest {
             };
         }
 
+        @Override
+        protected ResultsIterator<Long> findAllPrimaryKeysIterator() {
+
+            final Iterator<Map<String, Object>> it = this.docs.iterator();
+
+            return new ResultsIterator<Long>() {
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+
+                @Override
+                public void close() {
+
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Long next() {
+                    return getPrimaryKey(it.next());
+                }
+            };
+        }
+
+        @Override
+        protected List<Map<String, Object>> findByIds(final List<Long> primaryKeys) {
+            final List<Map<String, Object>> found = new ArrayList<>();
+            for (final Map<String, Object> doc : this.docs) {
+                if (primaryKeys.contains(getPrimaryKey(doc))) {
+                    found.add(doc);
+                }
+            }
+            return found;
+        }
+
         @Override
         protected Map<String, Object> unproxyEntity(final Map<String, Object> entity) {
             return entity;
         }
 
+        @Override
+        protected Long getPrimaryKey(final Map<String, Object> entity) {
+            return Long.valueOf((String) entity.get(AdapterUtils.FIELD_PK));
+        }
+
         @Override
         protected void endBatch(final Object tx) {
 
@@ -244,6 +322,42 @@ public class FTSLuceneImplTest {
     }
 
 
+    @Test
+    public void testFullTextSearchReindexParallel() throws Exception {
+
+        final List<Map<String, Object>> docs = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            final Map<String, Object> doc = new HashMap<>();
+            doc.put("_PK", String.valueOf(100000 + i));
+            doc.put("name", i % 2 == 0 ? "item even" : "item odd");
+            docs.add(doc);
+        }
+        indexBuilderLucene.setDocs(docs);
+        indexBuilderLucene.setIndexExecutor(new SyncTaskExecutor());
+        indexBuilderLucene.setDocumentBuilderThreads(4);
+
+        indexBuilderLucene.fullTextSearchReindex(true, 20);
+
+        final IndexBuilder.FTIndexState state = indexBuilderLucene.getFullTextIndexState();
+        assertTrue(state.isFullTextSearchReindexCompleted());
+        assertEquals(250L, state.getLastIndexCount());
+        assertTrue(state.getReadThroughput() > 0d);
+        assertTrue(state.getBuildThroughput() > 0d);
+        assertTrue(state.getWriteThroughput() > 0d);
+
+        assertEquals(0, indexBuilderLucene.findByIdCalls); // chunks are loaded in one go
+        assertEquals(250, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+        assertEquals(125, genericFTSLucene.fullTextSearchCount(new TermQuery(new Term("name", "even"))));
+
+        // second run replaces all documents
+        docs.remove(0);
+        indexBuilderLucene.fullTextSearchReindex(true, 20);
+
+        assertEquals(249, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+        assertEquals(0, genericFTSLucene.fullTextSearchCount(new TermQuery(new Term("_PK", "100000"))));
+
+    }
+
     @Test
     public void testFullTextSearch() throws Exception {
 
@@ -365,6 +479,214 @@ public class FTSLuceneImplTest {
         assertEquals("100001", vals.get(0)[0]);
         assertEquals("{\"name\":\"item two\",\"_PK\":\"100001\",\"desc\":\"other desc\"}", vals.get(0)[1]);
 
+
+        // Search after pagination, sorted
+        Pair<List<Object[]>, Pair<Integer, String>> after;
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), null, 2, "_PK_sort", true, "_PK");
+        assertEquals(Integer.valueOf(3), after.getSecond().getFirst());
+        assertEquals(2, after.getFirst().size());
+        assertEquals("111111", after.getFirst().get(0)[0]);
+        assertEquals("100001", after.getFirst().get(1)[0]);
+        assertNotNull(after.getSecond().getSecond());
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), after.getSecond().getSecond(), 2, "_PK_sort", true, "_PK");
+        assertEquals(Integer.valueOf(3), after.getSecond().getFirst());
+        assertEquals(1, after.getFirst().size());
+        assertEquals("100000", after.getFirst().get(0)[0]);
+        assertNull(after.getSecond().getSecond());
+
+        // Search after pagination, sorted by numeric doc values
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), null, 2, "_PK", true, "_PK");
+        assertEquals(2, after.getFirst().size());
+        assertEquals("111111", after.getFirst().get(0)[0]);
+        assertEquals("100001", after.getFirst().get(1)[0]);
+        assertNotNull(after.getSecond().getSecond());
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), after.getSecond().getSecond(), 2, "_PK", true, "_PK");
+        assertEquals(1, after.getFirst().size());
+        assertEquals("100000", after.getFirst().get(0)[0]);
+        assertNull(after.getSecond().getSecond());
+
+        // Search after pagination, relevance
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), null, 1, null, false, "_PK");
+        assertEquals(1, after.getFirst().size());
+        assertEquals("100000", after.getFirst().get(0)[0]);
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), after.getSecond().getSecond(), 1, null, false, "_PK");
+        assertEquals(1, after.getFirst().size());
+        assertEquals("100001", after.getFirst().get(0)[0]);
+
+        // Invalid token
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), "not-a-token", 1, null, false, "_PK");
+        assertTrue(after.getFirst().isEmpty());
+
+    }
+
+    @Test
+    public void testFullTextSearchAfterReindex() throws Exception {
+
+        final Map<String, Object> one = new HashMap<>();
+        one.put("_PK", "100000");
+        one.put("name", "item one");
+        final Map<String, Object> two = new HashMap<>();
+        two.put("_PK", "100001");
+        two.put("name", "item two");
+        final Map<String, Object> three = new HashMap<>();
+        three.put("_PK", "111111");
+        three.put("name", "item three");
+
+        indexBuilderLucene.setDocs(Arrays.asList(one, two, three));
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        final Pair<List<Object[]>, Pair<Integer, String>> sorted = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), null, 1, "_PK_sort", true, "_PK");
+        assertEquals("111111", sorted.getFirst().get(0)[0]);
+        final Pair<List<Object[]>, Pair<Integer, String>> relevance = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), null, 1, null, false, "_PK");
+        assertEquals("100000", relevance.getFirst().get(0)[0]);
+
+        // full reindex swaps index, so doc ids are different and last doc id of the previous page no longer exists
+        indexBuilderLucene.setDocs(Arrays.asList(three, two));
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        Pair<List<Object[]>, Pair<Integer, String>> after;
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), sorted.getSecond().getSecond(), 1, "_PK_sort", true, "_PK");
+        assertEquals(Integer.valueOf(2), after.getSecond().getFirst());
+        assertEquals(1, after.getFirst().size());
+        assertEquals("100001", after.getFirst().get(0)[0]);
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), after.getSecond().getSecond(), 1, "_PK_sort", true, "_PK");
+        assertTrue(after.getFirst().isEmpty());
+
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), relevance.getSecond().getSecond(), 2, null, false, "_PK");
+        assertEquals(2, after.getFirst().size());
+        assertEquals("100001", after.getFirst().get(0)[0]);
+        assertEquals("111111", after.getFirst().get(1)[0]);
+
+        // token of different sort
+        after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), relevance.getSecond().getSecond(), 1, "_PK_sort", true, "_PK");
+        assertTrue(after.getFirst().isEmpty());
+
+    }
+
+    @Test
+    public void testFullTextSearchOffsetAndSearchAfterTieBreak() throws Exception {
+
+        final Map<String, Object> one = new HashMap<>();
+        one.put("_PK", "100000");
+        one.put("name", "same");
+        final Map<String, Object> two = new HashMap<>();
+        two.put("_PK", "100001");
+        two.put("name", "same");
+        final Map<String, Object> three = new HashMap<>();
+        three.put("_PK", "111111");
+        three.put("name", "same");
+
+        // doc id order differs from PK order
+        indexBuilderLucene.setDocs(Arrays.asList(three, one, two));
+        indexBuilderLucene.fullTextSearchReindex(false, 3);
+
+        final Pair<List<Object[]>, Pair<Integer, String>> first = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), null, 1, "name_sort", false, "_PK");
+        assertEquals("100000", first.getFirst().get(0)[0]);
+
+        // page numbers continue in the same order as the token
+        final Pair<List<Object[]>, Pair<Integer, String>> after = genericFTSLucene.fullTextSearchAfter(new MatchAllDocsQuery(), first.getSecond().getSecond(), 1, "name_sort", false, "_PK");
+        assertEquals("100001", after.getFirst().get(0)[0]);
+        assertEquals("100001", genericFTSLucene.fullTextSearch(new MatchAllDocsQuery(), 1, 1, "name_sort", false, "_PK").getFirst().get(0)[0]);
+        assertEquals("111111", genericFTSLucene.fullTextSearch(new MatchAllDocsQuery(), 2, 1, "name_sort", false, "_PK").getFirst().get(0)[0]);
+        assertEquals(Arrays.asList(100000L, 100001L, 111111L), genericFTSLucene.fullTextSearch(new MatchAllDocsQuery(), 0, 3, "name_sort", false));
+
+    }
+
+    @Test
+    public void testFullTextSearchReindexVolatileAfterRestart() throws Exception {
+
+        final List<Map<String, Object>> docs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final Map<String, Object> doc = new HashMap<>();
+            doc.put("_PK", String.valueOf(100000 + i));
+            doc.put("name", "item " + i);
+            doc.put("price", 100L + i);
+            docs.add(doc);
+        }
+
+        final MapValuesLuceneDocumentAdapter valuesAdapter = new MapValuesLuceneDocumentAdapter();
+        final MapIndexBuilderLucene builder = new MapIndexBuilderLucene(valuesAdapter, provider);
+        builder.setDocs(docs);
+        builder.fullTextSearchReindex(false, 2);
+
+        assertEquals(Arrays.asList(100000L, 100001L, 100002L), genericFTSLucene.fullTextSearch(new MatchAllDocsQuery(), 0, 3, "price_sort", false));
+
+        // new builder has no signatures in memory, so it has to read them from the index
+        final MapIndexBuilderLucene restarted = new MapIndexBuilderLucene(valuesAdapter, provider);
+        restarted.setDocs(docs);
+        restarted.setWaitForVisibility(true);
+        valuesAdapter.toDocumentCalls = 0;
+
+        docs.get(0).put("price", 200L);
+        restarted.fullTextSearchReindexVolatile(100000L);
+
+        assertEquals(0, valuesAdapter.toDocumentCalls);
+        assertEquals(Arrays.asList(100001L, 100002L, 100000L), genericFTSLucene.fullTextSearch(new MatchAllDocsQuery(), 0, 3, "price_sort", false));
+
+        // removed entity must not be updated in place even though searcher may still see it
+        docs.remove(2);
+        restarted.fullTextSearchReindex(100002L, true);
+        docs.add(new HashMap<String, Object>() {{ put("_PK", "100002"); put("name", "item 2"); put("price", 50L); }});
+        restarted.fullTextSearchReindexVolatile(100002L);
+
+        assertEquals(1, valuesAdapter.toDocumentCalls);
+        assertEquals(Arrays.asList(100002L, 100001L, 100000L), genericFTSLucene.fullTextSearch(new MatchAllDocsQuery(), 0, 3, "price_sort", false));
+
+    }
+
+    @Test
+    public void testFullTextSearchReindexOutdatedIndex() throws Exception {
+
+        final List<Map<String, Object>> docs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final Map<String, Object> doc = new HashMap<>();
+            doc.put("_PK", String.valueOf(100000 + i));
+            doc.put("name", "item " + i);
+            doc.put("price", 100L + i);
+            docs.add(doc);
+        }
+
+        // index built before doc values support, i.e. without doc values key
+        final List<Map<String, Object>> oldDocs = new ArrayList<>();
+        for (final Map<String, Object> doc : docs) {
+            final Map<String, Object> oldDoc = new HashMap<>(doc);
+            oldDoc.remove("price");
+            oldDocs.add(oldDoc);
+        }
+        indexBuilderLucene.setDocs(oldDocs);
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+        assertEquals(0, genericFTSLucene.fullTextSearchCount(new TermQuery(new Term(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_KEY, "100001"))));
+
+        final MapIndexBuilderLucene builder = new MapIndexBuilderLucene(new MapValuesLuceneDocumentAdapter(), provider);
+        builder.setDocs(docs);
+        builder.setIndexExecutor(new SyncTaskExecutor());
+        builder.setWaitForVisibility(true);
+
+        // outdated index is reported, ordinary updates do not trigger full reindex and keep old documents
+        builder.fullTextSearchReindex(100001L);
+        builder.fullTextSearchReindexVolatile(100002L);
+
+        assertTrue(builder.getFullTextIndexState().isFullTextIndexOutdated());
+        assertFalse(builder.getFullTextIndexState().isFullTextSearchReindexCompleted());
+        assertEquals(3, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+        assertEquals(0, genericFTSLucene.fullTextSearchCount(new TermQuery(new Term(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_KEY, "100001"))));
+
+        // removal does not need new document structure
+        builder.fullTextSearchReindex(100000L, true);
+        assertEquals(2, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+
+        // full reindex (job or admin) rebuilds index
+        builder.fullTextSearchReindex(false, 2);
+
+        assertFalse(builder.getFullTextIndexState().isFullTextIndexOutdated());
+        assertTrue(builder.getFullTextIndexState().isFullTextSearchReindexCompleted());
+        assertEquals(3, genericFTSLucene.fullTextSearchCount(new MatchAllDocsQuery()));
+        assertEquals(1, genericFTSLucene.fullTextSearchCount(new TermQuery(new Term(LuceneDocumentAdapterUtils.FIELD_DOCVALUES_KEY, "100001"))));
+
+        docs.get(1).put("price", 200L);
+        builder.fullTextSearchReindexVolatile(100001L);
+        assertEquals(Arrays.asList(100000L, 100002L, 100001L), genericFTSLucene.fullTextSearch(new MatchAllDocsQuery(), 0, 3, "price_sort", false));
+
     }
 
     @Test
@@ -487,6 +809,56 @@ public class FTSLuceneImplTest {
         checkFacetValue(facets, "other desc", 3);
         checkFacetValue(facets, "desc", 2);
 
+        // Sorted set facet states are built once per searcher generation
+        assertEquals(2L, provider.getFacetsReaderStateMisses());
+        assertEquals(4L, provider.getFacetsReaderStateHits());
+
+        // Navigation is timed as a whole and per facet
+        final FTSStatisticsDTO stats = genericFTSLucene.getFullTextSearchStatistics();
+        assertEquals("test", stats.getIndexName());
+        assertEquals(6, stats.getIndexReaderNumDocs());
+        final Map<String, FTSTimerStatisticsDTO> timers = new HashMap<>();
+        for (final FTSTimerStatisticsDTO timer : stats.getTimers()) {
+            timers.put(timer.getName(), timer);
+        }
+        assertEquals(3L, timers.get("navigation").getCount());
+        assertEquals(3L, timers.get("facet:Names").getCount());
+
+    }
+
+    @Test
+    public void testFullTextSearchSlowQueryExplain() throws Exception {
+
+        genericFTSLucene.setSlowQueryThresholdMs(0L);
+
+        indexBuilderLucene.setDocs(
+                (List) Arrays.asList(
+                        new HashMap<String, String>() {{
+                            put("_PK", "100000");
+                            put("name", "item one");
+                        }},
+                        new HashMap<String, String>() {{
+                            put("_PK", "100001");
+                            put("name", "item two");
+                        }}
+                )
+        );
+
+        indexBuilderLucene.fullTextSearchReindex(false, 2);
+
+        assertEquals(1, genericFTSLucene.fullTextSearchCount(new TermQuery(new Term("_PK", "100000"))));
+
+        final FTSStatisticsDTO stats = genericFTSLucene.getFullTextSearchStatistics();
+        assertEquals(1, stats.getSlowQueries().size());
+        assertEquals("count", stats.getSlowQueries().get(0).getTimer());
+        assertEquals("_PK:100000", stats.getSlowQueries().get(0).getQuery());
+        assertEquals(1, stats.getSlowQueries().get(0).getHits());
+
+        final String explain = genericFTSLucene.explainFullTextSearchQuery(stats.getSlowQueries().get(0).getId());
+        assertTrue(explain, explain.contains("Hits: 1"));
+        assertTrue(explain, explain.contains("_PK:100000"));
+
+        assertNull(genericFTSLucene.explainFullTextSearchQuery(-1L));
 
     }
 
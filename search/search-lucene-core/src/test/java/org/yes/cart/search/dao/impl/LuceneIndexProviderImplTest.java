@@ -0,0 +1,246 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 16:02
+ */
+public class LuceneIndexProviderImplTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LuceneIndexProviderImpl provider;
+    private Path base;
+
+    @Before
+    public void setUp() throws Exception {
+
+        provider = new LuceneIndexProviderImpl("test", "auto://" + folder.getRoot().getAbsolutePath());
+        provider.afterPropertiesSet();
+        base = folder.getRoot().toPath().resolve("test");
+
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        provider.destroy();
+
+    }
+
+    @Test
+    public void testSwapShadowIndex() throws Exception {
+
+        final IndexWriter live = provider.provideIndexWriter();
+        live.addDocument(doc("old"));
+        live.commit();
+        provider.releaseIndexWriter(live);
+        provider.refreshIfNecessary();
+
+        final IndexSearcher before = provider.provideIndexReader();
+        assertEquals(1, before.count(new TermQuery(new Term("value", "old"))));
+
+        final IndexWriter shadow = provider.provideShadowIndexWriter();
+        assertNotSame(live, shadow);
+        assertSame(shadow, provider.provideShadowIndexWriter());
+        shadow.addDocument(doc("new1"));
+        shadow.addDocument(doc("new2"));
+
+        // shadow index is not visible until swapped
+        provider.refreshIfNecessary();
+        assertEquals(0, countLive("new1"));
+        assertEquals(1, countLive("old"));
+
+        provider.swapShadowIndex();
+
+        final IndexWriter swapped = provider.provideIndexWriter();
+        provider.releaseIndexWriter(swapped);
+        assertNotSame(live, swapped);
+        assertEquals(0, countLive("old"));
+        assertEquals(1, countLive("new1"));
+        assertEquals(2, countLive(null));
+
+        final String generation = new String(Files.readAllBytes(base.resolve("generation")), StandardCharsets.UTF_8);
+        assertTrue(Files.isDirectory(base.resolve("index" + generation)));
+        assertTrue(Files.isDirectory(base.resolve("taxonomy" + generation)));
+
+        // searcher acquired before swap is still usable and old generation is kept until it is released
+        assertEquals(1, before.count(new TermQuery(new Term("value", "old"))));
+        assertTrue(Files.isDirectory(base.resolve("index")));
+
+        provider.releaseIndexReader(before);
+
+        assertFalse(Files.exists(base.resolve("index")));
+        assertFalse(Files.exists(base.resolve("taxonomy")));
+
+        // generation is picked up on restart
+        provider.destroy();
+        provider = new LuceneIndexProviderImpl("test", "auto://" + folder.getRoot().getAbsolutePath());
+        provider.afterPropertiesSet();
+
+        assertEquals(2, countLive(null));
+
+    }
+
+    @Test
+    public void testDiscardShadowIndex() throws Exception {
+
+        final IndexWriter live = provider.provideIndexWriter();
+        live.addDocument(doc("old"));
+        live.commit();
+        provider.releaseIndexWriter(live);
+        provider.refreshIfNecessary();
+
+        provider.provideShadowIndexWriter().addDocument(doc("new1"));
+        provider.discardShadowIndex();
+
+        assertEquals(1, countLive("old"));
+        assertFalse(Files.exists(base.resolve("generation")));
+        final File[] dirs = base.toFile().listFiles();
+        assertNotNull(dirs);
+        assertEquals(2, dirs.length); // index + taxonomy
+
+        try {
+            provider.swapShadowIndex();
+            fail("No shadow index");
+        } catch (IllegalStateException ise) {
+            // expected
+        }
+
+    }
+
+    @Test
+    public void testWaitForGeneration() throws Exception {
+
+        final IndexWriter live = provider.provideIndexWriter();
+        final long generation = live.addDocument(doc("nrt"));
+        provider.releaseIndexWriter(live);
+
+        assertTrue(provider.waitForGeneration(live, generation));
+        assertEquals(1, countLive("nrt"));
+
+        // change to swapped writer is never visible
+        final IndexWriter shadow = provider.provideShadowIndexWriter();
+        provider.swapShadowIndex();
+        assertFalse(provider.waitForGeneration(live, generation));
+        final IndexWriter swapped = provider.provideIndexWriter();
+        provider.releaseIndexWriter(swapped);
+        assertSame(shadow, swapped);
+
+    }
+
+    @Test
+    public void testSwappedGenerationRemovedAfterAllSearchersReleased() throws Exception {
+
+        final IndexSearcher first = provider.provideIndexReader();
+
+        final IndexWriter live = provider.provideIndexWriter();
+        live.addDocument(doc("old"));
+        live.commit();
+        provider.releaseIndexWriter(live);
+        provider.refreshIfNecessary();
+
+        // second searcher is on a newer reader of the same generation
+        final IndexSearcher second = provider.provideIndexReader();
+        assertNotSame(first.getIndexReader(), second.getIndexReader());
+
+        provider.provideShadowIndexWriter().addDocument(doc("new1"));
+        provider.swapShadowIndex();
+
+        provider.releaseIndexReader(second);
+
+        assertTrue(Files.isDirectory(base.resolve("index")));
+        assertEquals(0, first.count(new MatchAllDocsQuery()));
+
+        provider.releaseIndexReader(first);
+
+        assertFalse(Files.exists(base.resolve("index")));
+        assertFalse(Files.exists(base.resolve("taxonomy")));
+        assertEquals(1, countLive("new1"));
+
+    }
+
+    @Test
+    public void testSwapWaitsForLiveWriter() throws Exception {
+
+        final IndexWriter live = provider.provideIndexWriter();
+        provider.provideShadowIndexWriter().addDocument(doc("new1"));
+
+        final CountDownLatch swapped = new CountDownLatch(1);
+        final Thread swap = new Thread(() -> {
+            provider.swapShadowIndex();
+            swapped.countDown();
+        });
+        swap.start();
+
+        assertFalse("Swap must wait for live writer", swapped.await(200, TimeUnit.MILLISECONDS));
+
+        live.addDocument(doc("old"));
+        provider.releaseIndexWriter(live);
+
+        assertTrue(swapped.await(5, TimeUnit.SECONDS));
+        swap.join();
+
+        final IndexWriter current = provider.provideIndexWriter();
+        provider.releaseIndexWriter(current);
+        assertNotSame(live, current);
+        assertEquals(1, countLive("new1"));
+
+    }
+
+    private int countLive(final String value) throws Exception {
+        final IndexSearcher searcher = provider.provideIndexReader();
+        try {
+            return searcher.count(value == null ? new MatchAllDocsQuery() : new TermQuery(new Term("value", value)));
+        } finally {
+            provider.releaseIndexReader(searcher);
+        }
+    }
+
+    private Document doc(final String value) {
+        final Document doc = new Document();
+        doc.add(new StringField("value", value, Field.Store.YES));
+        return doc;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package org.yes.cart.search.dao.impl;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+import org.junit.Test;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
+import org.yes.cart.search.dto.impl.FTSTimerStatisticsDTO;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 10:21
+ */
+public class LuceneSearchStatisticsTest {
+
+    @Test
+    public void testHistogramBuckets() throws Exception {
+
+        for (long value = 0L; value < 100000L; value += 7L) {
+            final int bucket = LuceneSearchStatistics.LatencyHistogram.bucket(value);
+            final long upper = LuceneSearchStatistics.LatencyHistogram.upperBound(bucket);
+            assertTrue(value + " <= " + upper, value <= upper);
+            assertTrue("error for " + value, upper - value <= Math.max(0L, value / 8L));
+        }
+        final int last = LuceneSearchStatistics.LatencyHistogram.bucket(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LuceneSearchStatistics.LatencyHistogram.upperBound(last));
+
+    }
+
+    @Test
+    public void testHistogramPercentiles() throws Exception {
+
+        final LuceneSearchStatistics.LatencyHistogram histogram = new LuceneSearchStatistics.LatencyHistogram();
+        for (long value = 1L; value <= 1000L; value++) {
+            histogram.record(value);
+        }
+
+        final FTSTimerStatisticsDTO dto = histogram.toDTO("search");
+        assertEquals("search", dto.getName());
+        assertEquals(1000L, dto.getCount());
+        assertEquals(500L, dto.getMean());
+        assertEquals(1000L, dto.getMax());
+        assertTrue(dto.getP50() >= 500L && dto.getP50() <= 500L * 9L / 8L);
+        assertTrue(dto.getP90() >= 900L && dto.getP90() <= 900L * 9L / 8L);
+        assertTrue(dto.getP99() >= 990L && dto.getP99() <= 1000L);
+
+    }
+
+    @Test
+    public void testSlowQueryLog() throws Exception {
+
+        final LuceneSearchStatistics statistics = new LuceneSearchStatistics();
+        statistics.setSlowQueryThresholdMs(0L);
+        statistics.setSlowQueryLogSize(2);
+
+        for (int i = 0; i < 3; i++) {
+            statistics.record("search", System.nanoTime(), new TermQuery(new Term("q", "v" + i)), i);
+        }
+        statistics.record("facet:brand", System.nanoTime(), null, 0);
+
+        final FTSStatisticsDTO stats = new FTSStatisticsDTO();
+        statistics.populate(stats);
+
+        assertEquals(2, stats.getTimers().size());
+        assertEquals("facet:brand", stats.getTimers().get(0).getName());
+        assertEquals(1L, stats.getTimers().get(0).getCount());
+        assertEquals("search", stats.getTimers().get(1).getName());
+        assertEquals(3L, stats.getTimers().get(1).getCount());
+
+        // oldest query was overwritten, most recent first
+        assertEquals(2, stats.getSlowQueries().size());
+        assertEquals("q:v2", stats.getSlowQueries().get(0).getQuery());
+        assertEquals(2, stats.getSlowQueries().get(0).getHits());
+        assertEquals("q:v1", stats.getSlowQueries().get(1).getQuery());
+
+        assertNull(statistics.getSlowQuery(1L));
+        assertEquals(new TermQuery(new Term("q", "v2")), statistics.getSlowQuery(stats.getSlowQueries().get(0).getId()));
+
+        statistics.reset();
+        final FTSStatisticsDTO empty = new FTSStatisticsDTO();
+        statistics.populate(empty);
+        assertTrue(empty.getTimers().isEmpty());
+        assertTrue(empty.getSlowQueries().isEmpty());
+
+    }
+
+}
@@ -49,7 +49,7 @@ public class InStockProductSearchQueryBuilderTest {
         final List<Query> query = new InStockProductSearchQueryBuilder().createQueryChain(navigationContext, "any", "1");
         assertNotNull(query);
         assertEquals(1, query.size());
-        assertEquals("productInStockFlagShopId1:[1010 TO 1010]", query.get(0).toString());
+        assertEquals("productInStockFlagShopId_sort1010:[1 TO 1]", query.get(0).toString());
 
         this.context.assertIsSatisfied();
 
@@ -67,7 +67,7 @@ public class InStockProductSearchQueryBuilderTest {
         final List<Query> query = new InStockProductSearchQueryBuilder().createQueryChain(navigationContext, "any", "0");
         assertNotNull(query);
         assertEquals(1, query.size());
-        assertEquals("productInStockFlagShopId0:[1010 TO 1010]", query.get(0).toString());
+        assertEquals("productInStockFlagShopId_sort1010:[0 TO 0]", query.get(0).toString());
 
         this.context.assertIsSatisfied();
 
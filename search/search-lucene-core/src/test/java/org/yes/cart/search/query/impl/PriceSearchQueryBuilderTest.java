@@ -87,7 +87,7 @@ public class PriceSearchQueryBuilderTest {
         final List<Query> query = builder.createQueryChain(navigationContext, "price", "EUR-_-10-_-20");
         assertNotNull(query);
         assertEquals(1, query.size());
-        assertEquals("facet_price_1010_EUR_range:[1000 TO 1999]", query.get(0).toString());
+        assertEquals("facet_price_1010_EUR:[1000 TO 1999]", query.get(0).toString());
 
         this.context.assertIsSatisfied();
 
@@ -201,8 +201,8 @@ public class ProductInventoryChangedProcessorImpl extends AbstractLastRunDepende
 
         } else {
             for (final String sku : skuCodes) {
-                // batch only
-                productService.reindexProductSku(sku);
+                // batch only, inventory changes are applied in place unless availability of the product has changed
+                productService.reindexProductSkuVolatile(sku);
             }
         }
 
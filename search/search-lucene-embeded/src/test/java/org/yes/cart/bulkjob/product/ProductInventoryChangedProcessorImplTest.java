@@ -21,11 +21,15 @@ import org.springframework.cache.CacheManager;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.yes.cart.BaseCoreDBTestCase;
+import org.yes.cart.dao.constants.DaoServiceBeanKeys;
+import org.yes.cart.dao.GenericFTSCapableDAO;
 import org.yes.cart.domain.dto.ProductSearchResultDTO;
+import org.yes.cart.domain.dto.impl.ProductSearchResultDTOImpl;
 import org.yes.cart.domain.entity.Product;
 import org.yes.cart.domain.entity.Warehouse;
 import org.yes.cart.domain.misc.Pair;
 import org.yes.cart.search.SearchQueryFactory;
+import org.yes.cart.search.dao.entity.AdapterUtils;
 import org.yes.cart.search.dto.NavigationContext;
 import org.yes.cart.search.query.ProductSearchQueryBuilder;
 import org.yes.cart.service.domain.ProductService;
@@ -36,6 +40,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -140,6 +145,62 @@ public class ProductInventoryChangedProcessorImplTest extends BaseCoreDBTestCase
 
 
 
+    }
+
+    @Test
+    public void testRunInventoryUpdatedInPlace() throws Exception {
+
+        final WarehouseService warehouseService = ctx().getBean("warehouseService", WarehouseService.class);
+        final ProductService productService = ctx().getBean("productService", ProductService.class);
+        final SkuWarehouseService skuWarehouseService = ctx().getBean("skuWarehouseService", SkuWarehouseService.class);
+        final SearchQueryFactory searchQueryFactory = ctx().getBean("ftQueryFactory", SearchQueryFactory.class);
+        final GenericFTSCapableDAO<Product, Long, Object> productDao = (GenericFTSCapableDAO<Product, Long, Object>) ctx().getBean(DaoServiceBeanKeys.PRODUCT_DAO);
+
+        final List<Warehouse> warehouses = warehouseService.getByShopId(10L, false);
+
+        final Product product = productService.findById(9998L);
+        final String skuCode = product.getDefaultSku().getCode();
+
+        productService.reindexProduct(product.getId());
+
+        final NavigationContext context = searchQueryFactory.getFilteredNavigationQueryChain(10L, 10L, null, null,
+                false, Collections.singletonMap(ProductSearchQueryBuilder.PRODUCT_ID_FIELD, (List) Collections.singletonList("9998")));
+
+        List<ProductSearchResultDTO> rez = productService.getProductSearchResultDTOByQuery(context, 0, 1, null, false).getResults();
+        assertEquals(1, rez.size());
+        final BigDecimal oldQty = rez.get(0).getQtyOnWarehouse(10L).get(skuCode);
+        assertTrue(oldQty.compareTo(BigDecimal.ZERO) > 0);
+
+        getTx().execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus transactionStatus) {
+                // native update to bypass indexing on save!!
+                for (final Warehouse warehouse : warehouses) {
+                    productService.getGenericDao().executeNativeUpdate("update TSKUWAREHOUSE set QUANTITY = QUANTITY + 5"
+                            + ", UPDATED_TIMESTAMP = '2099-01-01 00:00:00' where WAREHOUSE_ID = "
+                            + warehouse.getWarehouseId() + " and SKU_CODE = '" + skuCode + "'");
+                }
+            }
+        });
+
+        getTx().execute(runInTransactionNow(productService, skuWarehouseService));
+
+        final CacheManager mgr = ctx().getBean("cacheManager", CacheManager.class);
+        mgr.getCache("productService-productSearchResultDTOByQuery").clear();
+
+        rez = productService.getProductSearchResultDTOByQuery(context, 0, 1, null, false).getResults();
+        assertEquals(1, rez.size());
+        assertEquals(0, oldQty.add(new BigDecimal(5)).compareTo(rez.get(0).getQtyOnWarehouse(10L).get(skuCode)));
+
+        // stock change does not affect availability, so document is not rebuilt and stored object has old quantity
+        final List<Object[]> raw = productDao.fullTextSearch(context.getProductQuery(), 0, 1, null, false,
+                AdapterUtils.FIELD_OBJECT, AdapterUtils.FIELD_QTY).getFirst();
+        assertEquals(1, raw.size());
+        final ProductSearchResultDTO stored = AdapterUtils.readObjectFieldValue((String) raw.get(0)[0], ProductSearchResultDTOImpl.class);
+        assertEquals(0, oldQty.compareTo(stored.getQtyOnWarehouse(10L).get(skuCode)));
+        final Map<Long, Map<String, BigDecimal>> updated = AdapterUtils.readQtyFieldValue((String) raw.get(0)[1]);
+        assertEquals(0, oldQty.add(new BigDecimal(5)).compareTo(updated.get(10L).get(skuCode)));
+
     }
 
     TransactionCallbackWithoutResult runInTransactionNow(final ProductService productService, final SkuWarehouseService skuWarehouseService) {
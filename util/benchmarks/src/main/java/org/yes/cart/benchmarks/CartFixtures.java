@@ -0,0 +1,235 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.benchmarks;
+
+import org.yes.cart.domain.entity.Brand;
+import org.yes.cart.domain.entity.CarrierSla;
+import org.yes.cart.domain.entity.Product;
+import org.yes.cart.domain.entity.ProductSku;
+import org.yes.cart.domain.entity.impl.CarrierSlaEntity;
+import org.yes.cart.domain.entity.impl.SkuPriceEntity;
+import org.yes.cart.domain.entity.impl.TaxEntity;
+import org.yes.cart.promotion.PromotionConditionSupport;
+import org.yes.cart.promotion.PromotionContextFactory;
+import org.yes.cart.promotion.impl.InMemoryPromotionContextFactory;
+import org.yes.cart.service.domain.*;
+import org.yes.cart.service.order.DeliveryBucket;
+import org.yes.cart.service.order.impl.DeliveryBucketImpl;
+import org.yes.cart.shoppingcart.*;
+import org.yes.cart.shoppingcart.impl.DefaultAmountCalculationStrategy;
+import org.yes.cart.shoppingcart.impl.PriceListDeliveryCostCalculationStrategy;
+import org.yes.cart.shoppingcart.impl.ShoppingCartImpl;
+import org.yes.cart.shoppingcart.impl.TaxProviderDefaultImpl;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * In-memory fixtures for cart calculation benchmarks. All collaborators are production implementations
+ * except for services that normally hit database or cache, which are replaced by {@link InMemoryServices}.
+ *
+ * SKU codes are SKU-0 ... SKU-n, SKU-n belongs to Brand-(n mod 10), all items are delivered by single
+ * supplier with fixed price carrier SLA and 20% inclusive VAT.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:35
+ */
+public final class CartFixtures {
+
+    public static final String SHOP_CODE = "SHOP10";
+    public static final long SHOP_ID = 10L;
+    public static final String CURRENCY = "EUR";
+    public static final String SUPPLIER = "Main";
+    public static final long CARRIER_SLA_ID = 4L;
+
+    private static final PricingPolicyProvider.PricingPolicy DEFAULT_POLICY = new PricingPolicyProvider.PricingPolicy() {
+        @Override
+        public String getID() {
+            return null;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.DEFAULT;
+        }
+    };
+
+    private CartFixtures() {
+        // no instance
+    }
+
+    /**
+     * @return pricing policy provider that always resolves default policy
+     */
+    public static PricingPolicyProvider pricingPolicyProvider() {
+        return (shopCode, currency, customerEmail, countryCode, stateCode) -> DEFAULT_POLICY;
+    }
+
+    /**
+     * @return condition support resolving brand from SKU code
+     */
+    public static PromotionConditionSupport conditionSupport() {
+        return new PromotionConditionSupport() {
+            @Override
+            public Product getProductBySkuCode(final String sku) {
+                return null;
+            }
+
+            @Override
+            public ProductSku getProductSkuByCode(final String sku) {
+                return null;
+            }
+
+            @Override
+            public Brand getProductBrand(final String sku) {
+                return null;
+            }
+
+            @Override
+            public boolean hasProductAttribute(final String sku, final String attribute) {
+                return false;
+            }
+
+            @Override
+            public String getProductAttribute(final String sku, final String attribute) {
+                return null;
+            }
+
+            @Override
+            public boolean isProductOfBrand(final String sku, final String... brandNames) {
+                final String brand = "Brand-" + (Integer.parseInt(sku.substring(sku.indexOf('-') + 1)) % 10);
+                return Arrays.asList(brandNames).contains(brand);
+            }
+
+            @Override
+            public boolean isProductInCategory(final String sku, final Long shopId, final String... categoryGUIDs) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return default tax provider backed by single 20% inclusive VAT configuration
+     */
+    public static TaxProvider taxProvider() {
+
+        final TaxEntity vat = new TaxEntity();
+        vat.setTaxId(1L);
+        vat.setCode("VAT");
+        vat.setTaxRate(new BigDecimal("20.00"));
+        vat.setExclusiveOfPrice(false);
+
+        return new TaxProviderDefaultImpl(
+                InMemoryServices.stub(TaxService.class).on("getById", args -> vat).build(),
+                InMemoryServices.stub(TaxConfigService.class).on("getTaxIdBy", args -> vat.getTaxId()).build()
+        );
+
+    }
+
+    /**
+     * @return price list delivery cost strategy with single fixed price carrier SLA
+     */
+    public static DeliveryCostCalculationStrategy deliveryCostCalculationStrategy() {
+
+        final CarrierSlaEntity sla = new CarrierSlaEntity();
+        sla.setCarrierslaId(CARRIER_SLA_ID);
+        sla.setGuid("CSLA_FIXED");
+        sla.setName("Standard");
+        sla.setSlaType(CarrierSla.FIXED);
+
+        final SkuPriceEntity price = new SkuPriceEntity();
+        price.setSkuPriceId(1L);
+        price.setSkuCode(sla.getGuid());
+        price.setCurrency(CURRENCY);
+        price.setQuantity(BigDecimal.ONE);
+        price.setRegularPrice(new BigDecimal("10.00"));
+
+        return new PriceListDeliveryCostCalculationStrategy(
+                InMemoryServices.stub(CarrierSlaService.class).on("getById", args -> sla).build(),
+                pricingPolicyProvider(),
+                (cart, carrierSlaBaseCode, policy, qty) -> price
+        );
+
+    }
+
+    /**
+     * @param itemPromotions number of generated item promotions
+     * @param skus           number of distinct SKU
+     *
+     * @return promotion context factory with generated promotions
+     */
+    public static PromotionContextFactory promotionContextFactory(final int itemPromotions, final int skus) {
+        return new InMemoryPromotionContextFactory(
+                SHOP_CODE, CURRENCY, itemPromotions, skus, conditionSupport(), pricingPolicyProvider());
+    }
+
+    /**
+     * @param promotionContextFactory promotions
+     *
+     * @return default amount calculation strategy with in-memory collaborators
+     */
+    public static AmountCalculationStrategy amountCalculationStrategy(final PromotionContextFactory promotionContextFactory) {
+        return new DefaultAmountCalculationStrategy(
+                taxProvider(),
+                deliveryCostCalculationStrategy(),
+                promotionContextFactory,
+                InMemoryServices.stub(CustomerService.class).build(),
+                InMemoryServices.stub(ShopService.class).build()
+        );
+    }
+
+    /**
+     * Anonymous cart with given number of distinct items, prices and selected delivery. The cart is not
+     * recalculated.
+     *
+     * @param strategy calculation strategy
+     * @param items    number of items
+     *
+     * @return cart
+     */
+    public static MutableShoppingCart cart(final AmountCalculationStrategy strategy, final int items) {
+
+        final ShoppingCartImpl cart = new ShoppingCartImpl();
+        cart.initialise(strategy);
+        cart.setCurrencyCode(CURRENCY);
+        cart.setCurrentLocale("en");
+
+        final MutableShoppingContext ctx = cart.getShoppingContext();
+        ctx.setShopId(SHOP_ID);
+        ctx.setShopCode(SHOP_CODE);
+        ctx.setCustomerShopId(SHOP_ID);
+        ctx.setCustomerShopCode(SHOP_CODE);
+        ctx.setCountryCode("GB");
+
+        final DeliveryBucket bucket = new DeliveryBucketImpl("D1", SUPPLIER);
+        for (int i = 0; i < items; i++) {
+            final String sku = "SKU-" + i;
+            final BigDecimal list = new BigDecimal(50 + (i % 20) * 10).setScale(2);
+            final BigDecimal sale = i % 3 == 0 ? list.subtract(new BigDecimal("5.00")) : list;
+            cart.addProductSkuToCart(sku, "Product " + i, new BigDecimal(1 + i % 3));
+            cart.setProductSkuPrice(sku, sale, list);
+            cart.setProductSkuDeliveryBucket(sku, bucket);
+        }
+
+        cart.getOrderInfo().putCarrierSlaId(SUPPLIER, CARRIER_SLA_ID);
+
+        return cart;
+
+    }
+
+}
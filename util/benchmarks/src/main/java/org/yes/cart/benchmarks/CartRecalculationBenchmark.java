@@ -0,0 +1,77 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yes.cart.service.domain.ShoppingCartCalculator;
+import org.yes.cart.service.domain.impl.ShoppingCartCalculatorImpl;
+import org.yes.cart.shoppingcart.AmountCalculationStrategy;
+import org.yes.cart.shoppingcart.MutableShoppingCart;
+import org.yes.cart.shoppingcart.Total;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full cart recalculation as performed after every cart command: item promotions, taxes, delivery cost,
+ * order and shipping promotions.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:50
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartRecalculationBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int items;
+
+    @Param({ "0", "20", "200" })
+    public int promotions;
+
+    private MutableShoppingCart cart;
+    private ShoppingCartCalculator calculator;
+
+    @Setup
+    public void setup() {
+
+        final AmountCalculationStrategy strategy = CartFixtures.amountCalculationStrategy(
+                CartFixtures.promotionContextFactory(promotions, Math.max(items, 10)));
+
+        this.cart = CartFixtures.cart(strategy, items);
+        this.cart.recalculate();
+        this.calculator = new ShoppingCartCalculatorImpl(strategy);
+
+    }
+
+    @Benchmark
+    public Total recalculate() {
+        cart.recalculate();
+        return cart.getTotal();
+    }
+
+    @Benchmark
+    public ShoppingCartCalculator.PriceModel calculatePrice() {
+        return calculator.calculatePrice(cart, "SKU-0", new BigDecimal("99.99"));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yes.cart.shoppingcart.MutableShoppingCart;
+import org.yes.cart.shoppingcart.ShoppingCart;
+import org.yes.cart.shoppingcart.support.tokendriven.ShoppingCartStateSerializer;
+import org.yes.cart.shoppingcart.support.tokendriven.impl.ShoppingCartStateSerializerBinaryImpl;
+import org.yes.cart.shoppingcart.support.tokendriven.impl.ShoppingCartStateSerializerJacksonImpl;
+import org.yes.cart.shoppingcart.support.tokendriven.impl.ShoppingCartStateSerializerSdkImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart state serialisation and restoration, which happens on every cart update and every request
+ * respectively.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 23:05
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartSerializationBenchmark {
+
+    @Param({ "sdk", "jackson", "binary" })
+    public String format;
+
+    @Param({ "1", "10", "50" })
+    public int items;
+
+    private ShoppingCartStateSerializer serializer;
+    private ShoppingCart cart;
+    private byte[] state;
+
+    @Setup
+    public void setup() {
+
+        switch (format) {
+            case "sdk":
+                this.serializer = new ShoppingCartStateSerializerSdkImpl();
+                break;
+            case "jackson":
+                this.serializer = new ShoppingCartStateSerializerJacksonImpl();
+                break;
+            default:
+                this.serializer = new ShoppingCartStateSerializerBinaryImpl();
+                break;
+        }
+
+        final MutableShoppingCart cart = CartFixtures.cart(
+                CartFixtures.amountCalculationStrategy(CartFixtures.promotionContextFactory(20, items)), items);
+        cart.recalculate();
+        this.cart = cart;
+        this.state = serializer.saveState(cart);
+
+    }
+
+    @Benchmark
+    public byte[] saveState() {
+        return serializer.saveState(cart);
+    }
+
+    @Benchmark
+    public ShoppingCart restoreState() {
+        return serializer.restoreState(state);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Minimal in-memory stand-ins for service interfaces, so that benchmarks exercise real calculation
+ * code without Spring context or database. Only methods registered by name are supported, any other
+ * invocation fails fast so that fixture gaps are visible instead of silently skewing results.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:10
+ */
+public final class InMemoryServices<T> {
+
+    private final Class<T> api;
+    private final Map<String, Function<Object[], Object>> methods = new HashMap<>();
+
+    private InMemoryServices(final Class<T> api) {
+        this.api = api;
+    }
+
+    /**
+     * @param api service interface
+     * @param <T> service type
+     *
+     * @return stub builder
+     */
+    public static <T> InMemoryServices<T> stub(final Class<T> api) {
+        return new InMemoryServices<>(api);
+    }
+
+    /**
+     * @param method method name (all overloads)
+     * @param impl   implementation receiving invocation arguments
+     *
+     * @return this builder
+     */
+    public InMemoryServices<T> on(final String method, final Function<Object[], Object> impl) {
+        this.methods.put(method, impl);
+        return this;
+    }
+
+    /**
+     * @return service proxy
+     */
+    public T build() {
+
+        final Map<String, Function<Object[], Object>> impl = new HashMap<>(this.methods);
+        final String name = api.getSimpleName();
+
+        return api.cast(Proxy.newProxyInstance(api.getClassLoader(), new Class[] { api }, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return "InMemory" + name;
+                }
+            }
+            final Function<Object[], Object> fn = impl.get(method.getName());
+            if (fn == null) {
+                throw new UnsupportedOperationException(name + "." + method.getName() + " is not part of benchmark fixture");
+            }
+            return fn.apply(args);
+        }));
+
+    }
+
+}
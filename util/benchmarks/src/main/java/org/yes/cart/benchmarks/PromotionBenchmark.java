@@ -0,0 +1,81 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yes.cart.promotion.PromotionContext;
+import org.yes.cart.promotion.PromotionContextFactory;
+import org.yes.cart.shoppingcart.MutableShoppingCart;
+import org.yes.cart.shoppingcart.Total;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Promotion application in isolation for item, order and shipping promotions. Cart is recalculated once
+ * during setup, so that totals and delivery lines are in place.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:55
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromotionBenchmark {
+
+    @Param({ "10", "50" })
+    public int items;
+
+    @Param({ "20", "200", "1000" })
+    public int promotions;
+
+    private PromotionContext promotionContext;
+    private MutableShoppingCart cart;
+    private Total total;
+
+    @Setup
+    public void setup() {
+
+        final PromotionContextFactory factory = CartFixtures.promotionContextFactory(promotions, Math.max(items, 10));
+        this.promotionContext = factory.getInstance(CartFixtures.SHOP_CODE, CartFixtures.CURRENCY);
+        this.cart = CartFixtures.cart(CartFixtures.amountCalculationStrategy(factory), items);
+        this.cart.recalculate();
+        this.total = this.cart.getTotal();
+
+    }
+
+    @Benchmark
+    public MutableShoppingCart applyItemPromo() {
+        promotionContext.applyItemPromo(null, cart);
+        return cart;
+    }
+
+    @Benchmark
+    public Total applyOrderPromo() {
+        return promotionContext.applyOrderPromo(null, cart, total);
+    }
+
+    @Benchmark
+    public MutableShoppingCart applyShippingPromo() {
+        promotionContext.applyShippingPromo(null, cart, total);
+        return cart;
+    }
+
+}
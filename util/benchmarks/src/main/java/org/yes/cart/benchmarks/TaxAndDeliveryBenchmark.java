@@ -0,0 +1,70 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.yes.cart.shoppingcart.DeliveryCostCalculationStrategy;
+import org.yes.cart.shoppingcart.MutableShoppingCart;
+import org.yes.cart.shoppingcart.TaxProvider;
+import org.yes.cart.shoppingcart.Total;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tax resolution and delivery cost calculation strategies.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 23:00
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxAndDeliveryBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int items;
+
+    private TaxProvider taxProvider;
+    private DeliveryCostCalculationStrategy deliveryCostCalculationStrategy;
+    private MutableShoppingCart cart;
+
+    @Setup
+    public void setup() {
+
+        this.taxProvider = CartFixtures.taxProvider();
+        this.deliveryCostCalculationStrategy = CartFixtures.deliveryCostCalculationStrategy();
+        this.cart = CartFixtures.cart(
+                CartFixtures.amountCalculationStrategy(CartFixtures.promotionContextFactory(0, items)), items);
+        this.cart.recalculate();
+
+    }
+
+    @Benchmark
+    public TaxProvider.Tax determineTax() {
+        return taxProvider.determineTax(CartFixtures.SHOP_CODE, CartFixtures.CURRENCY, "GB", null, "SKU-0");
+    }
+
+    @Benchmark
+    public Total deliveryCost() {
+        return deliveryCostCalculationStrategy.calculate(cart);
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.promotion.impl;
+
+import org.yes.cart.domain.entity.Promotion;
+import org.yes.cart.domain.entity.impl.PromotionEntity;
+import org.yes.cart.promotion.*;
+import org.yes.cart.promotion.impl.action.*;
+import org.yes.cart.shoppingcart.PricingPolicyProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Promotion context factory with generated promotions, which uses the same parser, application strategy and
+ * actions as {@link PromotionContextFactoryImpl} but without shop and promotion services. Lives in this package
+ * since {@link PromotionContextImpl} is package private.
+ *
+ * Generated promotions are a mix of typical storefront conditions: SKU lists, brand checks, item price
+ * thresholds (which cannot be pre-filtered), order subtotal and free shipping thresholds.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 22:20
+ */
+public class InMemoryPromotionContextFactory implements PromotionContextFactory {
+
+    private final PromotionContext context;
+
+    /**
+     * @param shopCode              shop code
+     * @param currency              currency
+     * @param itemPromotions        number of item promotions to generate
+     * @param skus                  number of distinct SKU codes referenced by promotions (SKU-0 ... SKU-n)
+     * @param conditionSupport      condition support
+     * @param pricingPolicyProvider pricing policy provider
+     */
+    public InMemoryPromotionContextFactory(final String shopCode,
+                                           final String currency,
+                                           final int itemPromotions,
+                                           final int skus,
+                                           final PromotionConditionSupport conditionSupport,
+                                           final PricingPolicyProvider pricingPolicyProvider) {
+
+        final PromotionContextImpl ctx = new PromotionContextImpl(
+                shopCode, currency, new BestValuePromotionApplicationStrategyImpl(null), conditionSupport, pricingPolicyProvider);
+
+        final PromotionConditionParser parser = new GroovyPromotionConditionParser();
+        final Map<String, PromotionAction> actions = new HashMap<>();
+        actions.put(Promotion.TYPE_ITEM + Promotion.ACTION_PERCENT_DISCOUNT, new ItemDiscountPromotionAction());
+        actions.put(Promotion.TYPE_ITEM + Promotion.ACTION_FIXED_AMOUNT_OFF, new ItemAmountOffPromotionAction());
+        actions.put(Promotion.TYPE_ORDER + Promotion.ACTION_PERCENT_DISCOUNT, new OrderDiscountPromotionAction());
+        actions.put(Promotion.TYPE_SHIPPING + Promotion.ACTION_PERCENT_DISCOUNT, new ShippingDiscountPromotionAction());
+
+        long id = 1L;
+        for (int i = 0; i < itemPromotions; i++) {
+            final String condition;
+            switch (i % 4) {
+                case 0:
+                    condition = "SKU == 'SKU-" + (i % Math.max(1, skus)) + "'";
+                    break;
+                case 1:
+                    condition = "['SKU-" + (i % Math.max(1, skus)) + "', 'SKU-" + ((i + 1) % Math.max(1, skus)) + "'].contains(shoppingCartItem.productSkuCode)";
+                    break;
+                case 2:
+                    condition = "isSKUofBrand(SKU, 'Brand-" + (i % 10) + "')";
+                    break;
+                default:
+                    condition = "shoppingCartItem.salePrice * shoppingCartItem.qty > " + (100 + i * 10) + ".00";
+                    break;
+            }
+            final Promotion promotion = promotion(id++, shopCode, currency,
+                    Promotion.TYPE_ITEM, i % 2 == 0 ? Promotion.ACTION_PERCENT_DISCOUNT : Promotion.ACTION_FIXED_AMOUNT_OFF,
+                    condition, "5", i % 3 != 0);
+            ctx.addPromotion(promotion, parser.parse(promotion), actions.get(promotion.getPromoType() + promotion.getPromoAction()));
+        }
+
+        final Promotion order = promotion(id++, shopCode, currency,
+                Promotion.TYPE_ORDER, Promotion.ACTION_PERCENT_DISCOUNT,
+                "shoppingCartItemTotal.priceSubTotal > 500.00", "5", true);
+        ctx.addPromotion(order, parser.parse(order), actions.get(order.getPromoType() + order.getPromoAction()));
+
+        final Promotion shipping = promotion(id, shopCode, currency,
+                Promotion.TYPE_SHIPPING, Promotion.ACTION_PERCENT_DISCOUNT,
+                "shoppingCartOrderTotal.subTotal > 1000.00", "100", true);
+        ctx.addPromotion(shipping, parser.parse(shipping), actions.get(shipping.getPromoType() + shipping.getPromoAction()));
+
+        this.context = ctx;
+
+    }
+
+    private static Promotion promotion(final long id,
+                                       final String shopCode,
+                                       final String currency,
+                                       final String type,
+                                       final String action,
+                                       final String condition,
+                                       final String actionContext,
+                                       final boolean canBeCombined) {
+
+        final PromotionEntity promotion = new PromotionEntity();
+        promotion.setPromotionId(id);
+        promotion.setCode("BENCH_" + id);
+        promotion.setShopCode(shopCode);
+        promotion.setCurrency(currency);
+        promotion.setPromoType(type);
+        promotion.setPromoAction(action);
+        promotion.setEligibilityCondition(condition);
+        promotion.setPromoActionContext(actionContext);
+        promotion.setCanBeCombined(canBeCombined);
+        promotion.setEnabled(true);
+        return promotion;
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PromotionContext getInstance(final String shopCode, final String currency) {
+        return context;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void refresh(final String shopCode, final String currency) {
+        // generated once
+    }
+
+}
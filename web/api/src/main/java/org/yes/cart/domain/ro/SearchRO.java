@@ -41,6 +41,7 @@ public class SearchRO implements Serializable {
 
     private int pageNumber;
     private int pageSize;
+    private String searchAfter;
 
     private String sortField;
     private boolean sortDescending;
@@ -82,6 +83,15 @@ public class SearchRO implements Serializable {
         this.pageSize = pageSize;
     }
 
+    @XmlElement(name = "search-after")
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(final String searchAfter) {
+        this.searchAfter = searchAfter;
+    }
+
     @XmlElement(name = "sort-field")
     public String getSortField() {
         return sortField;
@@ -39,6 +39,7 @@ public class SearchResultRO implements Serializable {
     private SearchRO search;
 
     private int totalResults;
+    private String nextSearchAfter;
 
     private String productImageWidth;
     private String productImageHeight;
@@ -70,6 +71,15 @@ public class SearchResultRO implements Serializable {
         this.totalResults = totalResults;
     }
 
+    @XmlElement(name = "next-search-after")
+    public String getNextSearchAfter() {
+        return nextSearchAfter;
+    }
+
+    public void setNextSearchAfter(final String nextSearchAfter) {
+        this.nextSearchAfter = nextSearchAfter;
+    }
+
     @XmlElement(name = "product-image-width")
     public String getProductImageWidth() {
         return productImageWidth;
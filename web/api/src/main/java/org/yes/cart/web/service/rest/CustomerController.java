@@ -1167,29 +1167,37 @@ public class CustomerController {
             final List<ProductSearchResultDTO> uniqueProducts = productServiceFacade.getListProducts(
                     productIds, -1L, shop.getShopId(), browsingShopId);
 
+            final List<ProductAvailabilityModel> skuPams = new ArrayList<>(uniqueProducts.size());
+            final List<String> skuCodes = new ArrayList<>(uniqueProducts.size());
+            for (final ProductSearchResultDTO uniqueProduct : uniqueProducts) {
+                final ProductAvailabilityModel skuPam = productServiceFacade.getProductAvailability(uniqueProduct, browsingShopId);
+                skuPams.add(skuPam);
+                skuCodes.add(skuPam.getFirstAvailableSkuCode());
+            }
+
+            // prices for all wish list products are resolved in one go
+            final List<PriceModel> prices = productServiceFacade.getSkuPrices(cart, skuCodes, BigDecimal.ONE);
+
             final List<ProductWishlistRO> wlRo = new ArrayList<>();
 
             for (final CustomerWishList item : wishList) {
 
                 final Pair<String, Boolean> symbol = currencySymbolService.getCurrencySymbol(cart.getCurrencyCode());
 
-                for (final ProductSearchResultDTO uniqueProduct : uniqueProducts) {
+                for (int index = 0; index < uniqueProducts.size(); index++) {
+
+                    final ProductSearchResultDTO uniqueProduct = uniqueProducts.get(index);
 
                     if (uniqueProduct.getId() == item.getSkus().getProduct().getProductId()) {
                         final ProductWishlistRO wl = mappingMixin.map(uniqueProduct, ProductWishlistRO.class, ProductSearchResultDTO.class);
                         wl.setDefaultSkuCode(item.getSkus().getCode());
                         wl.setQuantity(item.getQuantity());
 
-                        final ProductAvailabilityModel skuPam = productServiceFacade.getProductAvailability(uniqueProduct, browsingShopId);
+                        final ProductAvailabilityModel skuPam = skuPams.get(index);
                         final ProductAvailabilityModelRO amRo = mappingMixin.map(skuPam, ProductAvailabilityModelRO.class, ProductAvailabilityModel.class);
                         wl.setProductAvailabilityModel(amRo);
 
-                        final PriceModel price = productServiceFacade.getSkuPrice(
-                                cart,
-                                null,
-                                skuPam.getFirstAvailableSkuCode(),
-                                BigDecimal.ONE
-                        );
+                        final PriceModel price = prices.get(index);
 
                         final SkuPriceRO priceRo = mappingMixin.map(price, SkuPriceRO.class, PriceModel.class);
                         priceRo.setSymbol(symbol.getFirst());
@@ -1653,20 +1661,27 @@ public class CustomerController {
 
         final Pair<String, Boolean> symbol = currencySymbolService.getCurrencySymbol(cart.getCurrencyCode());
 
+        final List<ProductAvailabilityModel> skuPams = new ArrayList<>(viewedProducts.size());
+        final List<String> skuCodes = new ArrayList<>(viewedProducts.size());
+        for (final ProductSearchResultDTO viewedProduct : viewedProducts) {
+            final ProductAvailabilityModel skuPam = productServiceFacade.getProductAvailability(viewedProduct, browsingShopId);
+            skuPams.add(skuPam);
+            skuCodes.add(skuPam.getFirstAvailableSkuCode());
+        }
+
+        // prices for all viewed products are resolved in one go
+        final List<PriceModel> prices = productServiceFacade.getSkuPrices(cart, skuCodes, BigDecimal.ONE);
+
+        int index = 0;
         for (final ProductSearchResultDTO viewedProduct : viewedProducts) {
 
             final ProductSearchResultRO rv = mappingMixin.map(viewedProduct, ProductSearchResultRO.class, ProductSearchResultDTO.class);
 
-            final ProductAvailabilityModel skuPam = productServiceFacade.getProductAvailability(viewedProduct, browsingShopId);
+            final ProductAvailabilityModel skuPam = skuPams.get(index);
             final ProductAvailabilityModelRO amRo = mappingMixin.map(skuPam, ProductAvailabilityModelRO.class, ProductAvailabilityModel.class);
             rv.setProductAvailabilityModel(amRo);
 
-            final PriceModel price = productServiceFacade.getSkuPrice(
-                    cart,
-                    null,
-                    skuPam.getFirstAvailableSkuCode(),
-                    BigDecimal.ONE
-            );
+            final PriceModel price = prices.get(index++);
 
             final SkuPriceRO priceRo = mappingMixin.map(price, SkuPriceRO.class, PriceModel.class);
             priceRo.setSymbol(symbol.getFirst());
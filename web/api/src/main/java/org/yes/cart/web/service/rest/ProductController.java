@@ -898,22 +898,28 @@ public class ProductController {
 
             final Pair<String, Boolean> symbol = currencySymbolService.getCurrencySymbol(cart.getCurrencyCode());
 
+            final List<ProductAvailabilityModel> skuPams = new ArrayList<>(productAssociations.size());
+            final List<String> skuCodes = new ArrayList<>(productAssociations.size());
             for (final ProductSearchResultDTO hit : productAssociations) {
-
                 final ProductAvailabilityModel skuPam = productServiceFacade.getProductAvailability(hit, cart.getShoppingContext().getCustomerShopId());
+                skuPams.add(skuPam);
+                skuCodes.add(skuPam.getFirstAvailableSkuCode());
+            }
+
+            // taxes for the whole page are calculated in one go
+            final List<PriceModel> prices = productServiceFacade.getSkuPrices(cart, skuCodes, BigDecimal.ONE);
+
+            int index = 0;
+            for (final ProductSearchResultDTO hit : productAssociations) {
+
+                final ProductAvailabilityModel skuPam = skuPams.get(index);
+                final PriceModel price = prices.get(index++);
 
                 final ProductSearchResultRO ro = mappingMixin.map(hit, ProductSearchResultRO.class, ProductSearchResultDTO.class);
 
                 final ProductAvailabilityModelRO amRo = mappingMixin.map(skuPam, ProductAvailabilityModelRO.class, ProductAvailabilityModel.class);
                 ro.setProductAvailabilityModel(amRo);
 
-                final PriceModel price = productServiceFacade.getSkuPrice(
-                        cart,
-                        null,
-                        skuPam.getFirstAvailableSkuCode(),
-                        BigDecimal.ONE
-                );
-
                 final SkuPriceRO priceRo = mappingMixin.map(price, SkuPriceRO.class, PriceModel.class);
                 priceRo.setSymbol(symbol.getFirst());
                 priceRo.setSymbolPosition(symbol.getSecond() != null && symbol.getSecond() ? "after" : "before");
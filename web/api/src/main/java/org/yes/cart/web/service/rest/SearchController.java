@@ -144,6 +144,10 @@ public class SearchController {
      * <p>
      * Note that if category is not specified and/or includeNavigation is false no filtered navigation will be generated in response. This is useful for simple searches such as "search suggest".
      * <p>
+     * For deep pagination use "searchAfter" with value of "nextSearchAfter" from the previous response instead of
+     * "pageNumber". Cost of such request is the same as for the first page, whereas page number requires collecting
+     * all preceding results.
+     * <p>
      * <h3>Output</h3><p>
      * <table border="1">
      *     <tr><td>JSON object SearchResultRO</td><td>
@@ -701,33 +705,50 @@ public class SearchController {
                                        final SearchResultRO result,
                                        final ShoppingCart cart) {
 
-        ProductSearchResultPageDTO products = productServiceFacade.getListProducts(
-                context, result.getSearch().getPageNumber() * result.getSearch().getPageSize(), result.getSearch().getPageSize(),
-                result.getSearch().getSortField(), result.getSearch().getSortDescending());
+        final SearchRO search = result.getSearch();
+        final ProductSearchResultPageDTO products;
+        if (StringUtils.isNotBlank(search.getSearchAfter()) || search.getPageNumber() == 0) {
+            // continuation token (or first page, so that we can provide token for the next one),
+            // offset pages use the same sort with PK tie breaker, so both paths follow one order
+            products = productServiceFacade.getListProducts(
+                    context, search.getSearchAfter(), search.getPageSize(),
+                    search.getSortField(), search.getSortDescending());
+        } else {
+            products = productServiceFacade.getListProducts(
+                    context, search.getPageNumber() * search.getPageSize(), search.getPageSize(),
+                    search.getSortField(), search.getSortDescending());
+        }
 
         result.setTotalResults(products.getTotalHits());
+        result.setNextSearchAfter(products.getSearchAfter());
 
         final List<ProductSearchResultRO> ros = new ArrayList<>();
         if (CollectionUtils.isNotEmpty(products.getResults())) {
 
             final Pair<String, Boolean> symbol = currencySymbolService.getCurrencySymbol(cart.getCurrencyCode());
 
+            final List<ProductAvailabilityModel> skuPams = new ArrayList<>(products.getResults().size());
+            final List<String> skuCodes = new ArrayList<>(products.getResults().size());
             for (final ProductSearchResultDTO hit : products.getResults()) {
-
                 final ProductAvailabilityModel skuPam = productServiceFacade.getProductAvailability(hit, context.getCustomerShopId());
+                skuPams.add(skuPam);
+                skuCodes.add(skuPam.getFirstAvailableSkuCode());
+            }
+
+            // taxes for the whole page are calculated in one go
+            final List<PriceModel> prices = productServiceFacade.getSkuPrices(cart, skuCodes, BigDecimal.ONE);
+
+            int index = 0;
+            for (final ProductSearchResultDTO hit : products.getResults()) {
+
+                final ProductAvailabilityModel skuPam = skuPams.get(index);
+                final PriceModel price = prices.get(index++);
 
                 final ProductSearchResultRO ro = mappingMixin.map(hit, ProductSearchResultRO.class, ProductSearchResultDTO.class);
 
                 final ProductAvailabilityModelRO amRo = mappingMixin.map(skuPam, ProductAvailabilityModelRO.class, ProductAvailabilityModel.class);
                 ro.setProductAvailabilityModel(amRo);
 
-                final PriceModel price = productServiceFacade.getSkuPrice(
-                        cart,
-                        null,
-                        skuPam.getFirstAvailableSkuCode(),
-                        BigDecimal.ONE
-                );
-
                 final SkuPriceRO priceRo = mappingMixin.map(price, SkuPriceRO.class, PriceModel.class);
                 priceRo.setSymbol(symbol.getFirst());
                 priceRo.setSymbolPosition(symbol.getSecond() != null && symbol.getSecond() ? "after" : "before");
@@ -22,6 +22,7 @@ import org.apache.commons.lang.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yes.cart.cache.CacheBundleHelper;
+import org.yes.cart.cluster.node.Node;
 import org.yes.cart.cluster.node.NodeService;
 import org.yes.cart.cluster.service.BackdoorService;
 import org.yes.cart.cluster.service.WarmUpService;
@@ -30,6 +31,7 @@ import org.yes.cart.constants.AttributeNamesKeys;
 import org.yes.cart.dao.GenericFTSCapableDAO;
 import org.yes.cart.domain.entity.Product;
 import org.yes.cart.search.dao.IndexBuilder;
+import org.yes.cart.search.dto.impl.FTSStatisticsDTO;
 import org.yes.cart.service.domain.ProductService;
 import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.util.DateUtils;
@@ -284,6 +286,34 @@ public class BackdoorServiceImpl implements BackdoorService {
         return new ArrayList<>(Collections.singletonList(new String[] { "FT is disabled on this node ..." }));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<FTSStatisticsDTO> getFullTextSearchStatistics() {
+        if (isLuceneIndexDisabled()) {
+            return new ArrayList<>();
+        }
+        final List<FTSStatisticsDTO> stats = new ArrayList<>(2);
+        stats.add(productService.getProductsFullTextSearchStatistics());
+        stats.add(productService.getProductsSkuFullTextSearchStatistics());
+        return stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String explainFullTextSearchQuery(final String indexName, final long queryId) {
+        if (isLuceneIndexDisabled()) {
+            return "FT is disabled on this node ...";
+        }
+        if (StringUtils.equals(indexName, productService.getProductsSkuFullTextSearchStatistics().getIndexName())) {
+            return productService.explainProductsSkuFullTextSearchQuery(queryId);
+        }
+        return productService.explainProductsFullTextSearchQuery(queryId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -375,6 +405,20 @@ public class BackdoorServiceImpl implements BackdoorService {
                 return new ArrayList<>(Collections.singletonList(new Serializable[]{e.getMessage()}));
             }
         });
+        this.nodeService.subscribe("BackdoorService.getFullTextSearchStatistics", message -> {
+            final Node node = nodeService.getCurrentNode();
+            final ArrayList<FTSStatisticsDTO> stats = new ArrayList<>();
+            for (final FTSStatisticsDTO stat : BackdoorServiceImpl.this.getFullTextSearchStatistics()) {
+                stat.setNodeId(node.getId());
+                stat.setNodeUri(node.getChannel());
+                stats.add(stat);
+            }
+            return stats;
+        });
+        this.nodeService.subscribe("BackdoorService.explainFullTextSearchQuery", message -> {
+            final Object[] payload = (Object[]) message.getPayload();
+            return BackdoorServiceImpl.this.explainFullTextSearchQuery((String) payload[0], ((Number) payload[1]).longValue());
+        });
         this.nodeService.subscribe("BackdoorService.reloadConfigurations", message -> {
             BackdoorServiceImpl.this.reloadConfigurations();
             return "OK";
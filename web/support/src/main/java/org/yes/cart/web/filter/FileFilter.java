@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import org.yes.cart.service.domain.FileService;
 import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.service.media.MediaFileNameStrategy;
+import org.yes.cart.stream.io.IOProvider;
 import org.yes.cart.web.support.util.HttpUtil;
 
 import javax.activation.MimetypesFileTypeMap;
@@ -35,6 +36,9 @@ import java.io.IOException;
 /**
  * FileServlet responsible for get product or brand files.
  * <p/>
+ * Files are streamed from the repository with ETag/Last-Modified of the file and
+ * range support, see {@link MediaStreamingSupport}.
+ * <p/>
  * User: Denis Pavlov
  */
 public class FileFilter extends AbstractFilter implements Filter {
@@ -47,10 +51,14 @@ public class FileFilter extends AbstractFilter implements Filter {
 
     private final SystemService systemService;
 
+    private final IOProvider ioProvider;
+
     public FileFilter(final FileService fileService,
-                      final SystemService systemService) {
+                      final SystemService systemService,
+                      final IOProvider ioProvider) {
         this.fileService = fileService;
         this.systemService = systemService;
+        this.ioProvider = ioProvider;
         fileTypeMap = new MimetypesFileTypeMap();
         fileTypeMap.addMimeTypes("image/bmp bmp");
         fileTypeMap.addMimeTypes("application/x-shockwave-flash swf");
@@ -98,11 +106,11 @@ public class FileFilter extends AbstractFilter implements Filter {
         if (!origFileExists) {
             httpServletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
         } else {
-            final byte[] file = fileService.fileToByteArray(originalFileName, code, mediaFileNameStrategy.getUrlPath(), fileRealPathPrefix);
-            if (file != null && file.length > 0) {
-                httpServletResponse.getOutputStream().write(file);
-                httpServletResponse.flushBuffer();
-            } else {
+            final String absolutePathToFile =
+                    fileRealPathPrefix +
+                            mediaFileNameStrategy.resolveRelativeInternalFileNamePath(originalFileName, code, null);
+            if (!MediaStreamingSupport.serve(httpServletRequest, httpServletResponse, ioProvider,
+                    absolutePathToFile, getContentType(originalFileName), -1)) {
                 httpServletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
             }
         }
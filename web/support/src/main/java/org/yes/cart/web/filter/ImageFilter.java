@@ -22,7 +22,7 @@ import org.yes.cart.constants.Constants;
 import org.yes.cart.service.domain.ImageService;
 import org.yes.cart.service.domain.SystemService;
 import org.yes.cart.service.media.MediaFileNameStrategy;
-import org.yes.cart.util.DateUtils;
+import org.yes.cart.stream.io.IOProvider;
 import org.yes.cart.web.support.util.HttpUtil;
 
 import javax.activation.MimetypesFileTypeMap;
@@ -33,7 +33,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.time.ZonedDateTime;
+import java.util.Collections;
 
 /**
  * ImageServlet responsible for get product or brand images
@@ -47,8 +47,9 @@ import java.time.ZonedDateTime;
  * resized
  * repository_folder/widthxheight/c/code/seo_name_code_[a-z]
  * <p/>
- * No need to use nio, becuse images will be cached
- * on apache or ngnix
+ * Once resized file exists it is streamed from the repository using
+ * {@link IOProvider#open(String, java.util.Map)} with ETag/Last-Modified
+ * of the file and range support, see {@link MediaStreamingSupport}.
  * <p/>
  * User: Igor Azarny iazarny@yahoo.com
  * Date: 2011-May-17
@@ -58,26 +59,22 @@ public class ImageFilter extends AbstractFilter implements Filter {
 
     private static final Logger LOG = LoggerFactory.getLogger(ImageFilter.class);
 
-    private static final String ETAG = "ETag";
-
-    private static final String IF_NONE_MATCH = "If-None-Match";
-
-    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
-
-    private static final String LAST_MODIFIED = "Last-Modified";
-
     private final MimetypesFileTypeMap fileTypeMap;
 
     private final ImageService imageService;
 
     private final SystemService systemService;
 
+    private final IOProvider ioProvider;
+
     private Integer etagExpiration = null;
 
     public ImageFilter(final ImageService imageService,
-                       final SystemService systemService) {
+                       final SystemService systemService,
+                       final IOProvider ioProvider) {
         this.imageService = imageService;
         this.systemService = systemService;
+        this.ioProvider = ioProvider;
         fileTypeMap = new MimetypesFileTypeMap();
         fileTypeMap.addMimeTypes("image/bmp bmp");
         fileTypeMap.addMimeTypes("image/png png");
@@ -113,84 +110,88 @@ public class ImageFilter extends AbstractFilter implements Filter {
     public void handleRequestInternal(final HttpServletRequest httpServletRequest,
                                       final HttpServletResponse httpServletResponse) throws ServletException, IOException {
 
-        final String previousToken = httpServletRequest.getHeader(IF_NONE_MATCH);
-        final String currentToken = getETagValue(httpServletRequest);
-
-        httpServletResponse.setHeader(ETAG, currentToken);
-
-        if (currentToken.equals(previousToken) &&
-                ZonedDateTime.now(
-                        DateUtils.zone()
-                ).isBefore(
-                        DateUtils.zdtFrom(httpServletRequest.getDateHeader(IF_MODIFIED_SINCE)).plusMinutes(getEtagExpiration())
-                )) {
-            httpServletResponse.sendError(HttpServletResponse.SC_NOT_MODIFIED);
-            // use the same date we sent when we created the ETag the first time through
-            httpServletResponse.setHeader(LAST_MODIFIED, httpServletRequest.getHeader(IF_MODIFIED_SINCE));
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("ETag the same, will return 304");
-            }
-        } else {
+        /*
+            RequestURI  -> /yes-shop/imgvault/product/image.png
+            ContextPath -> /yes-shop
+            ServletPath ->          /imgvault/product/image.png
 
-            /*
-                RequestURI  -> /yes-shop/imgvault/product/image.png
-                ContextPath -> /yes-shop
-                ServletPath ->          /imgvault/product/image.png
+            RequestURI  -> /imgvault/product/image.png
+            ContextPath ->
+            ServletPath -> /imgvault/product/image.png
+         */
 
-                RequestURI  -> /imgvault/product/image.png
-                ContextPath ->
-                ServletPath -> /imgvault/product/image.png
-             */
+        final String requestPath = HttpUtil.decodeUtf8UriParam(httpServletRequest.getRequestURI());
+        final String contextPath = httpServletRequest.getContextPath();
+        final String servletPath = requestPath.substring(contextPath.length());
 
-            final String requestPath = HttpUtil.decodeUtf8UriParam(httpServletRequest.getRequestURI());
-            final String contextPath = httpServletRequest.getContextPath();
-            final String servletPath = requestPath.substring(contextPath.length());
+        final String width = httpServletRequest.getParameter(Constants.WIDTH);
+        final String height = httpServletRequest.getParameter(Constants.HEIGHT);
 
-            httpServletResponse.setDateHeader(LAST_MODIFIED, System.currentTimeMillis());
 
-            final String width = httpServletRequest.getParameter(Constants.WIDTH);
-            final String height = httpServletRequest.getParameter(Constants.HEIGHT);
+        final MediaFileNameStrategy mediaFileNameStrategy = imageService.getImageNameStrategy(servletPath);
 
+        String code = mediaFileNameStrategy.resolveObjectCode(servletPath);  //optional product or sku code
+        String locale = mediaFileNameStrategy.resolveLocale(servletPath);  //optional locale
+        String originalFileName = mediaFileNameStrategy.resolveFileName(servletPath);  //here file name with prefix
 
-            final MediaFileNameStrategy mediaFileNameStrategy = imageService.getImageNameStrategy(servletPath);
+        final String imageRealPathPrefix = getImageRepositoryRoot();
 
-            String code = mediaFileNameStrategy.resolveObjectCode(servletPath);  //optional product or sku code
-            String locale = mediaFileNameStrategy.resolveLocale(servletPath);  //optional locale
-            String originalFileName = mediaFileNameStrategy.resolveFileName(servletPath);  //here file name with prefix
+        String absolutePathToOriginal =
+                        imageRealPathPrefix +
+                        mediaFileNameStrategy.resolveRelativeInternalFileNamePath(originalFileName, code, locale); //path to not resized image
 
-            final String imageRealPathPrefix = getImageRepositoryRoot();
 
-            String absolutePathToOriginal =
-                            imageRealPathPrefix +
+        final boolean origFileExists = imageService.isImageInRepository(originalFileName, code, mediaFileNameStrategy.getUrlPath(), imageRealPathPrefix);
+
+        if (!origFileExists) {
+            code = Constants.NO_IMAGE;
+            originalFileName = mediaFileNameStrategy.resolveFileName(code);  //here file name with prefix
+            absolutePathToOriginal =
+                    imageRealPathPrefix +
                             mediaFileNameStrategy.resolveRelativeInternalFileNamePath(originalFileName, code, locale); //path to not resized image
+        }
 
 
-            final boolean origFileExists = imageService.isImageInRepository(originalFileName, code, mediaFileNameStrategy.getUrlPath(), imageRealPathPrefix);
+        String absolutePathToResized = null;
+        if (width != null && height != null && imageService.isSizeAllowed(width, height)) {
+            absolutePathToResized =
+                    imageRealPathPrefix +
+                            mediaFileNameStrategy.resolveRelativeInternalFileNamePath(originalFileName, code, locale, width, height);
+        }
 
-            if (!origFileExists) {
-                code = Constants.NO_IMAGE;
-                originalFileName = mediaFileNameStrategy.resolveFileName(code);  //here file name with prefix
-                absolutePathToOriginal =
-                        imageRealPathPrefix +
-                                mediaFileNameStrategy.resolveRelativeInternalFileNamePath(originalFileName, code, locale); //path to not resized image
-            }
+        final String contentType = getContentType(originalFileName);
 
+        String absolutePathToServe = absolutePathToOriginal;
+        if (absolutePathToResized != null) {
 
-            String absolutePathToResized = null;
-            if (width != null && height != null && imageService.isSizeAllowed(width, height)) {
-                absolutePathToResized =
-                        imageRealPathPrefix +
-                                mediaFileNameStrategy.resolveRelativeInternalFileNamePath(originalFileName, code, locale, width, height);
-            }
+            if (!ioProvider.isNewerThan(absolutePathToResized, absolutePathToOriginal, Collections.emptyMap())) {
+
+                // first request for this size, resized image is stored by image service
+                final byte[] imageFile = getImageFile(absolutePathToOriginal, absolutePathToResized, width, height);
+
+                if (!ioProvider.isNewerThan(absolutePathToResized, absolutePathToOriginal, Collections.emptyMap())) {
+                    // resize was not stored (e.g. resize queue is full), so send whatever image service gave us
+                    if (imageFile != null && imageFile.length > 0) {
+                        httpServletResponse.setContentType(contentType);
+                        httpServletResponse.getOutputStream().write(imageFile);
+                        httpServletResponse.flushBuffer();
+                    } else {
+                        httpServletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+                    }
+                    return;
+                }
 
-            final byte[] imageFile = getImageFile(absolutePathToOriginal, absolutePathToResized, width, height);
-            if (imageFile != null && imageFile.length > 0) {
-                httpServletResponse.getOutputStream().write(imageFile);
-                httpServletResponse.flushBuffer();
-            } else {
-                httpServletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
             }
+
+            absolutePathToServe = absolutePathToResized;
+
+        }
+
+        if (!MediaStreamingSupport.serve(httpServletRequest, httpServletResponse, ioProvider,
+                absolutePathToServe, contentType, getEtagExpiration() * 60)) {
+            httpServletResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
         }
+
     }
 
     private String getImageRepositoryRoot() {
@@ -199,23 +200,6 @@ public class ImageFilter extends AbstractFilter implements Filter {
 
     }
 
-    /**
-     * Get the etag value for requested image. Atm implemented as hash code.
-     *
-     * @param httpServletRequest request
-     * @return etag value.
-     */
-    private String getETagValue(final HttpServletRequest httpServletRequest) {
-        final StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append('"');
-        stringBuilder.append(httpServletRequest.getParameter(Constants.WIDTH));
-        stringBuilder.append('x');
-        stringBuilder.append(httpServletRequest.getParameter(Constants.HEIGHT));
-        stringBuilder.append(httpServletRequest.getServletPath().hashCode());
-        stringBuilder.append('"');
-        return stringBuilder.toString();
-    }
-
     /**
      * {@inheritDoc}
      */
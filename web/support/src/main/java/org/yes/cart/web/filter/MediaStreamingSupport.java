@@ -0,0 +1,378 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.web.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yes.cart.stream.io.FileSystemIOProvider;
+import org.yes.cart.stream.io.IOProvider;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Streams media files from {@link IOProvider} to the response without loading them into memory.
+ *
+ * Validators are derived from file metadata: strong ETag is size and last modified timestamp, Last-Modified
+ * is the actual file timestamp, so that conditional requests (If-None-Match, If-Modified-Since) are answered
+ * with 304 without reading content. Single byte range requests (Range, If-Range) are answered with 206,
+ * multiple ranges are ignored and full content is sent.
+ *
+ * File channels are copied using {@link FileChannel#transferTo(long, long, WritableByteChannel)}. If container
+ * supports Tomcat sendfile the transfer is delegated to the container altogether.
+ *
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 09:40
+ */
+final class MediaStreamingSupport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MediaStreamingSupport.class);
+
+    static final String ETAG = "ETag";
+    static final String LAST_MODIFIED = "Last-Modified";
+    static final String IF_NONE_MATCH = "If-None-Match";
+    static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    static final String RANGE = "Range";
+    static final String IF_RANGE = "If-Range";
+    static final String ACCEPT_RANGES = "Accept-Ranges";
+    static final String CONTENT_RANGE = "Content-Range";
+    static final String CONTENT_LENGTH = "Content-Length";
+    static final String CACHE_CONTROL = "Cache-Control";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String BYTES = "bytes";
+    private static final String BYTES_UNIT = BYTES + "=";
+
+    /**
+     * Range that cannot be satisfied (416).
+     */
+    static final long[] UNSATISFIABLE = new long[0];
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final Map<String, Object> CTX = Collections.emptyMap();
+
+    private MediaStreamingSupport() {
+        // no instance
+    }
+
+    /**
+     * Serve content of given uri.
+     *
+     * @param request     request
+     * @param response    response
+     * @param ioProvider  IO provider
+     * @param uri         content uri
+     * @param contentType content type
+     * @param maxAge      max age in seconds for Cache-Control header, negative to omit the header
+     *
+     * @return true if response is complete (200, 206, 304 or 416), false if content does not exist
+     *
+     * @throws IOException in case of read/write errors
+     */
+    static boolean serve(final HttpServletRequest request,
+                         final HttpServletResponse response,
+                         final IOProvider ioProvider,
+                         final String uri,
+                         final String contentType,
+                         final int maxAge) throws IOException {
+
+        final SeekableByteChannel channel;
+        try {
+            channel = ioProvider.open(uri, CTX);
+        } catch (FileNotFoundException | NoSuchFileException fnf) {
+            LOG.debug("Media file {} does not exist", uri);
+            return false;
+        }
+
+        try {
+
+            final long size = channel.size();
+            final long lastModified = ioProvider.lastModified(uri, CTX);
+            final String etag = etag(size, lastModified);
+
+            response.setHeader(ETAG, etag);
+            response.setDateHeader(LAST_MODIFIED, lastModified);
+            response.setHeader(ACCEPT_RANGES, BYTES);
+            if (maxAge >= 0) {
+                response.setHeader(CACHE_CONTROL, "max-age=" + maxAge);
+            }
+
+            if (isNotModified(request, etag, lastModified)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+
+            response.setContentType(contentType);
+
+            long[] range = null;
+            if (isRangeApplicable(request, etag, lastModified)) {
+                range = parseRange(request.getHeader(RANGE), size);
+            }
+
+            if (range == UNSATISFIABLE) {
+                response.setHeader(CONTENT_RANGE, BYTES + " */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return true;
+            }
+
+            final long start;
+            final long length;
+            if (range != null) {
+                start = range[0];
+                length = range[1] - range[0] + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(CONTENT_RANGE, BYTES + " " + range[0] + "-" + range[1] + "/" + size);
+            } else {
+                start = 0L;
+                length = size;
+            }
+            response.setHeader(CONTENT_LENGTH, String.valueOf(length));
+
+            if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0L) {
+                return true;
+            }
+
+            if (!sendfile(request, ioProvider, uri, start, length)) {
+                transfer(channel, start, length, Channels.newChannel(response.getOutputStream()));
+                response.flushBuffer();
+            }
+            return true;
+
+        } finally {
+            channel.close();
+        }
+
+    }
+
+    /**
+     * Strong entity tag based on file metadata.
+     *
+     * @param size         content length
+     * @param lastModified last modified
+     *
+     * @return ETag header value
+     */
+    static String etag(final long size, final long lastModified) {
+        return '"' + Long.toHexString(size) + '-' + Long.toHexString(lastModified) + '"';
+    }
+
+    /**
+     * Evaluate conditional GET. If-None-Match takes precedence over If-Modified-Since.
+     *
+     * @param request      request
+     * @param etag         current ETag
+     * @param lastModified current last modified
+     *
+     * @return true if client copy is up to date
+     */
+    static boolean isNotModified(final HttpServletRequest request, final String etag, final long lastModified) {
+
+        final String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (final String candidate : ifNoneMatch.split(",")) {
+                final String tag = candidate.trim();
+                // weak comparison
+                if ("*".equals(tag) || etag.equals(tag.startsWith("W/") ? tag.substring(2) : tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        final long ifModifiedSince = getDateHeader(request, IF_MODIFIED_SINCE);
+        // HTTP dates have second precision
+        return ifModifiedSince != -1L && lastModified / 1000L <= ifModifiedSince / 1000L;
+
+    }
+
+    /**
+     * Evaluate If-Range. Range is applicable if there is no If-Range or it matches current representation.
+     *
+     * @param request      request
+     * @param etag         current ETag
+     * @param lastModified current last modified
+     *
+     * @return true if range request should be honoured
+     */
+    static boolean isRangeApplicable(final HttpServletRequest request, final String etag, final long lastModified) {
+
+        final String ifRange = request.getHeader(IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        final String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // strong comparison
+            return etag.equals(value);
+        }
+        final long date = getDateHeader(request, IF_RANGE);
+        return date != -1L && lastModified / 1000L == date / 1000L;
+
+    }
+
+    /**
+     * Parse single byte range.
+     *
+     * @param range Range header value
+     * @param size  content length
+     *
+     * @return null if full content should be sent, {@link #UNSATISFIABLE} if range cannot be satisfied,
+     *         otherwise inclusive [first, last] byte positions
+     */
+    static long[] parseRange(final String range, final long size) {
+
+        if (range == null || !range.startsWith(BYTES_UNIT)) {
+            return null;
+        }
+
+        final String spec = range.substring(BYTES_UNIT.length()).trim();
+        if (spec.indexOf(',') != -1) {
+            return null; // multipart/byteranges is not supported, full content is a valid response
+        }
+
+        final int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return UNSATISFIABLE;
+        }
+
+        try {
+
+            final String first = spec.substring(0, dash).trim();
+            final String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // suffix range: last N bytes
+                final long suffix = Long.parseLong(last);
+                if (suffix <= 0L || size == 0L) {
+                    return UNSATISFIABLE;
+                }
+                return new long[] { Math.max(0L, size - suffix), size - 1L };
+            }
+
+            final long start = Long.parseLong(first);
+            final long end = last.isEmpty() ? size - 1L : Math.min(Long.parseLong(last), size - 1L);
+            if (start < 0L || start >= size || end < start) {
+                return UNSATISFIABLE;
+            }
+            return new long[] { start, end };
+
+        } catch (NumberFormatException nfe) {
+            return UNSATISFIABLE;
+        }
+
+    }
+
+    private static long getDateHeader(final HttpServletRequest request, final String header) {
+        try {
+            return request.getDateHeader(header);
+        } catch (IllegalArgumentException iae) {
+            return -1L;
+        }
+    }
+
+    private static boolean sendfile(final HttpServletRequest request,
+                                    final IOProvider ioProvider,
+                                    final String uri,
+                                    final long start,
+                                    final long length) {
+
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) || !(ioProvider instanceof FileSystemIOProvider)) {
+            return false;
+        }
+
+        final File file = ((FileSystemIOProvider) ioProvider).resolveFileFromUri(uri, CTX);
+        if (file == null) {
+            return false;
+        }
+
+        request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, start + length);
+        return true;
+
+    }
+
+    /**
+     * Copy content from channel to the target.
+     *
+     * @param channel content
+     * @param start   first byte
+     * @param length  number of bytes
+     * @param target  target channel
+     *
+     * @throws IOException in case of read/write errors
+     */
+    static void transfer(final SeekableByteChannel channel,
+                         final long start,
+                         final long length,
+                         final WritableByteChannel target) throws IOException {
+
+        long position = start;
+        long remaining = length;
+
+        if (channel instanceof FileChannel) {
+            final FileChannel file = (FileChannel) channel;
+            while (remaining > 0L) {
+                final long sent = file.transferTo(position, remaining, target);
+                if (sent <= 0L) {
+                    break; // file was truncated
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } else {
+            channel.position(position);
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (remaining > 0L) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, remaining));
+                final int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                remaining -= read;
+            }
+        }
+
+        if (remaining > 0L) {
+            LOG.warn("Media content changed during transfer, {} bytes were not sent", remaining);
+        }
+
+    }
+
+}
@@ -219,6 +219,23 @@ public interface ProductServiceFacade {
                                                String sortFieldName,
                                                boolean descendingSort);
 
+    /**
+     * Get the page of products, that match the given query, following the position of continuation token.
+     * Use this for deep pagination as cost of each page is the same as for the first page.
+     *
+     * @param context       navigation context
+     * @param searchAfter   continuation token from previous page (specify null for first page)
+     * @param maxResults    quantity results to return
+     * @param sortFieldName sort field name (specify null for no sorting)
+     * @param descendingSort sort the search result in reverse if true
+     * @return list of products, {@link ProductSearchResultPageDTO#getSearchAfter()} is token for next page
+     */
+    ProductSearchResultPageDTO getListProducts(NavigationContext context,
+                                               String searchAfter,
+                                               int maxResults,
+                                               String sortFieldName,
+                                               boolean descendingSort);
+
     /**
      * Get product availability.
      *
@@ -385,6 +402,19 @@ public interface ProductServiceFacade {
      */
     List<PriceModel> getSkuPrices(ShoppingCart cart, Long productId, String skuCode);
 
+    /**
+     * Get currently active SKU prices for a page of SKU (e.g. listing or search results) with respect to current
+     * shop tax display settings. Each price is the same as {@link #getSkuPrice(ShoppingCart, Long, String, BigDecimal)}
+     * would return, but taxes for the whole page are calculated in one batch.
+     *
+     * @param cart      current cart
+     * @param skuCodes  SKU codes
+     * @param quantity  quantity tier
+     *
+     * @return active SKU prices (or blank objects) in the same order as SKU codes
+     */
+    List<PriceModel> getSkuPrices(ShoppingCart cart, List<String> skuCodes, BigDecimal quantity);
+
 
     /**
      * Get cart total price model (or blank object) with respect to current shop tax display settings.
@@ -295,6 +295,32 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
                 context, firstResult, maxResults, sortFieldName, descendingSort
         ).copy(); // MUST BE COPY for each search as we are setting relevant SKU list
 
+        populateSkus(context, result);
+        return result;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProductSearchResultPageDTO getListProducts(final NavigationContext context,
+                                                      final String searchAfter,
+                                                      final int maxResults,
+                                                      final String sortFieldName,
+                                                      final boolean descendingSort) {
+
+        final ProductSearchResultPageDTO result = productService.getProductSearchResultDTOByQuery(
+                context, searchAfter, maxResults, sortFieldName, descendingSort
+        ).copy(); // MUST BE COPY for each search as we are setting relevant SKU list
+
+        populateSkus(context, result);
+        return result;
+
+    }
+
+    private void populateSkus(final NavigationContext context, final ProductSearchResultPageDTO result) {
+
         if (!result.getResults().isEmpty()) {
 
             final NavigationContext skuContext = searchQueryFactory.getSkuSnowBallQuery(context, result.getResults());
@@ -312,7 +338,6 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
                 product.setSkus(skuMap.get(product.getId()));
             }
         }
-        return result;
 
     }
 
@@ -469,6 +494,66 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
 
     }
 
+    /**
+     * Bulk version of {@link #resolvePrices(ShoppingCart, Long, String)}, all SKU are resolved in one go.
+     *
+     * @param cart      cart
+     * @param skus      SKU to resolve prices for
+     *
+     * @return resolved SKU prices (key is SKU code)
+     */
+    protected Map<String, List<SkuPrice>> resolvePrices(final ShoppingCart cart,
+                                                        final List<String> skus) {
+
+        final long customerShopId = cart.getShoppingContext().getCustomerShopId();
+        final long masterShopId = cart.getShoppingContext().getShopId();
+        // Fallback only if we have a B2B non-strict mode
+        final Long fallbackShopId = masterShopId == customerShopId || shopService.getById(customerShopId).isB2BStrictPriceActive() ? null : masterShopId;
+        final String shopCode = cart.getShoppingContext().getShopCode();
+        final String currency = cart.getCurrencyCode();
+
+        // Policy is setup on master
+        final PricingPolicyProvider.PricingPolicy policy = pricingPolicyProvider.determinePricingPolicy(
+                shopCode, currency, cart.getCustomerEmail(),
+                cart.getShoppingContext().getCountryCode(),
+                cart.getShoppingContext().getStateCode()
+        );
+
+        return priceResolver.getAllCurrentPrices(Collections.emptyList(), skus, customerShopId, fallbackShopId, currency, policy.getID());
+
+    }
+
+    /**
+     * Select minimal price for given quantity from all current prices of a SKU (same as non enforced tier
+     * {@link PriceResolver#getMinimalPrice(Long, String, long, Long, String, BigDecimal, boolean, String)}).
+     *
+     * @param prices   all current prices for SKU
+     * @param quantity quantity
+     *
+     * @return minimal price or null
+     */
+    protected SkuPrice selectMinimalPrice(final List<SkuPrice> prices,
+                                          final BigDecimal quantity) {
+
+        if (CollectionUtils.isEmpty(prices)) {
+            return null;
+        }
+
+        SkuPrice minimal = null;
+        BigDecimal minimalPrice = null;
+        for (final SkuPrice price : prices) {
+            if (quantity == null || MoneyUtils.isFirstBiggerThanOrEqualToSecond(quantity, price.getQuantity())) {
+                final BigDecimal candidate = MoneyUtils.minPositive(price.getSalePriceForCalculation());
+                if (minimal == null || MoneyUtils.isFirstBiggerThanSecond(minimalPrice, candidate)) {
+                    minimal = price;
+                    minimalPrice = candidate;
+                }
+            }
+        }
+        return minimal;
+
+    }
+
     /**
      * Model that does not show any details, NULL object.
      *
@@ -619,14 +704,107 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
         final boolean showTaxNet = showTax && cart.getShoppingContext().isTaxInfoUseNet();
         final boolean showTaxAmount = showTax && cart.getShoppingContext().isTaxInfoShowAmount();
 
+        final BigDecimal taxable = salePrice != null ? salePrice : listPrice;
+
+        // if sale price exists use it as primary target as this one will be shown, otherwise use list price to calculate taxes
+        final ShoppingCartCalculator.PriceModel taxModel = showTax && taxable != null ?
+                shoppingCartCalculator.calculatePrice(cart, ref, taxable) : null;
+
+        return createPriceModel(
+                currency, ref, quantity, priceUponRequest, priceOnOffer, listPrice, salePrice,
+                showTax, showTaxNet, showTaxAmount, taxModel
+        );
+
+    }
+
+    /**
+     * Batch version of {@link #getSkuPrice(ShoppingCart, String, BigDecimal, boolean, boolean, BigDecimal, BigDecimal)}
+     * for resolved prices, taxes for all prices are calculated in one call.
+     *
+     * @param cart   current cart
+     * @param prices resolved prices (null elements produce blank models)
+     *
+     * @return price models in the same order as prices
+     */
+    protected List<PriceModel> getSkuPrices(final ShoppingCart cart,
+                                            final List<SkuPrice> prices) {
+
+        final String currency = cart.getCurrencyCode();
+        final List<PriceModel> models = new ArrayList<>(prices.size());
+
+        if (cart.getShoppingContext().isHidePrices()) {
+            for (int i = 0; i < prices.size(); i++) {
+                models.add(getNullProductPriceModel(currency));
+            }
+            return models;
+        }
+
+        final boolean showTax = cart.getShoppingContext().isTaxInfoEnabled();
+        final boolean showTaxNet = showTax && cart.getShoppingContext().isTaxInfoUseNet();
+        final boolean showTaxAmount = showTax && cart.getShoppingContext().isTaxInfoShowAmount();
+
+        final List<Pair<BigDecimal, BigDecimal>> listAndSales = new ArrayList<>(prices.size());
+        final List<Pair<String, BigDecimal>> taxable = new ArrayList<>(prices.size());
+        for (final SkuPrice price : prices) {
+            final Pair<BigDecimal, BigDecimal> listAndSale = price != null ? price.getSalePriceForCalculation() : null;
+            listAndSales.add(listAndSale);
+            if (showTax && listAndSale != null) {
+                taxable.add(new Pair<>(price.getSkuCode(), MoneyUtils.secondOrFirst(listAndSale)));
+            }
+        }
+
+        final Iterator<ShoppingCartCalculator.PriceModel> taxModels = taxable.isEmpty() ?
+                Collections.<ShoppingCartCalculator.PriceModel>emptyIterator() :
+                shoppingCartCalculator.calculatePrices(cart, taxable).iterator();
+
+        for (int i = 0; i < prices.size(); i++) {
+
+            final SkuPrice price = prices.get(i);
+            final Pair<BigDecimal, BigDecimal> listAndSale = listAndSales.get(i);
+
+            if (listAndSale == null) {
+                models.add(getNullProductPriceModel(currency));
+                continue;
+            }
+
+            models.add(createPriceModel(
+                    currency,
+                    price.getSkuCode(),
+                    price.getQuantity(),
+                    price.isPriceUponRequest(),
+                    price.isPriceOnOffer(),
+                    listAndSale.getFirst(),
+                    listAndSale.getSecond(),
+                    showTax, showTaxNet, showTaxAmount,
+                    showTax ? taxModels.next() : null
+            ));
+
+        }
+
+        return models;
+
+    }
+
+    private PriceModel createPriceModel(final String currency,
+                                        final String ref,
+                                        final BigDecimal quantity,
+                                        final boolean priceUponRequest,
+                                        final boolean priceOnOffer,
+                                        final BigDecimal listPrice,
+                                        final BigDecimal salePrice,
+                                        final boolean showTax,
+                                        final boolean showTaxNet,
+                                        final boolean showTaxAmount,
+                                        final ShoppingCartCalculator.PriceModel taxModel) {
+
         final BigDecimal sale = salePrice;
         final BigDecimal list = listPrice;
 
-        if (showTax) {
+        if (showTax && taxModel != null) {
             // prices with tax
             if (sale != null) {
                 // if sale price exists use it as primary target as this one will be shown
-                ShoppingCartCalculator.PriceModel saleModel = shoppingCartCalculator.calculatePrice(cart, ref, sale);
+                final ShoppingCartCalculator.PriceModel saleModel = taxModel;
 
                 final BigDecimal saleAdjusted, listAdjusted;
 
@@ -656,7 +834,7 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
 
             } else if (list != null) {
                 // use list price to calculate taxes
-                ShoppingCartCalculator.PriceModel listModel = shoppingCartCalculator.calculatePrice(cart, ref, list);
+                final ShoppingCartCalculator.PriceModel listModel = taxModel;
 
                 final BigDecimal listAdjusted = showTaxNet ? listModel.getNetPrice() : listModel.getGrossPrice();
 
@@ -872,27 +1050,34 @@ public class ProductServiceFacadeImpl implements ProductServiceFacade {
 
             if (CollectionUtils.isNotEmpty(prices)) {
 
-                final List<PriceModel> models = new ArrayList<>(prices.size());
-                for (final SkuPrice price : prices) {
-
-                    final Pair<BigDecimal, BigDecimal> listAndSale = price.getSalePriceForCalculation();
+                return getSkuPrices(cart, new ArrayList<>(prices));
 
-                    models.add(getSkuPrice(
-                            cart,
-                            price.getSkuCode(),
-                            price.getQuantity(),
-                            price.isPriceUponRequest(),
-                            price.isPriceOnOffer(),
-                            listAndSale.getFirst(),
-                            listAndSale.getSecond()
-                    ));
+            }
+        }
+        return Collections.emptyList();
+    }
 
-                }
-                return models;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PriceModel> getSkuPrices(final ShoppingCart cart,
+                                         final List<String> skuCodes,
+                                         final BigDecimal quantity) {
 
+        final List<SkuPrice> prices = new ArrayList<>(skuCodes.size());
+        if (!cart.getShoppingContext().isHidePrices()) {
+            final Map<String, List<SkuPrice>> all = resolvePrices(cart, skuCodes);
+            for (final String skuCode : skuCodes) {
+                prices.add(selectMinimalPrice(all.get(skuCode), quantity));
+            }
+        } else {
+            for (int i = 0; i < skuCodes.size(); i++) {
+                prices.add(null);
             }
         }
-        return Collections.emptyList();
+        return getSkuPrices(cart, prices);
+
     }
 
     static final String CART_ITEMS_TOTAL_REF = "yc-cart-items-total";
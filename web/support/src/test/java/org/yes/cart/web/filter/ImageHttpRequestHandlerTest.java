@@ -40,7 +40,7 @@ public class ImageHttpRequestHandlerTest {
             allowing(systemService).getEtagExpirationForImages();
             will(returnValue(0));
         }});
-        ImageFilter imageFilter = new ImageFilter(null, systemService);
+        ImageFilter imageFilter = new ImageFilter(null, systemService, null);
         assertEquals("image/jpeg", imageFilter.getContentType("a.jpg"));
         assertEquals("image/jpeg", imageFilter.getContentType("a.JPEG"));
         assertEquals("image/jpeg", imageFilter.getContentType("a.JPE"));
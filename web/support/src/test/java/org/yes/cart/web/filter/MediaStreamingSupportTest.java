@@ -0,0 +1,184 @@
+/*
+ * Copyright 2009 Denys Pavlov, Igor Azarnyi
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.yes.cart.web.filter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.yes.cart.stream.io.impl.LocalFileSystemIOProviderImpl;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * User: denispavlov
+ * Date: 18/10/2026
+ * Time: 10:20
+ */
+public class MediaStreamingSupportTest {
+
+    private final LocalFileSystemIOProviderImpl ioProvider = new LocalFileSystemIOProviderImpl();
+
+    private File file;
+    private String etag;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("media", ".txt");
+        Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.US_ASCII));
+        etag = MediaStreamingSupport.etag(10L, file.lastModified());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assertTrue(file.delete());
+    }
+
+    private MockHttpServletResponse serve(final MockHttpServletRequest request) throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(MediaStreamingSupport.serve(request, response, ioProvider, file.getAbsolutePath(), "text/plain", 60));
+        return response;
+    }
+
+    @Test
+    public void testFullContent() throws Exception {
+
+        final MockHttpServletResponse response = serve(new MockHttpServletRequest("GET", "/filevault/media.txt"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("10", response.getHeader("Content-Length"));
+        assertEquals(etag, response.getHeader("ETag"));
+        assertEquals(file.lastModified() / 1000L, response.getDateHeader("Last-Modified") / 1000L);
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("max-age=60", response.getHeader("Cache-Control"));
+        assertEquals("text/plain", response.getContentType());
+
+    }
+
+    @Test
+    public void testHead() throws Exception {
+
+        final MockHttpServletResponse response = serve(new MockHttpServletRequest("HEAD", "/filevault/media.txt"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("10", response.getHeader("Content-Length"));
+        assertEquals(0, response.getContentAsByteArray().length);
+
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+
+        assertFalse(MediaStreamingSupport.serve(new MockHttpServletRequest("GET", "/filevault/none.txt"), new MockHttpServletResponse(),
+                ioProvider, file.getAbsolutePath() + ".none", "text/plain", 60));
+
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+
+        final MockHttpServletRequest ifNoneMatch = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        ifNoneMatch.addHeader("If-None-Match", "\"other\", W/" + etag);
+        assertEquals(304, serve(ifNoneMatch).getStatus());
+
+        final MockHttpServletRequest ifNoneMatchChanged = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        ifNoneMatchChanged.addHeader("If-None-Match", "\"other\"");
+        ifNoneMatchChanged.addHeader("If-Modified-Since", file.lastModified());
+        assertEquals(200, serve(ifNoneMatchChanged).getStatus());
+
+        final MockHttpServletRequest ifModifiedSince = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        ifModifiedSince.addHeader("If-Modified-Since", file.lastModified());
+        assertEquals(304, serve(ifModifiedSince).getStatus());
+
+        final MockHttpServletRequest modifiedSince = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        modifiedSince.addHeader("If-Modified-Since", file.lastModified() - 60000L);
+        assertEquals(200, serve(modifiedSince).getStatus());
+
+    }
+
+    @Test
+    public void testRange() throws Exception {
+
+        final MockHttpServletRequest range = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        range.addHeader("Range", "bytes=2-5");
+        final MockHttpServletResponse partial = serve(range);
+        assertEquals(206, partial.getStatus());
+        assertEquals("2345", partial.getContentAsString());
+        assertEquals("4", partial.getHeader("Content-Length"));
+        assertEquals("bytes 2-5/10", partial.getHeader("Content-Range"));
+
+        final MockHttpServletRequest ifRange = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        ifRange.addHeader("Range", "bytes=-3");
+        ifRange.addHeader("If-Range", etag);
+        assertEquals("789", serve(ifRange).getContentAsString());
+
+        final MockHttpServletRequest ifRangeChanged = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        ifRangeChanged.addHeader("Range", "bytes=-3");
+        ifRangeChanged.addHeader("If-Range", "\"other\"");
+        final MockHttpServletResponse full = serve(ifRangeChanged);
+        assertEquals(200, full.getStatus());
+        assertEquals("0123456789", full.getContentAsString());
+
+        final MockHttpServletRequest unsatisfiable = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        unsatisfiable.addHeader("Range", "bytes=10-");
+        final MockHttpServletResponse notSatisfiable = serve(unsatisfiable);
+        assertEquals(416, notSatisfiable.getStatus());
+        assertEquals("bytes */10", notSatisfiable.getHeader("Content-Range"));
+
+    }
+
+    @Test
+    public void testSendfile() throws Exception {
+
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/filevault/media.txt");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=4-");
+
+        final MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.getAbsolutePath(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(4L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+
+    }
+
+    @Test
+    public void testParseRange() throws Exception {
+
+        assertNull(MediaStreamingSupport.parseRange(null, 10L));
+        assertNull(MediaStreamingSupport.parseRange("items=0-1", 10L));
+        assertNull(MediaStreamingSupport.parseRange("bytes=0-1,3-4", 10L));
+        assertArrayEquals(new long[] { 0L, 0L }, MediaStreamingSupport.parseRange("bytes=0-0", 10L));
+        assertArrayEquals(new long[] { 3L, 9L }, MediaStreamingSupport.parseRange("bytes=3-", 10L));
+        assertArrayEquals(new long[] { 3L, 9L }, MediaStreamingSupport.parseRange("bytes=3-100", 10L));
+        assertArrayEquals(new long[] { 0L, 9L }, MediaStreamingSupport.parseRange("bytes=-100", 10L));
+        assertSame(MediaStreamingSupport.UNSATISFIABLE, MediaStreamingSupport.parseRange("bytes=5-4", 10L));
+        assertSame(MediaStreamingSupport.UNSATISFIABLE, MediaStreamingSupport.parseRange("bytes=-0", 10L));
+        assertSame(MediaStreamingSupport.UNSATISFIABLE, MediaStreamingSupport.parseRange("bytes=a-b", 10L));
+        assertSame(MediaStreamingSupport.UNSATISFIABLE, MediaStreamingSupport.parseRange("bytes=0-1", 0L));
+
+    }
+
+}
@@ -34,6 +34,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -4481,4 +4483,102 @@ public class ProductServiceFacadeImplTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetSkuPricesBatchWithTaxInfoGross() throws Exception {
+
+        final PriceResolver priceResolver = context.mock(PriceResolver.class, "priceResolver");
+        final PricingPolicyProvider pricingPolicyProvider = context.mock(PricingPolicyProvider.class, "pricingPolicyProvider");
+        final ShopService shopService = context.mock(ShopService.class, "shopService");
+        final ShoppingCartCalculator calculator = context.mock(ShoppingCartCalculator.class, "calculator");
+
+        final ShoppingCart cart = context.mock(ShoppingCart.class, "cart");
+        final ShoppingContext cartCtx = context.mock(ShoppingContext.class, "cartCtx");
+        final PricingPolicyProvider.PricingPolicy policy = context.mock(PricingPolicyProvider.PricingPolicy.class, "policy");
+
+        final SkuPrice skuPriceABC = context.mock(SkuPrice.class, "skuPriceABC");
+        final SkuPrice skuPriceABC5 = context.mock(SkuPrice.class, "skuPriceABC5");
+        final SkuPrice skuPriceDEF = context.mock(SkuPrice.class, "skuPriceDEF");
+
+        final Shop shop = context.mock(Shop.class, "shop");
+        final ShoppingCartCalculator.PriceModel priceModelABC = context.mock(ShoppingCartCalculator.PriceModel.class, "priceModelABC");
+        final ShoppingCartCalculator.PriceModel priceModelDEF = context.mock(ShoppingCartCalculator.PriceModel.class, "priceModelDEF");
+
+        context.checking(new Expectations() {{
+            allowing(cart).getShoppingContext(); will(returnValue(cartCtx));
+            allowing(cartCtx).isHidePrices(); will(returnValue(false));
+            allowing(cartCtx).getShopId(); will(returnValue(234L));
+            allowing(cartCtx).getCustomerShopId(); will(returnValue(234L));
+            allowing(cartCtx).getShopCode(); will(returnValue("SHOP10"));
+            allowing(cartCtx).getCountryCode(); will(returnValue("GB"));
+            allowing(cartCtx).getStateCode(); will(returnValue("GB-LON"));
+            allowing(cart).getCustomerEmail(); will(returnValue("bob@doe.com"));
+            allowing(cart).getCurrencyCode(); will(returnValue("EUR"));
+            allowing(pricingPolicyProvider).determinePricingPolicy("SHOP10", "EUR", "bob@doe.com", "GB", "GB-LON"); will(returnValue(policy));
+            allowing(policy).getID(); will(returnValue("P1"));
+            final Map<String, List<SkuPrice>> prices = new HashMap<>();
+            prices.put("ABC", Arrays.asList(skuPriceABC, skuPriceABC5));
+            prices.put("DEF", Collections.singletonList(skuPriceDEF));
+            oneOf(priceResolver).getAllCurrentPrices(Collections.emptyList(), Arrays.asList("ABC", "DEF", "GHI"), 234L, null, "EUR", "P1"); will(returnValue(prices));
+            allowing(skuPriceABC5).getQuantity(); will(returnValue(new BigDecimal("5")));
+            allowing(skuPriceABC5).getSalePriceForCalculation(); will(returnValue(new Pair<>(new BigDecimal("70.00"), null)));
+            allowing(skuPriceABC).getSkuCode(); will(returnValue("ABC"));
+            allowing(skuPriceABC).getQuantity(); will(returnValue(BigDecimal.ONE));
+            allowing(skuPriceABC).isPriceUponRequest(); will(returnValue(false));
+            allowing(skuPriceABC).isPriceOnOffer(); will(returnValue(false));
+            allowing(skuPriceABC).getSalePriceForCalculation(); will(returnValue(new Pair<>(new BigDecimal("100.00"), new BigDecimal("80.00"))));
+            allowing(skuPriceDEF).getSkuCode(); will(returnValue("DEF"));
+            allowing(skuPriceDEF).getQuantity(); will(returnValue(BigDecimal.ONE));
+            allowing(skuPriceDEF).isPriceUponRequest(); will(returnValue(false));
+            allowing(skuPriceDEF).isPriceOnOffer(); will(returnValue(false));
+            allowing(skuPriceDEF).getSalePriceForCalculation(); will(returnValue(new Pair<>(new BigDecimal("100.00"), null)));
+            allowing(shopService).getById(234L); will(returnValue(shop));
+            allowing(cartCtx).isTaxInfoEnabled(); will(returnValue(true));
+            allowing(cartCtx).isTaxInfoUseNet(); will(returnValue(false));
+            allowing(cartCtx).isTaxInfoShowAmount(); will(returnValue(true));
+            oneOf(calculator).calculatePrices(cart, Arrays.asList(new Pair<>("ABC", new BigDecimal("80.00")), new Pair<>("DEF", new BigDecimal("100.00"))));
+            will(returnValue(Arrays.asList(priceModelABC, priceModelDEF)));
+            allowing(priceModelABC).getGrossPrice(); will(returnValue(new BigDecimal("96.00")));
+            allowing(priceModelABC).getTaxCode(); will(returnValue("GROSS"));
+            allowing(priceModelABC).getTaxRate(); will(returnValue(new BigDecimal("20.00")));
+            allowing(priceModelABC).isTaxExclusive(); will(returnValue(true));
+            allowing(priceModelABC).getTaxAmount(); will(returnValue(new BigDecimal("16.00")));
+            allowing(priceModelDEF).getGrossPrice(); will(returnValue(new BigDecimal("120.00")));
+            allowing(priceModelDEF).getTaxCode(); will(returnValue("GROSS"));
+            allowing(priceModelDEF).getTaxRate(); will(returnValue(new BigDecimal("20.00")));
+            allowing(priceModelDEF).isTaxExclusive(); will(returnValue(true));
+            allowing(priceModelDEF).getTaxAmount(); will(returnValue(new BigDecimal("20.00")));
+        }});
+
+        final ProductServiceFacade facade = new ProductServiceFacadeImpl(null, null, null, null, null, null, pricingPolicyProvider, priceResolver, calculator, null, null, shopService, null);
+
+
+        final List<PriceModel> models = facade.getSkuPrices(cart, Arrays.asList("ABC", "DEF", "GHI"), BigDecimal.ONE);
+
+        assertEquals(3, models.size());
+
+        final PriceModel abc = models.get(0);
+        assertEquals("ABC", abc.getRef());
+        assertEquals("EUR", abc.getCurrency());
+        assertEquals("120.00", abc.getRegularPrice().toPlainString());
+        assertEquals("96.00", abc.getSalePrice().toPlainString());
+        assertTrue(abc.isTaxInfoEnabled());
+        assertFalse(abc.isTaxInfoUseNet());
+        assertEquals("16.00", abc.getPriceTax().toPlainString());
+
+        final PriceModel def = models.get(1);
+        assertEquals("DEF", def.getRef());
+        assertEquals("120.00", def.getRegularPrice().toPlainString());
+        assertNull(def.getSalePrice());
+        assertEquals("20.00", def.getPriceTax().toPlainString());
+
+        final PriceModel ghi = models.get(2);
+        assertNull(ghi.getRef());
+        assertEquals("EUR", ghi.getCurrency());
+        assertNull(ghi.getRegularPrice());
+
+        context.assertIsSatisfied();
+
+    }
+
+}